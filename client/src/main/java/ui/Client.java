@@ -10,6 +10,7 @@ import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import json.JsonCodecs;
 import websocket.WebSocketClientManager;
 import websocket.commands.MakeMoveCommand;
 import websocket.commands.UserGameCommand;
@@ -32,6 +33,10 @@ public class Client implements WebSocketClientManager.ClientMessageObserver {
     private String authToken;
     private Integer currentGameId;
     private boolean inGame;
+    private Integer nextGamesCursor;
+    private int listedGames;
+
+    private static final int GAMES_PAGE_SIZE = 10;
 
     public Client(String serverURL) {
         this.serverURL = serverURL;
@@ -147,7 +152,8 @@ public class Client implements WebSocketClientManager.ClientMessageObserver {
                         "Help - Muestra este mensaje de ayuda\n" +
                         "Logout - Cierra la sesión de la cuenta actual\n" +
                         "Create game - Crea un nuevo juego de ajedrez\n" +
-                        "List games - Muestra una lista de todos los juegos disponibles\n" +
+                        "List games - Muestra la primera página de juegos disponibles\n" +
+                        "List more - Muestra la siguiente página de juegos\n" +
                         "Join game - Únete a un juego existente como jugador\n" +
                         "Observe game - Únete a un juego existente como observador");
                 break;
@@ -163,7 +169,9 @@ public class Client implements WebSocketClientManager.ClientMessageObserver {
                 break;
             case "list":
                 if (args.equals("games")) {
-                    listGames();
+                    listGames(false);
+                } else if (args.equals("more")) {
+                    listGames(true);
                 } else {
                     System.out.println(EscapeSequences.SET_TEXT_COLOR_RED + "Comando desconocido. ¿Quizás quisisteis decir 'list games'?" + EscapeSequences.RESET_TEXT_COLOR);
                 }
@@ -239,7 +247,7 @@ public class Client implements WebSocketClientManager.ClientMessageObserver {
         if (response.contains("Error")) {
             System.out.println(response);
         } else {
-            Gson gson = new Gson();
+            Gson gson = JsonCodecs.gson();
             JsonObject jsonResponse = gson.fromJson(response, JsonObject.class);
             this.authToken = jsonResponse.get("authToken").getAsString();
             this.isLoggedIn = true;
@@ -257,7 +265,7 @@ public class Client implements WebSocketClientManager.ClientMessageObserver {
         if (response.contains("Error")) {
             System.out.println(response);
         } else {
-            Gson gson = new Gson();
+            Gson gson = JsonCodecs.gson();
             JsonObject jsonResponse = gson.fromJson(response, JsonObject.class);
             this.authToken = jsonResponse.get("authToken").getAsString();
             this.isLoggedIn = true;
@@ -284,21 +292,31 @@ public class Client implements WebSocketClientManager.ClientMessageObserver {
         if (response.contains("Error")) {
             System.out.println(response);
         } else {
-            Gson gson = new Gson();
+            Gson gson = JsonCodecs.gson();
             JsonObject jsonResponse = gson.fromJson(response, JsonObject.class);
             String gameID = jsonResponse.get("gameID").getAsString();
             System.out.println("Juego '" + gameName + "' creado exitosamente con ID: " + gameID);
         }
     }
 
-    private void listGames() throws IOException {
-        String response = serverFacade.listGames(authToken);
+    private void listGames(boolean nextPage) throws IOException {
+        if (nextPage && nextGamesCursor == null) {
+            System.out.println("No hay más juegos.");
+            return;
+        }
+        Integer cursor = nextPage ? nextGamesCursor : null;
+        String response = serverFacade.listGames(authToken, cursor, GAMES_PAGE_SIZE);
         if (response.contains("Error")) {
             System.out.println(response);
         } else {
-            Gson gson = new Gson();
+            Gson gson = JsonCodecs.gson();
             JsonObject jsonResponse = gson.fromJson(response, JsonObject.class);
             JsonArray gamesArray = jsonResponse.getAsJsonArray("games");
+            nextGamesCursor = jsonResponse.has("nextCursor") && !jsonResponse.get("nextCursor").isJsonNull()
+                    ? jsonResponse.get("nextCursor").getAsInt() : null;
+            if (!nextPage) {
+                listedGames = 0;
+            }
 
             if (gamesArray == null || gamesArray.isEmpty()) {
                 System.out.println("No hay juegos disponibles.");
@@ -306,7 +324,6 @@ public class Client implements WebSocketClientManager.ClientMessageObserver {
             }
 
             System.out.println("--- Juegos Disponibles ---");
-            int i = 1;
             for (JsonElement gameElement : gamesArray) {
                 JsonObject game = gameElement.getAsJsonObject();
                 String gameID = game.get("gameID").getAsString();
@@ -315,7 +332,10 @@ public class Client implements WebSocketClientManager.ClientMessageObserver {
                 String blackUsername = game.has("blackUsername") && !game.get("blackUsername").isJsonNull() ? game.get("blackUsername").getAsString() : "No asignado";
 
                 System.out.printf("%d. ID: %s, Nombre: %s, Blanco: %s, Negro: %s%n",
-                        i++, gameID, gameName, whiteUsername, blackUsername);
+                        ++listedGames, gameID, gameName, whiteUsername, blackUsername);
+            }
+            if (nextGamesCursor != null) {
+                System.out.println("Escribe 'list more' para ver más juegos.");
             }
         }
     }
@@ -1,7 +1,7 @@
 package ui;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import json.JsonCodecs;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -52,7 +52,7 @@ public class ServerFacade {
             conn.setRequestProperty("Authorization", token);
         }
         conn.setDoOutput(true);
-        String jsonInputString = new Gson().toJson(data);
+        String jsonInputString = JsonCodecs.gson().toJson(data);
         try (OutputStream os = conn.getOutputStream()) {
             byte[] input = jsonInputString.getBytes("utf-8");
             os.write(input, 0, input.length);
@@ -68,7 +68,7 @@ public class ServerFacade {
         data.put("password", password);
         String response = sendPostRequest("/session", data);
         if (!response.contains("Error")) {
-            JsonObject jsonResponse = new Gson().fromJson(response, JsonObject.class);
+            JsonObject jsonResponse = JsonCodecs.gson().fromJson(response, JsonObject.class);
             this.authToken = jsonResponse.get("authToken").getAsString(); // ESTABLECE EL AUTH TOKEN AQUÍ
         }
         return response;
@@ -81,7 +81,7 @@ public class ServerFacade {
         data.put("email", email);
         String response = sendPostRequest("/user", data);
         if (!response.contains("Error")) {
-            JsonObject jsonResponse = new Gson().fromJson(response, JsonObject.class);
+            JsonObject jsonResponse = JsonCodecs.gson().fromJson(response, JsonObject.class);
             this.authToken = jsonResponse.get("authToken").getAsString(); // ESTABLECE EL AUTH TOKEN AQUÍ
         }
         return response;
@@ -95,6 +95,15 @@ public class ServerFacade {
         return sendGetRequestWithAuth("/game", authToken);
     }
 
+    // Página de juegos: cursor es el último gameID recibido (null para la primera página)
+    public String listGames(String authToken, Integer cursor, int pageSize) throws IOException {
+        String endpoint = "/game?limit=" + pageSize;
+        if (cursor != null) {
+            endpoint += "&after=" + cursor;
+        }
+        return sendGetRequestWithAuth(endpoint, authToken);
+    }
+
     public String logout(String authToken) throws IOException {
         return sendDeleteRequestWithAuth("/session", authToken);
     }
@@ -124,7 +133,7 @@ public class ServerFacade {
             conn.setRequestProperty("Authorization", token);
         }
         conn.setDoOutput(true);
-        String jsonInputString = new Gson().toJson(data);
+        String jsonInputString = JsonCodecs.gson().toJson(data);
         try (OutputStream os = conn.getOutputStream()) {
             byte[] input = jsonInputString.getBytes("utf-8");
             os.write(input, 0, input.length);
@@ -163,7 +172,7 @@ public class ServerFacade {
 
     // Método auxiliar para convertir Map a JSON
     private String mapToJson(Map<String, String> map) {
-        return new Gson().toJson(map);
+        return JsonCodecs.gson().toJson(map);
     }
 
     // Método para limpiar el estado del servidor (usado en pruebas)
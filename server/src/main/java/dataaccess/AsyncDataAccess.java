@@ -0,0 +1,139 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+import model.UserData;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking facade over a {@link DataAccess}. Every call runs on its own virtual
+ * thread, so while the database is slow it is cheap virtual threads that wait, not
+ * Jetty's HTTP and WebSocket workers. A semaphore sized like the connection pool caps
+ * how many calls run at once; the rest queue on their parked virtual threads instead of
+ * piling up on the pool's acquire timeout.
+ * <p>
+ * A task must not block on another future from the same facade: with every permit
+ * taken by such tasks nothing could make progress.
+ */
+public class AsyncDataAccess implements AutoCloseable {
+
+    public interface Call<T> {
+        T call(DataAccess dataAccess) throws Exception;
+    }
+
+    public interface Task<T> {
+        T run() throws Exception;
+    }
+
+    public record Stats(int maxConcurrency, int running, int waiting, long completed, long failed) {
+    }
+
+    private final DataAccess delegate;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dataaccess-", 0).factory());
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public AsyncDataAccess(DataAccess delegate, int maxConcurrency) {
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    public <T> CompletableFuture<T> call(Call<T> call) {
+        return run(() -> call.call(delegate));
+    }
+
+    /**
+     * Runs blocking code, such as a service method that makes several data access calls,
+     * on a virtual thread under one permit.
+     */
+    public <T> CompletableFuture<T> run(Task<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        waiting.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                waiting.decrementAndGet();
+                failed.incrementAndGet();
+                future.completeExceptionally(e);
+                return;
+            }
+            waiting.decrementAndGet();
+            running.incrementAndGet();
+            try {
+                T result = task.run();
+                completed.incrementAndGet();
+                future.complete(result);
+            } catch (Throwable e) {
+                failed.incrementAndGet();
+                future.completeExceptionally(e);
+            } finally {
+                running.decrementAndGet();
+                permits.release();
+            }
+        });
+        return future;
+    }
+
+    public CompletableFuture<AuthData> getAuth(String authToken) {
+        return call(dataAccess -> dataAccess.getAuth(authToken));
+    }
+
+    public CompletableFuture<UserData> getUser(String username) {
+        return call(dataAccess -> dataAccess.getUser(username));
+    }
+
+    public CompletableFuture<GameData> getGame(int gameID) {
+        return call(dataAccess -> dataAccess.getGame(gameID));
+    }
+
+    public CompletableFuture<Void> updateGame(int gameID, GameData game) {
+        return call(dataAccess -> {
+            dataAccess.updateGame(gameID, game);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Boolean> claimSeat(int gameID, ChessGame.TeamColor color, String username) {
+        return call(dataAccess -> dataAccess.claimSeat(gameID, color, username));
+    }
+
+    public CompletableFuture<Void> appendMove(int gameID, int ply, ChessMove move, ChessGame stateAfter) {
+        return call(dataAccess -> {
+            dataAccess.appendMove(gameID, ply, move, stateAfter);
+            return null;
+        });
+    }
+
+    public CompletableFuture<GameSummary[]> listGameSummaries(int afterGameID, int limit, GameFilter filter) {
+        return call(dataAccess -> dataAccess.listGameSummaries(afterGameID, limit, filter));
+    }
+
+    public Stats stats() {
+        return new Stats(maxConcurrency, running.get(), waiting.get(), completed.get(), failed.get());
+    }
+
+    /**
+     * Stops accepting calls; calls already submitted still run.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
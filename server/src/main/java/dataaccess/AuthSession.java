@@ -0,0 +1,10 @@
+package dataaccess;
+
+import model.AuthData;
+
+/**
+ * An auth token together with when it was issued and when it was last used, both in epoch
+ * milliseconds.
+ */
+public record AuthSession(AuthData auth, long issuedAt, long lastUsedAt) {
+}
@@ -0,0 +1,174 @@
+package dataaccess;
+
+import model.AuthData;
+import model.UserData;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches {@link #getAuth} results so authenticated requests usually skip the database.
+ * Valid tokens are kept for {@code ttlMillis}; unknown tokens are remembered for the
+ * shorter {@code negativeTtlMillis} so repeated bad tokens do not reach the database
+ * either. Logging out and clearing invalidate entries immediately. Deletions made by
+ * another server are only picked up once the entry expires.
+ */
+public class CachingAuthDataAccess extends ForwardingDataAccess {
+
+    public record Config(int maxSize, long ttlMillis, long negativeTtlMillis) {
+
+        public static Config defaults() {
+            return new Config(10_000, 60_000, 5_000);
+        }
+    }
+
+    public record Stats(int size,
+                        int maxSize,
+                        long hits,
+                        long negativeHits,
+                        long misses,
+                        long invalidations,
+                        long evictions,
+                        double hitRatio) {
+    }
+
+    /**
+     * A null {@code auth} marks a token known not to exist.
+     */
+    private record Entry(AuthData auth, long expiresAt) {
+    }
+
+    private final Config config;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Se incrementa en cada invalidación para no guardar lecturas que compitieron con ella
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CachingAuthDataAccess(DataAccess delegate, Config config) {
+        super(delegate);
+        this.config = config;
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        if (authToken == null) {
+            return delegate.getAuth(null);
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(authToken);
+        if (entry != null && entry.expiresAt() > now) {
+            (entry.auth() != null ? hits : negativeHits).incrementAndGet();
+            return entry.auth();
+        }
+
+        misses.incrementAndGet();
+        long seen = generation.get();
+        AuthData auth = delegate.getAuth(authToken);
+        if (generation.get() == seen) {
+            put(authToken, auth, now);
+        }
+        return auth;
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        delegate.createAuth(auth);
+        // Reemplaza cualquier entrada negativa del mismo token
+        put(auth.authToken(), auth, System.currentTimeMillis());
+    }
+
+    @Override
+    public void registerWithToken(UserData user, AuthData auth) throws DataAccessException {
+        delegate.registerWithToken(user, auth);
+        put(auth.authToken(), auth, System.currentTimeMillis());
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        invalidate(authToken);
+        try {
+            delegate.deleteAuth(authToken);
+        } finally {
+            invalidate(authToken);
+        }
+    }
+
+    @Override
+    public void deleteAllAuth() throws DataAccessException {
+        invalidateAll();
+        try {
+            delegate.deleteAllAuth();
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        invalidateAll();
+        try {
+            delegate.clear();
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    public Stats stats() {
+        long found = hits.get();
+        long notFound = negativeHits.get();
+        long lookups = found + notFound + misses.get();
+        double ratio = lookups == 0 ? 0 : (double) (found + notFound) / lookups;
+        return new Stats(entries.size(), config.maxSize(), found, notFound, misses.get(),
+                invalidations.get(), evictions.get(), ratio);
+    }
+
+    private void put(String authToken, AuthData auth, long now) {
+        long ttl = auth != null ? config.ttlMillis() : config.negativeTtlMillis();
+        if (ttl <= 0 || config.maxSize() <= 0) {
+            return;
+        }
+        entries.put(authToken, new Entry(auth, now + ttl));
+        if (entries.size() > config.maxSize()) {
+            evict(now);
+        }
+    }
+
+    /**
+     * Drops expired entries, then arbitrary ones, until the cache is back under its bound.
+     */
+    private void evict(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext() && entries.size() > config.maxSize()) {
+            if (it.next().expiresAt() <= now) {
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+        it = entries.values().iterator();
+        while (it.hasNext() && entries.size() > config.maxSize()) {
+            it.next();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void invalidate(String authToken) {
+        generation.incrementAndGet();
+        if (authToken != null && entries.remove(authToken) != null) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    private void invalidateAll() {
+        generation.incrementAndGet();
+        invalidations.addAndGet(entries.size());
+        entries.clear();
+    }
+}
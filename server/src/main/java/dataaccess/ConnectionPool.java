@@ -0,0 +1,326 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of JDBC connections. Connections handed out by {@link #getConnection()}
+ * are proxies: closing them returns the physical connection to the pool instead of
+ * closing the socket, so callers keep using try-with-resource blocks as before.
+ * <p>
+ * Idle connections are validated before reuse, evicted after sitting idle too long and
+ * retired once they reach their maximum lifetime. Prepared statements are cached per
+ * physical connection by the driver (see {@link #driverProperties}).
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Pool tuning values. Times are in milliseconds.
+     */
+    public record Config(int maxSize,
+                         long acquireTimeoutMillis,
+                         long idleTimeoutMillis,
+                         long maxLifetimeMillis,
+                         long validationIntervalMillis,
+                         int statementCacheSize) {
+
+        public static Config defaults() {
+            return new Config(10, 5_000, 10 * 60_000, 30 * 60_000, 5_000, 250);
+        }
+    }
+
+    /**
+     * Point-in-time view of the pool, exported through the server metrics.
+     */
+    public record Stats(int maxSize,
+                        int active,
+                        int idle,
+                        long acquired,
+                        long acquireTimeouts,
+                        long created,
+                        long destroyed,
+                        double averageAcquireMicros,
+                        long maxAcquireMicros) {
+    }
+
+    private final String url;
+    private final Properties driverProperties;
+    private final String catalog;
+    private final Config config;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final ScheduledExecutorService evictor;
+
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong acquireTimeouts = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong totalAcquireNanos = new AtomicLong();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    // Espera acumulada por hilo, para atribuirla a la operación que pidió la conexión
+    private static final ThreadLocal<long[]> THREAD_ACQUIRE_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String user, String password, String catalog, Config config) {
+        this.url = url;
+        this.catalog = catalog;
+        this.config = config;
+        this.permits = new Semaphore(config.maxSize(), true);
+        this.driverProperties = driverProperties(user, password, config.statementCacheSize());
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1_000, Math.min(config.idleTimeoutMillis(), 30_000));
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Connector/J keeps a per-connection LRU of prepared statements when these are set,
+     * so re-preparing the same SQL on a pooled connection skips the server round trip.
+     */
+    private static Properties driverProperties(String user, String password, int statementCacheSize) {
+        Properties props = new Properties();
+        props.setProperty("user", user);
+        props.setProperty("password", password);
+        if (statementCacheSize > 0) {
+            props.setProperty("cachePrepStmts", "true");
+            props.setProperty("useServerPrepStmts", "true");
+            props.setProperty("prepStmtCacheSize", Integer.toString(statementCacheSize));
+            props.setProperty("prepStmtCacheSqlLimit", "2048");
+        }
+        // lets executeBatch() send one multi-row INSERT instead of a round trip per row
+        props.setProperty("rewriteBatchedStatements", "true");
+        return props;
+    }
+
+    /**
+     * Borrows a connection, waiting up to the configured acquire timeout when the pool is
+     * exhausted. The returned connection must be closed to give it back.
+     */
+    public Connection getConnection() throws DataAccessException {
+        if (closed) {
+            throw new DataAccessException("connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.acquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                acquireTimeouts.incrementAndGet();
+                throw new DataAccessException("timed out waiting for a database connection");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("interrupted waiting for a database connection", ex);
+        }
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = open();
+            }
+            recordAcquire(System.nanoTime() - start);
+            return pooled.lease();
+        } catch (DataAccessException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Total time the calling thread has spent acquiring connections, in nanoseconds. Callers
+     * read it before and after an operation to learn how much of it was spent waiting.
+     */
+    public static long threadAcquireNanos() {
+        return THREAD_ACQUIRE_NANOS.get()[0];
+    }
+
+    public Stats stats() {
+        long count = acquired.get();
+        int idleCount = idle.size();
+        int active = config.maxSize() - permits.availablePermits();
+        double average = count == 0 ? 0 : totalAcquireNanos.get() / 1_000.0 / count;
+        return new Stats(config.maxSize(), active, idleCount, count, acquireTimeouts.get(),
+                created.get(), destroyed.get(), average, maxAcquireNanos.get() / 1_000);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            pooled.destroy();
+        }
+    }
+
+    private PooledConnection takeIdle() {
+        long now = System.currentTimeMillis();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (pooled.isExpired(now) || !pooled.validate(now)) {
+                pooled.destroy();
+                continue;
+            }
+            return pooled;
+        }
+        return null;
+    }
+
+    private PooledConnection open() throws DataAccessException {
+        try {
+            Connection physical = DriverManager.getConnection(url, driverProperties);
+            if (catalog != null) {
+                physical.setCatalog(catalog);
+            }
+            created.incrementAndGet();
+            return new PooledConnection(physical);
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to get connection", ex);
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        try {
+            if (closed || pooled.isExpired(System.currentTimeMillis()) || !pooled.reset()) {
+                pooled.destroy();
+            } else {
+                // LIFO keeps the hottest connections busy and lets the rest age out
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext()) {
+            PooledConnection pooled = it.next();
+            if ((pooled.isExpired(now) || now - pooled.lastReturned >= config.idleTimeoutMillis())
+                    && idle.removeFirstOccurrence(pooled)) {
+                pooled.destroy();
+            }
+        }
+    }
+
+    private void recordAcquire(long nanos) {
+        acquired.incrementAndGet();
+        totalAcquireNanos.addAndGet(nanos);
+        maxAcquireNanos.accumulateAndGet(nanos, Math::max);
+        THREAD_ACQUIRE_NANOS.get()[0] += nanos;
+    }
+
+    private final class PooledConnection implements InvocationHandler {
+        private final Connection physical;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastReturned = createdAt;
+        private volatile long lastValidated = createdAt;
+        private volatile Connection lease;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        private Connection lease() {
+            Connection proxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+            lease = proxy;
+            return proxy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                if (lease == proxy) {
+                    lease = null;
+                    lastReturned = System.currentTimeMillis();
+                    release(this);
+                }
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return lease != proxy || physical.isClosed();
+            }
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (name.equals("toString")) {
+                return "Pooled" + physical;
+            }
+            if (lease != proxy) {
+                throw new SQLException("connection has been returned to the pool");
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        private boolean isExpired(long now) {
+            return now - createdAt >= config.maxLifetimeMillis();
+        }
+
+        private boolean validate(long now) {
+            if (now - lastValidated < config.validationIntervalMillis()) {
+                return true;
+            }
+            try {
+                boolean valid = physical.isValid(2);
+                lastValidated = now;
+                return valid;
+            } catch (SQLException ex) {
+                return false;
+            }
+        }
+
+        private boolean reset() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                if (catalog != null && !catalog.equals(physical.getCatalog())) {
+                    physical.setCatalog(catalog);
+                }
+                return true;
+            } catch (SQLException ex) {
+                return false;
+            }
+        }
+
+        private void destroy() {
+            destroyed.incrementAndGet();
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // the connection is being discarded either way
+            }
+        }
+    }
+}
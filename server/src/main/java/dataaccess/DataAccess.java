@@ -1,23 +1,185 @@
 package dataaccess;
 
+import chess.ChessGame;
+import chess.ChessMove;
 import model.AuthData;
 import model.GameData;
+import model.GameSummary;
 import model.UserData;
 import service.Results.Result;
 
+import java.util.List;
+
 public interface DataAccess {
 
+    int SNAPSHOT_INTERVAL = 16;
+
     UserData getUser(String username) throws DataAccessException;
     void createUser(UserData user) throws DataAccessException;
 
+    /**
+     * Stores a new user together with its first auth token: either both are written or
+     * neither is. A taken username fails with "Username already exists", detected by the
+     * insert itself rather than by reading the user first.
+     */
+    default void registerWithToken(UserData user, AuthData auth) throws DataAccessException {
+        createUser(user);
+        createAuth(auth);
+    }
+
     AuthData getAuth(String authToken) throws DataAccessException;
     void createAuth(AuthData auth) throws DataAccessException;
     void deleteAuth(String authToken) throws DataAccessException;
 
+    /**
+     * @return the token with its issue and last-use times, or null if it does not exist
+     */
+    AuthSession getAuthSession(String authToken) throws DataAccessException;
+
+    /**
+     * Moves the token's last-use time forward. Does nothing if the token no longer exists.
+     */
+    void touchAuth(String authToken, long lastUsedAt) throws DataAccessException;
+
+    /**
+     * Deletes at most {@code limit} tokens issued before {@code issuedBefore} or last used
+     * before {@code lastUsedBefore}. Callers repeat it while it returns {@code limit}, so
+     * no single call holds locks for long.
+     *
+     * @return how many tokens were deleted
+     */
+    int deleteExpiredAuth(long issuedBefore, long lastUsedBefore, int limit) throws DataAccessException;
+
+    long countAuth() throws DataAccessException;
+
     GameData getGame(int gameID) throws DataAccessException;
     int createGame(GameData game) throws DataAccessException; // MODIFICADO: Ahora devuelve el gameID generado
     void updateGame(int gameID, GameData game) throws DataAccessException;
+
+    /**
+     * Creates several games at once, for bulk imports. Implementations may insert them
+     * together, for example as one JDBC batch in a single transaction.
+     *
+     * @return the generated game IDs, in the order of {@code games}
+     */
+    default int[] createGames(List<GameData> games) throws DataAccessException {
+        int[] gameIDs = new int[games.size()];
+        for (int i = 0; i < gameIDs.length; i++) {
+            gameIDs[i] = createGame(games.get(i));
+        }
+        return gameIDs;
+    }
+
+    /**
+     * @return the game and its current version, or null if it does not exist
+     */
+    VersionedGame getVersionedGame(int gameID) throws DataAccessException;
+
+    /**
+     * Compare-and-set update: writes {@code game} only if the row is still at
+     * {@code expectedVersion}, and then moves it to {@code expectedVersion + 1}.
+     *
+     * @return false if another writer changed the game first; the caller should reload it
+     * and retry
+     */
+    boolean updateGameIfVersion(int gameID, long expectedVersion, GameData game) throws DataAccessException;
+
+    /**
+     * Atomically takes an empty seat, so two players joining at once cannot both get it.
+     *
+     * @return true if the seat is now held by {@code username} (including when it already
+     * was), false if another player holds it
+     */
+    boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException;
+
+    /**
+     * Appends one move to the game's move log instead of rewriting the whole game.
+     * Every {@link #SNAPSHOT_INTERVAL} plies the resulting board is stored as a snapshot
+     * so loading a game only replays the moves after the latest one.
+     *
+     * @param ply        the ply number of this move, starting at 1; any ply other than the
+     *                   one after the last logged move fails with "Move conflict"
+     * @param stateAfter the game after the move was applied; may be null on plies that take
+     *                   no snapshot and do not end the game
+     */
+    void appendMove(int gameID, int ply, ChessMove move, ChessGame stateAfter) throws DataAccessException;
+
+    /**
+     * @return the logged moves with a ply greater than {@code afterPly} and at most
+     * {@code uptoPly}, in the order they were played
+     */
+    List<ChessMove> getMoves(int gameID, int afterPly, int uptoPly) throws DataAccessException;
+
+    /**
+     * @return the latest snapshot taken at or before {@code ply}, or null if the game has
+     * none (replay then starts from the initial position)
+     */
+    ChessGame getSnapshot(int gameID, int ply) throws DataAccessException;
+
+    /**
+     * Applies queued game writes in order. Implementations may send them together, for
+     * example as JDBC batches in a single transaction.
+     */
+    default void applyGameWrites(List<GameWrite> writes) throws DataAccessException {
+        for (GameWrite write : writes) {
+            write.applyTo(this);
+        }
+    }
+
+    /**
+     * Creates games together with their move logs, for bulk imports. Transactional stores
+     * write everything or nothing, so a failed import leaves no game without its moves; the
+     * default creates the games and then applies the moves.
+     *
+     * @param moves for each game, its moves from ply 1; the game IDs of the writes are
+     *              ignored, and {@code stateAfter} is only needed every
+     *              {@link #SNAPSHOT_INTERVAL} plies and on the last move
+     * @return the generated game IDs, in the order of {@code games}
+     */
+    default int[] createGamesWithMoves(List<GameData> games, List<List<GameWrite.MoveWrite>> moves)
+            throws DataAccessException {
+        int[] gameIDs = createGames(games);
+        applyGameWrites(GameWrite.forGames(gameIDs, moves));
+        return gameIDs;
+    }
+
     GameData[] getAllGames() throws DataAccessException;
+    GameSummary[] listGameSummaries() throws DataAccessException;
+
+    /**
+     * Keyset page of games ordered by ID.
+     *
+     * @param afterGameID only games with an ID greater than this cursor (0 for the first page)
+     * @param limit       maximum number of games returned
+     */
+    GameSummary[] listGameSummaries(int afterGameID, int limit, GameFilter filter) throws DataAccessException;
+
+    /**
+     * Every game the user plays either color in, ordered by ID.
+     */
+    default GameSummary[] getGamesForUser(String username) throws DataAccessException {
+        return listGameSummaries(0, Integer.MAX_VALUE, new GameFilter(false, username));
+    }
+
+    /**
+     * @return how many games the user plays in that have not finished
+     */
+    int countActiveGamesForUser(String username) throws DataAccessException;
+
+    /**
+     * @return the IDs of up to {@code limit} games that have not finished, newest first
+     */
+    int[] listUnfinishedGameIDs(int limit) throws DataAccessException;
+
+    /**
+     * Moves up to {@code limit} games that finished before {@code finishedBefore} out of the
+     * live tables into compressed archive storage. Archived games are still returned by
+     * {@link #getGame}, {@link #getVersionedGame}, {@link #getMoves} and the summary listings,
+     * but no longer by {@link #getAllGames}, and can no longer be changed.
+     *
+     * @return how many games were archived
+     */
+    int archiveFinishedGames(long finishedBefore, int limit) throws DataAccessException;
 
 
     void clear() throws DataAccessException;
@@ -26,5 +188,24 @@ public interface DataAccess {
     void deleteAllAuth() throws DataAccessException;
     void deleteAllGames() throws DataAccessException;
 
-    boolean isObserver(int gameID, String username) throws DataAccessException;
+    /**
+     * Records that the user takes part in the game, or changes their role if they already do.
+     */
+    void addParticipant(int gameID, String username, Participant.Role role) throws DataAccessException;
+
+    void removeParticipant(int gameID, String username) throws DataAccessException;
+
+    /**
+     * @return the user's role in the game, or null if they do not take part in it
+     */
+    Participant.Role getParticipantRole(int gameID, String username) throws DataAccessException;
+
+    List<Participant> getParticipants(int gameID) throws DataAccessException;
+
+    /**
+     * Answered from the participants alone, without loading the game.
+     */
+    default boolean isObserver(int gameID, String username) throws DataAccessException {
+        return getParticipantRole(gameID, username) == Participant.Role.OBSERVER;
+    }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package dataaccess;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 public class DatabaseManager {
@@ -8,6 +10,9 @@ public class DatabaseManager {
     private static String dbUsername;
     private static String dbPassword;
     private static String connectionUrl;
+    private static ConnectionPool.Config poolConfig;
+    private static ConnectionPool pool;
+    private static Properties properties;
 
     /*
      * Load the database information for the db.properties file.
@@ -20,7 +25,14 @@ public class DatabaseManager {
      * Creates the database if it does not already exist.
      */
     static public void createDatabase() throws DataAccessException {
-        var statement = "CREATE DATABASE IF NOT EXISTS " + databaseName;
+        createDatabase(databaseName);
+    }
+
+    /**
+     * Creates another database on the same server, such as a shard, if it does not exist.
+     */
+    static public void createDatabase(String name) throws DataAccessException {
+        var statement = "CREATE DATABASE IF NOT EXISTS " + name;
         try (var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
              var preparedStatement = conn.prepareStatement(statement)) {
             preparedStatement.executeUpdate();
@@ -30,9 +42,10 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
+     * Borrow a connection from the pool. Its catalog is set based upon the
      * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
+     * be short-lived, and you must close the connection when you are done with it
+     * so that it goes back to the pool.
      * The easiest way to do that is with a try-with-resource block.
      * <br/>
      * <code>
@@ -42,14 +55,68 @@ public class DatabaseManager {
      * </code>
      */
     static Connection getConnection() throws DataAccessException {
-        try {
-            //do not wrap the following line with a try-with-resources
-            var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-            conn.setCatalog(databaseName);
-            return conn;
-        } catch (SQLException ex) {
-            throw new DataAccessException("failed to get connection", ex);
+        //do not wrap the following line with a try-with-resources
+        return pool().getConnection();
+    }
+
+    /**
+     * Opens a separate pool on the same server whose connections use {@code catalog}. The
+     * caller owns the pool and must close it.
+     */
+    static public ConnectionPool openPool(String catalog) {
+        return new ConnectionPool(connectionUrl, dbUsername, dbPassword, catalog, poolConfig);
+    }
+
+    /**
+     * Opens a pool to a read replica of the main database at {@code hostAndPort}, with the
+     * same credentials and pool settings. The caller owns the pool and must close it.
+     */
+    static public ConnectionPool openReplicaPool(String hostAndPort) {
+        return new ConnectionPool("jdbc:mysql://" + hostAndPort, dbUsername, dbPassword, databaseName, poolConfig);
+    }
+
+    /**
+     * Replica servers listed in db.replicas as comma-separated host:port pairs, or an empty
+     * list when reads all go to the primary.
+     */
+    static public List<String> replicaHosts() {
+        List<String> hosts = new ArrayList<>();
+        for (String host : getProperty("db.replicas", "").split(",")) {
+            if (!host.isBlank()) {
+                hosts.add(host.trim());
+            }
         }
+        return hosts;
+    }
+
+    /**
+     * Current connection pool counters, or null if no connection has been requested yet.
+     */
+    static public ConnectionPool.Stats poolStats() {
+        synchronized (DatabaseManager.class) {
+            return pool != null ? pool.stats() : null;
+        }
+    }
+
+    /**
+     * Largest number of connections the pool will open.
+     */
+    static public int poolMaxSize() {
+        return poolConfig.maxSize();
+    }
+
+    /**
+     * Reads an optional tuning value from db.properties.
+     */
+    static public String getProperty(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue).trim();
+    }
+
+    private static synchronized ConnectionPool pool() {
+        if (pool == null) {
+            pool = new ConnectionPool(connectionUrl, dbUsername, dbPassword, databaseName, poolConfig);
+        }
+        return pool;
     }
 
     private static void loadPropertiesFromResources() {
@@ -66,6 +133,7 @@ public class DatabaseManager {
     }
 
     private static void loadProperties(Properties props) {
+        properties = props;
         databaseName = props.getProperty("db.name");
         dbUsername = props.getProperty("db.user");
         dbPassword = props.getProperty("db.password");
@@ -73,5 +141,24 @@ public class DatabaseManager {
         var host = props.getProperty("db.host");
         var port = Integer.parseInt(props.getProperty("db.port"));
         connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+
+        var defaults = ConnectionPool.Config.defaults();
+        poolConfig = new ConnectionPool.Config(
+                intProperty(props, "db.pool.maxSize", defaults.maxSize()),
+                longProperty(props, "db.pool.acquireTimeoutMillis", defaults.acquireTimeoutMillis()),
+                longProperty(props, "db.pool.idleTimeoutMillis", defaults.idleTimeoutMillis()),
+                longProperty(props, "db.pool.maxLifetimeMillis", defaults.maxLifetimeMillis()),
+                longProperty(props, "db.pool.validationIntervalMillis", defaults.validationIntervalMillis()),
+                intProperty(props, "db.pool.statementCacheSize", defaults.statementCacheSize()));
+    }
+
+    private static int intProperty(Properties props, String key, int defaultValue) {
+        var value = props.getProperty(key);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    private static long longProperty(Properties props, String key, long defaultValue) {
+        var value = props.getProperty(key);
+        return value != null ? Long.parseLong(value.trim()) : defaultValue;
     }
 }
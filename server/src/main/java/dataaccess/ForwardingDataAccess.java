@@ -0,0 +1,209 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+import model.UserData;
+
+import java.util.List;
+
+/**
+ * Base class for decorators: forwards every call to the wrapped {@link DataAccess} so
+ * subclasses only override the methods they change.
+ */
+public abstract class ForwardingDataAccess implements DataAccess {
+
+    protected final DataAccess delegate;
+
+    protected ForwardingDataAccess(DataAccess delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public UserData getUser(String username) throws DataAccessException {
+        return delegate.getUser(username);
+    }
+
+    @Override
+    public void createUser(UserData user) throws DataAccessException {
+        delegate.createUser(user);
+    }
+
+    @Override
+    public void registerWithToken(UserData user, AuthData auth) throws DataAccessException {
+        delegate.registerWithToken(user, auth);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        return delegate.getAuth(authToken);
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        delegate.createAuth(auth);
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        delegate.deleteAuth(authToken);
+    }
+
+    @Override
+    public AuthSession getAuthSession(String authToken) throws DataAccessException {
+        return delegate.getAuthSession(authToken);
+    }
+
+    @Override
+    public void touchAuth(String authToken, long lastUsedAt) throws DataAccessException {
+        delegate.touchAuth(authToken, lastUsedAt);
+    }
+
+    @Override
+    public int deleteExpiredAuth(long issuedBefore, long lastUsedBefore, int limit) throws DataAccessException {
+        return delegate.deleteExpiredAuth(issuedBefore, lastUsedBefore, limit);
+    }
+
+    @Override
+    public long countAuth() throws DataAccessException {
+        return delegate.countAuth();
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        return delegate.getGame(gameID);
+    }
+
+    @Override
+    public int createGame(GameData game) throws DataAccessException {
+        return delegate.createGame(game);
+    }
+
+    @Override
+    public int[] createGames(List<GameData> games) throws DataAccessException {
+        return delegate.createGames(games);
+    }
+
+    @Override
+    public int[] createGamesWithMoves(List<GameData> games, List<List<GameWrite.MoveWrite>> moves)
+            throws DataAccessException {
+        return delegate.createGamesWithMoves(games, moves);
+    }
+
+    @Override
+    public void updateGame(int gameID, GameData game) throws DataAccessException {
+        delegate.updateGame(gameID, game);
+    }
+
+    @Override
+    public VersionedGame getVersionedGame(int gameID) throws DataAccessException {
+        return delegate.getVersionedGame(gameID);
+    }
+
+    @Override
+    public boolean updateGameIfVersion(int gameID, long expectedVersion, GameData game) throws DataAccessException {
+        return delegate.updateGameIfVersion(gameID, expectedVersion, game);
+    }
+
+    @Override
+    public boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        return delegate.claimSeat(gameID, color, username);
+    }
+
+    @Override
+    public void appendMove(int gameID, int ply, ChessMove move, ChessGame stateAfter) throws DataAccessException {
+        delegate.appendMove(gameID, ply, move, stateAfter);
+    }
+
+    @Override
+    public List<ChessMove> getMoves(int gameID, int afterPly, int uptoPly) throws DataAccessException {
+        return delegate.getMoves(gameID, afterPly, uptoPly);
+    }
+
+    @Override
+    public ChessGame getSnapshot(int gameID, int ply) throws DataAccessException {
+        return delegate.getSnapshot(gameID, ply);
+    }
+
+    @Override
+    public void applyGameWrites(List<GameWrite> writes) throws DataAccessException {
+        delegate.applyGameWrites(writes);
+    }
+
+    @Override
+    public GameData[] getAllGames() throws DataAccessException {
+        return delegate.getAllGames();
+    }
+
+    @Override
+    public GameSummary[] listGameSummaries() throws DataAccessException {
+        return delegate.listGameSummaries();
+    }
+
+    @Override
+    public GameSummary[] listGameSummaries(int afterGameID, int limit, GameFilter filter) throws DataAccessException {
+        return delegate.listGameSummaries(afterGameID, limit, filter);
+    }
+
+    @Override
+    public GameSummary[] getGamesForUser(String username) throws DataAccessException {
+        return delegate.getGamesForUser(username);
+    }
+
+    @Override
+    public int countActiveGamesForUser(String username) throws DataAccessException {
+        return delegate.countActiveGamesForUser(username);
+    }
+
+    @Override
+    public int[] listUnfinishedGameIDs(int limit) throws DataAccessException {
+        return delegate.listUnfinishedGameIDs(limit);
+    }
+
+    @Override
+    public int archiveFinishedGames(long finishedBefore, int limit) throws DataAccessException {
+        return delegate.archiveFinishedGames(finishedBefore, limit);
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        delegate.clear();
+    }
+
+    @Override
+    public void deleteAllUsers() throws DataAccessException {
+        delegate.deleteAllUsers();
+    }
+
+    @Override
+    public void deleteAllAuth() throws DataAccessException {
+        delegate.deleteAllAuth();
+    }
+
+    @Override
+    public void deleteAllGames() throws DataAccessException {
+        delegate.deleteAllGames();
+    }
+
+    @Override
+    public void addParticipant(int gameID, String username, Participant.Role role) throws DataAccessException {
+        delegate.addParticipant(gameID, username, role);
+    }
+
+    @Override
+    public void removeParticipant(int gameID, String username) throws DataAccessException {
+        delegate.removeParticipant(gameID, username);
+    }
+
+    @Override
+    public Participant.Role getParticipantRole(int gameID, String username) throws DataAccessException {
+        return delegate.getParticipantRole(gameID, username);
+    }
+
+    @Override
+    public List<Participant> getParticipants(int gameID) throws DataAccessException {
+        return delegate.getParticipants(gameID);
+    }
+}
@@ -0,0 +1,133 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encoding of a finished game for the archive. Snapshots are not kept, since replaying an
+ * archived game starts from moves already held in memory.
+ * <p>
+ * A game whose move log replays from the starting position to its final position is
+ * stored as that log alone, by {@link MoveSequenceCodec}:
+ * <pre>
+ * byte 0        format version 2
+ * byte 1        flags: game over (bit 0)
+ * ...           the moves, as written by {@link MoveSequenceCodec#encode(List)}
+ * </pre>
+ * Any other game, such as one whose position was set by hand, keeps version 1: its final
+ * position and its whole move log, deflated together. Layout before compression:
+ * <pre>
+ * byte 0        format version 1
+ * bytes 1-2     length of the encoded position, unsigned big-endian
+ * ...           the position, as written by {@link GameStateCodec#encode(ChessGame)}
+ * 4 bytes       number of moves
+ * 2 bytes each  the moves, as written by {@link GameStateCodec#encodeMove(ChessMove)}
+ * </pre>
+ * Version 2 archives are not deflated; a deflate stream never starts with byte 2, so the
+ * first byte tells the formats apart.
+ */
+public final class GameArchiveCodec {
+
+    public static final byte VERSION_1 = 1;
+    public static final byte VERSION_2 = 2;
+
+    private static final int FLAG_GAME_OVER = 1;
+
+    public record Contents(ChessGame game, List<ChessMove> moves) {
+    }
+
+    private GameArchiveCodec() {
+    }
+
+    public static byte[] encode(ChessGame game, List<ChessMove> moves) {
+        byte[] sequence = MoveSequenceCodec.encodeReaching(moves, game);
+        if (sequence != null) {
+            byte[] data = new byte[2 + sequence.length];
+            data[0] = VERSION_2;
+            data[1] = (byte) (game.isGameOver() ? FLAG_GAME_OVER : 0);
+            System.arraycopy(sequence, 0, data, 2, sequence.length);
+            return data;
+        }
+
+        byte[] state = GameStateCodec.encode(game);
+        ByteBuffer raw = ByteBuffer.allocate(1 + 2 + state.length + 4 + 2 * moves.size());
+        raw.put(VERSION_1).putShort((short) state.length).put(state).putInt(moves.size());
+        for (ChessMove move : moves) {
+            raw.putShort((short) GameStateCodec.encodeMove(move));
+        }
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw.array());
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.capacity() / 2 + 16);
+            byte[] buffer = new byte[256];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static Contents decode(byte[] data) throws DataAccessException {
+        if (data.length > 0 && data[0] == VERSION_2) {
+            if (data.length < 2) {
+                throw new DataAccessException("truncated archive");
+            }
+            MoveSequenceCodec.Replay replay =
+                    MoveSequenceCodec.decode(Arrays.copyOfRange(data, 2, data.length));
+            replay.game().setGameOver((data[1] & FLAG_GAME_OVER) != 0);
+            return new Contents(replay.game(), replay.moves());
+        }
+
+        ByteBuffer raw = ByteBuffer.wrap(inflate(data));
+        try {
+            byte version = raw.get();
+            if (version != VERSION_1) {
+                throw new DataAccessException("unsupported archive version " + version);
+            }
+            byte[] state = new byte[raw.getShort() & 0xFFFF];
+            raw.get(state);
+            int count = raw.getInt();
+            List<ChessMove> moves = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                moves.add(GameStateCodec.decodeMove(raw.getShort() & 0xFFFF));
+            }
+            return new Contents(GameStateCodec.decode(state), moves);
+        } catch (RuntimeException e) {
+            throw new DataAccessException("truncated archive " + e.getMessage());
+        }
+    }
+
+    private static byte[] inflate(byte[] data) throws DataAccessException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 2 + 16);
+            byte[] buffer = new byte[256];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataAccessException("truncated archive");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new DataAccessException("corrupt archive " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package dataaccess;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Periodically moves games that have been over for longer than {@code graceMillis} into
+ * archive storage through {@link DataAccess#archiveFinishedGames}, {@code batchSize} games
+ * at a time, so the live games table only holds games still being played or recently over.
+ */
+public class GameArchiver implements AutoCloseable {
+
+    public record Config(long graceMillis, long intervalMillis, int batchSize) {
+
+        public static Config defaults() {
+            return new Config(TimeUnit.HOURS.toMillis(24), TimeUnit.MINUTES.toMillis(5), 100);
+        }
+    }
+
+    public record Stats(long runs, long archivedGames, long lastRunMillis, long lastRunGames) {
+    }
+
+    private final DataAccess dataAccess;
+    private final Config config;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong archivedGames = new AtomicLong();
+    private volatile long lastRunMillis;
+    private volatile long lastRunGames;
+
+    public GameArchiver(DataAccess dataAccess, Config config) {
+        this(dataAccess, config, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock the current time in epoch milliseconds
+     */
+    public GameArchiver(DataAccess dataAccess, Config config, LongSupplier clock) {
+        this.dataAccess = dataAccess;
+        this.config = config;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "game-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::archiveQuietly, config.intervalMillis(),
+                config.intervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Archives every game past its grace period, one batch at a time.
+     *
+     * @return how many games were archived
+     */
+    public int archive() throws DataAccessException {
+        long start = System.nanoTime();
+        long finishedBefore = clock.getAsLong() - config.graceMillis();
+        int total = 0;
+        int archived;
+        do {
+            archived = dataAccess.archiveFinishedGames(finishedBefore, config.batchSize());
+            total += archived;
+        } while (archived >= config.batchSize() && !scheduler.isShutdown());
+
+        runs.incrementAndGet();
+        archivedGames.addAndGet(total);
+        lastRunMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastRunGames = total;
+        return total;
+    }
+
+    public Stats stats() {
+        return new Stats(runs.get(), archivedGames.get(), lastRunMillis, lastRunGames);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void archiveQuietly() {
+        try {
+            archive();
+        } catch (DataAccessException e) {
+            System.err.println("Error al archivar partidas: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package dataaccess;
+
+/**
+ * Optional restrictions for paged game listings.
+ *
+ * @param openSeatsOnly only games with at least one free seat
+ * @param player        only games where this user plays either color, or null for any
+ */
+public record GameFilter(boolean openSeatsOnly, String player) {
+
+    public static final GameFilter NONE = new GameFilter(false, null);
+
+    public boolean matches(String whiteUsername, String blackUsername) {
+        if (openSeatsOnly && whiteUsername != null && blackUsername != null) {
+            return false;
+        }
+        return player == null || player.equals(whiteUsername) || player.equals(blackUsername);
+    }
+}
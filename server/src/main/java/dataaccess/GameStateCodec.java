@@ -0,0 +1,148 @@
+package dataaccess;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Compact binary encoding of a {@link ChessGame} for the games table.
+ * <p>
+ * Version 2 layout (36 bytes):
+ * <pre>
+ * byte 0      format version
+ * byte 1      flags: bit 0 = black to move, bit 1 = game over
+ * bytes 2-3   ply (half-moves played), unsigned big-endian
+ * bytes 4-35  board, one nibble per square (a1, b1 ... h8), high nibble first
+ * </pre>
+ * A nibble of 0 is an empty square; 1-6 are white pieces and 9-14 black pieces,
+ * numbered by {@link ChessPiece.PieceType} ordinal plus one. Version 1 is the same
+ * without the ply field and is still accepted by {@link #decode(byte[])}.
+ * <p>
+ * Single moves for the move log are packed into 16 bits by {@link #encodeMove(ChessMove)}.
+ */
+public final class GameStateCodec {
+
+    public static final byte VERSION_1 = 1;
+    public static final byte VERSION_2 = 2;
+
+    private static final int BOARD_SIZE = 32;
+    private static final int FLAG_BLACK_TO_MOVE = 1;
+    private static final int FLAG_GAME_OVER = 1 << 1;
+    private static final int BLACK_BIT = 8;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private GameStateCodec() {
+    }
+
+    public static byte[] encode(ChessGame game) {
+        int header = headerSize(VERSION_2);
+        byte[] out = new byte[header + BOARD_SIZE];
+        out[0] = VERSION_2;
+        int flags = 0;
+        if (game.getTeamTurn() == ChessGame.TeamColor.BLACK) {
+            flags |= FLAG_BLACK_TO_MOVE;
+        }
+        if (game.isGameOver()) {
+            flags |= FLAG_GAME_OVER;
+        }
+        out[1] = (byte) flags;
+        int ply = Math.min(game.getPly(), 0xFFFF);
+        out[2] = (byte) (ply >>> 8);
+        out[3] = (byte) ply;
+
+        ChessBoard board = game.getBoard();
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(position(square));
+            int nibble = pieceToNibble(piece);
+            int index = header + square / 2;
+            out[index] |= (byte) ((square & 1) == 0 ? nibble << 4 : nibble);
+        }
+        return out;
+    }
+
+    public static ChessGame decode(byte[] data) throws DataAccessException {
+        if (data == null || data.length == 0) {
+            throw new DataAccessException("empty game state");
+        }
+        byte version = data[0];
+        if (version != VERSION_1 && version != VERSION_2) {
+            throw new DataAccessException("unsupported game state version " + version);
+        }
+        int header = headerSize(version);
+        if (data.length < header + BOARD_SIZE) {
+            throw new DataAccessException("truncated game state");
+        }
+
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            int packed = data[header + square / 2] & 0xFF;
+            int nibble = (square & 1) == 0 ? packed >>> 4 : packed & 0x0F;
+            if (nibble != 0) {
+                board.addPiece(position(square), nibbleToPiece(nibble));
+            }
+        }
+
+        int flags = data[1];
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn((flags & FLAG_BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        game.setGameOver((flags & FLAG_GAME_OVER) != 0);
+        if (version >= VERSION_2) {
+            game.setPly(((data[2] & 0xFF) << 8) | (data[3] & 0xFF));
+        }
+        return game;
+    }
+
+    /**
+     * Packs a move as from-square (bits 0-5), to-square (bits 6-11) and promotion
+     * piece (bits 12-14, 0 for none).
+     */
+    public static int encodeMove(ChessMove move) {
+        int from = square(move.getStartPosition());
+        int to = square(move.getEndPosition());
+        int promotion = move.getPromotionPiece() == null ? 0 : move.getPromotionPiece().ordinal() + 1;
+        return from | (to << 6) | (promotion << 12);
+    }
+
+    public static ChessMove decodeMove(int encoded) throws DataAccessException {
+        int from = encoded & 0x3F;
+        int to = (encoded >>> 6) & 0x3F;
+        int promotion = (encoded >>> 12) & 0x7;
+        if (promotion > TYPES.length) {
+            throw new DataAccessException("corrupt move: bad promotion code " + promotion);
+        }
+        return new ChessMove(position(from), position(to), promotion == 0 ? null : TYPES[promotion - 1]);
+    }
+
+    private static int headerSize(byte version) {
+        return version == VERSION_1 ? 2 : 4;
+    }
+
+    private static int square(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + position.getColumn() - 1;
+    }
+
+    private static ChessPosition position(int square) {
+        return new ChessPosition(square / 8 + 1, square % 8 + 1);
+    }
+
+    private static int pieceToNibble(ChessPiece piece) {
+        if (piece == null) {
+            return 0;
+        }
+        int nibble = piece.getPieceType().ordinal() + 1;
+        return piece.getTeamColor() == ChessGame.TeamColor.BLACK ? nibble | BLACK_BIT : nibble;
+    }
+
+    private static ChessPiece nibbleToPiece(int nibble) throws DataAccessException {
+        int type = (nibble & ~BLACK_BIT) - 1;
+        if (type < 0 || type >= TYPES.length) {
+            throw new DataAccessException("corrupt game state: bad piece code " + nibble);
+        }
+        ChessGame.TeamColor color = (nibble & BLACK_BIT) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        return new ChessPiece(color, TYPES[type]);
+    }
+}
@@ -0,0 +1,45 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.GameData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A deferred game mutation, applied later through {@link DataAccess#applyGameWrites}.
+ */
+public sealed interface GameWrite {
+
+    int gameID();
+
+    void applyTo(DataAccess dataAccess) throws DataAccessException;
+
+    /**
+     * The moves of each game in {@code moves}, renumbered to the matching ID in {@code gameIDs}.
+     */
+    static List<GameWrite> forGames(int[] gameIDs, List<List<MoveWrite>> moves) {
+        List<GameWrite> writes = new ArrayList<>();
+        for (int i = 0; i < gameIDs.length; i++) {
+            for (MoveWrite move : moves.get(i)) {
+                writes.add(new MoveWrite(gameIDs[i], move.ply(), move.move(), move.stateAfter()));
+            }
+        }
+        return writes;
+    }
+
+    record MoveWrite(int gameID, int ply, ChessMove move, ChessGame stateAfter) implements GameWrite {
+        @Override
+        public void applyTo(DataAccess dataAccess) throws DataAccessException {
+            dataAccess.appendMove(gameID, ply, move, stateAfter);
+        }
+    }
+
+    record StateWrite(int gameID, GameData game) implements GameWrite {
+        @Override
+        public void applyTo(DataAccess dataAccess) throws DataAccessException {
+            dataAccess.updateGame(gameID, game);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package dataaccess;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records latency, call, error and row counts for every {@link DataAccess} method. The
+ * instrumented view returned by {@link #dataAccess()} is a dynamic proxy, so methods added
+ * to the interface are measured without changes here.
+ * <p>
+ * Latencies go into power-of-two microsecond buckets; percentiles report the upper bound of
+ * their bucket. Time spent waiting for a pooled connection is measured on the calling thread
+ * and reported separately. Rows are the size of returned collections and arrays, or one for
+ * any other non-null result. Calls slower than {@code slowThresholdMillis} are counted and
+ * logged as warnings; zero disables it.
+ * <p>
+ * Methods are reported by name and parameter types, e.g. {@code getGame(int)}, so overloads
+ * are measured apart.
+ */
+public class InstrumentedDataAccess implements InvocationHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InstrumentedDataAccess.class);
+    private static final int BUCKETS = 32;
+
+    public record Config(long slowThresholdMillis) {
+
+        public static Config defaults() {
+            return new Config(200);
+        }
+    }
+
+    public record MethodStats(long calls,
+                              long errors,
+                              long rows,
+                              double averageMicros,
+                              long p50Micros,
+                              long p99Micros,
+                              long maxMicros,
+                              double averageAcquireMicros,
+                              long slowCalls) {
+    }
+
+    private static final class Recorder {
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong acquireNanos = new AtomicLong();
+        private final AtomicLong slowCalls = new AtomicLong();
+
+        private void record(long nanos, long acquired, long returnedRows, boolean failed) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+            histogram.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+            calls.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            acquireNanos.addAndGet(acquired);
+            rows.addAndGet(returnedRows);
+            if (failed) {
+                errors.incrementAndGet();
+            }
+        }
+
+        private MethodStats snapshot() {
+            long count = calls.get();
+            double average = count == 0 ? 0 : totalNanos.get() / 1_000.0 / count;
+            double acquire = count == 0 ? 0 : acquireNanos.get() / 1_000.0 / count;
+            return new MethodStats(count, errors.get(), rows.get(), average, percentile(0.5), percentile(0.99),
+                    TimeUnit.NANOSECONDS.toMicros(maxNanos.get()), acquire, slowCalls.get());
+        }
+
+        private long percentile(double fraction) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                total += histogram.get(i);
+            }
+            long target = (long) Math.ceil(total * fraction);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram.get(i);
+                if (total > 0 && seen >= target) {
+                    return (1L << i) - 1;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private final DataAccess delegate;
+    private final Config config;
+    private final DataAccess proxy;
+    private final Map<Method, Recorder> recorders = new ConcurrentHashMap<>();
+
+    public InstrumentedDataAccess(DataAccess delegate, Config config) {
+        this.delegate = delegate;
+        this.config = config;
+        this.proxy = (DataAccess) Proxy.newProxyInstance(
+                DataAccess.class.getClassLoader(), new Class<?>[]{DataAccess.class}, this);
+    }
+
+    /**
+     * @return the instrumented view of the delegate
+     */
+    public DataAccess dataAccess() {
+        return proxy;
+    }
+
+    /**
+     * @return stats for every method called at least once, keyed and sorted by
+     * {@link #signature(Method)}
+     */
+    public Map<String, MethodStats> stats() {
+        Map<String, MethodStats> stats = new TreeMap<>();
+        recorders.forEach((method, recorder) -> stats.put(signature(method), recorder.snapshot()));
+        return stats;
+    }
+
+    /**
+     * The method's name followed by the simple names of its parameter types, e.g.
+     * {@code listGameSummaries(int, int, GameFilter)}.
+     */
+    public static String signature(Method method) {
+        return Stream.of(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(", ", method.getName() + "(", ")"));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> "Instrumented" + delegate;
+            };
+        }
+
+        long acquiredBefore = ConnectionPool.threadAcquireNanos();
+        long start = System.nanoTime();
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = method.invoke(delegate, args);
+            failed = false;
+            return result;
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } finally {
+            long nanos = System.nanoTime() - start;
+            Recorder recorder = recorders.computeIfAbsent(method, key -> new Recorder());
+            recorder.record(nanos, ConnectionPool.threadAcquireNanos() - acquiredBefore, rows(result), failed);
+            if (config.slowThresholdMillis() > 0 && nanos >= TimeUnit.MILLISECONDS.toNanos(config.slowThresholdMillis())) {
+                recorder.slowCalls.incrementAndGet();
+                LOG.warn("Consulta lenta: {} tardó {} ms", signature(method), TimeUnit.NANOSECONDS.toMillis(nanos));
+            }
+        }
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result != null && result.getClass().isArray()) {
+            return Array.getLength(result);
+        }
+        return result != null ? 1 : 0;
+    }
+}
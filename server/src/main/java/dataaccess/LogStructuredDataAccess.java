@@ -0,0 +1,1274 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+import model.UserData;
+import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded, single-node backend that needs no database server. Every change is appended
+ * as a checksummed record to the active segment file; a {@link MappedHashIndex} maps
+ * each key to its latest record, so a lookup is one index probe plus one positional
+ * read. Segments roll over at {@code maxSegmentBytes}; a background task rewrites the
+ * live records of old segments once enough of them is garbage, then deletes the files.
+ * On startup the segments are scanned in order to rebuild the index, and a torn record
+ * at the end of the last segment is cut off.
+ * <p>
+ * Game summaries, versions, participants, move counts and snapshot plies are also kept
+ * on the heap so listings, membership and ply checks do not touch the disk.
+ * <p>
+ * A move appends only its move record, plus a snapshot every
+ * {@link DataAccess#SNAPSHOT_INTERVAL} plies. The game record keeps the seats and name, and
+ * the state as of its last rewrite; it is rewritten for seat changes, updates and the move
+ * that ends the game. Reads rebuild the position from that state or the latest snapshot
+ * and the moves after it.
+ * <p>
+ * Durability: with {@code syncEveryWrite} every write is fsynced before it returns. Otherwise
+ * a background task fsyncs the active segment every {@code syncIntervalMillis} if anything
+ * was written since the last fsync, so one fsync covers every write in the interval. A write
+ * that has returned survives a crash of the process at once, since it is already in the OS
+ * page cache, and a power loss or OS crash once the next fsync has run: at most
+ * {@code syncIntervalMillis} plus the fsync itself. With the interval at zero the window
+ * stretches to the next segment rollover or {@link #close()}.
+ * <p>
+ * Record layout: {@code [int bodyLength][int crc32][byte op][short keyLength][key][value]}.
+ */
+public class LogStructuredDataAccess implements DataAccess, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LogStructuredDataAccess.class);
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int HEADER_BYTES = 8;
+
+    public record Config(Path directory, long maxSegmentBytes, double compactionGarbageRatio,
+                         long compactionIntervalMillis, boolean syncEveryWrite, long syncIntervalMillis) {
+
+        public static Config defaults(Path directory) {
+            return new Config(directory, 64L * 1024 * 1024, 0.5, 30_000, false, 50);
+        }
+    }
+
+    public record Stats(int segments, long totalBytes, long liveBytes, int indexEntries, int indexCapacity,
+                        long compactions, long reclaimedBytes, long syncs) {
+    }
+
+    private record Entry(byte op, String key, byte[] value) {
+    }
+
+    private record AuthTimes(long issuedAt, long lastUsedAt) {
+    }
+
+    private static final class Segment {
+        private final int id;
+        private final Path path;
+        private final FileChannel channel;
+        private long size;
+        private long liveBytes;
+
+        private Segment(int id, Path path, FileChannel channel, long size) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+        }
+    }
+
+    private final Config config;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock maintenance = new ReentrantLock();
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final MappedHashIndex index;
+    private Segment active;
+    private int deferredSyncs;
+    private boolean dirty;
+
+    private final ConcurrentSkipListMap<Integer, GameSummary> summaries = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Integer> moveCounts = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> versions = new ConcurrentHashMap<>();
+    private final Set<Integer> finishedGames = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, Map<String, Participant>> participants = new ConcurrentHashMap<>();
+    private final Map<Integer, NavigableSet<Integer>> snapshotPlies = new ConcurrentHashMap<>();
+    // Solo los tiempos de cada token, para barrer los caducados sin recorrer los segmentos
+    private final Map<String, AuthTimes> authTimes = new ConcurrentHashMap<>();
+    private final long openedAt = System.currentTimeMillis();
+    private int nextGameID = 1;
+
+    private final ScheduledExecutorService compactor;
+    private final ScheduledExecutorService syncer;
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicLong reclaimedBytes = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+
+    public LogStructuredDataAccess(Config config) throws DataAccessException {
+        this.config = config;
+        try {
+            Files.createDirectories(config.directory());
+            try (Stream<Path> stale = Files.list(config.directory())) {
+                for (Path path : stale.filter(p -> p.getFileName().toString().endsWith(".map")).toList()) {
+                    Files.delete(path);
+                }
+            }
+            this.index = new MappedHashIndex(config.directory(), 1024);
+            recover();
+        } catch (IOException e) {
+            throw new DataAccessException("failed to open log store " + e.getMessage());
+        }
+
+        this.compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "log-store-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(this::compactQuietly, config.compactionIntervalMillis(),
+                config.compactionIntervalMillis(), TimeUnit.MILLISECONDS);
+
+        if (!config.syncEveryWrite() && config.syncIntervalMillis() > 0) {
+            this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "log-store-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncer.scheduleWithFixedDelay(this::syncQuietly, config.syncIntervalMillis(),
+                    config.syncIntervalMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            this.syncer = null;
+        }
+    }
+
+    @Override
+    public UserData getUser(String username) throws DataAccessException {
+        byte[] value = read(userKey(username));
+        if (value == null) {
+            return null;
+        }
+        try (DataInputStream in = input(value)) {
+            return new UserData(username, in.readUTF(), in.readUTF());
+        } catch (IOException e) {
+            throw new DataAccessException("failed to decode user " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void createUser(UserData user) throws DataAccessException {
+        String hashedPassword = BCrypt.hashpw(user.password(), BCrypt.gensalt(12));
+        byte[] value = encode(out -> {
+            out.writeUTF(hashedPassword);
+            out.writeUTF(user.email());
+        });
+        lock.writeLock().lock();
+        try {
+            if (readLocked(userKey(user.username())) != null) {
+                throw new DataAccessException("Username already exists");
+            }
+            append(PUT, userKey(user.username()), value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Both records are appended under one lock and, with {@code syncEveryWrite}, one fsync.
+     */
+    @Override
+    public void registerWithToken(UserData user, AuthData auth) throws DataAccessException {
+        String hashedPassword = BCrypt.hashpw(user.password(), BCrypt.gensalt(12));
+        byte[] value = encode(out -> {
+            out.writeUTF(hashedPassword);
+            out.writeUTF(user.email());
+        });
+        lock.writeLock().lock();
+        try {
+            if (readLocked(userKey(user.username())) != null) {
+                throw new DataAccessException("Username already exists");
+            }
+            deferredSyncs++;
+            try {
+                append(PUT, userKey(user.username()), value);
+                long now = System.currentTimeMillis();
+                append(PUT, authKey(auth.authToken()), encodeAuth(auth.username(), now, now));
+            } finally {
+                deferredSyncs--;
+            }
+            syncIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        if (authToken == null) {
+            return null;
+        }
+        AuthSession session = getAuthSession(authToken);
+        return session != null ? session.auth() : null;
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        long now = System.currentTimeMillis();
+        write(PUT, authKey(auth.authToken()), encodeAuth(auth.username(), now, now));
+    }
+
+    @Override
+    public AuthSession getAuthSession(String authToken) throws DataAccessException {
+        if (authToken == null) {
+            return null;
+        }
+        byte[] value = read(authKey(authToken));
+        return value != null ? decodeAuth(authToken, value) : null;
+    }
+
+    @Override
+    public void touchAuth(String authToken, long lastUsedAt) throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            byte[] value = readLocked(authKey(authToken));
+            if (value == null) {
+                return;
+            }
+            AuthSession session = decodeAuth(authToken, value);
+            if (session.lastUsedAt() < lastUsedAt) {
+                append(PUT, authKey(authToken), encodeAuth(session.auth().username(), session.issuedAt(), lastUsedAt));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Picks the expired tokens from the heap view without a lock, then writes their
+     * tombstones under one short write lock and one fsync.
+     */
+    @Override
+    public int deleteExpiredAuth(long issuedBefore, long lastUsedBefore, int limit) throws DataAccessException {
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, AuthTimes> entry : authTimes.entrySet()) {
+            if (keys.size() >= limit) {
+                break;
+            }
+            AuthTimes times = entry.getValue();
+            if (times.issuedAt() < issuedBefore || times.lastUsedAt() < lastUsedBefore) {
+                keys.add(authKey(entry.getKey()));
+            }
+        }
+        deleteAll(keys);
+        return keys.size();
+    }
+
+    @Override
+    public long countAuth() {
+        return authTimes.size();
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        write(DELETE, authKey(authToken), null);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        VersionedGame game = getVersionedGame(gameID);
+        return game != null ? game.game() : null;
+    }
+
+    @Override
+    public int createGame(GameData game) throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            int gameID = nextGameID;
+            append(PUT, gameKey(gameID), encodeGame(game, 0));
+            return gameID;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateGame(int gameID, GameData game) throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            if (!summaries.containsKey(gameID)) {
+                throw new DataAccessException("Juego no encontrado: " + gameID);
+            }
+            append(PUT, gameKey(gameID), encodeGame(game, versions.getOrDefault(gameID, 0L) + 1));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public VersionedGame getVersionedGame(int gameID) throws DataAccessException {
+        lock.readLock().lock();
+        try {
+            byte[] value = readLocked(gameKey(gameID));
+            return value != null ? loadGame(gameID, value) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updateGameIfVersion(int gameID, long expectedVersion, GameData game) throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            if (!summaries.containsKey(gameID) || versions.getOrDefault(gameID, 0L) != expectedVersion) {
+                return false;
+            }
+            append(PUT, gameKey(gameID), encodeGame(game, expectedVersion + 1));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            byte[] value = readLocked(gameKey(gameID));
+            if (value == null) {
+                throw new DataAccessException("Juego no encontrado: " + gameID);
+            }
+            GameData game = decodeGame(gameID, value);
+            String current = color == ChessGame.TeamColor.WHITE ? game.whiteUsername() : game.blackUsername();
+            if (current != null) {
+                return current.equals(username);
+            }
+            append(PUT, gameKey(gameID), encodeGame(color == ChessGame.TeamColor.WHITE
+                    ? new GameData(gameID, username, game.blackUsername(), game.gameName(), game.game())
+                    : new GameData(gameID, game.whiteUsername(), username, game.gameName(), game.game()),
+                    versions.getOrDefault(gameID, 0L) + 1));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void appendMove(int gameID, int ply, ChessMove move, ChessGame stateAfter) throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            GameSummary summary = summaries.get(gameID);
+            if (summary == null) {
+                throw new DataAccessException("Juego no encontrado: " + gameID);
+            }
+            // Una partida ya terminada tampoco admite más movimientos
+            if (ply != moveCounts.getOrDefault(gameID, 0) + 1 || finishedGames.contains(gameID)) {
+                throw new DataAccessException("Move conflict");
+            }
+            deferredSyncs++;
+            try {
+                append(PUT, moveKey(gameID, ply), shortBytes(GameStateCodec.encodeMove(move)));
+                if (ply % SNAPSHOT_INTERVAL == 0) {
+                    append(PUT, snapshotKey(gameID, ply), GameStateCodec.encode(stateAfter));
+                }
+                // El registro del juego solo se reescribe cuando este movimiento termina la partida
+                if (stateAfter != null && stateAfter.isGameOver()) {
+                    append(PUT, gameKey(gameID), encodeGame(new GameData(gameID, summary.whiteUsername(),
+                            summary.blackUsername(), summary.gameName(), stateAfter), versions.getOrDefault(gameID, 0L)));
+                }
+            } finally {
+                deferredSyncs--;
+            }
+            syncIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the batch under one lock and, with {@code syncEveryWrite}, one fsync.
+     */
+    @Override
+    public void applyGameWrites(List<GameWrite> writes) throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            deferredSyncs++;
+            try {
+                DataAccess.super.applyGameWrites(writes);
+            } finally {
+                deferredSyncs--;
+            }
+            syncIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Creates the games and logs their moves under one lock and, with {@code syncEveryWrite},
+     * one fsync.
+     */
+    @Override
+    public int[] createGamesWithMoves(List<GameData> games, List<List<GameWrite.MoveWrite>> moves)
+            throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            deferredSyncs++;
+            int[] gameIDs;
+            try {
+                gameIDs = DataAccess.super.createGamesWithMoves(games, moves);
+            } finally {
+                deferredSyncs--;
+            }
+            syncIfNeeded();
+            return gameIDs;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<ChessMove> getMoves(int gameID, int afterPly, int uptoPly) throws DataAccessException {
+        lock.readLock().lock();
+        try {
+            int last = Math.min(uptoPly, moveCounts.getOrDefault(gameID, 0));
+            List<ChessMove> moves = new ArrayList<>();
+            for (int ply = Math.max(0, afterPly) + 1; ply <= last; ply++) {
+                byte[] value = readLocked(moveKey(gameID, ply));
+                if (value == null) {
+                    throw new DataAccessException("missing move " + ply + " of game " + gameID);
+                }
+                moves.add(GameStateCodec.decodeMove(ByteBuffer.wrap(value).getShort()));
+            }
+            return moves;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ChessGame getSnapshot(int gameID, int ply) throws DataAccessException {
+        NavigableSet<Integer> plies = snapshotPlies.get(gameID);
+        Integer snapshotPly = plies != null ? plies.floor(ply) : null;
+        if (snapshotPly == null) {
+            return null;
+        }
+        byte[] value = read(snapshotKey(gameID, snapshotPly));
+        return value != null ? GameStateCodec.decode(value) : null;
+    }
+
+    @Override
+    public GameData[] getAllGames() throws DataAccessException {
+        lock.readLock().lock();
+        try {
+            List<GameData> games = new ArrayList<>();
+            for (int gameID : summaries.keySet()) {
+                byte[] value = readLocked(gameKey(gameID));
+                if (value != null) {
+                    games.add(loadGame(gameID, value).game());
+                }
+            }
+            return games.toArray(new GameData[0]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public GameSummary[] listGameSummaries() throws DataAccessException {
+        return summaries.values().toArray(new GameSummary[0]);
+    }
+
+    @Override
+    public GameSummary[] listGameSummaries(int afterGameID, int limit, GameFilter filter) throws DataAccessException {
+        return summaries.tailMap(afterGameID, false).values().stream()
+                .filter(g -> filter.matches(g.whiteUsername(), g.blackUsername()))
+                .limit(limit)
+                .toArray(GameSummary[]::new);
+    }
+
+    @Override
+    public void addParticipant(int gameID, String username, Participant.Role role) throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            if (!summaries.containsKey(gameID)) {
+                throw new DataAccessException("Juego no encontrado: " + gameID);
+            }
+            Participant existing = participants.getOrDefault(gameID, Map.of()).get(username);
+            long joinedAt = existing != null ? existing.joinedAt() : System.currentTimeMillis();
+            append(PUT, participantKey(gameID, username),
+                    ByteBuffer.allocate(1 + Long.BYTES).put((byte) role.ordinal()).putLong(joinedAt).array());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeParticipant(int gameID, String username) throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            if (participants.getOrDefault(gameID, Map.of()).containsKey(username)) {
+                append(DELETE, participantKey(gameID, username), null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Participant.Role getParticipantRole(int gameID, String username) throws DataAccessException {
+        Participant participant = participants.getOrDefault(gameID, Map.of()).get(username);
+        return participant != null ? participant.role() : null;
+    }
+
+    @Override
+    public List<Participant> getParticipants(int gameID) throws DataAccessException {
+        return new ArrayList<>(participants.getOrDefault(gameID, Map.of()).values());
+    }
+
+    @Override
+    public int countActiveGamesForUser(String username) throws DataAccessException {
+        int active = 0;
+        for (GameSummary game : getGamesForUser(username)) {
+            if (!finishedGames.contains(game.gameID())) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    @Override
+    public int[] listUnfinishedGameIDs(int limit) throws DataAccessException {
+        List<Integer> unfinished = new ArrayList<>();
+        for (int gameID : summaries.descendingKeySet()) {
+            if (unfinished.size() >= limit) {
+                break;
+            }
+            if (!finishedGames.contains(gameID)) {
+                unfinished.add(gameID);
+            }
+        }
+        return unfinished.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Games here already live on disk with only their summary on the heap, and compaction
+     * drops superseded records, so there is no hot table to shrink. Nothing is archived.
+     */
+    @Override
+    public int archiveFinishedGames(long finishedBefore, int limit) {
+        return 0;
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        maintenance.lock();
+        lock.writeLock().lock();
+        try {
+            // Borrar los ficheros es más rápido y más durable que escribir una lápida por clave
+            for (Segment segment : segments.values()) {
+                segment.channel.close();
+                Files.delete(segment.path);
+            }
+            segments.clear();
+            index.clear();
+            summaries.clear();
+            moveCounts.clear();
+            versions.clear();
+            finishedGames.clear();
+            participants.clear();
+            snapshotPlies.clear();
+            authTimes.clear();
+            nextGameID = 1;
+            active = openSegment(1);
+        } catch (IOException e) {
+            throw new DataAccessException("failed to clear log store " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+            maintenance.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllUsers() throws DataAccessException {
+        deleteAll(liveKeys("u/"));
+    }
+
+    @Override
+    public void deleteAllAuth() throws DataAccessException {
+        deleteAll(liveKeys("a/"));
+    }
+
+    @Override
+    public void deleteAllGames() throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            List<String> keys = new ArrayList<>();
+            for (int gameID : summaries.keySet()) {
+                keys.add(gameKey(gameID));
+                for (int ply = 1; ply <= moveCounts.getOrDefault(gameID, 0); ply++) {
+                    keys.add(moveKey(gameID, ply));
+                }
+                for (int ply : snapshotPlies.getOrDefault(gameID, Collections.emptyNavigableSet())) {
+                    keys.add(snapshotKey(gameID, ply));
+                }
+                for (String username : participants.getOrDefault(gameID, Map.of()).keySet()) {
+                    keys.add(participantKey(gameID, username));
+                }
+            }
+            deleteAll(keys);
+            nextGameID = 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void deleteAll(List<String> keys) throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            deferredSyncs++;
+            try {
+                for (String key : keys) {
+                    append(DELETE, key, null);
+                }
+            } finally {
+                deferredSyncs--;
+            }
+            syncIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Stats stats() {
+        lock.readLock().lock();
+        try {
+            long total = 0;
+            long live = 0;
+            for (Segment segment : segments.values()) {
+                total += segment.size;
+                live += segment.liveBytes;
+            }
+            return new Stats(segments.size(), total, live, index.size(), index.capacity(),
+                    compactions.get(), reclaimedBytes.get(), syncs.get());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the live records of every sealed segment into the active one and deletes
+     * the sealed files, if enough of them is garbage. All sealed segments are merged
+     * together so tombstones can be dropped: no older copy of their key survives.
+     */
+    public void compact() throws DataAccessException {
+        maintenance.lock();
+        try {
+            List<Segment> sealed;
+            lock.readLock().lock();
+            try {
+                sealed = new ArrayList<>(segments.headMap(active.id).values());
+                long total = sealed.stream().mapToLong(s -> s.size).sum();
+                long live = sealed.stream().mapToLong(s -> s.liveBytes).sum();
+                if (sealed.isEmpty() || total == 0 || (double) (total - live) / total < config.compactionGarbageRatio()) {
+                    return;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            long reclaimed = 0;
+            for (Segment segment : sealed) {
+                long offset = 0;
+                while (offset < segment.size) {
+                    ByteBuffer record = readRecord(segment, offset);
+                    int length = record.capacity();
+                    Entry entry = parse(record);
+                    if (entry.op() == PUT) {
+                        relocate(segment, (int) offset, length, entry.key(), record);
+                    }
+                    offset += length;
+                }
+            }
+            // Se borran del más antiguo al más nuevo para que ninguna lápida pierda su efecto
+            lock.writeLock().lock();
+            try {
+                for (Segment segment : segments.tailMap(sealed.get(sealed.size() - 1).id, false).values()) {
+                    segment.channel.force(false);
+                }
+                for (Segment segment : sealed) {
+                    reclaimed += segment.size;
+                    segments.remove(segment.id);
+                    segment.channel.close();
+                    Files.delete(segment.path);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            compactions.incrementAndGet();
+            reclaimedBytes.addAndGet(reclaimed);
+        } catch (IOException e) {
+            throw new DataAccessException("failed to compact log store " + e.getMessage());
+        } finally {
+            maintenance.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws DataAccessException {
+        compactor.shutdownNow();
+        if (syncer != null) {
+            // Sin interrumpir: un hilo interrumpido dentro de force() cierra el canal
+            syncer.shutdown();
+            try {
+                syncer.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        maintenance.lock();
+        lock.writeLock().lock();
+        try {
+            for (Segment segment : segments.values()) {
+                segment.channel.force(true);
+                segment.channel.close();
+            }
+            index.close();
+        } catch (IOException e) {
+            throw new DataAccessException("failed to close log store " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+            maintenance.unlock();
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (DataAccessException e) {
+            LOG.error("Error al compactar el almacén: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Fsyncs the active segment if it was written since the last fsync. The flag is cleared
+     * under the lock but the fsync runs outside it, so writers do not wait for the disk; a
+     * write that lands meanwhile sets the flag again for the next run.
+     */
+    private void syncQuietly() {
+        Segment segment;
+        lock.writeLock().lock();
+        try {
+            if (!dirty) {
+                return;
+            }
+            segment = active;
+            dirty = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            segment.channel.force(false);
+            syncs.incrementAndGet();
+        } catch (IOException e) {
+            lock.writeLock().lock();
+            try {
+                dirty = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            LOG.error("Error al sincronizar el almacén: {}", e.getMessage());
+        }
+    }
+
+    private void relocate(Segment segment, int offset, int length, String key, ByteBuffer record) throws IOException {
+        lock.writeLock().lock();
+        try {
+            long hash = hash(key);
+            MappedHashIndex.Location from = new MappedHashIndex.Location(segment.id, offset, length);
+            if (!index.isCurrent(hash, from)) {
+                return;
+            }
+            MappedHashIndex.Location to = appendRaw(record.rewind());
+            index.replace(hash, from, to);
+            segment.liveBytes -= length;
+            active.liveBytes += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void recover() throws IOException, DataAccessException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(config.directory())) {
+            files = list.filter(p -> p.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            Path path = files.get(i);
+            int id = Integer.parseInt(path.getFileName().toString().replace(".log", ""));
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Segment segment = new Segment(id, path, channel, channel.size());
+            segments.put(id, segment);
+
+            long offset = 0;
+            while (offset < segment.size) {
+                ByteBuffer record = offset + HEADER_BYTES <= segment.size ? tryReadRecord(segment, offset) : null;
+                if (record == null) {
+                    if (i < files.size() - 1) {
+                        throw new DataAccessException("corrupt log segment " + path.getFileName() + " at " + offset);
+                    }
+                    // Escritura a medias al final del último segmento: se descarta
+                    channel.truncate(offset);
+                    segment.size = offset;
+                    break;
+                }
+                Entry entry = parse(record);
+                index(segment, (int) offset, record.capacity(), entry);
+                offset += record.capacity();
+            }
+        }
+        active = segments.isEmpty() ? openSegment(1) : segments.lastEntry().getValue();
+    }
+
+    private byte[] read(String key) throws DataAccessException {
+        lock.readLock().lock();
+        try {
+            return readLocked(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private byte[] readLocked(String key) throws DataAccessException {
+        Entry[] found = new Entry[1];
+        try {
+            index.get(hash(key), location -> {
+                Entry entry = parse(readRecord(segments.get(location.segment()), location.offset()));
+                if (entry.key().equals(key)) {
+                    found[0] = entry;
+                    return true;
+                }
+                return false;
+            });
+        } catch (IOException e) {
+            throw new DataAccessException("failed to read " + key + " " + e.getMessage());
+        }
+        return found[0] != null && found[0].op() == PUT ? found[0].value() : null;
+    }
+
+    private void write(byte op, String key, byte[] value) throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            append(op, key, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Must be called holding the write lock.
+     */
+    private void append(byte op, String key, byte[] value) throws DataAccessException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int valueLength = value != null ? value.length : 0;
+        int bodyLength = 1 + 2 + keyBytes.length + valueLength;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+        record.putInt(bodyLength).putInt(0).put(op).putShort((short) keyBytes.length).put(keyBytes);
+        if (value != null) {
+            record.put(value);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_BYTES, bodyLength);
+        record.putInt(4, (int) crc.getValue());
+        record.flip();
+
+        try {
+            MappedHashIndex.Location location = appendRaw(record);
+            index(segments.get(location.segment()), location.offset(), location.length(), new Entry(op, key, value));
+            dirty = true;
+            syncIfNeeded();
+        } catch (IOException e) {
+            throw new DataAccessException("failed to write " + key + " " + e.getMessage());
+        }
+    }
+
+    private MappedHashIndex.Location appendRaw(ByteBuffer record) throws IOException {
+        int length = record.remaining();
+        if (active.size > 0 && active.size + length > config.maxSegmentBytes()) {
+            active.channel.force(false);
+            active = openSegment(active.id + 1);
+        }
+        long position = active.size;
+        while (record.hasRemaining()) {
+            position += active.channel.write(record, position);
+        }
+        MappedHashIndex.Location location = new MappedHashIndex.Location(active.id, (int) active.size, length);
+        active.size = position;
+        return location;
+    }
+
+    private void syncIfNeeded() throws DataAccessException {
+        if (deferredSyncs > 0 || !dirty || !config.syncEveryWrite()) {
+            return;
+        }
+        try {
+            active.channel.force(false);
+            dirty = false;
+            syncs.incrementAndGet();
+        } catch (IOException e) {
+            throw new DataAccessException("failed to sync log store " + e.getMessage());
+        }
+    }
+
+    /**
+     * Points the index at a record and keeps the live-byte counts and heap views current.
+     */
+    private void index(Segment segment, int offset, int length, Entry entry) throws IOException, DataAccessException {
+        long hash = hash(entry.key());
+        MappedHashIndex.KeyCheck sameKey = location ->
+                parse(readRecord(segments.get(location.segment()), location.offset())).key().equals(entry.key());
+        MappedHashIndex.Location previous;
+        if (entry.op() == PUT) {
+            previous = index.put(hash, new MappedHashIndex.Location(segment.id, offset, length), sameKey);
+            segment.liveBytes += length;
+        } else {
+            previous = index.remove(hash, sameKey);
+        }
+        if (previous != null) {
+            Segment old = segments.get(previous.segment());
+            old.liveBytes -= previous.length();
+        }
+        updateViews(entry);
+    }
+
+    private void updateViews(Entry entry) throws DataAccessException {
+        String key = entry.key();
+        boolean put = entry.op() == PUT;
+        if (key.startsWith("g/")) {
+            int gameID = Integer.parseInt(key.substring(2));
+            if (put) {
+                VersionedGame versioned = decodeVersionedGame(gameID, entry.value());
+                GameData game = versioned.game();
+                summaries.put(gameID, new GameSummary(gameID, game.whiteUsername(), game.blackUsername(), game.gameName()));
+                versions.put(gameID, versioned.version());
+                if (game.game() != null && game.game().isGameOver()) {
+                    finishedGames.add(gameID);
+                } else {
+                    finishedGames.remove(gameID);
+                }
+                nextGameID = Math.max(nextGameID, gameID + 1);
+            } else {
+                summaries.remove(gameID);
+                moveCounts.remove(gameID);
+                versions.remove(gameID);
+                finishedGames.remove(gameID);
+                participants.remove(gameID);
+                snapshotPlies.remove(gameID);
+            }
+        } else if (key.startsWith("p/")) {
+            int slash = key.indexOf('/', 2);
+            int gameID = Integer.parseInt(key.substring(2, slash));
+            String username = key.substring(slash + 1);
+            if (put) {
+                ByteBuffer value = ByteBuffer.wrap(entry.value());
+                Participant.Role role = Participant.Role.values()[value.get()];
+                participants.computeIfAbsent(gameID, id -> new ConcurrentHashMap<>())
+                        .put(username, new Participant(gameID, username, role, value.getLong()));
+            } else {
+                Map<String, Participant> members = participants.get(gameID);
+                if (members != null) {
+                    members.remove(username);
+                }
+            }
+        } else if (key.startsWith("a/")) {
+            String authToken = key.substring(2);
+            if (put) {
+                AuthSession session = decodeAuth(authToken, entry.value());
+                authTimes.put(authToken, new AuthTimes(session.issuedAt(), session.lastUsedAt()));
+            } else {
+                authTimes.remove(authToken);
+            }
+        } else if (key.startsWith("m/") && put) {
+            int[] ids = gameAndPly(key);
+            moveCounts.merge(ids[0], ids[1], Math::max);
+        } else if (key.startsWith("s/") && put) {
+            int[] ids = gameAndPly(key);
+            snapshotPlies.computeIfAbsent(ids[0], id -> new ConcurrentSkipListSet<>()).add(ids[1]);
+        }
+    }
+
+    /**
+     * Keys with the given prefix whose latest record is a put, found by scanning the segments.
+     */
+    private List<String> liveKeys(String prefix) throws DataAccessException {
+        lock.readLock().lock();
+        try {
+            List<String> keys = new ArrayList<>();
+            for (Segment segment : segments.values()) {
+                long offset = 0;
+                while (offset < segment.size) {
+                    ByteBuffer record = readRecord(segment, offset);
+                    int length = record.capacity();
+                    Entry entry = parse(record);
+                    if (entry.op() == PUT && entry.key().startsWith(prefix)
+                            && index.isCurrent(hash(entry.key()), new MappedHashIndex.Location(segment.id, (int) offset, length))) {
+                        keys.add(entry.key());
+                    }
+                    offset += length;
+                }
+            }
+            return keys;
+        } catch (IOException e) {
+            throw new DataAccessException("failed to scan log store " + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Segment openSegment(int id) throws IOException {
+        Path path = config.directory().resolve(String.format("%08d.log", id));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segment segment = new Segment(id, path, channel, channel.size());
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private static ByteBuffer readRecord(Segment segment, long offset) throws IOException {
+        ByteBuffer record = tryReadRecord(segment, offset);
+        if (record == null) {
+            throw new IOException("corrupt record in segment " + segment.id + " at " + offset);
+        }
+        return record;
+    }
+
+    /**
+     * @return the whole record, or null if it is truncated or fails its checksum
+     */
+    private static ByteBuffer tryReadRecord(Segment segment, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(segment.channel, header, offset);
+        int bodyLength = header.getInt(0);
+        if (bodyLength < 3 || offset + HEADER_BYTES + bodyLength > segment.size) {
+            return null;
+        }
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+        readFully(segment.channel, record, offset);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_BYTES, bodyLength);
+        return (int) crc.getValue() == record.getInt(4) ? record : null;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("unexpected end of segment");
+            }
+        }
+    }
+
+    private static Entry parse(ByteBuffer record) {
+        byte[] data = record.array();
+        byte op = data[HEADER_BYTES];
+        int keyLength = ((data[HEADER_BYTES + 1] & 0xff) << 8) | (data[HEADER_BYTES + 2] & 0xff);
+        int keyStart = HEADER_BYTES + 3;
+        String key = new String(data, keyStart, keyLength, StandardCharsets.UTF_8);
+        byte[] value = Arrays.copyOfRange(data, keyStart + keyLength, data.length);
+        return new Entry(op, key, value);
+    }
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * A zero marker byte, the issue and last-use times, then the username. Tokens written
+     * before the times existed hold only the username, which never starts with a zero byte;
+     * they count as issued when the store was opened.
+     */
+    private static byte[] encodeAuth(String username, long issuedAt, long lastUsedAt) {
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(1 + 2 * Long.BYTES + name.length)
+                .put((byte) 0).putLong(issuedAt).putLong(lastUsedAt).put(name).array();
+    }
+
+    private AuthSession decodeAuth(String authToken, byte[] value) {
+        if (value.length == 0 || value[0] != 0) {
+            return new AuthSession(new AuthData(new String(value, StandardCharsets.UTF_8), authToken), openedAt, openedAt);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(value);
+        buffer.get();
+        long issuedAt = buffer.getLong();
+        long lastUsedAt = buffer.getLong();
+        String username = new String(value, buffer.position(), buffer.remaining(), StandardCharsets.UTF_8);
+        return new AuthSession(new AuthData(username, authToken), issuedAt, lastUsedAt);
+    }
+
+    private static byte[] encode(Writer writer) throws DataAccessException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new DataAccessException("failed to encode record " + e.getMessage());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeGame(GameData game, long version) throws DataAccessException {
+        return encode(out -> {
+            writeNullable(out, game.whiteUsername());
+            writeNullable(out, game.blackUsername());
+            out.writeUTF(game.gameName());
+            byte[] state = game.game() != null ? GameStateCodec.encode(game.game()) : new byte[0];
+            out.writeShort(state.length);
+            out.write(state);
+            out.writeLong(version);
+        });
+    }
+
+    /**
+     * Rebuilds the game from the newest of the state in its record and its latest snapshot,
+     * then replays the logged moves played after it. Must be called holding the lock.
+     */
+    private VersionedGame loadGame(int gameID, byte[] value) throws DataAccessException {
+        VersionedGame stored = decodeVersionedGame(gameID, value);
+        ChessGame game = stored.game().game();
+        if (game == null) {
+            return stored;
+        }
+        boolean over = game.isGameOver();
+        NavigableSet<Integer> plies = snapshotPlies.get(gameID);
+        if (plies != null && !plies.isEmpty() && plies.last() > game.getPly()) {
+            byte[] snapshot = readLocked(snapshotKey(gameID, plies.last()));
+            if (snapshot != null) {
+                game = GameStateCodec.decode(snapshot);
+            }
+        }
+        try {
+            for (int ply = game.getPly() + 1; ply <= moveCounts.getOrDefault(gameID, 0); ply++) {
+                byte[] move = readLocked(moveKey(gameID, ply));
+                if (move == null) {
+                    throw new DataAccessException("missing move " + ply + " of game " + gameID);
+                }
+                game.makeMove(GameStateCodec.decodeMove(ByteBuffer.wrap(move).getShort()));
+            }
+        } catch (InvalidMoveException e) {
+            throw new DataAccessException("corrupt move log for game " + gameID + ": " + e.getMessage());
+        }
+        // Una partida terminada por abandono no tiene movimiento final que lo diga
+        game.setGameOver(over || game.isGameOver());
+        GameData data = stored.game();
+        return new VersionedGame(new GameData(gameID, data.whiteUsername(), data.blackUsername(), data.gameName(), game),
+                stored.version());
+    }
+
+    private static GameData decodeGame(int gameID, byte[] value) throws DataAccessException {
+        return decodeVersionedGame(gameID, value).game();
+    }
+
+    private static VersionedGame decodeVersionedGame(int gameID, byte[] value) throws DataAccessException {
+        try (DataInputStream in = input(value)) {
+            String white = readNullable(in);
+            String black = readNullable(in);
+            String name = in.readUTF();
+            byte[] state = new byte[in.readUnsignedShort()];
+            in.readFully(state);
+            // Los registros anteriores a la columna de versión terminan aquí
+            long version = in.available() >= Long.BYTES ? in.readLong() : 0;
+            return new VersionedGame(new GameData(gameID, white, black, name,
+                    state.length > 0 ? GameStateCodec.decode(state) : null), version);
+        } catch (IOException e) {
+            throw new DataAccessException("failed to decode game " + gameID + " " + e.getMessage());
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static DataInputStream input(byte[] value) {
+        return new DataInputStream(new ByteArrayInputStream(value));
+    }
+
+    private static byte[] shortBytes(int value) {
+        return ByteBuffer.allocate(2).putShort((short) value).array();
+    }
+
+    private static int[] gameAndPly(String key) {
+        int slash = key.indexOf('/', 2);
+        return new int[]{Integer.parseInt(key.substring(2, slash)), Integer.parseInt(key.substring(slash + 1))};
+    }
+
+    private static String userKey(String username) {
+        return "u/" + username;
+    }
+
+    private static String authKey(String authToken) {
+        return "a/" + authToken;
+    }
+
+    private static String participantKey(int gameID, String username) {
+        return "p/" + gameID + "/" + username;
+    }
+
+    private static String gameKey(int gameID) {
+        return "g/" + gameID;
+    }
+
+    private static String moveKey(int gameID, int ply) {
+        return "m/" + gameID + "/" + ply;
+    }
+
+    private static String snapshotKey(int gameID, int ply) {
+        return "s/" + gameID + "/" + ply;
+    }
+
+    /**
+     * 64-bit FNV-1a with a murmur finalizer; the index only needs a well-spread hash.
+     */
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+}
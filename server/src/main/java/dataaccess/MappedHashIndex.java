@@ -0,0 +1,225 @@
+package dataaccess;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Open-addressing hash table of record locations kept in a memory-mapped file, so the
+ * index of a large store lives in the page cache rather than on the Java heap. Each slot
+ * holds the 64-bit hash of a key and where its latest record starts. Keys themselves are
+ * not stored; callers confirm a match by reading the record (see {@link KeyCheck}).
+ * <p>
+ * The file is scratch space rebuilt on every start, so it is never fsynced. Not thread
+ * safe: {@link LogStructuredDataAccess} guards it with its read/write lock.
+ */
+final class MappedHashIndex implements AutoCloseable {
+
+    private static final int SLOT_BYTES = 24;
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+
+    record Location(int segment, int offset, int length) {
+    }
+
+    interface KeyCheck {
+        boolean matches(Location location) throws IOException;
+    }
+
+    private final Path directory;
+    private int generation;
+    private Path path;
+    private FileChannel channel;
+    private MappedByteBuffer slots;
+    private int capacity;
+    private int size;
+    private int used;
+
+    MappedHashIndex(Path directory, int initialCapacity) throws IOException {
+        this.directory = directory;
+        map(Integer.highestOneBit(Math.max(16, initialCapacity - 1)) << 1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    Location get(long hash, KeyCheck check) throws IOException {
+        int mask = capacity - 1;
+        for (int i = (int) hash & mask, probes = 0; probes < capacity; i = (i + 1) & mask, probes++) {
+            int segment = slots.getInt(i * SLOT_BYTES + 8);
+            if (segment == EMPTY) {
+                return null;
+            }
+            if (segment != DELETED && slots.getLong(i * SLOT_BYTES) == hash) {
+                Location location = read(i);
+                if (check.matches(location)) {
+                    return location;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the location this key pointed to before, or null if it was absent
+     */
+    Location put(long hash, Location location, KeyCheck check) throws IOException {
+        if ((used + 1) * 4L > capacity * 3L) {
+            rehash();
+        }
+        int mask = capacity - 1;
+        int free = -1;
+        int i = (int) hash & mask;
+        for (int probes = 0; probes < capacity; i = (i + 1) & mask, probes++) {
+            int segment = slots.getInt(i * SLOT_BYTES + 8);
+            if (segment == EMPTY) {
+                break;
+            }
+            if (segment == DELETED) {
+                if (free < 0) {
+                    free = i;
+                }
+            } else if (slots.getLong(i * SLOT_BYTES) == hash) {
+                Location previous = read(i);
+                if (check.matches(previous)) {
+                    write(i, hash, location);
+                    return previous;
+                }
+            }
+        }
+        if (free < 0) {
+            free = i;
+            used++;
+        }
+        write(free, hash, location);
+        size++;
+        return null;
+    }
+
+    /**
+     * @return the removed location, or null if the key was absent
+     */
+    Location remove(long hash, KeyCheck check) throws IOException {
+        Location location = get(hash, check);
+        if (location == null) {
+            return null;
+        }
+        int slot = find(hash, location);
+        slots.putInt(slot * SLOT_BYTES + 8, DELETED);
+        size--;
+        return location;
+    }
+
+    /**
+     * Points the entry at {@code expected} to {@code update}, used by compaction when a
+     * record is copied. Does nothing if the key has been rewritten in the meantime.
+     */
+    boolean replace(long hash, Location expected, Location update) {
+        int slot = find(hash, expected);
+        if (slot < 0) {
+            return false;
+        }
+        write(slot, hash, update);
+        return true;
+    }
+
+    /**
+     * @return true if {@code location} is the latest record for a key with this hash
+     */
+    boolean isCurrent(long hash, Location location) {
+        return find(hash, location) >= 0;
+    }
+
+    void clear() throws IOException {
+        close();
+        map(16);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            Files.deleteIfExists(path);
+            channel = null;
+        }
+    }
+
+    private int find(long hash, Location location) {
+        int mask = capacity - 1;
+        for (int i = (int) hash & mask, probes = 0; probes < capacity; i = (i + 1) & mask, probes++) {
+            int segment = slots.getInt(i * SLOT_BYTES + 8);
+            if (segment == EMPTY) {
+                return -1;
+            }
+            if (segment == location.segment() && slots.getLong(i * SLOT_BYTES) == hash
+                    && slots.getInt(i * SLOT_BYTES + 12) == location.offset()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Location read(int slot) {
+        int base = slot * SLOT_BYTES;
+        return new Location(slots.getInt(base + 8), slots.getInt(base + 12), slots.getInt(base + 16));
+    }
+
+    private void write(int slot, long hash, Location location) {
+        int base = slot * SLOT_BYTES;
+        slots.putLong(base, hash);
+        slots.putInt(base + 12, location.offset());
+        slots.putInt(base + 16, location.length());
+        // El segmento va al final: marca la ranura como ocupada
+        slots.putInt(base + 8, location.segment());
+    }
+
+    /**
+     * Copies the live entries into a fresh file, doubling it when more than half full.
+     * A new file is used each time because truncating a mapped file is unsafe.
+     */
+    private void rehash() throws IOException {
+        MappedByteBuffer old = slots;
+        int oldCapacity = capacity;
+        FileChannel oldChannel = channel;
+        Path oldPath = path;
+
+        map(size * 2 >= oldCapacity ? oldCapacity * 2 : oldCapacity);
+        int mask = capacity - 1;
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int base = slot * SLOT_BYTES;
+            int segment = old.getInt(base + 8);
+            if (segment == EMPTY || segment == DELETED) {
+                continue;
+            }
+            long hash = old.getLong(base);
+            int i = (int) hash & mask;
+            while (slots.getInt(i * SLOT_BYTES + 8) != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            write(i, hash, new Location(segment, old.getInt(base + 12), old.getInt(base + 16)));
+            size++;
+            used++;
+        }
+        oldChannel.close();
+        Files.deleteIfExists(oldPath);
+    }
+
+    private void map(int newCapacity) throws IOException {
+        generation++;
+        path = directory.resolve("index-" + generation + ".map");
+        Files.deleteIfExists(path);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        slots = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) newCapacity * SLOT_BYTES);
+        capacity = newCapacity;
+        size = 0;
+        used = 0;
+    }
+}
@@ -1,47 +1,118 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import model.AuthData;
 import model.GameData;
+import model.GameSummary;
 import model.UserData;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * In-memory backend that is safe to share between the Jetty and WebSocket threads.
+ * Lookups go straight to concurrent maps; changes to a single game (seat claims, moves,
+ * updates) are serialized by one of {@link #STRIPES} locks chosen by game ID, so different
+ * games never contend. Games are kept in ID order, so listings iterate them in order
+ * without sorting. Every stored or returned position is a private copy, so a caller that
+ * keeps playing on its {@link ChessGame} never changes what is stored. {@link #clear} is
+ * not atomic with respect to concurrent writers.
+ */
 public class MemoryDataAccess implements DataAccess {
 
-    private final Map<String, UserData> users = new HashMap<>();
-    private final Map<String, AuthData> authTokens = new HashMap<>();
-    private final Map<Integer, GameData> games = new HashMap<>();
+    private static final int STRIPES = 64;
+
+    private final Map<String, UserData> users = new ConcurrentHashMap<>();
+    private final Map<String, AuthSession> authTokens = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, GameData> games = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Long> versions = new ConcurrentHashMap<>();
+    private final Map<Integer, Map<String, Participant>> participants = new ConcurrentHashMap<>();
+    private final Map<Integer, List<ChessMove>> moves = new ConcurrentHashMap<>();
+    private final Map<Integer, ConcurrentSkipListMap<Integer, byte[]>> snapshots = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> finishedAt = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, ArchivedGame> archive = new ConcurrentSkipListMap<>();
     private final AtomicInteger gameIdCounter = new AtomicInteger(1); // Reintroducido para gestión de ID en memoria
+    private final Object[] locks = new Object[STRIPES];
 
     public MemoryDataAccess() throws DataAccessException {
         // No hay necesidad de crear tablas en memoria
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * A game moved out of {@code games}: its summary and version stay readable, the position
+     * and move log are kept compressed.
+     */
+    private record ArchivedGame(GameSummary summary, long version, byte[] contents) {
+    }
+
+    private Object lockFor(int gameID) {
+        return locks[Math.floorMod(gameID, STRIPES)];
     }
 
     @Override
     public UserData getUser(String username) throws DataAccessException {
-        return users.get(username);
+        return username != null ? users.get(username) : null;
     }
 
     @Override
     public void createUser(UserData user) throws DataAccessException {
-        if (users.containsKey(user.username())) {
-            throw new DataAccessException("Error: Ya existe el usuario.");
+        if (users.putIfAbsent(user.username(), user) != null) {
+            throw new DataAccessException("Username already exists");
         }
-        users.put(user.username(), user);
     }
 
     @Override
     public AuthData getAuth(String authToken) throws DataAccessException {
-        return authTokens.get(authToken);
+        // Los mapas concurrentes no aceptan claves nulas
+        AuthSession session = authToken != null ? authTokens.get(authToken) : null;
+        return session != null ? session.auth() : null;
     }
 
     @Override
     public void createAuth(AuthData auth) throws DataAccessException {
-        authTokens.put(auth.authToken(), auth);
+        long now = System.currentTimeMillis();
+        authTokens.put(auth.authToken(), new AuthSession(auth, now, now));
+    }
+
+    @Override
+    public AuthSession getAuthSession(String authToken) throws DataAccessException {
+        return authToken != null ? authTokens.get(authToken) : null;
+    }
+
+    @Override
+    public void touchAuth(String authToken, long lastUsedAt) throws DataAccessException {
+        authTokens.computeIfPresent(authToken, (token, session) ->
+                new AuthSession(session.auth(), session.issuedAt(), Math.max(session.lastUsedAt(), lastUsedAt)));
+    }
+
+    @Override
+    public int deleteExpiredAuth(long issuedBefore, long lastUsedBefore, int limit) throws DataAccessException {
+        int deleted = 0;
+        for (Map.Entry<String, AuthSession> entry : authTokens.entrySet()) {
+            if (deleted >= limit) {
+                break;
+            }
+            AuthSession session = entry.getValue();
+            if ((session.issuedAt() < issuedBefore || session.lastUsedAt() < lastUsedBefore)
+                    && authTokens.remove(entry.getKey(), session)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public long countAuth() throws DataAccessException {
+        return authTokens.size();
     }
 
     @Override
@@ -51,7 +122,12 @@ public class MemoryDataAccess implements DataAccess {
 
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
-        return games.get(gameID);
+        GameData game = games.get(gameID);
+        if (game == null) {
+            VersionedGame archived = getArchived(gameID);
+            return archived != null ? archived.game() : null;
+        }
+        return copyOf(game);
     }
 
     @Override
@@ -68,24 +144,227 @@ public class MemoryDataAccess implements DataAccess {
                 game.whiteUsername(),
                 game.blackUsername(),
                 game.gameName(),
-                game.game() // Mantiene la instancia de ChessGame original
+                copyOf(game.game()) // Copia propia: el llamador sigue jugando sobre la suya
         );
 
+        versions.put(newGameID, 0L);
         games.put(newGameID, newGameDataWithID);
+        trackFinished(newGameID, game.game());
         return newGameID; // Devuelve el ID generado
     }
 
     @Override
     public void updateGame(int gameID, GameData game) throws DataAccessException {
-        if (!games.containsKey(gameID)) {
-            throw new DataAccessException("Juego no encontrado: " + gameID);
+        synchronized (lockFor(gameID)) {
+            if (games.replace(gameID, copyOf(game)) == null) {
+                throw new DataAccessException("Juego no encontrado: " + gameID);
+            }
+            versions.merge(gameID, 1L, Long::sum);
+            trackFinished(gameID, game.game());
+        }
+    }
+
+    @Override
+    public VersionedGame getVersionedGame(int gameID) throws DataAccessException {
+        synchronized (lockFor(gameID)) {
+            GameData game = games.get(gameID);
+            return game != null ? new VersionedGame(copyOf(game), versions.getOrDefault(gameID, 0L)) : getArchived(gameID);
+        }
+    }
+
+    @Override
+    public boolean updateGameIfVersion(int gameID, long expectedVersion, GameData game) throws DataAccessException {
+        synchronized (lockFor(gameID)) {
+            if (!games.containsKey(gameID) || versions.getOrDefault(gameID, 0L) != expectedVersion) {
+                return false;
+            }
+            games.put(gameID, copyOf(game));
+            versions.put(gameID, expectedVersion + 1);
+            trackFinished(gameID, game.game());
+            return true;
+        }
+    }
+
+    @Override
+    public boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        synchronized (lockFor(gameID)) {
+            GameData game = games.get(gameID);
+            if (game == null) {
+                throw new DataAccessException("Juego no encontrado: " + gameID);
+            }
+            String current = color == ChessGame.TeamColor.WHITE ? game.whiteUsername() : game.blackUsername();
+            if (current != null) {
+                return current.equals(username);
+            }
+            games.put(gameID, color == ChessGame.TeamColor.WHITE
+                    ? new GameData(gameID, username, game.blackUsername(), game.gameName(), game.game())
+                    : new GameData(gameID, game.whiteUsername(), username, game.gameName(), game.game()));
+            versions.merge(gameID, 1L, Long::sum);
+            return true;
+        }
+    }
+
+    @Override
+    public void appendMove(int gameID, int ply, ChessMove move, ChessGame stateAfter) throws DataAccessException {
+        synchronized (lockFor(gameID)) {
+            GameData game = games.get(gameID);
+            if (game == null) {
+                throw new DataAccessException("Juego no encontrado: " + gameID);
+            }
+            List<ChessMove> log = moves.computeIfAbsent(gameID, id -> new ArrayList<>());
+            // Una partida ya terminada tampoco admite más movimientos
+            if (ply != log.size() + 1 || finishedAt.containsKey(gameID)) {
+                throw new DataAccessException("Move conflict");
+            }
+            log.add(move);
+            if (ply % SNAPSHOT_INTERVAL == 0) {
+                snapshots.computeIfAbsent(gameID, id -> new ConcurrentSkipListMap<>()).put(ply, GameStateCodec.encode(stateAfter));
+            }
+            if (stateAfter != null) {
+                games.put(gameID, new GameData(gameID, game.whiteUsername(), game.blackUsername(), game.gameName(),
+                        copyOf(stateAfter)));
+                trackFinished(gameID, stateAfter);
+            }
+        }
+    }
+
+    @Override
+    public List<ChessMove> getMoves(int gameID, int afterPly, int uptoPly) throws DataAccessException {
+        synchronized (lockFor(gameID)) {
+            List<ChessMove> log = moves.get(gameID);
+            if (log == null) {
+                ArchivedGame archived = archive.get(gameID);
+                log = archived != null ? GameArchiveCodec.decode(archived.contents()).moves() : List.of();
+            }
+            int from = Math.max(0, Math.min(afterPly, log.size()));
+            int to = Math.max(from, Math.min(uptoPly, log.size()));
+            return new ArrayList<>(log.subList(from, to));
         }
-        games.put(gameID, game);
+    }
+
+    @Override
+    public ChessGame getSnapshot(int gameID, int ply) throws DataAccessException {
+        ConcurrentSkipListMap<Integer, byte[]> gameSnapshots = snapshots.get(gameID);
+        Map.Entry<Integer, byte[]> entry = gameSnapshots != null ? gameSnapshots.floorEntry(ply) : null;
+        return entry != null ? GameStateCodec.decode(entry.getValue()) : null;
     }
 
     @Override
     public GameData[] getAllGames() throws DataAccessException {
-        return games.values().toArray(new GameData[0]);
+        List<GameData> all = new ArrayList<>(games.size());
+        for (GameData game : games.values()) {
+            all.add(copyOf(game));
+        }
+        return all.toArray(new GameData[0]);
+    }
+
+    @Override
+    public GameSummary[] listGameSummaries() throws DataAccessException {
+        return listGameSummaries(0, Integer.MAX_VALUE, GameFilter.NONE);
+    }
+
+    /**
+     * Range scan over the live and archived maps from the cursor, merged in ID order; it
+     * stops as soon as the page is full instead of sorting everything after the cursor.
+     */
+    @Override
+    public GameSummary[] listGameSummaries(int afterGameID, int limit, GameFilter filter) throws DataAccessException {
+        Iterator<GameData> live = games.tailMap(afterGameID, false).values().iterator();
+        Iterator<ArchivedGame> archived = archive.tailMap(afterGameID, false).values().iterator();
+        GameData nextLive = live.hasNext() ? live.next() : null;
+        ArchivedGame nextArchived = archived.hasNext() ? archived.next() : null;
+        List<GameSummary> page = new ArrayList<>();
+        while (page.size() < limit && (nextLive != null || nextArchived != null)) {
+            GameSummary summary;
+            if (nextArchived == null || (nextLive != null && nextLive.gameID() < nextArchived.summary().gameID())) {
+                summary = new GameSummary(nextLive.gameID(), nextLive.whiteUsername(), nextLive.blackUsername(),
+                        nextLive.gameName());
+                nextLive = live.hasNext() ? live.next() : null;
+            } else {
+                summary = nextArchived.summary();
+                nextArchived = archived.hasNext() ? archived.next() : null;
+            }
+            if (filter.matches(summary.whiteUsername(), summary.blackUsername())) {
+                page.add(summary);
+            }
+        }
+        return page.toArray(new GameSummary[0]);
+    }
+
+    @Override
+    public int countActiveGamesForUser(String username) throws DataAccessException {
+        GameFilter filter = new GameFilter(false, username);
+        return (int) games.values().stream()
+                .filter(g -> filter.matches(g.whiteUsername(), g.blackUsername()))
+                .filter(g -> g.game() == null || !g.game().isGameOver())
+                .count();
+    }
+
+    @Override
+    public int[] listUnfinishedGameIDs(int limit) throws DataAccessException {
+        return games.descendingMap().values().stream()
+                .filter(g -> g.game() == null || !g.game().isGameOver())
+                .limit(limit)
+                .mapToInt(GameData::gameID)
+                .toArray();
+    }
+
+    @Override
+    public int archiveFinishedGames(long finishedBefore, int limit) throws DataAccessException {
+        int archived = 0;
+        for (Map.Entry<Integer, Long> entry : finishedAt.entrySet()) {
+            if (archived >= limit) {
+                break;
+            }
+            if (entry.getValue() >= finishedBefore) {
+                continue;
+            }
+            int gameID = entry.getKey();
+            synchronized (lockFor(gameID)) {
+                GameData game = games.get(gameID);
+                if (game == null || !finishedAt.remove(gameID, entry.getValue())) {
+                    continue;
+                }
+                List<ChessMove> log = moves.getOrDefault(gameID, List.of());
+                archive.put(gameID, new ArchivedGame(
+                        new GameSummary(gameID, game.whiteUsername(), game.blackUsername(), game.gameName()),
+                        versions.getOrDefault(gameID, 0L), GameArchiveCodec.encode(game.game(), log)));
+                games.remove(gameID);
+                versions.remove(gameID);
+                participants.remove(gameID);
+                moves.remove(gameID);
+                snapshots.remove(gameID);
+                archived++;
+            }
+        }
+        return archived;
+    }
+
+    private VersionedGame getArchived(int gameID) throws DataAccessException {
+        ArchivedGame archived = archive.get(gameID);
+        if (archived == null) {
+            return null;
+        }
+        GameSummary summary = archived.summary();
+        return new VersionedGame(new GameData(gameID, summary.whiteUsername(), summary.blackUsername(),
+                summary.gameName(), GameArchiveCodec.decode(archived.contents()).game()), archived.version());
+    }
+
+    private static GameData copyOf(GameData game) throws DataAccessException {
+        return new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(),
+                copyOf(game.game()));
+    }
+
+    private static ChessGame copyOf(ChessGame game) throws DataAccessException {
+        return game != null ? GameStateCodec.decode(GameStateCodec.encode(game)) : null;
+    }
+
+    private void trackFinished(int gameID, ChessGame game) {
+        if (game != null && game.isGameOver()) {
+            finishedAt.putIfAbsent(gameID, System.currentTimeMillis());
+        } else {
+            finishedAt.remove(gameID);
+        }
     }
 
     // ELIMINADO: generateGameID ya no es parte de la interfaz DataAccess
@@ -95,6 +374,12 @@ public class MemoryDataAccess implements DataAccess {
         users.clear();
         authTokens.clear();
         games.clear();
+        versions.clear();
+        participants.clear();
+        moves.clear();
+        snapshots.clear();
+        finishedAt.clear();
+        archive.clear();
         gameIdCounter.set(1); // Reiniciar el contador de ID en memoria
     }
 
@@ -111,23 +396,41 @@ public class MemoryDataAccess implements DataAccess {
     @Override
     public void deleteAllGames() throws DataAccessException {
         games.clear();
+        versions.clear();
+        participants.clear();
+        moves.clear();
+        snapshots.clear();
+        finishedAt.clear();
+        archive.clear();
         gameIdCounter.set(1); // Reiniciar el contador de ID al borrar juegos
     }
 
     @Override
-    public boolean isObserver(int gameID, String username) throws DataAccessException {
-        GameData game = getGame(gameID);
-        if (game == null) {
-            return false;
+    public void addParticipant(int gameID, String username, Participant.Role role) throws DataAccessException {
+        if (!games.containsKey(gameID)) {
+            throw new DataAccessException("Juego no encontrado: " + gameID);
         }
+        participants.computeIfAbsent(gameID, id -> new ConcurrentHashMap<>()).merge(username,
+                new Participant(gameID, username, role, System.currentTimeMillis()),
+                (existing, added) -> new Participant(gameID, username, role, existing.joinedAt()));
+    }
 
-        // Si el usuario ya es jugador, no es un observador "puro"
-        if (Objects.equals(game.whiteUsername(), username) || Objects.equals(game.blackUsername(), username)) {
-            return false;
+    @Override
+    public void removeParticipant(int gameID, String username) throws DataAccessException {
+        Map<String, Participant> members = participants.get(gameID);
+        if (members != null) {
+            members.remove(username);
         }
+    }
 
-        // En una implementación en memoria, si el usuario existe y no es jugador, se asume que puede ser observador
-        UserData user = getUser(username);
-        return user != null;
+    @Override
+    public Participant.Role getParticipantRole(int gameID, String username) throws DataAccessException {
+        Participant participant = participants.getOrDefault(gameID, Map.of()).get(username);
+        return participant != null ? participant.role() : null;
+    }
+
+    @Override
+    public List<Participant> getParticipants(int gameID) throws DataAccessException {
+        return new ArrayList<>(participants.getOrDefault(gameID, Map.of()).values());
     }
 }
\ No newline at end of file
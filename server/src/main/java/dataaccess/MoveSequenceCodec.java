@@ -0,0 +1,481 @@
+package dataaccess;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Encoding of a game as its move list alone, for archives and bulk export. The list
+ * determines the game, so no position is stored: each move is written as its index in the
+ * legal moves of the position it was played from, sorted by
+ * {@link GameStateCodec#encodeMove(ChessMove)}, and the indices are range-coded with every
+ * legal move equally likely. A move then costs log2 of the number of legal moves, around
+ * five bits in a typical middlegame and nothing for a forced move.
+ * <p>
+ * Encoder and decoder replay the moves from the starting position with the same move rules
+ * as {@link ChessGame}, so they always agree on the legal moves, and decoding hands back
+ * the final position as a {@link ChessGame}.
+ * <p>
+ * Layout:
+ * <pre>
+ * bytes 0-1     number of moves, unsigned big-endian
+ * ...           the range-coded indices, trailing zero bytes dropped
+ * </pre>
+ */
+public final class MoveSequenceCodec {
+
+    public static final int MAX_MOVES = 0xFFFF;
+
+    // Range coder sin acarreo de 32 bits (Subbotin)
+    private static final long MASK = 0xFFFFFFFFL;
+    private static final long TOP = 1L << 24;
+    private static final long BOTTOM = 1L << 16;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition(square / 8 + 1, square % 8 + 1);
+        }
+    }
+
+    public record Replay(List<ChessMove> moves, ChessGame game) {
+    }
+
+    private MoveSequenceCodec() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the moves are not a legal game from the starting
+     *                                  position, or there are more than {@link #MAX_MOVES}
+     */
+    public static byte[] encode(List<ChessMove> moves) {
+        return encode(moves, Position.start());
+    }
+
+    /**
+     * The encoding of a game's moves, or null if they do not lead from the starting position
+     * to the game's position.
+     */
+    static byte[] encodeReaching(List<ChessMove> moves, ChessGame game) {
+        Position position = Position.start();
+        try {
+            byte[] data = encode(moves, position);
+            return position.toGame().equals(game) ? data : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public static Replay decode(byte[] data) throws DataAccessException {
+        if (data.length < 2) {
+            throw new DataAccessException("truncated move sequence");
+        }
+        int total = ((data[0] & 0xFF) << 8) | (data[1] & 0xFF);
+        Position position = Position.start();
+        List<ChessMove> moves = new ArrayList<>(total);
+        Decoder decoder = new Decoder(data, 2);
+        int[] legal = new int[Position.MAX_MOVES];
+        for (int ply = 0; ply < total; ply++) {
+            int count = position.legalMoves(legal);
+            int index = count == 0 ? -1 : decoder.decode(count);
+            if (index < 0) {
+                throw new DataAccessException("corrupt move sequence at move " + (ply + 1));
+            }
+            position.play(legal[index]);
+            moves.add(toMove(legal[index]));
+        }
+        return new Replay(moves, position.toGame());
+    }
+
+    /**
+     * The moves that may follow {@code moves}, in the order they are indexed. The codec
+     * works these out itself, so they must always be the moves {@link ChessGame#validMoves}
+     * allows, or archived sequences would decode to different games.
+     *
+     * @throws IllegalArgumentException if the moves are not a legal game from the starting
+     *                                  position, or there are more than {@link #MAX_MOVES}
+     */
+    public static List<ChessMove> legalMoves(List<ChessMove> moves) {
+        Position position = Position.start();
+        encode(moves, position);
+        int[] legal = new int[Position.MAX_MOVES];
+        int count = position.legalMoves(legal);
+        List<ChessMove> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(toMove(legal[i]));
+        }
+        return result;
+    }
+
+    private static byte[] encode(List<ChessMove> moves, Position position) {
+        if (moves.size() > MAX_MOVES) {
+            throw new IllegalArgumentException("too many moves: " + moves.size());
+        }
+        Encoder encoder = new Encoder(moves.size());
+        int[] legal = new int[Position.MAX_MOVES];
+        for (int ply = 0; ply < moves.size(); ply++) {
+            ChessMove move = moves.get(ply);
+            int count = position.legalMoves(legal);
+            int index = move == null ? -1 : Arrays.binarySearch(legal, 0, count, GameStateCodec.encodeMove(move));
+            if (index < 0) {
+                throw new IllegalArgumentException("move " + (ply + 1) + " is not legal: " + move);
+            }
+            encoder.encode(index, count);
+            position.play(legal[index]);
+        }
+        return encoder.finish();
+    }
+
+    private static ChessMove toMove(int move) {
+        int promotion = move >>> 12;
+        return new ChessMove(SQUARES[move & 0x3F], SQUARES[(move >>> 6) & 0x3F],
+                promotion == 0 ? null : TYPES[promotion - 1]);
+    }
+
+    /**
+     * A position on a plain array of squares, with the move rules of {@link ChessPiece} and
+     * the check rule of {@link ChessGame}. Asking {@link ChessGame#validMoves} for every
+     * piece rescans the board once per candidate move, too slow to replay archives in bulk.
+     * Any change to the rules of {@link ChessGame} has to be made here as well;
+     * {@link #legalMoves(List)} exposes the result so tests can hold the two together.
+     * <p>
+     * Squares hold 0 when empty, otherwise the piece type's ordinal plus one, with
+     * {@link #BLACK} set for black pieces; moves are packed as by
+     * {@link GameStateCodec#encodeMove(ChessMove)}.
+     */
+    private static final class Position {
+
+        static final int MAX_MOVES = 512;
+
+        private static final int BLACK = 8;
+        private static final int KING = code(ChessPiece.PieceType.KING);
+        private static final int QUEEN = code(ChessPiece.PieceType.QUEEN);
+        private static final int BISHOP = code(ChessPiece.PieceType.BISHOP);
+        private static final int KNIGHT = code(ChessPiece.PieceType.KNIGHT);
+        private static final int ROOK = code(ChessPiece.PieceType.ROOK);
+        private static final int PAWN = code(ChessPiece.PieceType.PAWN);
+        private static final int[] PROMOTIONS = {QUEEN, ROOK, BISHOP, KNIGHT};
+
+        private static final int[][] KNIGHT_STEPS = {{2, 1}, {2, -1}, {-2, 1}, {-2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}};
+        private static final int[][] KING_STEPS = {{1, 1}, {1, 0}, {1, -1}, {0, 1}, {0, -1}, {-1, 1}, {-1, 0}, {-1, -1}};
+        private static final int[][] STRAIGHT = {{0, 1}, {1, 0}, {0, -1}, {-1, 0}};
+        private static final int[][] DIAGONAL = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+        private final int[] squares = new int[64];
+        private int side;
+        private int ply;
+
+        private static int code(ChessPiece.PieceType type) {
+            return type.ordinal() + 1;
+        }
+
+        static Position start() {
+            Position position = new Position();
+            ChessBoard board = new ChessGame().getBoard();
+            for (int square = 0; square < 64; square++) {
+                ChessPiece piece = board.getPiece(SQUARES[square]);
+                if (piece != null) {
+                    position.squares[square] = code(piece.getPieceType())
+                            | (piece.getTeamColor() == ChessGame.TeamColor.BLACK ? BLACK : 0);
+                }
+            }
+            return position;
+        }
+
+        ChessGame toGame() {
+            ChessBoard board = new ChessBoard();
+            for (int square = 0; square < 64; square++) {
+                int piece = squares[square];
+                if (piece != 0) {
+                    board.addPiece(SQUARES[square], new ChessPiece(
+                            (piece & BLACK) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE,
+                            TYPES[(piece & 7) - 1]));
+                }
+            }
+            ChessGame game = new ChessGame();
+            game.setBoard(board);
+            game.setTeamTurn(side == BLACK ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+            game.setPly(ply);
+            return game;
+        }
+
+        void play(int move) {
+            int from = move & 0x3F;
+            int to = (move >>> 6) & 0x3F;
+            int promotion = move >>> 12;
+            squares[to] = promotion == 0 ? squares[from] : promotion | side;
+            squares[from] = 0;
+            side ^= BLACK;
+            ply++;
+        }
+
+        /**
+         * Fills {@code moves} with the legal moves of the side to move, sorted.
+         */
+        int legalMoves(int[] moves) {
+            int king = -1;
+            int count = 0;
+            for (int square = 0; square < 64; square++) {
+                int piece = squares[square];
+                if (piece == 0 || (piece & BLACK) != side) {
+                    continue;
+                }
+                if ((piece & 7) == KING && king < 0) {
+                    king = square;
+                }
+                count = pieceMoves(square, piece & 7, moves, count);
+            }
+            boolean check = king >= 0 && attacked(king, side ^ BLACK);
+            int legal = 0;
+            for (int i = 0; i < count; i++) {
+                // Sin jaque, solo puede descubrirlo el rey o una pieza en línea con él
+                int from = moves[i] & 0x3F;
+                boolean safe = king < 0 || !check && from != king && !inLine(from, king);
+                if (safe || !leavesKingInCheck(moves[i], king)) {
+                    moves[legal++] = moves[i];
+                }
+            }
+            Arrays.sort(moves, 0, legal);
+            return legal;
+        }
+
+        private boolean leavesKingInCheck(int move, int king) {
+            int from = move & 0x3F;
+            int to = (move >>> 6) & 0x3F;
+            int moving = squares[from];
+            int captured = squares[to];
+            play(move);
+            boolean check = attacked(from == king ? to : king, side);
+            squares[from] = moving;
+            squares[to] = captured;
+            side ^= BLACK;
+            ply--;
+            return check;
+        }
+
+        private static boolean inLine(int a, int b) {
+            int rows = (a >>> 3) - (b >>> 3);
+            int cols = (a & 7) - (b & 7);
+            return rows == 0 || cols == 0 || rows == cols || rows == -cols;
+        }
+
+        private int pieceMoves(int square, int type, int[] moves, int count) {
+            int row = square >>> 3;
+            int col = square & 7;
+            if (type == PAWN) {
+                int direction = side == 0 ? 1 : -1;
+                int last = side == 0 ? 7 : 0;
+                int next = row + direction;
+                if (next < 0 || next > 7) {
+                    return count;
+                }
+                if (row == (side == 0 ? 1 : 6) && squares[next * 8 + col] == 0
+                        && squares[(next + direction) * 8 + col] == 0) {
+                    moves[count++] = square | ((next + direction) * 8 + col) << 6;
+                }
+                for (int step = -1; step <= 1; step++) {
+                    int target = col + step;
+                    if (target < 0 || target > 7) {
+                        continue;
+                    }
+                    int piece = squares[next * 8 + target];
+                    boolean open = step == 0 ? piece == 0 : piece != 0 && (piece & BLACK) != side;
+                    if (!open) {
+                        continue;
+                    }
+                    int move = square | (next * 8 + target) << 6;
+                    if (next == last) {
+                        for (int promotion : PROMOTIONS) {
+                            moves[count++] = move | promotion << 12;
+                        }
+                    } else {
+                        moves[count++] = move;
+                    }
+                }
+                return count;
+            }
+            if (type == KING || type == KNIGHT) {
+                for (int[] step : type == KING ? KING_STEPS : KNIGHT_STEPS) {
+                    count = addMove(square, row + step[0], col + step[1], moves, count);
+                }
+                return count;
+            }
+            if (type != BISHOP) {
+                count = addRays(square, STRAIGHT, moves, count);
+            }
+            if (type != ROOK) {
+                count = addRays(square, DIAGONAL, moves, count);
+            }
+            return count;
+        }
+
+        private int addRays(int square, int[][] directions, int[] moves, int count) {
+            for (int[] direction : directions) {
+                int row = (square >>> 3) + direction[0];
+                int col = (square & 7) + direction[1];
+                while (row >= 0 && row <= 7 && col >= 0 && col <= 7) {
+                    int piece = squares[row * 8 + col];
+                    if (piece == 0 || (piece & BLACK) != side) {
+                        moves[count++] = square | (row * 8 + col) << 6;
+                    }
+                    if (piece != 0) {
+                        break;
+                    }
+                    row += direction[0];
+                    col += direction[1];
+                }
+            }
+            return count;
+        }
+
+        private int addMove(int square, int row, int col, int[] moves, int count) {
+            if (row < 0 || row > 7 || col < 0 || col > 7) {
+                return count;
+            }
+            int piece = squares[row * 8 + col];
+            if (piece == 0 || (piece & BLACK) != side) {
+                moves[count++] = square | (row * 8 + col) << 6;
+            }
+            return count;
+        }
+
+        /**
+         * Whether a piece of color {@code by} could move onto {@code square}.
+         */
+        private boolean attacked(int square, int by) {
+            int row = square >>> 3;
+            int col = square & 7;
+            int pawnRow = row - (by == 0 ? 1 : -1);
+            for (int step = -1; step <= 1; step += 2) {
+                if (isPiece(pawnRow, col + step, PAWN | by)) {
+                    return true;
+                }
+            }
+            for (int i = 0; i < 8; i++) {
+                if (isPiece(row + KNIGHT_STEPS[i][0], col + KNIGHT_STEPS[i][1], KNIGHT | by)
+                        || isPiece(row + KING_STEPS[i][0], col + KING_STEPS[i][1], KING | by)) {
+                    return true;
+                }
+            }
+            return slides(row, col, STRAIGHT, ROOK | by, QUEEN | by)
+                    || slides(row, col, DIAGONAL, BISHOP | by, QUEEN | by);
+        }
+
+        private boolean slides(int row, int col, int[][] directions, int piece, int queen) {
+            for (int[] direction : directions) {
+                int r = row + direction[0];
+                int c = col + direction[1];
+                while (r >= 0 && r <= 7 && c >= 0 && c <= 7) {
+                    int found = squares[r * 8 + c];
+                    if (found != 0) {
+                        if (found == piece || found == queen) {
+                            return true;
+                        }
+                        break;
+                    }
+                    r += direction[0];
+                    c += direction[1];
+                }
+            }
+            return false;
+        }
+
+        private boolean isPiece(int row, int col, int piece) {
+            return row >= 0 && row <= 7 && col >= 0 && col <= 7 && squares[row * 8 + col] == piece;
+        }
+    }
+
+    private static final class Encoder {
+
+        private final ByteArrayOutputStream out;
+        private long low;
+        private long range = MASK;
+
+        Encoder(int moves) {
+            out = new ByteArrayOutputStream(2 + moves);
+            out.write(moves >>> 8);
+            out.write(moves);
+        }
+
+        void encode(int index, int count) {
+            range /= count;
+            low = (low + index * range) & MASK;
+            while (true) {
+                if ((low ^ ((low + range) & MASK)) >= TOP) {
+                    if (range >= BOTTOM) {
+                        break;
+                    }
+                    range = -low & (BOTTOM - 1);
+                }
+                out.write((int) (low >>> 24));
+                low = (low << 8) & MASK;
+                range = (range << 8) & MASK;
+            }
+        }
+
+        byte[] finish() {
+            for (int i = 0; i < 4; i++) {
+                out.write((int) (low >>> 24));
+                low = (low << 8) & MASK;
+            }
+            byte[] bytes = out.toByteArray();
+            // El decodificador lee ceros al pasar del final
+            int length = bytes.length;
+            while (length > 2 && bytes[length - 1] == 0) {
+                length--;
+            }
+            return length == bytes.length ? bytes : Arrays.copyOf(bytes, length);
+        }
+    }
+
+    private static final class Decoder {
+
+        private final byte[] data;
+        private int next;
+        private long low;
+        private long range = MASK;
+        private long code;
+
+        Decoder(byte[] data, int offset) {
+            this.data = data;
+            this.next = offset;
+            for (int i = 0; i < 4; i++) {
+                code = (code << 8) | nextByte();
+            }
+        }
+
+        int decode(int count) {
+            range /= count;
+            long index = ((code - low) & MASK) / range;
+            if (index >= count) {
+                return -1;
+            }
+            low = (low + index * range) & MASK;
+            while (true) {
+                if ((low ^ ((low + range) & MASK)) >= TOP) {
+                    if (range >= BOTTOM) {
+                        break;
+                    }
+                    range = -low & (BOTTOM - 1);
+                }
+                code = ((code << 8) | nextByte()) & MASK;
+                low = (low << 8) & MASK;
+                range = (range << 8) & MASK;
+            }
+            return (int) index;
+        }
+
+        private int nextByte() {
+            return next < data.length ? data[next++] & 0xFF : 0;
+        }
+    }
+}
@@ -1,25 +1,180 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
 import com.google.gson.Gson;
+import json.JsonCodecs;
 import model.AuthData;
 import model.GameData;
+import model.GameSummary;
 import model.UserData;
 import org.mindrot.jbcrypt.BCrypt;
 
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 
-public class MySQLDataAccess implements DataAccess {
-    private final Gson gson = new Gson();
+public class MySQLDataAccess implements DataAccess, AutoCloseable {
+    private static final int DUPLICATE_KEY = 1062;
+
+    // El estado guardado en games y la última instantánea; los movimientos posteriores se reproducen
+    private static final String SELECT_GAME =
+            "SELECT g.gameID, g.whiteUsername, g.blackUsername, g.gameName, g.gameState, g.game, g.version, " +
+                    "s.ply AS snapshotPly, s.state AS snapshotState FROM games g " +
+                    "LEFT JOIN game_snapshots s ON s.gameID = g.gameID " +
+                    "AND s.ply = (SELECT MAX(ply) FROM game_snapshots WHERE gameID = g.gameID)";
+
+    // Cierra la partida tras el movimiento que la termina; el estado final evita reproducir sus movimientos
+    private static final String FINISH_GAME = "UPDATE games SET gameOver = TRUE, " +
+            "finishedAt = COALESCE(finishedAt, ?), gameState = ?, game = NULL WHERE gameID = ?";
+
+    private final Gson gson = JsonCodecs.gson();
     // ELIMINADO: private final AtomicInteger gameIdCounter = new AtomicInteger(1);
 
+    /**
+     * Schema changes in the order they were introduced. The schema is at version N once the
+     * first N have run, as recorded in {@code schema_version}, so a server starting against a
+     * current schema runs no DDL at all. Each migration also copes with a schema that already
+     * has its change, since databases created before {@code schema_version} start at 0.
+     */
+    private final List<Migration> migrations = List.of(
+            this::createTables,
+            this::migrateJsonGameState,
+            this::addSecondaryIndexes,
+            this::addVersionColumn,
+            this::addParticipantsTable,
+            this::addAuthTimestamps,
+            this::addArchiveTable,
+            this::addHeartbeatTable);
+
+    private interface Migration {
+        void apply() throws DataAccessException;
+    }
+
+    // Null para la base de datos principal, que usa el pool compartido de DatabaseManager
+    private final String schema;
+    private final ConnectionPool pool;
+
     public MySQLDataAccess() throws DataAccessException {
-        DatabaseManager.createDatabase();
-        try (Connection conn = DatabaseManager.getConnection(); Statement stmt = conn.createStatement()) {
+        this(null, null, true);
+    }
+
+    /**
+     * Stores only games, in {@code shardSchema} on the same server, through its own pool.
+     * Users live in the primary database, so the shard's game tables do not reference them.
+     */
+    public static MySQLDataAccess shard(String shardSchema) throws DataAccessException {
+        MySQLDataAccess shard = new MySQLDataAccess(shardSchema, DatabaseManager.openPool(shardSchema), true);
+        shard.dropUserForeignKeys();
+        return shard;
+    }
+
+    /**
+     * Reads from a replica of the primary database at {@code hostAndPort}, through its own
+     * pool. Replicas receive their schema through replication, so no migrations run here and
+     * the instance must only be used for reads.
+     */
+    public static MySQLDataAccess replica(String hostAndPort) throws DataAccessException {
+        return new MySQLDataAccess(null, DatabaseManager.openReplicaPool(hostAndPort), false);
+    }
+
+    private MySQLDataAccess(String schema, ConnectionPool pool, boolean migrate) throws DataAccessException {
+        this.schema = schema;
+        this.pool = pool;
+        if (migrate) {
+            int version = schemaVersion();
+            if (version < migrations.size()) {
+                migrate(version);
+            }
+        }
+    }
+
+    private Connection connection() throws DataAccessException {
+        return pool != null ? pool.getConnection() : DatabaseManager.getConnection();
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Stamps the heartbeat row with {@code now}; called on the primary.
+     */
+    public void writeHeartbeat(long now) throws DataAccessException {
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("INSERT INTO replication_heartbeat(id, beatAt) VALUES (1, ?) ON DUPLICATE KEY UPDATE beatAt = ?")) {
+            stmt.setLong(1, now);
+            stmt.setLong(2, now);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to write heartbeat " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the last heartbeat this database has seen, or 0 if there is none yet; on a
+     * replica, every write the primary committed before that time has been applied
+     */
+    public long readHeartbeat() throws DataAccessException {
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("SELECT beatAt FROM replication_heartbeat WHERE id = 1"); ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to read heartbeat " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the last migration applied, or 0 if the database or the version table is missing
+     */
+    private int schemaVersion() {
+        try (Connection conn = connection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException | DataAccessException e) {
+            return 0;
+        }
+    }
+
+    private void migrate(int fromVersion) throws DataAccessException {
+        if (schema != null) {
+            DatabaseManager.createDatabase(schema);
+        } else {
+            DatabaseManager.createDatabase();
+        }
+        try (Connection conn = connection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS schema_version (\n" +
+                    "version INT PRIMARY KEY,\n" +
+                    "appliedAt BIGINT NOT NULL\n" +
+                    ");");
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to create schema version table " + e.getMessage());
+        }
+        for (int version = fromVersion + 1; version <= migrations.size(); version++) {
+            migrations.get(version - 1).apply();
+            // IGNORE: otro servidor que arrancó a la vez pudo aplicar la misma migración
+            try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                    ("INSERT IGNORE INTO schema_version(version, appliedAt) VALUES (?, ?)")) {
+                stmt.setInt(1, version);
+                stmt.setLong(2, System.currentTimeMillis());
+                stmt.executeUpdate();
+            } catch (SQLException e) {
+                throw new DataAccessException("failed to record schema version " + e.getMessage());
+            }
+        }
+    }
+
+    private void createTables() throws DataAccessException {
+        try (Connection conn = connection(); Statement stmt = conn.createStatement()) {
             stmt.executeUpdate("CREATE TABLE IF NOT EXISTS users (\n" +
                     "username VARCHAR (255) PRIMARY KEY, \n" +
                     "password VARCHAR (255) NOT NULL, \n" +
@@ -28,6 +183,8 @@ public class MySQLDataAccess implements DataAccess {
             stmt.executeUpdate("CREATE TABLE IF NOT EXISTS auth (\n" +
                     "authToken VARCHAR (255) PRIMARY KEY, \n" +
                     "username VARCHAR (255) NOT NULL,\n" +
+                    "issuedAt BIGINT NOT NULL DEFAULT 0,\n" +
+                    "lastUsedAt BIGINT NOT NULL DEFAULT 0,\n" +
                     "FOREIGN KEY (username) REFERENCES users(username) ON DELETE CASCADE\n" +
                     ");");
             stmt.executeUpdate("CREATE TABLE IF NOT EXISTS games (\n" +
@@ -36,17 +193,331 @@ public class MySQLDataAccess implements DataAccess {
                     "blackUsername VARCHAR (255),\n" +
                     "gameName VARCHAR (255) NOT NULL,\n" +
                     "game TEXT,\n" +
+                    "gameState BLOB,\n" +
+                    "gameOver BOOLEAN NOT NULL DEFAULT FALSE,\n" +
+                    "version BIGINT NOT NULL DEFAULT 0,\n" +
                     "FOREIGN KEY (whiteUsername) REFERENCES users(username) ON DELETE SET NULL,\n" +
                     "FOREIGN KEY (blackUsername) REFERENCES users(username) ON DELETE SET NULL\n" +
                     ");");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS moves (\n" +
+                    "gameID INT NOT NULL,\n" +
+                    "ply INT NOT NULL,\n" +
+                    "move SMALLINT NOT NULL,\n" +
+                    "PRIMARY KEY (gameID, ply),\n" +
+                    "FOREIGN KEY (gameID) REFERENCES games(gameID) ON DELETE CASCADE\n" +
+                    ");");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS game_snapshots (\n" +
+                    "gameID INT NOT NULL,\n" +
+                    "ply INT NOT NULL,\n" +
+                    "state BLOB NOT NULL,\n" +
+                    "PRIMARY KEY (gameID, ply),\n" +
+                    "FOREIGN KEY (gameID) REFERENCES games(gameID) ON DELETE CASCADE\n" +
+                    ");");
         } catch (SQLException e) {
             throw new DataAccessException("failed to create tables " + e.getMessage());
         }
     }
 
+    /**
+     * Games used to be stored as Gson JSON in the TEXT column {@code game}. Adds the binary
+     * {@code gameState} column to older schemas and re-encodes any rows still holding JSON.
+     */
+    private void migrateJsonGameState() throws DataAccessException {
+        try (Connection conn = connection()) {
+            if (!hasColumn(conn, "games", "gameState")) {
+                try (Statement alter = conn.createStatement()) {
+                    alter.executeUpdate("ALTER TABLE games ADD COLUMN gameState BLOB");
+                }
+            }
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement select = conn.prepareStatement
+                    ("SELECT gameID, game FROM games WHERE gameState IS NULL AND game IS NOT NULL");
+                 PreparedStatement update = conn.prepareStatement
+                         ("UPDATE games SET gameState = ?, game = NULL WHERE gameID = ?");
+                 ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    update.setBytes(1, GameStateCodec.encode(gson.fromJson(rs.getString("game"), ChessGame.class)));
+                    update.setInt(2, rs.getInt("gameID"));
+                    update.addBatch();
+                }
+                update.executeBatch();
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException | RuntimeException e) {
+            throw new DataAccessException("failed to migrate game state " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds the {@code gameOver} column and the indexes behind the per-player queries to
+     * schemas created before them. InnoDB already keeps an unnamed index for each foreign
+     * key; these named ones replace them and end in gameID, so a player's games come out
+     * of an index range scan already in keyset order.
+     */
+    private void addSecondaryIndexes() throws DataAccessException {
+        try (Connection conn = connection(); Statement stmt = conn.createStatement()) {
+            if (!hasColumn(conn, "games", "gameOver")) {
+                stmt.executeUpdate("ALTER TABLE games ADD COLUMN gameOver BOOLEAN NOT NULL DEFAULT FALSE");
+                backfillGameOver(conn);
+            }
+            if (!hasIndex(conn, "auth", "idx_auth_username")) {
+                stmt.executeUpdate("CREATE INDEX idx_auth_username ON auth (username)");
+            }
+            if (!hasIndex(conn, "games", "idx_games_white")) {
+                stmt.executeUpdate("CREATE INDEX idx_games_white ON games (whiteUsername, gameID)");
+            }
+            if (!hasIndex(conn, "games", "idx_games_black")) {
+                stmt.executeUpdate("CREATE INDEX idx_games_black ON games (blackUsername, gameID)");
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to add indexes " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds the {@code version} column behind {@link #updateGameIfVersion} to older schemas.
+     * Existing rows start at version 0.
+     */
+    private void addVersionColumn() throws DataAccessException {
+        try (Connection conn = connection(); Statement stmt = conn.createStatement()) {
+            if (!hasColumn(conn, "games", "version")) {
+                stmt.executeUpdate("ALTER TABLE games ADD COLUMN version BIGINT NOT NULL DEFAULT 0");
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to add version column " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates {@code game_participants}, keyed by (gameID, username) so membership checks are
+     * a primary key lookup, with an index on username for a user's games. When the table is
+     * new, the players already seated in {@code games} are copied into it.
+     */
+    private void addParticipantsTable() throws DataAccessException {
+        try (Connection conn = connection(); Statement stmt = conn.createStatement()) {
+            boolean exists = hasTable(conn, "game_participants");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS game_participants (\n" +
+                    "gameID INT NOT NULL,\n" +
+                    "username VARCHAR (255) NOT NULL,\n" +
+                    "role ENUM ('WHITE', 'BLACK', 'OBSERVER') NOT NULL,\n" +
+                    "joinedAt BIGINT NOT NULL,\n" +
+                    "PRIMARY KEY (gameID, username),\n" +
+                    "INDEX idx_participants_username (username),\n" +
+                    "FOREIGN KEY (gameID) REFERENCES games(gameID) ON DELETE CASCADE,\n" +
+                    "FOREIGN KEY (username) REFERENCES users(username) ON DELETE CASCADE\n" +
+                    ");");
+            if (!exists) {
+                long now = System.currentTimeMillis();
+                stmt.executeUpdate("INSERT IGNORE INTO game_participants(gameID, username, role, joinedAt) " +
+                        "SELECT gameID, whiteUsername, 'WHITE', " + now + " FROM games WHERE whiteUsername IS NOT NULL");
+                stmt.executeUpdate("INSERT IGNORE INTO game_participants(gameID, username, role, joinedAt) " +
+                        "SELECT gameID, blackUsername, 'BLACK', " + now + " FROM games WHERE blackUsername IS NOT NULL");
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to create participants table " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds the {@code issuedAt} and {@code lastUsedAt} columns to older schemas, counting
+     * existing tokens as issued now, and indexes both so the expiry sweep reads only the rows
+     * it deletes.
+     */
+    private void addAuthTimestamps() throws DataAccessException {
+        try (Connection conn = connection(); Statement stmt = conn.createStatement()) {
+            if (!hasColumn(conn, "auth", "issuedAt")) {
+                long now = System.currentTimeMillis();
+                stmt.executeUpdate("ALTER TABLE auth ADD COLUMN issuedAt BIGINT NOT NULL DEFAULT 0, " +
+                        "ADD COLUMN lastUsedAt BIGINT NOT NULL DEFAULT 0");
+                stmt.executeUpdate("UPDATE auth SET issuedAt = " + now + ", lastUsedAt = " + now);
+            }
+            if (!hasIndex(conn, "auth", "idx_auth_issued")) {
+                stmt.executeUpdate("CREATE INDEX idx_auth_issued ON auth (issuedAt)");
+            }
+            if (!hasIndex(conn, "auth", "idx_auth_last_used")) {
+                stmt.executeUpdate("CREATE INDEX idx_auth_last_used ON auth (lastUsedAt)");
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to add auth timestamps " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds {@code finishedAt}, set when a game first reaches game over, and the
+     * {@code games_archive} table that finished games are moved to. Games already over when
+     * the column is added count as finished now, so they wait a full grace period.
+     */
+    private void addArchiveTable() throws DataAccessException {
+        try (Connection conn = connection(); Statement stmt = conn.createStatement()) {
+            if (!hasColumn(conn, "games", "finishedAt")) {
+                stmt.executeUpdate("ALTER TABLE games ADD COLUMN finishedAt BIGINT NULL");
+                stmt.executeUpdate("UPDATE games SET finishedAt = " + System.currentTimeMillis() + " WHERE gameOver");
+            }
+            if (!hasIndex(conn, "games", "idx_games_finished")) {
+                stmt.executeUpdate("CREATE INDEX idx_games_finished ON games (finishedAt)");
+            }
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS games_archive (\n" +
+                    "gameID INT PRIMARY KEY,\n" +
+                    "whiteUsername VARCHAR (255),\n" +
+                    "blackUsername VARCHAR (255),\n" +
+                    "gameName VARCHAR (255) NOT NULL,\n" +
+                    "version BIGINT NOT NULL,\n" +
+                    "finishedAt BIGINT NOT NULL,\n" +
+                    "archivedAt BIGINT NOT NULL,\n" +
+                    "contents MEDIUMBLOB NOT NULL,\n" +
+                    "INDEX idx_archive_white (whiteUsername, gameID),\n" +
+                    "INDEX idx_archive_black (blackUsername, gameID),\n" +
+                    "FOREIGN KEY (whiteUsername) REFERENCES users(username) ON DELETE SET NULL,\n" +
+                    "FOREIGN KEY (blackUsername) REFERENCES users(username) ON DELETE SET NULL\n" +
+                    ");");
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to create archive table " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds the single-row {@code replication_heartbeat} table. The primary stamps it with the
+     * current time and replicas read it back to tell how far behind they are.
+     */
+    private void addHeartbeatTable() throws DataAccessException {
+        try (Connection conn = connection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS replication_heartbeat (\n" +
+                    "id TINYINT PRIMARY KEY,\n" +
+                    "beatAt BIGINT NOT NULL\n" +
+                    ");");
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to create heartbeat table " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drops every foreign key from this schema's tables to its own, always empty, users table.
+     * Deleting a user then no longer clears their seats in games stored on this shard.
+     */
+    private void dropUserForeignKeys() throws DataAccessException {
+        try (Connection conn = connection()) {
+            List<String[]> keys = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT TABLE_NAME, CONSTRAINT_NAME FROM information_schema.KEY_COLUMN_USAGE " +
+                            "WHERE TABLE_SCHEMA = DATABASE() AND REFERENCED_TABLE_NAME = 'users'");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    keys.add(new String[]{rs.getString(1), rs.getString(2)});
+                }
+            }
+            try (Statement stmt = conn.createStatement()) {
+                for (String[] key : keys) {
+                    stmt.executeUpdate("ALTER TABLE " + key[0] + " DROP FOREIGN KEY " + key[1]);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to drop user foreign keys " + e.getMessage());
+        }
+    }
+
+    private void backfillGameOver(Connection conn) throws SQLException, DataAccessException {
+        try (PreparedStatement select = conn.prepareStatement
+                ("SELECT gameID, gameState FROM games WHERE gameState IS NOT NULL");
+             PreparedStatement update = conn.prepareStatement
+                     ("UPDATE games SET gameOver = TRUE WHERE gameID = ?");
+             ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                if (GameStateCodec.decode(rs.getBytes("gameState")).isGameOver()) {
+                    update.setInt(1, rs.getInt("gameID"));
+                    update.addBatch();
+                }
+            }
+            update.executeBatch();
+        }
+    }
+
+    private static boolean hasColumn(Connection conn, String table, String column) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT COUNT(*) FROM information_schema.COLUMNS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?")) {
+            stmt.setString(1, table);
+            stmt.setString(2, column);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    private static boolean hasTable(Connection conn, String table) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?")) {
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    private static boolean hasIndex(Connection conn, String table, String index) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?")) {
+            stmt.setString(1, table);
+            stmt.setString(2, index);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    private static boolean isGameOver(GameData game) {
+        return game.game() != null && game.game().isGameOver();
+    }
+
+    private ChessGame readGameState(ResultSet rs) throws SQLException, DataAccessException {
+        byte[] state = rs.getBytes("gameState");
+        if (state != null) {
+            return GameStateCodec.decode(state);
+        }
+        // Filas anteriores a la migración todavía pueden tener el JSON
+        String gameJson = rs.getString("game");
+        return gameJson != null ? gson.fromJson(gameJson, ChessGame.class) : null;
+    }
+
+    /**
+     * Rebuilds the game from the newest of the stored state and the latest snapshot, then
+     * replays the logged moves played after it.
+     */
+    private ChessGame loadGameState(Connection conn, ResultSet rs) throws SQLException, DataAccessException {
+        ChessGame game = readGameState(rs);
+        byte[] snapshot = rs.getBytes("snapshotState");
+        if (snapshot != null && (game == null || rs.getInt("snapshotPly") > game.getPly())) {
+            game = GameStateCodec.decode(snapshot);
+        }
+        if (game == null) {
+            return null;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement
+                ("SELECT move FROM moves WHERE gameID = ? AND ply > ? ORDER BY ply")) {
+            stmt.setInt(1, rs.getInt("gameID"));
+            stmt.setInt(2, game.getPly());
+            ResultSet moves = stmt.executeQuery();
+            while (moves.next()) {
+                game.makeMove(GameStateCodec.decodeMove(moves.getInt("move")));
+            }
+        } catch (InvalidMoveException e) {
+            throw new DataAccessException("corrupt move log for game " + rs.getInt("gameID") + ": " + e.getMessage());
+        }
+        return game;
+    }
+
+    private static byte[] encodeGameState(ChessGame game) {
+        return game != null ? GameStateCodec.encode(game) : null;
+    }
+
     @Override
     public UserData getUser(String username) throws DataAccessException {
-        try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
                 ("SELECT * FROM users WHERE username = ?")) {
             stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
@@ -64,7 +535,7 @@ public class MySQLDataAccess implements DataAccess {
 
     @Override
     public void createUser(UserData user) throws DataAccessException {
-        try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
                 ("INSERT INTO users(username, password, email) VALUES (?, ?, ?)") ) {
             String hashedPassword = BCrypt.hashpw(user.password(), BCrypt.gensalt(12));
             stmt.setString(1, user.username());
@@ -72,13 +543,58 @@ public class MySQLDataAccess implements DataAccess {
             stmt.setString(3, user.email());
             stmt.executeUpdate();
         } catch (SQLException e){
+            // La clave primaria rechaza los duplicados sin leer antes el usuario
+            if (e.getErrorCode() == DUPLICATE_KEY) {
+                throw new DataAccessException("Username already exists");
+            }
             throw new DataAccessException("failed to create user " + e.getMessage());
         }
     }
 
+    /**
+     * Both inserts share one connection and one transaction. The password is hashed before
+     * the connection is borrowed so the transaction stays short.
+     */
+    @Override
+    public void registerWithToken(UserData user, AuthData auth) throws DataAccessException {
+        String hashedPassword = BCrypt.hashpw(user.password(), BCrypt.gensalt(12));
+        try (Connection conn = connection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement userStmt = conn.prepareStatement
+                    ("INSERT INTO users(username, password, email) VALUES (?, ?, ?)");
+                 PreparedStatement authStmt = conn.prepareStatement
+                         ("INSERT INTO auth(authToken, username, issuedAt, lastUsedAt) VALUES (?, ?, ?, ?)")) {
+                userStmt.setString(1, user.username());
+                userStmt.setString(2, hashedPassword);
+                userStmt.setString(3, user.email());
+                try {
+                    userStmt.executeUpdate();
+                } catch (SQLException e) {
+                    if (e.getErrorCode() == DUPLICATE_KEY) {
+                        conn.rollback();
+                        throw new DataAccessException("Username already exists");
+                    }
+                    throw e;
+                }
+                authStmt.setString(1, auth.authToken());
+                authStmt.setString(2, auth.username());
+                long now = System.currentTimeMillis();
+                authStmt.setLong(3, now);
+                authStmt.setLong(4, now);
+                authStmt.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to register user " + e.getMessage());
+        }
+    }
+
     @Override
     public AuthData getAuth(String authToken) throws DataAccessException {
-        try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
                 ("SELECT * FROM auth WHERE authToken = ?")) {
             stmt.setString(1, authToken);
             ResultSet rs = stmt.executeQuery();
@@ -93,10 +609,13 @@ public class MySQLDataAccess implements DataAccess {
 
     @Override
     public void createAuth(AuthData auth) throws DataAccessException {
-        try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement
-                ("INSERT INTO auth(authToken, username) VALUES (?, ?)") ) {
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("INSERT INTO auth(authToken, username, issuedAt, lastUsedAt) VALUES (?, ?, ?, ?)") ) {
             stmt.setString(1, auth.authToken());
             stmt.setString(2, auth.username());
+            long now = System.currentTimeMillis();
+            stmt.setLong(3, now);
+            stmt.setLong(4, now);
             stmt.executeUpdate();
         } catch (SQLException e){
             throw new DataAccessException("failed to create auth " + e.getMessage());
@@ -105,7 +624,7 @@ public class MySQLDataAccess implements DataAccess {
 
     @Override
     public void deleteAuth(String authToken) throws DataAccessException{
-        try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
                 ("DELETE FROM auth WHERE authToken = ?")) {
             stmt.setString(1, authToken);
             stmt.executeUpdate();
@@ -114,38 +633,125 @@ public class MySQLDataAccess implements DataAccess {
         }
     }
 
+    @Override
+    public AuthSession getAuthSession(String authToken) throws DataAccessException {
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("SELECT authToken, username, issuedAt, lastUsedAt FROM auth WHERE authToken = ?")) {
+            stmt.setString(1, authToken);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new AuthSession(new AuthData(rs.getString("username"), rs.getString("authToken")),
+                            rs.getLong("issuedAt"), rs.getLong("lastUsedAt"));
+                }
+                return null;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to get auth session " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void touchAuth(String authToken, long lastUsedAt) throws DataAccessException {
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("UPDATE auth SET lastUsedAt = ? WHERE authToken = ? AND lastUsedAt < ?")) {
+            stmt.setLong(1, lastUsedAt);
+            stmt.setString(2, authToken);
+            stmt.setLong(3, lastUsedAt);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to touch auth " + e.getMessage());
+        }
+    }
+
+    /**
+     * Two autocommitted deletes, each walking one of the timestamp indexes. The LIMIT keeps
+     * every statement's row locks few and short-lived.
+     */
+    @Override
+    public int deleteExpiredAuth(long issuedBefore, long lastUsedBefore, int limit) throws DataAccessException {
+        try (Connection conn = connection();
+             PreparedStatement idle = conn.prepareStatement("DELETE FROM auth WHERE lastUsedAt < ? LIMIT ?");
+             PreparedStatement old = conn.prepareStatement("DELETE FROM auth WHERE issuedAt < ? LIMIT ?")) {
+            idle.setLong(1, lastUsedBefore);
+            idle.setInt(2, limit);
+            int deleted = idle.executeUpdate();
+            if (deleted < limit) {
+                old.setLong(1, issuedBefore);
+                old.setInt(2, limit - deleted);
+                deleted += old.executeUpdate();
+            }
+            return deleted;
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to delete expired auth " + e.getMessage());
+        }
+    }
+
+    @Override
+    public long countAuth() throws DataAccessException {
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("SELECT COUNT(*) FROM auth"); ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to count auth " + e.getMessage());
+        }
+    }
+
     @Override
     public GameData getGame(int gameID) throws DataAccessException{
-        try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement
-                ("SELECT * FROM games WHERE gameID = ?")){
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                (SELECT_GAME + " WHERE g.gameID = ?")){
             stmt.setInt(1, gameID);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()){
-                String gameJson = rs.getString("game");
-                ChessGame game = gameJson != null ? gson.fromJson(gameJson, ChessGame.class) : null;
+                ChessGame game = loadGameState(conn, rs);
                 return new GameData
                         (rs.getInt("gameID"),
                                 rs.getString("whiteUsername"),
                                 rs.getString("blackUsername"),
                                 rs.getString("gameName"), game);
             }
-            return null;
+            VersionedGame archived = getArchived(conn, gameID);
+            return archived != null ? archived.game() : null;
         } catch (SQLException e){
             throw new DataAccessException("failed to get game " + e.getMessage());
         }
     }
 
+    @Override
+    public VersionedGame getVersionedGame(int gameID) throws DataAccessException {
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                (SELECT_GAME + " WHERE g.gameID = ?")) {
+            stmt.setInt(1, gameID);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                ChessGame game = loadGameState(conn, rs);
+                return new VersionedGame(new GameData(rs.getInt("gameID"), rs.getString("whiteUsername"),
+                        rs.getString("blackUsername"), rs.getString("gameName"), game), rs.getLong("version"));
+            }
+            return getArchived(conn, gameID);
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to get game " + e.getMessage());
+        }
+    }
+
     @Override
     public int createGame(GameData game) throws DataAccessException {
         // MODIFICADO: NO incluyas gameID en el INSERT, deja que AUTO_INCREMENT lo genere
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = connection();
              PreparedStatement stmt = conn.prepareStatement(
-                     "INSERT INTO games(whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?)",
+                     "INSERT INTO games(whiteUsername, blackUsername, gameName, gameState, gameOver, finishedAt) VALUES (?, ?, ?, ?, ?, ?)",
                      Statement.RETURN_GENERATED_KEYS)) { // Importante para recuperar el ID
             stmt.setString(1, game.whiteUsername());
             stmt.setString(2, game.blackUsername());
             stmt.setString(3, game.gameName());
-            stmt.setString(4, game.game() != null ? gson.toJson(game.game()) : null);
+            stmt.setBytes(4, encodeGameState(game.game()));
+            stmt.setBoolean(5, isGameOver(game));
+            if (isGameOver(game)) {
+                stmt.setLong(6, System.currentTimeMillis());
+            } else {
+                stmt.setNull(6, Types.BIGINT);
+            }
             stmt.executeUpdate();
 
             // Recuperar el gameID generado por la base de datos
@@ -161,15 +767,97 @@ public class MySQLDataAccess implements DataAccess {
         }
     }
 
+    @Override
+    public int[] createGames(List<GameData> games) throws DataAccessException {
+        if (games.isEmpty()) {
+            return new int[0];
+        }
+        try (Connection conn = connection()) {
+            conn.setAutoCommit(false);
+            try {
+                int[] gameIDs = insertGames(conn, games);
+                conn.commit();
+                return gameIDs;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to create games: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Inserts the games and their moves in one transaction.
+     */
+    @Override
+    public int[] createGamesWithMoves(List<GameData> games, List<List<GameWrite.MoveWrite>> moves)
+            throws DataAccessException {
+        if (games.isEmpty()) {
+            return new int[0];
+        }
+        try (Connection conn = connection()) {
+            conn.setAutoCommit(false);
+            try {
+                int[] gameIDs = insertGames(conn, games);
+                writeGameWrites(conn, GameWrite.forGames(gameIDs, moves));
+                conn.commit();
+                return gameIDs;
+            } catch (SQLException | DataAccessException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to create games: " + e.getMessage());
+        }
+    }
+
+    private static int[] insertGames(Connection conn, List<GameData> games) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO games(whiteUsername, blackUsername, gameName, gameState, gameOver, finishedAt) VALUES (?, ?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            long now = System.currentTimeMillis();
+            for (GameData game : games) {
+                stmt.setString(1, game.whiteUsername());
+                stmt.setString(2, game.blackUsername());
+                stmt.setString(3, game.gameName());
+                stmt.setBytes(4, encodeGameState(game.game()));
+                stmt.setBoolean(5, isGameOver(game));
+                if (isGameOver(game)) {
+                    stmt.setLong(6, now);
+                } else {
+                    stmt.setNull(6, Types.BIGINT);
+                }
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            int[] gameIDs = new int[games.size()];
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                for (int i = 0; i < gameIDs.length; i++) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("missing generated game ID " + (i + 1) + " of " + gameIDs.length);
+                    }
+                    gameIDs[i] = generatedKeys.getInt(1);
+                }
+            }
+            return gameIDs;
+        }
+    }
+
     @Override
     public void updateGame(int gameID, GameData game) throws DataAccessException {
-        try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement
-                ("UPDATE games SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ? WHERE gameID = ?")) {
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("UPDATE games SET whiteUsername = ?, blackUsername = ?, gameName = ?, gameState = ?, gameOver = ?, " +
+                        "finishedAt = IF(?, COALESCE(finishedAt, ?), NULL), game = NULL, " +
+                        "version = version + 1 WHERE gameID = ?")) {
             stmt.setString(1, game.whiteUsername());
             stmt.setString(2, game.blackUsername());
             stmt.setString(3, game.gameName());
-            stmt.setString(4, game.game() != null ? gson.toJson(game.game()) : null);
-            stmt.setInt(5, gameID);
+            stmt.setBytes(4, encodeGameState(game.game()));
+            stmt.setBoolean(5, isGameOver(game));
+            stmt.setBoolean(6, isGameOver(game));
+            stmt.setLong(7, System.currentTimeMillis());
+            stmt.setInt(8, gameID);
             int rowAffected = stmt.executeUpdate();
             if (rowAffected == 0) {
                 throw new DataAccessException("failed to update game");
@@ -179,15 +867,293 @@ public class MySQLDataAccess implements DataAccess {
         }
     }
 
+    @Override
+    public boolean updateGameIfVersion(int gameID, long expectedVersion, GameData game) throws DataAccessException {
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("UPDATE games SET whiteUsername = ?, blackUsername = ?, gameName = ?, gameState = ?, gameOver = ?, " +
+                        "finishedAt = IF(?, COALESCE(finishedAt, ?), NULL), game = NULL, " +
+                        "version = version + 1 WHERE gameID = ? AND version = ?")) {
+            stmt.setString(1, game.whiteUsername());
+            stmt.setString(2, game.blackUsername());
+            stmt.setString(3, game.gameName());
+            stmt.setBytes(4, encodeGameState(game.game()));
+            stmt.setBoolean(5, isGameOver(game));
+            stmt.setBoolean(6, isGameOver(game));
+            stmt.setLong(7, System.currentTimeMillis());
+            stmt.setInt(8, gameID);
+            stmt.setLong(9, expectedVersion);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to update game " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        String column = color == ChessGame.TeamColor.WHITE ? "whiteUsername" : "blackUsername";
+        // La condición del UPDATE hace la comprobación y la escritura en una sola sentencia
+        // MySQL asigna de izquierda a derecha: la versión solo sube si el asiento estaba libre
+        String sql = "UPDATE games SET version = version + (" + column + " IS NULL), " + column + " = ? " +
+                "WHERE gameID = ? AND (" + column + " IS NULL OR " + column + " = ?)";
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, username);
+            stmt.setInt(2, gameID);
+            stmt.setString(3, username);
+            if (stmt.executeUpdate() > 0) {
+                return true;
+            }
+            try (PreparedStatement exists = conn.prepareStatement("SELECT 1 FROM games WHERE gameID = ?")) {
+                exists.setInt(1, gameID);
+                try (ResultSet rs = exists.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new DataAccessException("Juego no encontrado: " + gameID);
+                    }
+                }
+            }
+            return false;
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to claim seat " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void appendMove(int gameID, int ply, ChessMove move, ChessGame stateAfter) throws DataAccessException {
+        boolean snapshot = ply % SNAPSHOT_INTERVAL == 0;
+        boolean finishes = stateAfter != null && stateAfter.isGameOver();
+        boolean transaction = snapshot || finishes;
+        try (Connection conn = connection()) {
+            conn.setAutoCommit(!transaction);
+            try {
+                // Inserción condicional: una partida terminada en otro nodo no admite más movimientos,
+                // y el ply tiene que seguir al último registrado para que el registro se pueda rejugar
+                try (PreparedStatement stmt = conn.prepareStatement
+                        ("INSERT INTO moves(gameID, ply, move) SELECT gameID, ?, ? FROM games WHERE gameID = ? AND NOT gameOver " +
+                                "AND ? = (SELECT COALESCE(MAX(ply), 0) + 1 FROM moves WHERE gameID = ?)")) {
+                    stmt.setInt(1, ply);
+                    stmt.setShort(2, (short) GameStateCodec.encodeMove(move));
+                    stmt.setInt(3, gameID);
+                    stmt.setInt(4, ply);
+                    stmt.setInt(5, gameID);
+                    if (stmt.executeUpdate() == 0) {
+                        if (transaction) {
+                            conn.rollback();
+                        }
+                        throw new DataAccessException("Move conflict");
+                    }
+                }
+                if (snapshot) {
+                    try (PreparedStatement stmt = conn.prepareStatement
+                            ("INSERT INTO game_snapshots(gameID, ply, state) VALUES (?, ?, ?)")) {
+                        stmt.setInt(1, gameID);
+                        stmt.setInt(2, ply);
+                        stmt.setBytes(3, GameStateCodec.encode(stateAfter));
+                        stmt.executeUpdate();
+                    }
+                }
+                if (finishes) {
+                    // El jaque mate o el ahogado cierran la partida en la misma transacción que el movimiento
+                    try (PreparedStatement stmt = conn.prepareStatement(FINISH_GAME)) {
+                        bindFinish(stmt, gameID, stateAfter);
+                        stmt.executeUpdate();
+                    }
+                }
+                if (transaction) {
+                    conn.commit();
+                }
+            } catch (SQLException e) {
+                if (transaction) {
+                    conn.rollback();
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            if (e.getErrorCode() == DUPLICATE_KEY) {
+                throw new DataAccessException("Move conflict");
+            }
+            throw new DataAccessException("failed to append move " + e.getMessage());
+        }
+    }
+
+    private static void bindFinish(PreparedStatement stmt, int gameID, ChessGame stateAfter) throws SQLException {
+        stmt.setLong(1, System.currentTimeMillis());
+        stmt.setBytes(2, GameStateCodec.encode(stateAfter));
+        stmt.setInt(3, gameID);
+    }
+
+    @Override
+    public void applyGameWrites(List<GameWrite> writes) throws DataAccessException {
+        if (writes.isEmpty()) {
+            return;
+        }
+        try (Connection conn = connection()) {
+            conn.setAutoCommit(false);
+            try {
+                writeGameWrites(conn, writes);
+                conn.commit();
+            } catch (SQLException | DataAccessException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            if (e.getErrorCode() == DUPLICATE_KEY) {
+                throw new DataAccessException("Move conflict");
+            }
+            throw new DataAccessException("failed to apply game writes " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends the writes as JDBC batches on {@code conn}; the caller commits or rolls back.
+     */
+    private static void writeGameWrites(Connection conn, List<GameWrite> writes) throws SQLException, DataAccessException {
+        try (PreparedStatement moveStmt = conn.prepareStatement
+                ("INSERT INTO moves(gameID, ply, move) VALUES (?, ?, ?)");
+             PreparedStatement snapshotStmt = conn.prepareStatement
+                     ("INSERT INTO game_snapshots(gameID, ply, state) VALUES (?, ?, ?)");
+             PreparedStatement finishStmt = conn.prepareStatement(FINISH_GAME);
+             PreparedStatement updateStmt = conn.prepareStatement
+                     ("UPDATE games SET whiteUsername = ?, blackUsername = ?, gameName = ?, gameState = ?, gameOver = ?, " +
+                    "finishedAt = IF(?, COALESCE(finishedAt, ?), NULL), game = NULL, " +
+                    "version = version + 1 WHERE gameID = ?")) {
+            int snapshots = 0;
+            int finishes = 0;
+            int updates = 0;
+            for (GameWrite write : writes) {
+                if (write instanceof GameWrite.MoveWrite move) {
+                    moveStmt.setInt(1, move.gameID());
+                    moveStmt.setInt(2, move.ply());
+                    moveStmt.setShort(3, (short) GameStateCodec.encodeMove(move.move()));
+                    moveStmt.addBatch();
+                    if (move.ply() % SNAPSHOT_INTERVAL == 0) {
+                        snapshotStmt.setInt(1, move.gameID());
+                        snapshotStmt.setInt(2, move.ply());
+                        snapshotStmt.setBytes(3, GameStateCodec.encode(move.stateAfter()));
+                        snapshotStmt.addBatch();
+                        snapshots++;
+                    }
+                    if (move.stateAfter() != null && move.stateAfter().isGameOver()) {
+                        bindFinish(finishStmt, move.gameID(), move.stateAfter());
+                        finishStmt.addBatch();
+                        finishes++;
+                    }
+                } else if (write instanceof GameWrite.StateWrite state) {
+                    GameData game = state.game();
+                    updateStmt.setString(1, game.whiteUsername());
+                    updateStmt.setString(2, game.blackUsername());
+                    updateStmt.setString(3, game.gameName());
+                    updateStmt.setBytes(4, encodeGameState(game.game()));
+                    updateStmt.setBoolean(5, isGameOver(game));
+                    updateStmt.setBoolean(6, isGameOver(game));
+                    updateStmt.setLong(7, System.currentTimeMillis());
+                    updateStmt.setInt(8, state.gameID());
+                    updateStmt.addBatch();
+                    updates++;
+                }
+            }
+            if (!movesContinueLogs(conn, writes)) {
+                throw new DataAccessException("Move conflict");
+            }
+            // Los movimientos y las instantáneas no dependen de las filas de games
+            moveStmt.executeBatch();
+            if (snapshots > 0) {
+                snapshotStmt.executeBatch();
+            }
+            if (finishes > 0) {
+                finishStmt.executeBatch();
+            }
+            if (updates > 0) {
+                updateStmt.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Whether every game the batch appends moves to is still open and gets its plies in
+     * order, starting right after the last one logged. The shared locks keep a concurrent
+     * resignation from landing between this check and the inserts.
+     */
+    private static boolean movesContinueLogs(Connection conn, List<GameWrite> writes) throws SQLException {
+        Map<Integer, Integer> lastPly = new LinkedHashMap<>();
+        Map<Integer, Integer> firstPly = new HashMap<>();
+        for (GameWrite write : writes) {
+            if (write instanceof GameWrite.MoveWrite move) {
+                Integer last = lastPly.put(move.gameID(), move.ply());
+                if (last == null) {
+                    firstPly.put(move.gameID(), move.ply());
+                } else if (move.ply() != last + 1) {
+                    return false;
+                }
+            }
+        }
+        if (lastPly.isEmpty()) {
+            return true;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(lastPly.size(), "?"));
+        try (PreparedStatement stmt = conn.prepareStatement
+                ("SELECT g.gameID, g.gameOver, (SELECT COALESCE(MAX(ply), 0) FROM moves m WHERE m.gameID = g.gameID) " +
+                        "FROM games g WHERE g.gameID IN (" + placeholders + ") LOCK IN SHARE MODE")) {
+            int index = 1;
+            for (int gameID : lastPly.keySet()) {
+                stmt.setInt(index++, gameID);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getBoolean(2) || firstPly.get(rs.getInt(1)) != rs.getInt(3) + 1) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public List<ChessMove> getMoves(int gameID, int afterPly, int uptoPly) throws DataAccessException {
+        List<ChessMove> moves = new ArrayList<>();
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("SELECT move FROM moves WHERE gameID = ? AND ply > ? AND ply <= ? ORDER BY ply")) {
+            stmt.setInt(1, gameID);
+            stmt.setInt(2, afterPly);
+            stmt.setInt(3, uptoPly);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                moves.add(GameStateCodec.decodeMove(rs.getInt("move")));
+            }
+            if (moves.isEmpty()) {
+                List<ChessMove> archived = getArchivedMoves(conn, gameID);
+                if (archived != null) {
+                    int from = Math.max(0, Math.min(afterPly, archived.size()));
+                    int to = Math.max(from, Math.min(uptoPly, archived.size()));
+                    return new ArrayList<>(archived.subList(from, to));
+                }
+            }
+            return moves;
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to get moves " + e.getMessage());
+        }
+    }
+
+    @Override
+    public ChessGame getSnapshot(int gameID, int ply) throws DataAccessException {
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("SELECT state FROM game_snapshots WHERE gameID = ? AND ply <= ? ORDER BY ply DESC LIMIT 1")) {
+            stmt.setInt(1, gameID);
+            stmt.setInt(2, ply);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? GameStateCodec.decode(rs.getBytes("state")) : null;
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to get snapshot " + e.getMessage());
+        }
+    }
+
     @Override
     public GameData[] getAllGames() throws DataAccessException{
         List<GameData> games = new ArrayList<>();
-        try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement
-                ("SELECT * FROM games")){
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                (SELECT_GAME)){
             ResultSet rs = stmt.executeQuery();
             while (rs.next()){
-                String gameJson = rs.getString("game");
-                ChessGame game = gameJson != null ? gson.fromJson(gameJson, ChessGame.class) : null;
+                ChessGame game = loadGameState(conn, rs);
                 games.add(new GameData
                         (rs.getInt("gameID"),
                                 rs.getString("whiteUsername"),
@@ -200,13 +1166,233 @@ public class MySQLDataAccess implements DataAccess {
         }
     }
 
+    @Override
+    public GameSummary[] listGameSummaries() throws DataAccessException {
+        List<GameSummary> games = new ArrayList<>();
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("SELECT gameID, whiteUsername, blackUsername, gameName FROM games UNION ALL " +
+                        "SELECT gameID, whiteUsername, blackUsername, gameName FROM games_archive ORDER BY gameID")) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                games.add(new GameSummary
+                        (rs.getInt("gameID"),
+                                rs.getString("whiteUsername"),
+                                rs.getString("blackUsername"),
+                                rs.getString("gameName")));
+            }
+            return games.toArray(new GameSummary[0]);
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to list games " + e.getMessage());
+        }
+    }
+
+    @Override
+    public GameSummary[] listGameSummaries(int afterGameID, int limit, GameFilter filter) throws DataAccessException {
+        String openSeats = filter.openSeatsOnly() ? " AND (whiteUsername IS NULL OR blackUsername IS NULL)" : "";
+        // La paginación por gameID recorre el índice primario por rangos, sin OFFSET
+        // Un OR entre columnas no usa bien los índices: cada rama de jugador recorre el suyo
+        // Cada tabla (viva y archivo) aporta sus ramas, que se mezclan por gameID
+        List<String> branches = new ArrayList<>();
+        for (String table : List.of("games", "games_archive")) {
+            if (filter.player() == null) {
+                branches.add("(SELECT gameID, whiteUsername, blackUsername, gameName FROM " + table
+                        + " WHERE gameID > ?" + openSeats + " ORDER BY gameID LIMIT ?)");
+            } else {
+                for (String column : List.of("whiteUsername", "blackUsername")) {
+                    branches.add("(SELECT gameID, whiteUsername, blackUsername, gameName FROM " + table
+                            + " WHERE " + column + " = ? AND gameID > ?" + openSeats + " ORDER BY gameID LIMIT ?)");
+                }
+            }
+        }
+        String sql = "SELECT * FROM (" + String.join(" UNION ", branches) + ") AS listed_games ORDER BY gameID LIMIT ?";
+
+        List<GameSummary> games = new ArrayList<>();
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (int branch = 0; branch < branches.size(); branch++) {
+                if (filter.player() != null) {
+                    stmt.setString(index++, filter.player());
+                }
+                stmt.setInt(index++, afterGameID);
+                stmt.setInt(index++, limit);
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                games.add(new GameSummary
+                        (rs.getInt("gameID"),
+                                rs.getString("whiteUsername"),
+                                rs.getString("blackUsername"),
+                                rs.getString("gameName")));
+            }
+            return games.toArray(new GameSummary[0]);
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to list games " + e.getMessage());
+        }
+    }
+
+    @Override
+    public int countActiveGamesForUser(String username) throws DataAccessException {
+        // Las partidas contra uno mismo solo se cuentan en la rama de blancas
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("SELECT (SELECT COUNT(*) FROM games WHERE whiteUsername = ? AND NOT gameOver) + " +
+                        "(SELECT COUNT(*) FROM games WHERE blackUsername = ? AND NOT gameOver " +
+                        "AND (whiteUsername IS NULL OR whiteUsername <> ?))")) {
+            stmt.setString(1, username);
+            stmt.setString(2, username);
+            stmt.setString(3, username);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to count games " + e.getMessage());
+        }
+    }
+
+    @Override
+    public int[] listUnfinishedGameIDs(int limit) throws DataAccessException {
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("SELECT gameID FROM games WHERE NOT gameOver ORDER BY gameID DESC LIMIT ?")) {
+            stmt.setInt(1, limit);
+            List<Integer> ids = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+            return ids.stream().mapToInt(Integer::intValue).toArray();
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to list unfinished games " + e.getMessage());
+        }
+    }
+
+    /**
+     * Archives one game per transaction: the row is locked, its moves are packed with the
+     * final position, then the archive row is written and the live row deleted, which
+     * cascades to its moves, snapshots and participants.
+     */
+    @Override
+    public int archiveFinishedGames(long finishedBefore, int limit) throws DataAccessException {
+        List<Integer> candidates = new ArrayList<>();
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("SELECT gameID FROM games WHERE finishedAt < ? ORDER BY finishedAt LIMIT ?")) {
+            stmt.setLong(1, finishedBefore);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    candidates.add(rs.getInt(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to find finished games " + e.getMessage());
+        }
+
+        int archived = 0;
+        for (int gameID : candidates) {
+            if (archiveGame(gameID, finishedBefore)) {
+                archived++;
+            }
+        }
+        return archived;
+    }
+
+    private boolean archiveGame(int gameID, long finishedBefore) throws DataAccessException {
+        try (Connection conn = connection()) {
+            conn.setAutoCommit(false);
+            try {
+                Long finishedAt;
+                try (PreparedStatement lock = conn.prepareStatement
+                        ("SELECT finishedAt FROM games WHERE gameID = ? FOR UPDATE")) {
+                    lock.setInt(1, gameID);
+                    try (ResultSet rs = lock.executeQuery()) {
+                        finishedAt = rs.next() ? rs.getObject(1, Long.class) : null;
+                    }
+                }
+                // Otro servidor ya la archivó, o la partida ya no está terminada
+                if (finishedAt == null || finishedAt >= finishedBefore) {
+                    conn.rollback();
+                    return false;
+                }
+
+                VersionedGame game;
+                try (PreparedStatement select = conn.prepareStatement(SELECT_GAME + " WHERE g.gameID = ?")) {
+                    select.setInt(1, gameID);
+                    try (ResultSet rs = select.executeQuery()) {
+                        rs.next();
+                        game = new VersionedGame(new GameData(gameID, rs.getString("whiteUsername"),
+                                rs.getString("blackUsername"), rs.getString("gameName"), loadGameState(conn, rs)),
+                                rs.getLong("version"));
+                    }
+                }
+                List<ChessMove> moves = new ArrayList<>();
+                try (PreparedStatement select = conn.prepareStatement("SELECT move FROM moves WHERE gameID = ? ORDER BY ply")) {
+                    select.setInt(1, gameID);
+                    try (ResultSet rs = select.executeQuery()) {
+                        while (rs.next()) {
+                            moves.add(GameStateCodec.decodeMove(rs.getInt("move")));
+                        }
+                    }
+                }
+                try (PreparedStatement insert = conn.prepareStatement
+                        ("INSERT INTO games_archive(gameID, whiteUsername, blackUsername, gameName, version, " +
+                                "finishedAt, archivedAt, contents) VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+                     PreparedStatement delete = conn.prepareStatement("DELETE FROM games WHERE gameID = ?")) {
+                    insert.setInt(1, gameID);
+                    insert.setString(2, game.game().whiteUsername());
+                    insert.setString(3, game.game().blackUsername());
+                    insert.setString(4, game.game().gameName());
+                    insert.setLong(5, game.version());
+                    insert.setLong(6, finishedAt);
+                    insert.setLong(7, System.currentTimeMillis());
+                    insert.setBytes(8, GameArchiveCodec.encode(game.game().game(), moves));
+                    insert.executeUpdate();
+                    delete.setInt(1, gameID);
+                    delete.executeUpdate();
+                }
+                conn.commit();
+                return true;
+            } catch (SQLException | DataAccessException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to archive game " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the archived game, or null if {@code gameID} is not in the archive
+     */
+    private static VersionedGame getArchived(Connection conn, int gameID) throws SQLException, DataAccessException {
+        try (PreparedStatement stmt = conn.prepareStatement
+                ("SELECT whiteUsername, blackUsername, gameName, version, contents FROM games_archive WHERE gameID = ?")) {
+            stmt.setInt(1, gameID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                ChessGame game = GameArchiveCodec.decode(rs.getBytes("contents")).game();
+                return new VersionedGame(new GameData(gameID, rs.getString("whiteUsername"),
+                        rs.getString("blackUsername"), rs.getString("gameName"), game), rs.getLong("version"));
+            }
+        }
+    }
+
+    private static List<ChessMove> getArchivedMoves(Connection conn, int gameID) throws SQLException, DataAccessException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT contents FROM games_archive WHERE gameID = ?")) {
+            stmt.setInt(1, gameID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? GameArchiveCodec.decode(rs.getBytes("contents")).moves() : null;
+            }
+        }
+    }
 
     @Override
     public void clear() throws DataAccessException{
         deleteAllGames();
         deleteAllAuth();
         deleteAllUsers();
-        try (Connection conn = DatabaseManager.getConnection(); Statement stmt = conn.createStatement()) {
+        try (Connection conn = connection(); Statement stmt = conn.createStatement()) {
             stmt.executeUpdate("ALTER TABLE games AUTO_INCREMENT = 1");
         } catch (SQLException e) {
             throw new DataAccessException("Failed to reset AUTO_INCREMENT for games table: " + e.getMessage());
@@ -215,7 +1401,7 @@ public class MySQLDataAccess implements DataAccess {
 
     @Override
     public void deleteAllUsers() throws DataAccessException{
-        try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement("DELETE FROM users")){
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement("DELETE FROM users")){
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException("failed to delete all users " + e.getMessage());
@@ -224,7 +1410,7 @@ public class MySQLDataAccess implements DataAccess {
 
     @Override
     public void deleteAllAuth() throws DataAccessException {
-        try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement("DELETE FROM auth")) {
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement("DELETE FROM auth")) {
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException("failed to delete all auths " + e.getMessage());
@@ -233,26 +1419,69 @@ public class MySQLDataAccess implements DataAccess {
 
     @Override
     public void deleteAllGames() throws DataAccessException {
-        try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement("DELETE FROM games")) {
-            stmt.executeUpdate();
+        try (Connection conn = connection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM games");
+            stmt.executeUpdate("DELETE FROM games_archive");
         } catch (SQLException e) {
             throw new DataAccessException("failed to delete all games " + e.getMessage());
         }
     }
 
     @Override
-    public boolean isObserver(int gameID, String username) throws DataAccessException {
+    public void addParticipant(int gameID, String username, Participant.Role role) throws DataAccessException {
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("INSERT INTO game_participants(gameID, username, role, joinedAt) VALUES (?, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE role = VALUES(role)")) {
+            stmt.setInt(1, gameID);
+            stmt.setString(2, username);
+            stmt.setString(3, role.name());
+            stmt.setLong(4, System.currentTimeMillis());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to add participant " + e.getMessage());
+        }
+    }
 
-        GameData game = getGame(gameID);
-        if (game == null) {
-            return false;
+    @Override
+    public void removeParticipant(int gameID, String username) throws DataAccessException {
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("DELETE FROM game_participants WHERE gameID = ? AND username = ?")) {
+            stmt.setInt(1, gameID);
+            stmt.setString(2, username);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to remove participant " + e.getMessage());
         }
+    }
 
-        if (Objects.equals(game.whiteUsername(), username) || Objects.equals(game.blackUsername(), username)) {
-            return false;
+    @Override
+    public Participant.Role getParticipantRole(int gameID, String username) throws DataAccessException {
+        // Búsqueda por clave primaria; nunca toca la fila de games ni el tablero
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("SELECT role FROM game_participants WHERE gameID = ? AND username = ?")) {
+            stmt.setInt(1, gameID);
+            stmt.setString(2, username);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? Participant.Role.valueOf(rs.getString("role")) : null;
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to get participant " + e.getMessage());
         }
+    }
 
-        UserData user = getUser(username);
-        return user != null;
+    @Override
+    public List<Participant> getParticipants(int gameID) throws DataAccessException {
+        List<Participant> participants = new ArrayList<>();
+        try (Connection conn = connection(); PreparedStatement stmt = conn.prepareStatement
+                ("SELECT username, role, joinedAt FROM game_participants WHERE gameID = ?")) {
+            stmt.setInt(1, gameID);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                participants.add(new Participant(gameID, rs.getString("username"),
+                        Participant.Role.valueOf(rs.getString("role")), rs.getLong("joinedAt")));
+            }
+            return participants;
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to get participants " + e.getMessage());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package dataaccess;
+
+/**
+ * Membership of a user in a game, stored in {@code game_participants}.
+ *
+ * @param joinedAt epoch milliseconds of the first time the user joined this game; a role
+ *                 change keeps it
+ */
+public record Participant(int gameID, String username, Role role, long joinedAt) {
+
+    public enum Role {
+        WHITE, BLACK, OBSERVER
+    }
+}
@@ -0,0 +1,463 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+import model.UserData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Sends reads to read replicas and everything else to the primary, the delegate.
+ * <p>
+ * Every {@code heartbeatIntervalMillis} the primary is stamped with the current time and
+ * each replica's last seen stamp is read back: a replica that has seen stamp T holds every
+ * write the primary finished before T. Writes record when they finished, per auth token,
+ * username and game, plus one time for game listings. A read goes to a replica only if that
+ * replica has seen a stamp later than the last write to what is being read, so whoever wrote
+ * something reads it back, and only if the replica is at most {@code maxLagMillis} behind.
+ * Otherwise, or if the replica read fails, it goes to the primary.
+ * <p>
+ * Moves and write-behind state flushes only mark their game; listings only show names and
+ * seats, which change through {@link #createGame}, {@link #claimSeat} and
+ * {@link #updateGame}.
+ */
+public class ReplicaRoutingDataAccess extends ForwardingDataAccess implements AutoCloseable {
+
+    public record Config(long maxLagMillis, long heartbeatIntervalMillis) {
+
+        public static Config defaults() {
+            return new Config(2_000, 250);
+        }
+    }
+
+    /**
+     * Stamps the primary with the current time.
+     */
+    public interface HeartbeatWriter {
+        void write(long now) throws DataAccessException;
+    }
+
+    /**
+     * @return the last stamp a replica has applied, or 0 if none
+     */
+    public interface HeartbeatReader {
+        long read() throws DataAccessException;
+    }
+
+    public record Replica(String name, DataAccess dataAccess, HeartbeatReader heartbeat) {
+    }
+
+    public record ReplicaStats(String name, long lagMillis, long reads, long errors) {
+    }
+
+    public record Stats(long primaryReads,
+                        long replicaReads,
+                        long readYourWrites,
+                        long lagFallbacks,
+                        long failovers,
+                        long trackedKeys,
+                        List<ReplicaStats> replicas) {
+    }
+
+    private interface ReadCall<T> {
+        T call(DataAccess dataAccess) throws DataAccessException;
+    }
+
+    private static final class ReplicaState {
+        private final Replica replica;
+        private volatile long appliedUpTo;
+        private final AtomicLong reads = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+
+        private ReplicaState(Replica replica) {
+            this.replica = replica;
+        }
+    }
+
+    private final HeartbeatWriter heartbeat;
+    private final List<ReplicaState> replicas = new ArrayList<>();
+    private final Config config;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService scheduler;
+
+    // Cuándo terminó la última escritura de cada token ("a"), usuario ("u") y partida ("g")
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final AtomicLong listingsWrittenAt = new AtomicLong();
+    // Borrados masivos: afectan a cualquier lectura
+    private final AtomicLong allWrittenAt = new AtomicLong();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final AtomicLong primaryReads = new AtomicLong();
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong readYourWrites = new AtomicLong();
+    private final AtomicLong lagFallbacks = new AtomicLong();
+    private final AtomicLong failovers = new AtomicLong();
+
+    public ReplicaRoutingDataAccess(DataAccess primary, HeartbeatWriter heartbeat, List<Replica> replicas,
+                                    Config config) {
+        this(primary, heartbeat, replicas, config, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock the current time in epoch milliseconds
+     */
+    public ReplicaRoutingDataAccess(DataAccess primary, HeartbeatWriter heartbeat, List<Replica> replicas,
+                                    Config config, LongSupplier clock) {
+        super(primary);
+        this.heartbeat = heartbeat;
+        for (Replica replica : replicas) {
+            this.replicas.add(new ReplicaState(replica));
+        }
+        this.config = config;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::heartbeatQuietly, config.heartbeatIntervalMillis(),
+                config.heartbeatIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stamps the primary, reads back each replica's stamp and forgets writes every usable
+     * replica has already applied.
+     */
+    public void heartbeat() throws DataAccessException {
+        heartbeat.write(clock.getAsLong());
+        for (ReplicaState state : replicas) {
+            try {
+                state.appliedUpTo = state.replica.heartbeat().read();
+            } catch (DataAccessException e) {
+                state.errors.incrementAndGet();
+                System.err.println("Error al leer el latido de " + state.replica.name() + ": " + e.getMessage());
+            }
+        }
+        // Una réplica utilizable ha visto al menos now - maxLag, así que las escrituras anteriores ya no importan
+        long forgetBefore = clock.getAsLong() - config.maxLagMillis();
+        lastWrites.values().removeIf(writtenAt -> writtenAt < forgetBefore);
+    }
+
+    @Override
+    public UserData getUser(String username) throws DataAccessException {
+        return read(writtenAt("u" + username), dataAccess -> dataAccess.getUser(username));
+    }
+
+    @Override
+    public void createUser(UserData user) throws DataAccessException {
+        delegate.createUser(user);
+        markWritten("u" + user.username());
+    }
+
+    @Override
+    public void registerWithToken(UserData user, AuthData auth) throws DataAccessException {
+        delegate.registerWithToken(user, auth);
+        markWritten("u" + user.username());
+        markWritten("a" + auth.authToken());
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        return read(writtenAt("a" + authToken), dataAccess -> dataAccess.getAuth(authToken));
+    }
+
+    @Override
+    public AuthSession getAuthSession(String authToken) throws DataAccessException {
+        return read(writtenAt("a" + authToken), dataAccess -> dataAccess.getAuthSession(authToken));
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        delegate.createAuth(auth);
+        markWritten("a" + auth.authToken());
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        delegate.deleteAuth(authToken);
+        markWritten("a" + authToken);
+    }
+
+    @Override
+    public void touchAuth(String authToken, long lastUsedAt) throws DataAccessException {
+        delegate.touchAuth(authToken, lastUsedAt);
+        markWritten("a" + authToken);
+    }
+
+    @Override
+    public int deleteExpiredAuth(long issuedBefore, long lastUsedBefore, int limit) throws DataAccessException {
+        int deleted = delegate.deleteExpiredAuth(issuedBefore, lastUsedBefore, limit);
+        if (deleted > 0) {
+            allWrittenAt.accumulateAndGet(clock.getAsLong(), Math::max);
+        }
+        return deleted;
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        return read(writtenAt("g" + gameID), dataAccess -> dataAccess.getGame(gameID));
+    }
+
+    @Override
+    public int createGame(GameData game) throws DataAccessException {
+        int gameID = delegate.createGame(game);
+        markGameWritten(gameID, true);
+        return gameID;
+    }
+
+    @Override
+    public int[] createGames(List<GameData> games) throws DataAccessException {
+        int[] gameIDs = delegate.createGames(games);
+        for (int gameID : gameIDs) {
+            markGameWritten(gameID, true);
+        }
+        return gameIDs;
+    }
+
+    @Override
+    public int[] createGamesWithMoves(List<GameData> games, List<List<GameWrite.MoveWrite>> moves)
+            throws DataAccessException {
+        int[] gameIDs = delegate.createGamesWithMoves(games, moves);
+        for (int gameID : gameIDs) {
+            markGameWritten(gameID, true);
+        }
+        return gameIDs;
+    }
+
+    @Override
+    public void updateGame(int gameID, GameData game) throws DataAccessException {
+        delegate.updateGame(gameID, game);
+        markGameWritten(gameID, true);
+    }
+
+    @Override
+    public VersionedGame getVersionedGame(int gameID) throws DataAccessException {
+        return read(writtenAt("g" + gameID), dataAccess -> dataAccess.getVersionedGame(gameID));
+    }
+
+    @Override
+    public boolean updateGameIfVersion(int gameID, long expectedVersion, GameData game) throws DataAccessException {
+        boolean updated = delegate.updateGameIfVersion(gameID, expectedVersion, game);
+        markGameWritten(gameID, true);
+        return updated;
+    }
+
+    @Override
+    public boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        boolean claimed = delegate.claimSeat(gameID, color, username);
+        markGameWritten(gameID, true);
+        return claimed;
+    }
+
+    @Override
+    public void appendMove(int gameID, int ply, ChessMove move, ChessGame stateAfter) throws DataAccessException {
+        delegate.appendMove(gameID, ply, move, stateAfter);
+        markGameWritten(gameID, false);
+    }
+
+    @Override
+    public List<ChessMove> getMoves(int gameID, int afterPly, int uptoPly) throws DataAccessException {
+        return read(writtenAt("g" + gameID), dataAccess -> dataAccess.getMoves(gameID, afterPly, uptoPly));
+    }
+
+    @Override
+    public ChessGame getSnapshot(int gameID, int ply) throws DataAccessException {
+        return read(writtenAt("g" + gameID), dataAccess -> dataAccess.getSnapshot(gameID, ply));
+    }
+
+    @Override
+    public void applyGameWrites(List<GameWrite> writes) throws DataAccessException {
+        delegate.applyGameWrites(writes);
+        for (GameWrite write : writes) {
+            markGameWritten(write.gameID(), false);
+        }
+    }
+
+    @Override
+    public GameData[] getAllGames() throws DataAccessException {
+        return read(listingsWrittenAt.get(), DataAccess::getAllGames);
+    }
+
+    @Override
+    public GameSummary[] listGameSummaries() throws DataAccessException {
+        return read(listingsWrittenAt.get(), DataAccess::listGameSummaries);
+    }
+
+    @Override
+    public GameSummary[] listGameSummaries(int afterGameID, int limit, GameFilter filter) throws DataAccessException {
+        return read(listingsWrittenAt.get(), dataAccess -> dataAccess.listGameSummaries(afterGameID, limit, filter));
+    }
+
+    @Override
+    public GameSummary[] getGamesForUser(String username) throws DataAccessException {
+        return read(listingsWrittenAt.get(), dataAccess -> dataAccess.getGamesForUser(username));
+    }
+
+    @Override
+    public int countActiveGamesForUser(String username) throws DataAccessException {
+        return read(listingsWrittenAt.get(), dataAccess -> dataAccess.countActiveGamesForUser(username));
+    }
+
+    @Override
+    public int archiveFinishedGames(long finishedBefore, int limit) throws DataAccessException {
+        int archived = delegate.archiveFinishedGames(finishedBefore, limit);
+        if (archived > 0) {
+            allWrittenAt.accumulateAndGet(clock.getAsLong(), Math::max);
+        }
+        return archived;
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        delegate.clear();
+        allWrittenAt.accumulateAndGet(clock.getAsLong(), Math::max);
+    }
+
+    @Override
+    public void deleteAllUsers() throws DataAccessException {
+        delegate.deleteAllUsers();
+        allWrittenAt.accumulateAndGet(clock.getAsLong(), Math::max);
+    }
+
+    @Override
+    public void deleteAllAuth() throws DataAccessException {
+        delegate.deleteAllAuth();
+        allWrittenAt.accumulateAndGet(clock.getAsLong(), Math::max);
+    }
+
+    @Override
+    public void deleteAllGames() throws DataAccessException {
+        delegate.deleteAllGames();
+        allWrittenAt.accumulateAndGet(clock.getAsLong(), Math::max);
+    }
+
+    @Override
+    public void addParticipant(int gameID, String username, Participant.Role role) throws DataAccessException {
+        delegate.addParticipant(gameID, username, role);
+        markGameWritten(gameID, false);
+    }
+
+    @Override
+    public void removeParticipant(int gameID, String username) throws DataAccessException {
+        delegate.removeParticipant(gameID, username);
+        markGameWritten(gameID, false);
+    }
+
+    @Override
+    public Participant.Role getParticipantRole(int gameID, String username) throws DataAccessException {
+        return read(writtenAt("g" + gameID), dataAccess -> dataAccess.getParticipantRole(gameID, username));
+    }
+
+    @Override
+    public List<Participant> getParticipants(int gameID) throws DataAccessException {
+        return read(writtenAt("g" + gameID), dataAccess -> dataAccess.getParticipants(gameID));
+    }
+
+    public Stats stats() {
+        long now = clock.getAsLong();
+        List<ReplicaStats> perReplica = new ArrayList<>(replicas.size());
+        for (ReplicaState state : replicas) {
+            long lag = state.appliedUpTo > 0 ? Math.max(0, now - state.appliedUpTo) : -1;
+            perReplica.add(new ReplicaStats(state.replica.name(), lag, state.reads.get(), state.errors.get()));
+        }
+        return new Stats(primaryReads.get(), replicaReads.get(), readYourWrites.get(), lagFallbacks.get(),
+                failovers.get(), lastWrites.size(), perReplica);
+    }
+
+    /**
+     * Stops the heartbeat and closes the primary and replicas that hold resources of their own.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        List<DataAccess> stores = new ArrayList<>();
+        for (ReplicaState state : replicas) {
+            stores.add(state.replica.dataAccess());
+        }
+        stores.add(delegate);
+        for (DataAccess store : stores) {
+            if (store instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    System.err.println("Error al cerrar una réplica: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs {@code call} on the next replica, in turn, that has applied everything written
+     * up to {@code writtenAt} and is within the lag limit, or on the primary if none is.
+     */
+    private <T> T read(long writtenAt, ReadCall<T> call) throws DataAccessException {
+        long mustHaveSeen = Math.max(writtenAt, allWrittenAt.get());
+        long minApplied = clock.getAsLong() - config.maxLagMillis();
+        boolean fresh = false;
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaState state = replicas.get((start + i) % replicas.size());
+            long applied = state.appliedUpTo;
+            if (applied < minApplied) {
+                continue;
+            }
+            fresh = true;
+            if (applied <= mustHaveSeen) {
+                continue;
+            }
+            try {
+                T result = call.call(state.replica.dataAccess());
+                state.reads.incrementAndGet();
+                replicaReads.incrementAndGet();
+                return result;
+            } catch (DataAccessException e) {
+                state.errors.incrementAndGet();
+                failovers.incrementAndGet();
+                primaryReads.incrementAndGet();
+                return call.call(delegate);
+            }
+        }
+        if (fresh) {
+            readYourWrites.incrementAndGet();
+        } else if (!replicas.isEmpty()) {
+            lagFallbacks.incrementAndGet();
+        }
+        primaryReads.incrementAndGet();
+        return call.call(delegate);
+    }
+
+    private long writtenAt(String key) {
+        return lastWrites.getOrDefault(key, 0L);
+    }
+
+    private void markWritten(String key) {
+        lastWrites.merge(key, clock.getAsLong(), Math::max);
+    }
+
+    private void markGameWritten(int gameID, boolean listed) {
+        markWritten("g" + gameID);
+        if (listed) {
+            listingsWrittenAt.accumulateAndGet(clock.getAsLong(), Math::max);
+        }
+    }
+
+    private void heartbeatQuietly() {
+        try {
+            heartbeat();
+        } catch (DataAccessException e) {
+            System.err.println("Error al escribir el latido de replicación: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package dataaccess;
+
+import model.AuthData;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Expires auth tokens. A token is rejected once it is older than {@code absoluteTtlMillis}
+ * or has not been used for {@code idleTtlMillis}. Using a token renews it, but its last-use
+ * time is only written once it is {@code renewAfterMillis} old, so busy sessions cost one
+ * write every few minutes rather than one per request.
+ * <p>
+ * A background sweeper deletes expired tokens every {@code sweepIntervalMillis}, in
+ * batches of {@code sweepBatchSize} so no statement holds locks for long. Layers above this
+ * one that cache tokens may keep serving an expired token until their own entry expires.
+ */
+public class SessionExpiryDataAccess extends ForwardingDataAccess implements AutoCloseable {
+
+    public record Config(long absoluteTtlMillis, long idleTtlMillis, long renewAfterMillis,
+                         long sweepIntervalMillis, int sweepBatchSize) {
+
+        public static Config defaults() {
+            return new Config(TimeUnit.DAYS.toMillis(7), TimeUnit.HOURS.toMillis(24),
+                    TimeUnit.MINUTES.toMillis(5), 60_000, 500);
+        }
+    }
+
+    public record Stats(long tokens,
+                        long expiredOnRead,
+                        long renewals,
+                        long sweeps,
+                        long sweptTokens,
+                        long lastSweepMillis,
+                        double lastSweepTokensPerSecond) {
+    }
+
+    private final Config config;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService sweeper;
+
+    private final AtomicLong tokens = new AtomicLong();
+    private final AtomicLong expiredOnRead = new AtomicLong();
+    private final AtomicLong renewals = new AtomicLong();
+    private final AtomicLong sweeps = new AtomicLong();
+    private final AtomicLong sweptTokens = new AtomicLong();
+    private volatile long lastSweepMillis;
+    private volatile double lastSweepTokensPerSecond;
+
+    public SessionExpiryDataAccess(DataAccess delegate, Config config) {
+        this(delegate, config, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock the current time in epoch milliseconds
+     */
+    public SessionExpiryDataAccess(DataAccess delegate, Config config, LongSupplier clock) {
+        super(delegate);
+        this.config = config;
+        this.clock = clock;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweepQuietly, config.sweepIntervalMillis(),
+                config.sweepIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        if (authToken == null) {
+            return delegate.getAuth(null);
+        }
+        AuthSession session = delegate.getAuthSession(authToken);
+        if (session == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        if (isExpired(session, now)) {
+            expiredOnRead.incrementAndGet();
+            delegate.deleteAuth(authToken);
+            return null;
+        }
+        if (now - session.lastUsedAt() >= config.renewAfterMillis()) {
+            renewals.incrementAndGet();
+            delegate.touchAuth(authToken, now);
+        }
+        return session.auth();
+    }
+
+    @Override
+    public AuthSession getAuthSession(String authToken) throws DataAccessException {
+        AuthSession session = delegate.getAuthSession(authToken);
+        return session != null && !isExpired(session, clock.getAsLong()) ? session : null;
+    }
+
+    /**
+     * Deletes every expired token, one batch at a time, and records how long it took.
+     *
+     * @return how many tokens were deleted
+     */
+    public int sweep() throws DataAccessException {
+        long start = System.nanoTime();
+        long now = clock.getAsLong();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = delegate.deleteExpiredAuth(now - config.absoluteTtlMillis(), now - config.idleTtlMillis(),
+                    config.sweepBatchSize());
+            total += deleted;
+        } while (deleted >= config.sweepBatchSize() && !sweeper.isShutdown());
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        sweeps.incrementAndGet();
+        sweptTokens.addAndGet(total);
+        lastSweepMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        lastSweepTokensPerSecond = total * 1e9 / elapsedNanos;
+        tokens.set(delegate.countAuth());
+        return total;
+    }
+
+    public Stats stats() {
+        return new Stats(tokens.get(), expiredOnRead.get(), renewals.get(), sweeps.get(), sweptTokens.get(),
+                lastSweepMillis, lastSweepTokensPerSecond);
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    private boolean isExpired(AuthSession session, long now) {
+        return now - session.issuedAt() > config.absoluteTtlMillis()
+                || now - session.lastUsedAt() > config.idleTtlMillis();
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (DataAccessException e) {
+            System.err.println("Error al borrar las sesiones caducadas: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package dataaccess;
+
+/**
+ * Maps game IDs to shards. Each shard numbers its own games 1, 2, 3...; the global ID
+ * interleaves them as {@code localID * shards + shard}, so the shard owning any ID is known
+ * without a lookup and IDs from different shards never collide. With one shard, global and
+ * local IDs are the same.
+ */
+public record ShardMap(int shards) {
+
+    public ShardMap {
+        if (shards < 1) {
+            throw new IllegalArgumentException("at least one shard is required");
+        }
+    }
+
+    public int shardOf(int gameID) {
+        return Math.floorMod(gameID, shards);
+    }
+
+    public int toLocal(int gameID) {
+        return Math.floorDiv(gameID, shards);
+    }
+
+    public int toGlobal(int shard, int localID) {
+        return localID * shards + shard;
+    }
+
+    /**
+     * @return the local ID on {@code shard} to page after so that only games with a global
+     * ID greater than {@code gameID} are returned
+     */
+    public int localCursor(int shard, int gameID) {
+        return Math.floorDiv(gameID - shard, shards);
+    }
+}
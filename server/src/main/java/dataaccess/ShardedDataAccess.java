@@ -0,0 +1,396 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.GameData;
+import model.GameSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Spreads games over several stores while users and auth tokens stay on the primary, the
+ * delegate. New games go to the shards in turn; every other game call is routed to one
+ * shard by {@link ShardMap}, translating between the global IDs callers see and each
+ * shard's local IDs. Listings query all shards in parallel on virtual threads and merge the
+ * results by global ID.
+ * <p>
+ * Changing the number of shards moves every game to a different global ID, so a sharded
+ * deployment keeps its shard list once games have been created.
+ */
+public class ShardedDataAccess extends ForwardingDataAccess implements AutoCloseable {
+
+    public record Stats(int shards, long[] gamesCreated, long fanOuts) {
+    }
+
+    private interface ShardCall<T> {
+        T call(int shard, DataAccess dataAccess) throws DataAccessException;
+    }
+
+    private final List<DataAccess> shards;
+    private final ShardMap shardMap;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final AtomicLongArray gamesCreated;
+    private final AtomicLong fanOuts = new AtomicLong();
+
+    public ShardedDataAccess(DataAccess primary, List<DataAccess> shards) {
+        super(primary);
+        this.shards = List.copyOf(shards);
+        this.shardMap = new ShardMap(shards.size());
+        this.gamesCreated = new AtomicLongArray(shards.size());
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        return global(shardMap.shardOf(gameID), shard(gameID).getGame(shardMap.toLocal(gameID)));
+    }
+
+    @Override
+    public int createGame(GameData game) throws DataAccessException {
+        int shard = Math.floorMod(nextShard.getAndIncrement(), shards.size());
+        int localID = shards.get(shard).createGame(game);
+        gamesCreated.incrementAndGet(shard);
+        return shardMap.toGlobal(shard, localID);
+    }
+
+    /**
+     * Deals the games round-robin like {@link #createGame} and creates each shard's share
+     * as one batch, in parallel.
+     */
+    @Override
+    public int[] createGames(List<GameData> games) throws DataAccessException {
+        int first = nextShard.getAndAdd(games.size());
+        List<List<GameData>> byShard = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (int i = 0; i < games.size(); i++) {
+            byShard.get(Math.floorMod(first + i, shards.size())).add(games.get(i));
+        }
+        List<int[]> localIDs = fanOut((shard, dataAccess) ->
+                byShard.get(shard).isEmpty() ? new int[0] : dataAccess.createGames(byShard.get(shard)));
+
+        int[] gameIDs = new int[games.size()];
+        int[] taken = new int[shards.size()];
+        for (int i = 0; i < games.size(); i++) {
+            int shard = Math.floorMod(first + i, shards.size());
+            gameIDs[i] = shardMap.toGlobal(shard, localIDs.get(shard)[taken[shard]++]);
+        }
+        for (int shard = 0; shard < shards.size(); shard++) {
+            gamesCreated.addAndGet(shard, taken[shard]);
+        }
+        return gameIDs;
+    }
+
+    /**
+     * Deals the games like {@link #createGames}; each shard creates its share together with
+     * the moves in one call, so a failure on one shard leaves the others' games whole.
+     */
+    @Override
+    public int[] createGamesWithMoves(List<GameData> games, List<List<GameWrite.MoveWrite>> moves)
+            throws DataAccessException {
+        int first = nextShard.getAndAdd(games.size());
+        List<List<GameData>> gamesByShard = new ArrayList<>();
+        List<List<List<GameWrite.MoveWrite>>> movesByShard = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            gamesByShard.add(new ArrayList<>());
+            movesByShard.add(new ArrayList<>());
+        }
+        for (int i = 0; i < games.size(); i++) {
+            int shard = Math.floorMod(first + i, shards.size());
+            gamesByShard.get(shard).add(games.get(i));
+            movesByShard.get(shard).add(moves.get(i));
+        }
+        List<int[]> localIDs = fanOut((shard, dataAccess) -> gamesByShard.get(shard).isEmpty() ? new int[0]
+                : dataAccess.createGamesWithMoves(gamesByShard.get(shard), movesByShard.get(shard)));
+
+        int[] gameIDs = new int[games.size()];
+        int[] taken = new int[shards.size()];
+        for (int i = 0; i < games.size(); i++) {
+            int shard = Math.floorMod(first + i, shards.size());
+            gameIDs[i] = shardMap.toGlobal(shard, localIDs.get(shard)[taken[shard]++]);
+        }
+        for (int shard = 0; shard < shards.size(); shard++) {
+            gamesCreated.addAndGet(shard, taken[shard]);
+        }
+        return gameIDs;
+    }
+
+    @Override
+    public void updateGame(int gameID, GameData game) throws DataAccessException {
+        shard(gameID).updateGame(shardMap.toLocal(gameID), local(gameID, game));
+    }
+
+    @Override
+    public VersionedGame getVersionedGame(int gameID) throws DataAccessException {
+        VersionedGame versioned = shard(gameID).getVersionedGame(shardMap.toLocal(gameID));
+        return versioned != null
+                ? new VersionedGame(global(shardMap.shardOf(gameID), versioned.game()), versioned.version())
+                : null;
+    }
+
+    @Override
+    public boolean updateGameIfVersion(int gameID, long expectedVersion, GameData game) throws DataAccessException {
+        return shard(gameID).updateGameIfVersion(shardMap.toLocal(gameID), expectedVersion, local(gameID, game));
+    }
+
+    @Override
+    public boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        try {
+            return shard(gameID).claimSeat(shardMap.toLocal(gameID), color, username);
+        } catch (DataAccessException e) {
+            // El mensaje del shard lleva el ID local
+            if (e.getMessage().startsWith("Juego no encontrado")) {
+                throw new DataAccessException("Juego no encontrado: " + gameID);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void appendMove(int gameID, int ply, ChessMove move, ChessGame stateAfter) throws DataAccessException {
+        shard(gameID).appendMove(shardMap.toLocal(gameID), ply, move, stateAfter);
+    }
+
+    @Override
+    public List<ChessMove> getMoves(int gameID, int afterPly, int uptoPly) throws DataAccessException {
+        return shard(gameID).getMoves(shardMap.toLocal(gameID), afterPly, uptoPly);
+    }
+
+    @Override
+    public ChessGame getSnapshot(int gameID, int ply) throws DataAccessException {
+        return shard(gameID).getSnapshot(shardMap.toLocal(gameID), ply);
+    }
+
+    /**
+     * Splits the batch by shard and applies each part on its own shard, in parallel.
+     */
+    @Override
+    public void applyGameWrites(List<GameWrite> writes) throws DataAccessException {
+        List<List<GameWrite>> byShard = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (GameWrite write : writes) {
+            int localID = shardMap.toLocal(write.gameID());
+            byShard.get(shardMap.shardOf(write.gameID())).add(switch (write) {
+                case GameWrite.MoveWrite move -> new GameWrite.MoveWrite(localID, move.ply(), move.move(), move.stateAfter());
+                case GameWrite.StateWrite state -> new GameWrite.StateWrite(localID, local(write.gameID(), state.game()));
+            });
+        }
+        fanOut((shard, dataAccess) -> {
+            if (!byShard.get(shard).isEmpty()) {
+                dataAccess.applyGameWrites(byShard.get(shard));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public GameData[] getAllGames() throws DataAccessException {
+        List<GameData> games = new ArrayList<>();
+        List<GameData[]> results = fanOut((shard, dataAccess) -> globalGames(shard, dataAccess.getAllGames()));
+        for (GameData[] result : results) {
+            games.addAll(Arrays.asList(result));
+        }
+        games.sort(Comparator.comparingInt(GameData::gameID));
+        return games.toArray(new GameData[0]);
+    }
+
+    @Override
+    public GameSummary[] listGameSummaries() throws DataAccessException {
+        return merge(fanOut((shard, dataAccess) -> globalSummaries(shard, dataAccess.listGameSummaries())),
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Each shard returns its first {@code limit} games after the cursor; the merged page is
+     * the first {@code limit} of those by global ID.
+     */
+    @Override
+    public GameSummary[] listGameSummaries(int afterGameID, int limit, GameFilter filter) throws DataAccessException {
+        return merge(fanOut((shard, dataAccess) -> globalSummaries(shard,
+                dataAccess.listGameSummaries(shardMap.localCursor(shard, afterGameID), limit, filter))), limit);
+    }
+
+    @Override
+    public GameSummary[] getGamesForUser(String username) throws DataAccessException {
+        return listGameSummaries(0, Integer.MAX_VALUE, new GameFilter(false, username));
+    }
+
+    @Override
+    public int countActiveGamesForUser(String username) throws DataAccessException {
+        int total = 0;
+        for (int count : fanOut((shard, dataAccess) -> dataAccess.countActiveGamesForUser(username))) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public int[] listUnfinishedGameIDs(int limit) throws DataAccessException {
+        List<Integer> ids = new ArrayList<>();
+        List<int[]> results = fanOut((shard, dataAccess) -> dataAccess.listUnfinishedGameIDs(limit));
+        for (int shard = 0; shard < results.size(); shard++) {
+            for (int localID : results.get(shard)) {
+                ids.add(shardMap.toGlobal(shard, localID));
+            }
+        }
+        return ids.stream().sorted(Comparator.reverseOrder()).limit(limit).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Archives up to {@code limit} games on each shard.
+     */
+    @Override
+    public int archiveFinishedGames(long finishedBefore, int limit) throws DataAccessException {
+        int total = 0;
+        for (int archived : fanOut((shard, dataAccess) -> dataAccess.archiveFinishedGames(finishedBefore, limit))) {
+            total += archived;
+        }
+        return total;
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        delegate.clear();
+        fanOut((shard, dataAccess) -> {
+            dataAccess.clear();
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAllGames() throws DataAccessException {
+        fanOut((shard, dataAccess) -> {
+            dataAccess.deleteAllGames();
+            return null;
+        });
+    }
+
+    @Override
+    public void addParticipant(int gameID, String username, Participant.Role role) throws DataAccessException {
+        shard(gameID).addParticipant(shardMap.toLocal(gameID), username, role);
+    }
+
+    @Override
+    public void removeParticipant(int gameID, String username) throws DataAccessException {
+        shard(gameID).removeParticipant(shardMap.toLocal(gameID), username);
+    }
+
+    @Override
+    public Participant.Role getParticipantRole(int gameID, String username) throws DataAccessException {
+        return shard(gameID).getParticipantRole(shardMap.toLocal(gameID), username);
+    }
+
+    @Override
+    public List<Participant> getParticipants(int gameID) throws DataAccessException {
+        List<Participant> members = new ArrayList<>();
+        for (Participant participant : shard(gameID).getParticipants(shardMap.toLocal(gameID))) {
+            members.add(new Participant(gameID, participant.username(), participant.role(), participant.joinedAt()));
+        }
+        return members;
+    }
+
+    public Stats stats() {
+        long[] created = new long[shards.size()];
+        for (int i = 0; i < created.length; i++) {
+            created[i] = gamesCreated.get(i);
+        }
+        return new Stats(shards.size(), created, fanOuts.get());
+    }
+
+    /**
+     * Closes the primary and every shard that holds resources of its own.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        List<DataAccess> stores = new ArrayList<>(shards);
+        stores.add(delegate);
+        for (DataAccess store : stores) {
+            if (store instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    System.err.println("Error al cerrar un shard: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private DataAccess shard(int gameID) {
+        return shards.get(shardMap.shardOf(gameID));
+    }
+
+    private <T> List<T> fanOut(ShardCall<T> call) throws DataAccessException {
+        fanOuts.incrementAndGet();
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            int shard = i;
+            futures.add(executor.submit(() -> call.call(shard, shards.get(shard))));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof DataAccessException cause) {
+                    throw cause;
+                }
+                throw new DataAccessException("shard call failed " + e.getCause(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DataAccessException("interrupted waiting for shards", e);
+            }
+        }
+        return results;
+    }
+
+    private GameData local(int gameID, GameData game) {
+        return new GameData(shardMap.toLocal(gameID), game.whiteUsername(), game.blackUsername(), game.gameName(), game.game());
+    }
+
+    private GameData global(int shard, GameData game) {
+        return game != null
+                ? new GameData(shardMap.toGlobal(shard, game.gameID()), game.whiteUsername(), game.blackUsername(),
+                        game.gameName(), game.game())
+                : null;
+    }
+
+    private GameData[] globalGames(int shard, GameData[] games) {
+        GameData[] global = new GameData[games.length];
+        for (int i = 0; i < games.length; i++) {
+            global[i] = global(shard, games[i]);
+        }
+        return global;
+    }
+
+    private GameSummary[] globalSummaries(int shard, GameSummary[] summaries) {
+        GameSummary[] global = new GameSummary[summaries.length];
+        for (int i = 0; i < summaries.length; i++) {
+            GameSummary summary = summaries[i];
+            global[i] = new GameSummary(shardMap.toGlobal(shard, summary.gameID()), summary.whiteUsername(),
+                    summary.blackUsername(), summary.gameName());
+        }
+        return global;
+    }
+
+    private static GameSummary[] merge(List<GameSummary[]> results, int limit) {
+        return results.stream()
+                .flatMap(Arrays::stream)
+                .sorted(Comparator.comparingInt(GameSummary::gameID))
+                .limit(limit)
+                .toArray(GameSummary[]::new);
+    }
+}
@@ -0,0 +1,11 @@
+package dataaccess;
+
+import model.GameData;
+
+/**
+ * A game row together with its version. The version goes up by one on every change to
+ * the row itself (seats, name, stored state); appended moves do not change it, since the
+ * move log already rejects a second move for the same ply.
+ */
+public record VersionedGame(GameData game, long version) {
+}
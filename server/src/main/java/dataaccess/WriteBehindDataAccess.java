@@ -0,0 +1,499 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.GameData;
+import model.GameSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind stage for game mutations. {@link #appendMove} and {@link #updateGame} are
+ * queued and a background writer flushes them through {@link DataAccess#applyGameWrites},
+ * so the caller (usually a WebSocket thread) does not wait for a database round trip.
+ * <p>
+ * Repeated {@code updateGame} calls for the same game are coalesced into the latest one;
+ * moves are never coalesced because each one is a row in the move log. Reads of a game
+ * with queued writes wait for them to be flushed first, so readers always see their own
+ * writes.
+ * <p>
+ * In {@link Durability#ASYNC} mode nobody is waiting when a write fails, so the game is
+ * marked as lost instead: its next {@link #appendMove} fails with "Move conflict", which
+ * makes the caller reload the game from the store before trying again.
+ * <p>
+ * {@link Stats#failedWrites()} counts every write the store rejected.
+ * {@link Stats#droppedWrites()} counts the ones that had already been acknowledged in ASYNC
+ * mode and are lost, and {@link Stats#lostGames()} counts the games waiting for that reload.
+ */
+public class WriteBehindDataAccess extends ForwardingDataAccess implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriteBehindDataAccess.class);
+
+    public enum Durability {
+        /** Acknowledge as soon as the write is queued. A crash can lose the last batch. */
+        ASYNC,
+        /** Wait until the batch holding the write commits; batches wait up to maxDelay to fill. */
+        GROUP_COMMIT,
+        /** Bypass the queue and write synchronously. */
+        SYNC
+    }
+
+    public record Config(Durability durability, long maxDelayMillis, int maxBatchSize, int maxQueueDepth) {
+
+        public static Config defaults() {
+            return new Config(Durability.GROUP_COMMIT, 5, 500, 10_000);
+        }
+    }
+
+    public record Stats(Durability durability,
+                        int queueDepth,
+                        int maxQueueDepth,
+                        long enqueued,
+                        long coalesced,
+                        long flushes,
+                        long flushedWrites,
+                        long failedWrites,
+                        long droppedWrites,
+                        int lostGames,
+                        double averageBatchSize,
+                        long lastFlushMicros) {
+    }
+
+    private static final class PendingGame {
+        private final List<GameWrite.MoveWrite> moves = new ArrayList<>();
+        private GameWrite.StateWrite state;
+
+        private int size() {
+            return moves.size() + (state != null ? 1 : 0);
+        }
+    }
+
+    private final Config config;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private LinkedHashMap<Integer, PendingGame> pending = new LinkedHashMap<>();
+    private CompletableFuture<Map<Integer, DataAccessException>> pendingFlush = new CompletableFuture<>();
+    private int pendingWrites;
+    private long firstPendingNanos;
+    private boolean flushRequested;
+
+    private final Set<Integer> lostGames = new HashSet<>();
+    private Set<Integer> inFlightGames = Set.of();
+    private CompletableFuture<Map<Integer, DataAccessException>> inFlightFlush = CompletableFuture.completedFuture(Map.of());
+
+    private volatile boolean running = true;
+    private final Thread writer;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedWrites = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong droppedWrites = new AtomicLong();
+    private volatile int maxQueueDepth;
+    private volatile long lastFlushMicros;
+
+    public WriteBehindDataAccess(DataAccess delegate, Config config) {
+        super(delegate);
+        this.config = config;
+        this.writer = new Thread(this::runWriter, "write-behind-writer");
+        writer.setDaemon(true);
+        if (config.durability() != Durability.SYNC) {
+            writer.start();
+        }
+    }
+
+    @Override
+    public void appendMove(int gameID, int ply, ChessMove move, ChessGame stateAfter) throws DataAccessException {
+        if (config.durability() == Durability.SYNC) {
+            delegate.appendMove(gameID, ply, move, stateAfter);
+            return;
+        }
+        // El juego en memoria sigue cambiando; se guarda una copia del estado de este ply
+        enqueue(new GameWrite.MoveWrite(gameID, ply, move, copyOf(stateAfter)));
+    }
+
+    @Override
+    public void updateGame(int gameID, GameData game) throws DataAccessException {
+        if (config.durability() == Durability.SYNC) {
+            delegate.updateGame(gameID, game);
+            return;
+        }
+        GameData copy = new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(),
+                game.gameName(), game.game() != null ? copyOf(game.game()) : null);
+        enqueue(new GameWrite.StateWrite(gameID, copy));
+    }
+
+    @Override
+    public boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        // Un updateGame pendiente podría pisar el asiento si se escribiera después
+        awaitGame(gameID);
+        return delegate.claimSeat(gameID, color, username);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        awaitGame(gameID);
+        return delegate.getGame(gameID);
+    }
+
+    @Override
+    public VersionedGame getVersionedGame(int gameID) throws DataAccessException {
+        awaitGame(gameID);
+        return delegate.getVersionedGame(gameID);
+    }
+
+    @Override
+    public boolean updateGameIfVersion(int gameID, long expectedVersion, GameData game) throws DataAccessException {
+        // La versión esperada solo es válida contra la fila ya escrita
+        awaitGame(gameID);
+        return delegate.updateGameIfVersion(gameID, expectedVersion, game);
+    }
+
+    @Override
+    public List<ChessMove> getMoves(int gameID, int afterPly, int uptoPly) throws DataAccessException {
+        awaitGame(gameID);
+        return delegate.getMoves(gameID, afterPly, uptoPly);
+    }
+
+    @Override
+    public ChessGame getSnapshot(int gameID, int ply) throws DataAccessException {
+        awaitGame(gameID);
+        return delegate.getSnapshot(gameID, ply);
+    }
+
+    @Override
+    public GameData[] getAllGames() throws DataAccessException {
+        flush();
+        return delegate.getAllGames();
+    }
+
+    @Override
+    public GameSummary[] listGameSummaries() throws DataAccessException {
+        flush();
+        return delegate.listGameSummaries();
+    }
+
+    @Override
+    public GameSummary[] listGameSummaries(int afterGameID, int limit, GameFilter filter) throws DataAccessException {
+        flush();
+        return delegate.listGameSummaries(afterGameID, limit, filter);
+    }
+
+    @Override
+    public GameSummary[] getGamesForUser(String username) throws DataAccessException {
+        flush();
+        return delegate.getGamesForUser(username);
+    }
+
+    @Override
+    public int countActiveGamesForUser(String username) throws DataAccessException {
+        flush();
+        return delegate.countActiveGamesForUser(username);
+    }
+
+    @Override
+    public int[] listUnfinishedGameIDs(int limit) throws DataAccessException {
+        flush();
+        return delegate.listUnfinishedGameIDs(limit);
+    }
+
+    @Override
+    public int archiveFinishedGames(long finishedBefore, int limit) throws DataAccessException {
+        // Los movimientos pendientes deben llegar a la tabla antes de archivar la partida
+        flush();
+        return delegate.archiveFinishedGames(finishedBefore, limit);
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        flush();
+        delegate.clear();
+        forgetLostGames();
+    }
+
+    @Override
+    public void deleteAllGames() throws DataAccessException {
+        flush();
+        delegate.deleteAllGames();
+        forgetLostGames();
+    }
+
+    private void forgetLostGames() {
+        lock.lock();
+        try {
+            lostGames.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until everything queued so far has been written.
+     */
+    public void flush() throws DataAccessException {
+        CompletableFuture<Map<Integer, DataAccessException>> queued;
+        CompletableFuture<Map<Integer, DataAccessException>> inFlight;
+        lock.lock();
+        try {
+            queued = pendingWrites > 0 ? requestFlush() : null;
+            inFlight = inFlightFlush;
+        } finally {
+            lock.unlock();
+        }
+        await(inFlight);
+        if (queued != null) {
+            await(queued);
+        }
+    }
+
+    public Stats stats() {
+        lock.lock();
+        try {
+            long count = flushes.get();
+            double average = count == 0 ? 0 : (double) flushedWrites.get() / count;
+            return new Stats(config.durability(), pendingWrites, maxQueueDepth, enqueued.get(), coalesced.get(),
+                    count, flushedWrites.get(), failedWrites.get(), droppedWrites.get(), lostGames.size(), average,
+                    lastFlushMicros);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the queue and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+        } catch (DataAccessException e) {
+            LOG.error("Error al vaciar la cola de escritura: {}", e.getMessage());
+        }
+        running = false;
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(GameWrite write) throws DataAccessException {
+        CompletableFuture<Map<Integer, DataAccessException>> flushFuture;
+        lock.lock();
+        try {
+            while (pendingWrites >= config.maxQueueDepth() && running) {
+                notFull.await();
+            }
+            if (!running) {
+                throw new DataAccessException("write-behind queue is closed");
+            }
+            if (write instanceof GameWrite.MoveWrite && lostGames.remove(write.gameID())) {
+                // Faltan movimientos anteriores en el registro; el llamador debe recargar la partida
+                throw new DataAccessException("Move conflict");
+            }
+            if (pendingWrites == 0) {
+                firstPendingNanos = System.nanoTime();
+            }
+            PendingGame game = pending.computeIfAbsent(write.gameID(), id -> new PendingGame());
+            int before = game.size();
+            if (write instanceof GameWrite.MoveWrite move) {
+                game.moves.add(move);
+            } else {
+                if (game.state != null) {
+                    coalesced.incrementAndGet();
+                }
+                game.state = (GameWrite.StateWrite) write;
+            }
+            pendingWrites += game.size() - before;
+            maxQueueDepth = Math.max(maxQueueDepth, pendingWrites);
+            enqueued.incrementAndGet();
+            if (pendingWrites == 1 || pendingWrites >= config.maxBatchSize()) {
+                notEmpty.signal();
+            }
+            flushFuture = pendingFlush;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("interrupted waiting for the write-behind queue", e);
+        } finally {
+            lock.unlock();
+        }
+
+        if (config.durability() == Durability.GROUP_COMMIT) {
+            DataAccessException failure = await(flushFuture).get(write.gameID());
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private void awaitGame(int gameID) throws DataAccessException {
+        CompletableFuture<Map<Integer, DataAccessException>> future = null;
+        lock.lock();
+        try {
+            if (pending.containsKey(gameID)) {
+                future = requestFlush();
+            } else if (inFlightGames.contains(gameID)) {
+                future = inFlightFlush;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (future != null) {
+            await(future);
+        }
+    }
+
+    /**
+     * Must be called holding the lock.
+     */
+    private CompletableFuture<Map<Integer, DataAccessException>> requestFlush() {
+        flushRequested = true;
+        notEmpty.signal();
+        return pendingFlush;
+    }
+
+    private Map<Integer, DataAccessException> await(CompletableFuture<Map<Integer, DataAccessException>> future)
+            throws DataAccessException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("interrupted waiting for a flush", e);
+        } catch (ExecutionException e) {
+            throw new DataAccessException("write-behind flush failed", e.getCause());
+        }
+    }
+
+    private void runWriter() {
+        while (true) {
+            LinkedHashMap<Integer, PendingGame> batch;
+            CompletableFuture<Map<Integer, DataAccessException>> future;
+            lock.lock();
+            try {
+                while (pendingWrites == 0 && running) {
+                    notEmpty.await();
+                }
+                if (pendingWrites == 0) {
+                    return;
+                }
+                long deadline = firstPendingNanos + TimeUnit.MILLISECONDS.toNanos(config.maxDelayMillis());
+                long remaining;
+                while (running && !flushRequested && pendingWrites < config.maxBatchSize()
+                        && (remaining = deadline - System.nanoTime()) > 0) {
+                    notEmpty.awaitNanos(remaining);
+                }
+
+                batch = pending;
+                future = pendingFlush;
+                pending = new LinkedHashMap<>();
+                pendingFlush = new CompletableFuture<>();
+                pendingWrites = 0;
+                flushRequested = false;
+                inFlightGames = new HashSet<>(batch.keySet());
+                inFlightFlush = future;
+                notFull.signalAll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            Map<Integer, DataAccessException> failures = null;
+            Throwable unexpected = null;
+            try {
+                failures = write(batch);
+            } catch (Throwable e) {
+                // El hilo escritor sigue vivo; quien espere este lote recibe el error
+                unexpected = e;
+                failedWrites.addAndGet(batch.values().stream().mapToInt(PendingGame::size).sum());
+                LOG.error("Error al escribir el lote", e);
+            }
+
+            // Las partidas perdidas se marcan antes de despertar a quien espera el lote
+            lock.lock();
+            try {
+                inFlightGames = Set.of();
+                if (config.durability() == Durability.ASYNC) {
+                    Set<Integer> lost = failures != null ? failures.keySet() : batch.keySet();
+                    lostGames.addAll(lost);
+                    // Nadie espera estas escrituras: ya se confirmaron al encolarlas
+                    droppedWrites.addAndGet(lost.stream().mapToInt(id -> batch.get(id).size()).sum());
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (unexpected != null) {
+                future.completeExceptionally(unexpected);
+            } else {
+                future.complete(failures);
+            }
+        }
+    }
+
+    private Map<Integer, DataAccessException> write(LinkedHashMap<Integer, PendingGame> batch) {
+        List<GameWrite> writes = new ArrayList<>();
+        for (PendingGame game : batch.values()) {
+            writes.addAll(game.moves);
+            if (game.state != null) {
+                writes.add(game.state);
+            }
+        }
+
+        long start = System.nanoTime();
+        Map<Integer, DataAccessException> failures = new HashMap<>();
+        try {
+            delegate.applyGameWrites(writes);
+        } catch (DataAccessException | RuntimeException batchFailure) {
+            // La transacción se deshizo entera; se reintenta juego por juego para aislar el fallo
+            for (Map.Entry<Integer, PendingGame> entry : batch.entrySet()) {
+                List<GameWrite> gameWrites = new ArrayList<>(entry.getValue().moves);
+                if (entry.getValue().state != null) {
+                    gameWrites.add(entry.getValue().state);
+                }
+                try {
+                    delegate.applyGameWrites(gameWrites);
+                } catch (DataAccessException e) {
+                    failures.put(entry.getKey(), e);
+                    failedWrites.addAndGet(gameWrites.size());
+                    LOG.warn("Error al escribir el juego {}: {}", entry.getKey(), e.getMessage());
+                } catch (RuntimeException e) {
+                    failures.put(entry.getKey(), new DataAccessException("failed to write game " + entry.getKey(), e));
+                    failedWrites.addAndGet(gameWrites.size());
+                    LOG.error("Error al escribir el juego {}", entry.getKey(), e);
+                }
+            }
+        }
+        lastFlushMicros = (System.nanoTime() - start) / 1_000;
+        flushes.incrementAndGet();
+        flushedWrites.addAndGet(writes.size());
+        return failures;
+    }
+
+    private static ChessGame copyOf(ChessGame game) {
+        try {
+            return GameStateCodec.decode(GameStateCodec.encode(game));
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("game state does not round trip", e);
+        }
+    }
+}
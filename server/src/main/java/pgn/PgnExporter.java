@@ -0,0 +1,107 @@
+package pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.GameFilter;
+import model.GameData;
+import model.GameSummary;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk export of every game, live or archived, as PGN. Games are read a page of
+ * {@code pageSize} at a time in game ID order and their move logs replayed with {@link San},
+ * so memory stays bounded however many games there are. Games whose log does not replay
+ * from the starting position are skipped.
+ */
+public class PgnExporter {
+
+    public record Result(long games, long skipped, long millis) {
+    }
+
+    private final DataAccess dataAccess;
+    private final int pageSize;
+
+    public PgnExporter(DataAccess dataAccess, int pageSize) {
+        this.dataAccess = dataAccess;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Writes every game to the channel and closes it.
+     */
+    public Result exportGames(WritableByteChannel channel) throws IOException, DataAccessException {
+        long start = System.nanoTime();
+        long games = 0;
+        long skipped = 0;
+        try (PgnWriter writer = new PgnWriter(channel)) {
+            int after = 0;
+            GameSummary[] page;
+            do {
+                page = dataAccess.listGameSummaries(after, pageSize, GameFilter.NONE);
+                for (GameSummary summary : page) {
+                    after = summary.gameID();
+                    PgnGame game = toPgn(summary);
+                    if (game == null) {
+                        skipped++;
+                        continue;
+                    }
+                    writer.write(game);
+                    games++;
+                }
+            } while (page.length == pageSize);
+        }
+        return new Result(games, skipped, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private PgnGame toPgn(GameSummary summary) throws DataAccessException {
+        GameData stored = dataAccess.getGame(summary.gameID());
+        if (stored == null) {
+            return null;
+        }
+        ChessGame game = new ChessGame();
+        List<String> moves = new ArrayList<>();
+        try {
+            for (ChessMove move : dataAccess.getMoves(summary.gameID(), 0, Integer.MAX_VALUE)) {
+                moves.add(San.write(game, move));
+            }
+        } catch (InvalidMoveException e) {
+            return null;
+        }
+        String result = result(game, stored.game() != null && stored.game().isGameOver());
+
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", summary.gameName());
+        tags.put("Site", "?");
+        tags.put("Date", "????.??.??");
+        tags.put("Round", "-");
+        tags.put("White", summary.whiteUsername() != null ? summary.whiteUsername() : "?");
+        tags.put("Black", summary.blackUsername() != null ? summary.blackUsername() : "?");
+        tags.put("Result", result);
+        return new PgnGame(tags, moves, result);
+    }
+
+    /**
+     * Checkmate and stalemate decide the result; a game that ended any other way, such as
+     * by resignation, does not record who won.
+     */
+    private static String result(ChessGame game, boolean over) {
+        ChessGame.TeamColor toMove = game.getTeamTurn();
+        if (over && game.isInCheckmate(toMove)) {
+            return toMove == ChessGame.TeamColor.WHITE ? "0-1" : "1-0";
+        }
+        if (over && game.isInStalemate(toMove)) {
+            return "1/2-1/2";
+        }
+        return PgnGame.UNKNOWN_RESULT;
+    }
+}
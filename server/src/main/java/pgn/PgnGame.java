@@ -0,0 +1,14 @@
+package pgn;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game of a PGN file as text: its tag pairs in file order, its main line in SAN and its
+ * result ({@code 1-0}, {@code 0-1}, {@code 1/2-1/2} or {@code *}). Comments, variations and
+ * annotation glyphs are not kept; {@link San} gives the moves their meaning.
+ */
+public record PgnGame(Map<String, String> tags, List<String> moves, String result) {
+
+    public static final String UNKNOWN_RESULT = "*";
+}
@@ -0,0 +1,204 @@
+package pgn;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.GameWrite;
+import model.GameData;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bulk import of PGN files. One thread splits the file into games with {@link PgnReader};
+ * {@code threads} workers take {@code batchSize} games at a time, replay their moves with
+ * {@link San} and store each batch, games and moves together, through
+ * {@link DataAccess#createGamesWithMoves}. Positions are only copied where the store keeps
+ * them: every {@link DataAccess#SNAPSHOT_INTERVAL} plies and after the last move. At most
+ * two batches per worker are in flight, so memory stays bounded however large the file is.
+ * <p>
+ * Imported games are stored as finished, with no seats taken: PGN player names are not
+ * users here, so they go into the game name. Games whose moves do not replay, including
+ * every game that castles or captures en passant, are counted as rejected and skipped.
+ */
+public class PgnImporter {
+
+    public static final int MAX_NAME_LENGTH = 255;
+
+    public record Config(int threads, int batchSize) {
+
+        public static Config defaults() {
+            return new Config(Runtime.getRuntime().availableProcessors(), 100);
+        }
+    }
+
+    public record Result(long games, long rejected, long moves, long millis) {
+    }
+
+    private final DataAccess dataAccess;
+    private final Config config;
+
+    public PgnImporter(DataAccess dataAccess, Config config) {
+        this.dataAccess = dataAccess;
+        this.config = config;
+    }
+
+    /**
+     * Imports every game in the channel and closes it.
+     */
+    public Result importGames(ReadableByteChannel channel) throws IOException, DataAccessException {
+        long start = System.nanoTime();
+        AtomicLong games = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong moves = new AtomicLong();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        int inFlight = config.threads() * 2;
+        Semaphore permits = new Semaphore(inFlight);
+        ExecutorService workers = Executors.newFixedThreadPool(config.threads(), r -> {
+            Thread thread = new Thread(r, "pgn-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (PgnReader reader = new PgnReader(channel)) {
+            List<String> batch = new ArrayList<>(config.batchSize());
+            String text;
+            while (failure.get() == null && (text = reader.nextGame()) != null) {
+                batch.add(text);
+                if (batch.size() < config.batchSize()) {
+                    continue;
+                }
+                List<String> full = batch;
+                batch = new ArrayList<>(config.batchSize());
+                acquire(permits, 1);
+                workers.execute(() -> {
+                    try {
+                        importBatch(full, games, rejected, moves);
+                    } catch (Exception e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+            if (failure.get() == null && !batch.isEmpty()) {
+                importBatch(batch, games, rejected, moves);
+            }
+            acquire(permits, inFlight);
+        } finally {
+            workers.shutdownNow();
+        }
+
+        if (failure.get() instanceof DataAccessException e) {
+            throw e;
+        }
+        if (failure.get() != null) {
+            throw new DataAccessException("failed to import games: " + failure.get().getMessage(), failure.get());
+        }
+        return new Result(games.get(), rejected.get(), moves.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void importBatch(List<String> texts, AtomicLong games, AtomicLong rejected, AtomicLong moves)
+            throws DataAccessException {
+        List<GameData> created = new ArrayList<>(texts.size());
+        List<List<GameWrite.MoveWrite>> logs = new ArrayList<>(texts.size());
+        long logged = 0;
+        for (String text : texts) {
+            PgnGame pgn = PgnReader.parse(text);
+            ChessGame game = new ChessGame();
+            int plies = pgn.moves().size();
+            List<GameWrite.MoveWrite> log = new ArrayList<>(plies);
+            try {
+                for (int ply = 1; ply <= plies; ply++) {
+                    ChessMove move = San.read(game, pgn.moves().get(ply - 1));
+                    // Solo las instantáneas y el último movimiento necesitan la posición
+                    boolean keepsState = ply % DataAccess.SNAPSHOT_INTERVAL == 0 || ply == plies;
+                    log.add(new GameWrite.MoveWrite(0, ply, move, keepsState ? copy(game) : null));
+                }
+            } catch (InvalidMoveException e) {
+                rejected.incrementAndGet();
+                continue;
+            }
+            // La partida se cierra con su último movimiento: no se admiten jugadas en partidas terminadas
+            if (log.isEmpty()) {
+                game.setGameOver(true);
+            } else {
+                log.getLast().stateAfter().setGameOver(true);
+            }
+            created.add(new GameData(0, null, null, gameName(pgn), game));
+            logs.add(log);
+            logged += plies;
+        }
+        if (created.isEmpty()) {
+            return;
+        }
+
+        int[] gameIDs = dataAccess.createGamesWithMoves(created, logs);
+        games.addAndGet(gameIDs.length);
+        moves.addAndGet(logged);
+    }
+
+    /**
+     * "White - Black, Event", leaving out the tags that are missing or unknown.
+     */
+    static String gameName(PgnGame game) {
+        String white = tag(game, "White");
+        String black = tag(game, "Black");
+        String event = tag(game, "Event");
+        StringBuilder name = new StringBuilder();
+        if (white != null || black != null) {
+            name.append(white != null ? white : "?").append(" - ").append(black != null ? black : "?");
+        }
+        if (event != null) {
+            name.append(name.isEmpty() ? "" : ", ").append(event);
+        }
+        if (name.isEmpty()) {
+            name.append("Imported game");
+        }
+        return name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name.toString();
+    }
+
+    private static String tag(PgnGame game, String name) {
+        String value = game.tags().get(name);
+        return value == null || value.isBlank() || value.equals("?") ? null : value;
+    }
+
+    private static ChessGame copy(ChessGame game) {
+        ChessBoard board = new ChessBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                board.addPiece(position, game.getBoard().getPiece(position));
+            }
+        }
+        ChessGame copy = new ChessGame();
+        copy.setBoard(board);
+        copy.setTeamTurn(game.getTeamTurn());
+        copy.setPly(game.getPly());
+        copy.setGameOver(game.isGameOver());
+        return copy;
+    }
+
+    private static void acquire(Semaphore permits, int count) throws InterruptedIOException {
+        try {
+            permits.acquire(count);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while importing games");
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams games out of a PGN file. {@link #nextGame()} only splits the input into the text
+ * of each game, which is cheap, so callers can hand games to other threads for
+ * {@link #parse(String)} and {@link San}. Memory stays constant: the channel is read through
+ * fixed buffers and a game longer than {@link #MAX_GAME_CHARS} is an error.
+ */
+public class PgnReader implements Closeable {
+
+    public static final int MAX_GAME_CHARS = 1 << 20;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final StringBuilder line = new StringBuilder(256);
+    private boolean endOfInput;
+    // Primera línea de la siguiente partida, leída al terminar la anterior
+    private String pending;
+
+    public PgnReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        chars.flip();
+    }
+
+    /**
+     * @return the text of the next game, tags and movetext, or null at the end of the input
+     */
+    public String nextGame() throws IOException {
+        StringBuilder game = new StringBuilder(1024);
+        boolean inMovetext = false;
+        String current;
+        while ((current = pending != null ? pending : readLine()) != null) {
+            pending = null;
+            String trimmed = current.strip();
+            if (trimmed.isEmpty()) {
+                if (inMovetext) {
+                    break;
+                }
+                continue;
+            }
+            if (trimmed.startsWith("%")) {
+                continue;
+            }
+            if (trimmed.startsWith("[") && inMovetext) {
+                // Falta la línea en blanco entre partidas
+                pending = current;
+                break;
+            }
+            inMovetext |= !trimmed.startsWith("[");
+            if (game.length() + trimmed.length() >= MAX_GAME_CHARS) {
+                throw new IOException("PGN game longer than " + MAX_GAME_CHARS + " characters");
+            }
+            game.append(trimmed).append('\n');
+        }
+        return game.isEmpty() ? null : game.toString();
+    }
+
+    /**
+     * Parses the text of one game. Malformed tag pairs are skipped; moves are not checked.
+     */
+    public static PgnGame parse(String text) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        List<String> moves = new ArrayList<>(128);
+        String result = PgnGame.UNKNOWN_RESULT;
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '[') {
+                int end = text.indexOf('\n', i);
+                end = end < 0 ? length : end;
+                parseTag(text.substring(i, end), tags);
+                i = end;
+            } else if (c == '{') {
+                int end = text.indexOf('}', i);
+                i = end < 0 ? length : end + 1;
+            } else if (c == ';') {
+                int end = text.indexOf('\n', i);
+                i = end < 0 ? length : end;
+            } else if (c == '(') {
+                i = skipVariation(text, i);
+            } else {
+                int end = i;
+                while (end < length && !Character.isWhitespace(text.charAt(end))
+                        && "{(;".indexOf(text.charAt(end)) < 0) {
+                    end++;
+                }
+                String token = text.substring(i, end);
+                i = end;
+                if (token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*")) {
+                    result = token;
+                    continue;
+                }
+                String move = stripMoveNumber(token);
+                if (!move.isEmpty() && move.charAt(0) != '$') {
+                    moves.add(move);
+                }
+            }
+        }
+        return new PgnGame(tags, moves, result);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private String readLine() throws IOException {
+        line.setLength(0);
+        while (true) {
+            while (chars.hasRemaining()) {
+                char c = chars.get();
+                if (c == '\n') {
+                    return line.toString();
+                }
+                if (c != '\r') {
+                    if (line.length() >= MAX_GAME_CHARS) {
+                        throw new IOException("PGN line longer than " + MAX_GAME_CHARS + " characters");
+                    }
+                    line.append(c);
+                }
+            }
+            if (endOfInput) {
+                return line.isEmpty() ? null : line.toString();
+            }
+            fill();
+        }
+    }
+
+    private void fill() throws IOException {
+        chars.clear();
+        if (channel.read(bytes) < 0) {
+            endOfInput = true;
+        }
+        bytes.flip();
+        decoder.decode(bytes, chars, endOfInput);
+        if (endOfInput) {
+            decoder.flush(chars);
+        }
+        bytes.compact();
+        chars.flip();
+    }
+
+    private static void parseTag(String line, Map<String, String> tags) {
+        int open = line.indexOf('"');
+        int close = line.lastIndexOf('"');
+        if (open < 0 || close <= open) {
+            return;
+        }
+        String name = line.substring(1, open).strip();
+        if (!name.isEmpty()) {
+            tags.put(name, line.substring(open + 1, close).replace("\\\"", "\"").replace("\\\\", "\\"));
+        }
+    }
+
+    private static int skipVariation(String text, int start) {
+        int depth = 0;
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '{') {
+                int end = text.indexOf('}', i);
+                i = end < 0 ? text.length() : end;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return text.length();
+    }
+
+    /**
+     * Drops a leading move number such as {@code 12.} or {@code 12...}, and trailing
+     * annotations such as {@code !?}.
+     */
+    private static String stripMoveNumber(String token) {
+        int start = 0;
+        while (start < token.length() && Character.isDigit(token.charAt(start))) {
+            start++;
+        }
+        if (start < token.length() && token.charAt(start) == '.') {
+            while (start < token.length() && token.charAt(start) == '.') {
+                start++;
+            }
+        } else {
+            start = 0;
+        }
+        int end = token.length();
+        while (end > start && (token.charAt(end - 1) == '!' || token.charAt(end - 1) == '?')) {
+            end--;
+        }
+        return token.substring(start, end);
+    }
+}
@@ -0,0 +1,102 @@
+package pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Streams games into a PGN file in export format: tag pairs in the order given, a blank
+ * line, the movetext wrapped at {@link #LINE_LENGTH} characters and a blank line. Text goes
+ * to the channel through one fixed buffer, so memory does not grow with the file.
+ */
+public class PgnWriter implements Closeable {
+
+    public static final int LINE_LENGTH = 79;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    private final StringBuilder text = new StringBuilder(1024);
+
+    public PgnWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    public void write(PgnGame game) throws IOException {
+        text.setLength(0);
+        for (Map.Entry<String, String> tag : game.tags().entrySet()) {
+            text.append('[').append(tag.getKey()).append(" \"")
+                    .append(tag.getValue().replace("\\", "\\\\").replace("\"", "\\\""))
+                    .append("\"]\n");
+        }
+        text.append('\n');
+
+        int lineStart = text.length();
+        for (int ply = 0; ply < game.moves().size(); ply++) {
+            String token = ply % 2 == 0
+                    ? (ply / 2 + 1) + ". " + game.moves().get(ply)
+                    : game.moves().get(ply);
+            lineStart = appendToken(token, lineStart);
+        }
+        appendToken(game.result(), lineStart);
+        text.append("\n\n");
+        encode();
+    }
+
+    /**
+     * Writes out whatever is still buffered.
+     */
+    public void flush() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private int appendToken(String token, int lineStart) {
+        if (text.length() > lineStart && text.length() - lineStart + 1 + token.length() > LINE_LENGTH) {
+            text.append('\n');
+            lineStart = text.length();
+        } else if (text.length() > lineStart) {
+            text.append(' ');
+        }
+        text.append(token);
+        return lineStart;
+    }
+
+    private void encode() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        try {
+            while (true) {
+                CoderResult result = encoder.encode(chars, bytes, true);
+                if (result.isOverflow()) {
+                    flush();
+                } else if (result.isError()) {
+                    result.throwException();
+                } else {
+                    break;
+                }
+            }
+        } finally {
+            encoder.reset();
+        }
+    }
+}
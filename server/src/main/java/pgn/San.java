@@ -0,0 +1,226 @@
+package pgn;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Standard algebraic notation, read and written against a {@link ChessGame}. Both
+ * directions make the move on the game, since SAN only means something in the position it
+ * was played from and the check suffix depends on the position after it.
+ * <p>
+ * The game has no castling or en passant, so moves like {@code O-O} are rejected as invalid.
+ */
+public final class San {
+
+    private static final String FILES = "abcdefgh";
+    private static final ChessPosition[][] SQUARES = new ChessPosition[8][8];
+
+    static {
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                SQUARES[row][col] = new ChessPosition(row + 1, col + 1);
+            }
+        }
+    }
+
+    private San() {
+    }
+
+    /**
+     * Resolves a SAN move in the game's position and makes it.
+     *
+     * @throws InvalidMoveException if the text is not SAN, names no legal move or is ambiguous
+     */
+    public static ChessMove read(ChessGame game, String san) throws InvalidMoveException {
+        String text = stripSuffixes(san);
+        if (text.startsWith("O-O") || text.startsWith("0-0")) {
+            throw new InvalidMoveException("Castling is not supported: " + san);
+        }
+
+        ChessPiece.PieceType promotion = null;
+        int equals = text.indexOf('=');
+        if (equals >= 0 && equals == text.length() - 2) {
+            promotion = pieceType(text.charAt(equals + 1));
+            text = text.substring(0, equals);
+        } else if (text.length() > 2 && pieceType(text.charAt(text.length() - 1)) != null
+                && Character.isDigit(text.charAt(text.length() - 2))) {
+            promotion = pieceType(text.charAt(text.length() - 1));
+            text = text.substring(0, text.length() - 1);
+        }
+
+        ChessPiece.PieceType type = ChessPiece.PieceType.PAWN;
+        if (!text.isEmpty() && pieceType(text.charAt(0)) != null) {
+            type = pieceType(text.charAt(0));
+            text = text.substring(1);
+        }
+        text = text.replace("x", "").replace(":", "");
+        if (text.length() < 2 || text.length() > 4) {
+            throw new InvalidMoveException("Not a SAN move: " + san);
+        }
+        int toCol = FILES.indexOf(text.charAt(text.length() - 2));
+        int toRow = text.charAt(text.length() - 1) - '1';
+        if (toCol < 0 || toRow < 0 || toRow > 7) {
+            throw new InvalidMoveException("Not a SAN move: " + san);
+        }
+        int fromCol = -1;
+        int fromRow = -1;
+        for (char c : text.substring(0, text.length() - 2).toCharArray()) {
+            if (FILES.indexOf(c) >= 0) {
+                fromCol = FILES.indexOf(c);
+            } else if (c >= '1' && c <= '8') {
+                fromRow = c - '1';
+            } else {
+                throw new InvalidMoveException("Not a SAN move: " + san);
+            }
+        }
+
+        ChessPosition to = SQUARES[toRow][toCol];
+        ChessBoard board = game.getBoard();
+        List<ChessMove> candidates = new ArrayList<>(2);
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                if ((fromRow >= 0 && row != fromRow) || (fromCol >= 0 && col != fromCol)) {
+                    continue;
+                }
+                ChessPiece piece = board.getPiece(SQUARES[row][col]);
+                if (piece == null || piece.getTeamColor() != game.getTeamTurn() || piece.getPieceType() != type) {
+                    continue;
+                }
+                ChessMove move = new ChessMove(SQUARES[row][col], to, promotion);
+                if (piece.pieceMoves(board, SQUARES[row][col]).contains(move)) {
+                    candidates.add(move);
+                }
+            }
+        }
+        if (candidates.size() > 1) {
+            // La desambiguación de SAN solo cuenta movimientos legales
+            candidates.removeIf(move -> !game.validMoves(move.getStartPosition()).contains(move));
+        }
+        if (candidates.isEmpty()) {
+            throw new InvalidMoveException("No legal move for " + san);
+        }
+        if (candidates.size() > 1) {
+            throw new InvalidMoveException("Ambiguous move: " + san);
+        }
+        ChessMove found = candidates.get(0);
+        game.makeMove(found);
+        return found;
+    }
+
+    /**
+     * Writes a move in SAN for the game's position and makes it.
+     *
+     * @throws InvalidMoveException if the move is not legal in the game
+     */
+    public static String write(ChessGame game, ChessMove move) throws InvalidMoveException {
+        ChessBoard board = game.getBoard();
+        ChessPosition from = move.getStartPosition();
+        ChessPosition to = move.getEndPosition();
+        ChessPiece piece = board.getPiece(from);
+        if (piece == null) {
+            throw new InvalidMoveException("No piece at start position");
+        }
+        boolean capture = board.getPiece(to) != null;
+
+        StringBuilder san = new StringBuilder(8);
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            if (capture) {
+                san.append(FILES.charAt(from.getColumn() - 1)).append('x');
+            }
+            san.append(square(to));
+            if (move.getPromotionPiece() != null) {
+                san.append('=').append(letter(move.getPromotionPiece()));
+            }
+        } else {
+            san.append(letter(piece.getPieceType()));
+            appendDisambiguation(san, game, piece, move);
+            if (capture) {
+                san.append('x');
+            }
+            san.append(square(to));
+        }
+
+        game.makeMove(move);
+        ChessGame.TeamColor opponent = game.getTeamTurn();
+        if (game.isInCheck(opponent)) {
+            san.append(game.isInCheckmate(opponent) ? '#' : '+');
+        }
+        return san.toString();
+    }
+
+    /**
+     * Adds the file, rank or both when another piece of the same type could also legally
+     * move to the destination.
+     */
+    private static void appendDisambiguation(StringBuilder san, ChessGame game, ChessPiece piece, ChessMove move) {
+        ChessPosition from = move.getStartPosition();
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (ChessPosition[] row : SQUARES) {
+            for (ChessPosition square : row) {
+                if (square.equals(from) || !piece.equals(game.getBoard().getPiece(square))) {
+                    continue;
+                }
+                Collection<ChessMove> moves = game.validMoves(square);
+                if (moves.contains(new ChessMove(square, move.getEndPosition(), move.getPromotionPiece()))) {
+                    ambiguous = true;
+                    sameFile |= square.getColumn() == from.getColumn();
+                    sameRank |= square.getRow() == from.getRow();
+                }
+            }
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            san.append(FILES.charAt(from.getColumn() - 1));
+        } else if (!sameRank) {
+            san.append(from.getRow());
+        } else {
+            san.append(square(from));
+        }
+    }
+
+    private static String stripSuffixes(String san) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return san.substring(0, end);
+    }
+
+    private static String square(ChessPosition position) {
+        return "" + FILES.charAt(position.getColumn() - 1) + position.getRow();
+    }
+
+    private static char letter(ChessPiece.PieceType type) {
+        return switch (type) {
+            case KING -> 'K';
+            case QUEEN -> 'Q';
+            case ROOK -> 'R';
+            case BISHOP -> 'B';
+            case KNIGHT -> 'N';
+            case PAWN -> 'P';
+        };
+    }
+
+    private static ChessPiece.PieceType pieceType(char letter) {
+        return switch (letter) {
+            case 'K' -> ChessPiece.PieceType.KING;
+            case 'Q' -> ChessPiece.PieceType.QUEEN;
+            case 'R' -> ChessPiece.PieceType.ROOK;
+            case 'B' -> ChessPiece.PieceType.BISHOP;
+            case 'N' -> ChessPiece.PieceType.KNIGHT;
+            default -> null;
+        };
+    }
+}
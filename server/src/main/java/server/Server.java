@@ -1,36 +1,86 @@
 package server;
 
+import chess.ChessGame;
+import dataaccess.AsyncDataAccess;
+import dataaccess.CachingAuthDataAccess;
 import dataaccess.DataAccessException;
 import dataaccess.DataAccess;
+import dataaccess.DatabaseManager;
+import dataaccess.GameArchiver;
+import dataaccess.GameFilter;
+import dataaccess.InstrumentedDataAccess;
+import dataaccess.LogStructuredDataAccess;
+import dataaccess.MemoryDataAccess;
 import dataaccess.MySQLDataAccess;
+import dataaccess.ReplicaRoutingDataAccess;
+import dataaccess.SessionExpiryDataAccess;
+import dataaccess.ShardedDataAccess;
+import dataaccess.WriteBehindDataAccess;
 import model.AuthData;
-import model.GameData;
+import model.GameSummary;
 import model.UserData;
+import pgn.PgnExporter;
+import pgn.PgnImporter;
 import service.*;
 import com.google.gson.Gson;
+import json.JsonCodecs;
 import spark.*;
 import service.Results.*;
 import websocket.WebSocketServer;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public class Server {
 
+    private final DataAccess backend;
+    // Null sin db.replicas
+    private final ReplicaRoutingDataAccess replicas;
+    private final InstrumentedDataAccess instrumented;
     private final DataAccess dataaccess;
+    private final WriteBehindDataAccess writeBehind;
+    private final SessionExpiryDataAccess sessions;
+    private final CachingAuthDataAccess authCache;
+    private final AsyncDataAccess async;
+    private final GameArchiver archiver;
     private final UserService userService;
     private final GameService gameService;
     private final SessionService sessionService;
     private final ClearService clearService;
     private final Gson gson;
     private final WebSocketServer webSocketServer;
+    // Vacío: /metrics queda cerrado
+    private final String metricsToken;
 
     public Server() {
         try {
-            this.dataaccess = new MySQLDataAccess();
+            this.replicas = createReplicaRouting();
+            this.backend = createBackend(replicas);
+            this.instrumented = new InstrumentedDataAccess(backend, new InstrumentedDataAccess.Config(
+                    Long.parseLong(DatabaseManager.getProperty("db.metrics.slowThresholdMillis",
+                            Long.toString(InstrumentedDataAccess.Config.defaults().slowThresholdMillis())))));
+            this.writeBehind = new WriteBehindDataAccess(instrumented.dataAccess(), writeBehindConfig());
+            this.sessions = new SessionExpiryDataAccess(writeBehind, sessionConfig());
+            this.authCache = new CachingAuthDataAccess(sessions, authCacheConfig());
+            this.dataaccess = authCache;
             this.userService = new UserService(dataaccess);
-            this.gameService = new GameService(dataaccess);
+            this.async = new AsyncDataAccess(dataaccess, Integer.parseInt(DatabaseManager.getProperty(
+                    "db.async.maxConcurrency", String.valueOf(DatabaseManager.poolMaxSize()))));
+            this.gameService = new GameService(dataaccess, async);
+            this.archiver = new GameArchiver(dataaccess, archiverConfig());
             this.sessionService = new SessionService(dataaccess);
             this.clearService = new ClearService(dataaccess);
             this.webSocketServer = new WebSocketServer(gameService);
-            this.gson = new Gson();
+            this.gson = JsonCodecs.gson();
+            this.metricsToken = DatabaseManager.getProperty("db.metrics.token", "");
         } catch (DataAccessException e) {
             // Es vital imprimir la excepción aquí para depurar problemas de DB
             System.err.println("ERROR: Fallo al inicializar el servidor debido a un problema de base de datos.");
@@ -40,6 +90,7 @@ public class Server {
     }
 
     public int run(int desiredPort) {
+        warmUp();
         Spark.port(desiredPort);
 
         Spark.webSocket("/ws", webSocketServer);
@@ -121,9 +172,22 @@ public class Server {
                 return gson.toJson(new ErrorResponse("Error: Unauthorized"));
             }
             try {
+                if (isPagedListRequest(req)) {
+                    Integer cursor = parseIntParam(req.queryParams("after"));
+                    Integer pageSize = parseIntParam(req.queryParams("limit"));
+                    GameFilter filter = new GameFilter(Boolean.parseBoolean(req.queryParams("open")), req.queryParams("player"));
+                    GamePageResult page = gameService.listGamesPage(authToken, cursor, pageSize, filter);
+                    // Con ?player= el lobby también muestra cuántas partidas tiene en curso
+                    Integer activeGames = filter.player() != null ? gameService.countActiveGames(authToken, filter.player()) : null;
+                    res.status(200);
+                    return gson.toJson(new GamePageResponse(page.games(), page.nextCursor(), activeGames));
+                }
                 GameListResult result = gameService.listGames(authToken);
                 res.status(200);
                 return gson.toJson(new GameListResponse(result.games()));
+            } catch (NumberFormatException e) {
+                res.status(400);
+                return gson.toJson(new ErrorResponse("Error: Bad request"));
             } catch (DataAccessException e) {
                 if (e.getMessage().equals("Unauthorized")) {
                     res.status(401);
@@ -133,6 +197,33 @@ public class Server {
                 return gson.toJson(new ErrorResponse("Error: " + e.getMessage()));
             }
         });
+        Spark.get("/game/:id/position", (req, res) -> {
+            String authToken = req.headers("Authorization");
+            if (authToken == null) {
+                res.status(401);
+                return gson.toJson(new ErrorResponse("Error: Unauthorized"));
+            }
+            try {
+                int gameID = Integer.parseInt(req.params(":id"));
+                Integer ply = parseIntParam(req.queryParams("ply"));
+                ChessGame position = gameService.getPosition(authToken, gameID, ply);
+                res.status(200);
+                return gson.toJson(new PositionResponse(gameID, position.getPly(), position));
+            } catch (NumberFormatException e) {
+                res.status(400);
+                return gson.toJson(new ErrorResponse("Error: Bad request"));
+            } catch (DataAccessException e) {
+                if (e.getMessage().startsWith("No autorizado")) {
+                    res.status(401);
+                    return gson.toJson(new ErrorResponse("Error: Unauthorized"));
+                } else if (e.getMessage().startsWith("Solicitud incorrecta") || e.getMessage().startsWith("ID de juego incorrecto")) {
+                    res.status(400);
+                    return gson.toJson(new ErrorResponse("Error: Bad request"));
+                }
+                res.status(500);
+                return gson.toJson(new ErrorResponse("Error: " + e.getMessage()));
+            }
+        });
         Spark.post("/game", (req, res) -> {
             String authToken = req.headers("Authorization");
             if (authToken == null) {
@@ -214,6 +305,31 @@ public class Server {
                 return gson.toJson(new ErrorResponse("Error: " + e.getMessage()));
             }
         });
+        Spark.get("/metrics", (req, res) -> {
+            if (!isMetricsToken(req.headers("Authorization"))) {
+                res.status(401);
+                return gson.toJson(new ErrorResponse("Error: Unauthorized"));
+            }
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("connectionPool", DatabaseManager.poolStats());
+            metrics.put("dataAccess", instrumented.stats());
+            metrics.put("writeBehind", writeBehind.stats());
+            metrics.put("sessions", sessions.stats());
+            metrics.put("archive", archiver.stats());
+            metrics.put("authCache", authCache.stats());
+            metrics.put("async", async.stats());
+            if (replicas != null) {
+                metrics.put("replicas", replicas.stats());
+            }
+            if (backend instanceof ShardedDataAccess sharded) {
+                metrics.put("shards", sharded.stats());
+            }
+            if (backend instanceof LogStructuredDataAccess logStore) {
+                metrics.put("logStore", logStore.stats());
+            }
+            res.status(200);
+            return gson.toJson(metrics);
+        });
         Spark.delete("/db", (req, res) -> {
             try {
                 Result result = clearService.clear();
@@ -226,19 +342,240 @@ public class Server {
         });
     }
 
+    /**
+     * /metrics expone detalles internos del almacén: exige el token de operador de
+     * db.metrics.token, no el de una sesión de jugador. Sin token configurado queda cerrado.
+     */
+    private boolean isMetricsToken(String authToken) {
+        return !metricsToken.isEmpty() && authToken != null && MessageDigest.isEqual(
+                metricsToken.getBytes(StandardCharsets.UTF_8), authToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sin parámetros GET /game mantiene la respuesta completa que esperan los clientes antiguos.
+     */
+    private static boolean isPagedListRequest(Request req) {
+        return req.queryParams("limit") != null || req.queryParams("after") != null
+                || req.queryParams("open") != null || req.queryParams("player") != null;
+    }
+
+    /**
+     * db.backend elige el almacenamiento: mysql (por defecto), log (ficheros locales) o memory.
+     * db.shards, si se indica, es una lista de nombres separados por comas: las partidas se
+     * reparten entre un almacén por nombre y usuarios y tokens quedan en el principal.
+     */
+    private static DataAccess createBackend(ReplicaRoutingDataAccess replicas) throws DataAccessException {
+        String backend = DatabaseManager.getProperty("db.backend", "mysql");
+        DataAccess primary = replicas != null ? replicas : createStore(backend, null);
+        List<DataAccess> shards = new ArrayList<>();
+        for (String name : DatabaseManager.getProperty("db.shards", "").split(",")) {
+            if (!name.isBlank()) {
+                shards.add(createStore(backend, name.trim()));
+            }
+        }
+        return shards.isEmpty() ? primary : new ShardedDataAccess(primary, shards);
+    }
+
+    /**
+     * db.replicas, solo con mysql, lista réplicas de lectura de la base principal como host:puerto.
+     */
+    private static ReplicaRoutingDataAccess createReplicaRouting() throws DataAccessException {
+        List<String> hosts = DatabaseManager.replicaHosts();
+        if (hosts.isEmpty() || !DatabaseManager.getProperty("db.backend", "mysql").equalsIgnoreCase("mysql")) {
+            return null;
+        }
+        MySQLDataAccess primary = new MySQLDataAccess();
+        List<ReplicaRoutingDataAccess.Replica> replicas = new ArrayList<>();
+        for (String host : hosts) {
+            MySQLDataAccess replica = MySQLDataAccess.replica(host);
+            replicas.add(new ReplicaRoutingDataAccess.Replica(host, replica, replica::readHeartbeat));
+        }
+        var defaults = ReplicaRoutingDataAccess.Config.defaults();
+        return new ReplicaRoutingDataAccess(primary, primary::writeHeartbeat, replicas, new ReplicaRoutingDataAccess.Config(
+                Long.parseLong(DatabaseManager.getProperty("db.replicas.maxLagMillis",
+                        Long.toString(defaults.maxLagMillis()))),
+                Long.parseLong(DatabaseManager.getProperty("db.replicas.heartbeatIntervalMillis",
+                        Long.toString(defaults.heartbeatIntervalMillis())))));
+    }
+
+    private static DataAccess createStore(String backend, String shard) throws DataAccessException {
+        if (backend.equalsIgnoreCase("log")) {
+            Path directory = Path.of(DatabaseManager.getProperty("db.log.dir", "data"));
+            var defaults = LogStructuredDataAccess.Config.defaults(shard == null ? directory : directory.resolve(shard));
+            return new LogStructuredDataAccess(new LogStructuredDataAccess.Config(
+                    defaults.directory(),
+                    Long.parseLong(DatabaseManager.getProperty("db.log.maxSegmentBytes",
+                            Long.toString(defaults.maxSegmentBytes()))),
+                    Double.parseDouble(DatabaseManager.getProperty("db.log.compactionGarbageRatio",
+                            Double.toString(defaults.compactionGarbageRatio()))),
+                    Long.parseLong(DatabaseManager.getProperty("db.log.compactionIntervalMillis",
+                            Long.toString(defaults.compactionIntervalMillis()))),
+                    Boolean.parseBoolean(DatabaseManager.getProperty("db.log.syncEveryWrite",
+                            Boolean.toString(defaults.syncEveryWrite()))),
+                    Long.parseLong(DatabaseManager.getProperty("db.log.syncIntervalMillis",
+                            Long.toString(defaults.syncIntervalMillis())))));
+        }
+        if (backend.equalsIgnoreCase("memory")) {
+            return new MemoryDataAccess();
+        }
+        return shard == null ? new MySQLDataAccess() : MySQLDataAccess.shard(shard);
+    }
+
+    private static WriteBehindDataAccess.Config writeBehindConfig() {
+        var defaults = WriteBehindDataAccess.Config.defaults();
+        return new WriteBehindDataAccess.Config(
+                WriteBehindDataAccess.Durability.valueOf(DatabaseManager.getProperty("db.writeBehind.mode",
+                        defaults.durability().name()).toUpperCase()),
+                Long.parseLong(DatabaseManager.getProperty("db.writeBehind.maxDelayMillis",
+                        Long.toString(defaults.maxDelayMillis()))),
+                Integer.parseInt(DatabaseManager.getProperty("db.writeBehind.maxBatchSize",
+                        Integer.toString(defaults.maxBatchSize()))),
+                Integer.parseInt(DatabaseManager.getProperty("db.writeBehind.maxQueueDepth",
+                        Integer.toString(defaults.maxQueueDepth()))));
+    }
+
+    /**
+     * Los tokens en la caché de auth pueden sobrevivir a su caducidad hasta db.authCache.ttlMillis.
+     */
+    private static SessionExpiryDataAccess.Config sessionConfig() {
+        var defaults = SessionExpiryDataAccess.Config.defaults();
+        return new SessionExpiryDataAccess.Config(
+                Long.parseLong(DatabaseManager.getProperty("db.session.absoluteTtlMillis",
+                        Long.toString(defaults.absoluteTtlMillis()))),
+                Long.parseLong(DatabaseManager.getProperty("db.session.idleTtlMillis",
+                        Long.toString(defaults.idleTtlMillis()))),
+                Long.parseLong(DatabaseManager.getProperty("db.session.renewAfterMillis",
+                        Long.toString(defaults.renewAfterMillis()))),
+                Long.parseLong(DatabaseManager.getProperty("db.session.sweepIntervalMillis",
+                        Long.toString(defaults.sweepIntervalMillis()))),
+                Integer.parseInt(DatabaseManager.getProperty("db.session.sweepBatchSize",
+                        Integer.toString(defaults.sweepBatchSize()))));
+    }
+
+    private static GameArchiver.Config archiverConfig() {
+        var defaults = GameArchiver.Config.defaults();
+        return new GameArchiver.Config(
+                Long.parseLong(DatabaseManager.getProperty("db.archive.graceMillis",
+                        Long.toString(defaults.graceMillis()))),
+                Long.parseLong(DatabaseManager.getProperty("db.archive.intervalMillis",
+                        Long.toString(defaults.intervalMillis()))),
+                Integer.parseInt(DatabaseManager.getProperty("db.archive.batchSize",
+                        Integer.toString(defaults.batchSize()))));
+    }
+
+    private static CachingAuthDataAccess.Config authCacheConfig() {
+        var defaults = CachingAuthDataAccess.Config.defaults();
+        return new CachingAuthDataAccess.Config(
+                Integer.parseInt(DatabaseManager.getProperty("db.authCache.maxSize",
+                        Integer.toString(defaults.maxSize()))),
+                Long.parseLong(DatabaseManager.getProperty("db.authCache.ttlMillis",
+                        Long.toString(defaults.ttlMillis()))),
+                Long.parseLong(DatabaseManager.getProperty("db.authCache.negativeTtlMillis",
+                        Long.toString(defaults.negativeTtlMillis()))));
+    }
+
+    /**
+     * Carga las partidas sin terminar antes de abrir el puerto; db.warmUp.games = 0 lo desactiva.
+     */
+    private void warmUp() {
+        int limit = Integer.parseInt(DatabaseManager.getProperty("db.warmUp.games", "0"));
+        if (limit <= 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            int loaded = gameService.warmUp(limit);
+            System.out.println("Precargadas " + loaded + " partidas en " + (System.currentTimeMillis() - start) + " ms");
+        } catch (DataAccessException e) {
+            System.err.println("Error al precargar partidas: " + e.getMessage());
+        }
+    }
+
+    private static Integer parseIntParam(String value) {
+        return value == null || value.isBlank() ? null : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Importa un fichero PGN con db.import.threads hilos, en lotes de db.import.batchSize partidas.
+     */
+    public PgnImporter.Result importPgn(Path file) throws IOException, DataAccessException {
+        var defaults = PgnImporter.Config.defaults();
+        PgnImporter importer = new PgnImporter(dataaccess, new PgnImporter.Config(
+                Integer.parseInt(DatabaseManager.getProperty("db.import.threads",
+                        Integer.toString(defaults.threads()))),
+                Integer.parseInt(DatabaseManager.getProperty("db.import.batchSize",
+                        Integer.toString(defaults.batchSize())))));
+        return importer.importGames(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * Exporta todas las partidas a un fichero PGN, leyendo db.export.pageSize partidas cada vez.
+     */
+    public PgnExporter.Result exportPgn(Path file) throws IOException, DataAccessException {
+        PgnExporter exporter = new PgnExporter(dataaccess,
+                Integer.parseInt(DatabaseManager.getProperty("db.export.pageSize", "500")));
+        return exporter.exportGames(FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
     public void stop() {
         Spark.stop();
         Spark.awaitStop();
         webSocketServer.stop();
+        closeStores();
+    }
+
+    private void closeStores() {
+        async.close();
+        archiver.close();
+        sessions.close();
+        writeBehind.close();
+        if (backend instanceof ShardedDataAccess sharded) {
+            sharded.close();
+        } else if (replicas != null) {
+            replicas.close();
+        } else if (backend instanceof LogStructuredDataAccess logStore) {
+            try {
+                logStore.close();
+            } catch (DataAccessException e) {
+                System.err.println("Error al cerrar el almacén: " + e.getMessage());
+            }
+        }
     }
 
     // AÑADE ESTE MÉTODO MAIN AL FINAL DE TU CLASE Server.java
     public static void main(String[] args) {
+        if (args.length == 2 && (args[0].equals("import") || args[0].equals("export"))) {
+            runPgn(args[0], Path.of(args[1]));
+            return;
+        }
         var server = new Server();
         // Puedes cambiar el puerto si lo necesitas, pero 8080 es estándar para la aplicación cliente
         server.run(8080);
     }
 
+    /**
+     * "import fichero.pgn" o "export fichero.pgn": trabaja sobre el almacén configurado sin abrir el puerto.
+     */
+    private static void runPgn(String command, Path file) {
+        var server = new Server();
+        try {
+            if (command.equals("import")) {
+                PgnImporter.Result result = server.importPgn(file);
+                System.out.println("Importadas " + result.games() + " partidas (" + result.rejected()
+                        + " rechazadas, " + result.moves() + " movimientos) en " + result.millis() + " ms");
+            } else {
+                PgnExporter.Result result = server.exportPgn(file);
+                System.out.println("Exportadas " + result.games() + " partidas (" + result.skipped()
+                        + " omitidas) en " + result.millis() + " ms");
+            }
+        } catch (IOException | DataAccessException e) {
+            System.err.println("Error al procesar " + file + ": " + e.getMessage());
+        } finally {
+            server.closeStores();
+        }
+    }
+
     private record RegisterRequest(String username, String password, String email) {}
 
     private record LoginRequest(String username, String password) {}
@@ -247,7 +584,11 @@ public class Server {
 
     private record JoinGameRequest(Integer gameID, String playerColor) {}
 
-    private record GameListResponse(GameData[] games) {}
+    private record GameListResponse(GameSummary[] games) {}
+
+    private record GamePageResponse(GameSummary[] games, Integer nextCursor, Integer activeGames) {}
+
+    private record PositionResponse(int gameID, int ply, ChessGame game) {}
 
     private record ErrorResponse(String message) {}
 
@@ -0,0 +1,41 @@
+package service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps encoded board checkpoints for the most recently used games so that rebuilding a
+ * historical position only needs the moves played after the nearest checkpoint.
+ * Checkpoints are stored encoded because {@link chess.ChessGame} is mutable.
+ */
+public class CheckpointCache {
+
+    private final Map<Integer, TreeMap<Integer, byte[]>> games;
+
+    public CheckpointCache(int maxGames) {
+        this.games = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, TreeMap<Integer, byte[]>> eldest) {
+                return size() > maxGames;
+            }
+        };
+    }
+
+    public synchronized byte[] get(int gameID, int ply) {
+        TreeMap<Integer, byte[]> checkpoints = games.get(gameID);
+        return checkpoints != null ? checkpoints.get(ply) : null;
+    }
+
+    public synchronized void put(int gameID, int ply, byte[] state) {
+        games.computeIfAbsent(gameID, id -> new TreeMap<>()).put(ply, state);
+    }
+
+    public synchronized void invalidate(int gameID) {
+        games.remove(gameID);
+    }
+
+    public synchronized void clear() {
+        games.clear();
+    }
+}
@@ -1,26 +1,51 @@
 package service;
 
+import dataaccess.AsyncDataAccess;
 import dataaccess.DataAccessException;
 import dataaccess.DataAccess;
+import dataaccess.GameFilter;
+import dataaccess.GameStateCodec;
+import dataaccess.Participant;
+import dataaccess.VersionedGame;
 import model.*;
 
 import service.Results.*;
 import chess.*;
 import chess.InvalidMoveException;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class GameService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_UPDATE_ATTEMPTS = 5;
+
+    private static final String NOT_A_PLAYER = "No autorizado: Solo los jugadores pueden hacer movimientos.";
+    private static final String NOT_YOUR_TURN = "Solicitud incorrecta: ¡No es tu turno!";
+
     private final DataAccess dataaccess;
+    private final AsyncDataAccess async;
     private final Map<Integer, ChessGame> activeGames = new ConcurrentHashMap<>();
+    private final Map<Integer, VersionedGame> gameCache = new ConcurrentHashMap<>();
+    private final Map<Integer, Map<String, Participant.Role>> participants = new ConcurrentHashMap<>();
+    private final CheckpointCache checkpoints = new CheckpointCache(1024);
 
     public GameService(DataAccess dataaccess) {
+        this(dataaccess, new AsyncDataAccess(dataaccess, 10));
+    }
+
+    public GameService(DataAccess dataaccess, AsyncDataAccess async) {
         this.dataaccess = dataaccess;
+        this.async = async;
     }
 
     private boolean isValidAuthToken(String authToken) throws DataAccessException {
@@ -39,7 +64,31 @@ public class GameService {
         if (!isValidAuthToken(authToken)) {
             throw new DataAccessException("No autorizado");
         }
-        return new GameListResult(dataaccess.getAllGames());
+        return new GameListResult(dataaccess.listGameSummaries());
+    }
+
+    public GamePageResult listGamesPage(String authToken, Integer cursor, Integer pageSize, GameFilter filter) throws DataAccessException {
+        if (!isValidAuthToken(authToken)) {
+            throw new DataAccessException("No autorizado");
+        }
+        int limit = pageSize == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        int after = cursor == null ? 0 : cursor;
+
+        // Se pide uno extra para saber si hay otra página sin hacer un COUNT
+        GameSummary[] rows = dataaccess.listGameSummaries(after, limit + 1, filter != null ? filter : GameFilter.NONE);
+        if (rows.length <= limit) {
+            return new GamePageResult(rows, null);
+        }
+        GameSummary[] page = Arrays.copyOf(rows, limit);
+        return new GamePageResult(page, page[limit - 1].gameID());
+    }
+
+    /**
+     * Cuenta las partidas sin terminar de un jugador usando los índices por jugador.
+     */
+    public int countActiveGames(String authToken, String player) throws DataAccessException {
+        getUsernameFromAuth(authToken);
+        return dataaccess.countActiveGamesForUser(player);
     }
 
     public CreateGameResult createGame(String authToken, String gameName) throws DataAccessException {
@@ -55,256 +104,467 @@ public class GameService {
         int gameID = dataaccess.createGame(provisionalGame);
 
         activeGames.put(gameID, newChessGame);
+        remember(gameID, new VersionedGame(new GameData(gameID, null, null, gameName, copyOf(newChessGame)), 0));
 
         return new CreateGameResult(gameID);
     }
 
     public JoinGameResult joinGame(String authToken, int gameID, String playerColor) throws DataAccessException {
-        if (!isValidAuthToken(authToken)) {
-            throw new DataAccessException("No autorizado");
-        }
+        // Una sola consulta de autenticación valida el token y da el usuario
         String username = getUsernameFromAuth(authToken);
 
-        GameData gameData = dataaccess.getGame(gameID);
-        if (gameData == null) {
-            throw new DataAccessException("ID de juego incorrecto: Juego inválido");
-        }
+        GameData gameData = cachedGame(gameID).game();
 
+        if (!activeGames.containsKey(gameID)) {
+            activeGames.putIfAbsent(gameID, gameData.game() != null ? copyOf(gameData.game()) : new ChessGame());
+        }
 
-        ChessGame currentChessGame = activeGames.computeIfAbsent(gameID, id -> {
-            try {
-                GameData storedGame = dataaccess.getGame(id);
-                return storedGame != null ? storedGame.game() : new ChessGame();
-            } catch (DataAccessException e) {
-                System.err.println("Error al cargar el juego " + id + " en activeGames: " + e.getMessage());
-                return new ChessGame();
-            }
-        });
-
-        String whiteUsername = gameData.whiteUsername();
-        String blackUsername = gameData.blackUsername();
-
-        boolean updated = false;
-
+        // El asiento se reclama de forma atómica; dos jugadores no pueden tomar el mismo
+        ChessGame.TeamColor color;
         if ("white".equalsIgnoreCase(playerColor)) {
-            if (whiteUsername != null && !whiteUsername.equals(username)) {
-                throw new DataAccessException("Ya tomado");
-            }
-            if (whiteUsername == null) {
-                whiteUsername = username;
-                updated = true;
-            }
+            color = ChessGame.TeamColor.WHITE;
         } else if ("black".equalsIgnoreCase(playerColor)) {
-            if (blackUsername != null && !blackUsername.equals(username)) {
-                throw new DataAccessException("Ya tomado");
-            }
-            if (blackUsername == null) {
-                blackUsername = username;
-                updated = true;
-            }
+            color = ChessGame.TeamColor.BLACK;
         } else if (playerColor == null || "observer".equalsIgnoreCase(playerColor)) {
-
+            color = null;
         } else {
             throw new DataAccessException("Solicitud incorrecta: Color inválido");
         }
 
-        if (updated) {
-            GameData updatedGameData = new GameData(
-                    gameID,
-                    whiteUsername,
-                    blackUsername,
-                    gameData.gameName(),
-                    currentChessGame
-            );
-            dataaccess.updateGame(gameID, updatedGameData);
+        if (color != null) {
+            if (!dataaccess.claimSeat(gameID, color, username)) {
+                throw new DataAccessException("Ya tomado");
+            }
+            // Se relee aquí, una vez por jugador, para que los movimientos no tengan que hacerlo
+            reloadGame(gameID);
         }
+        setRole(gameID, username, color == ChessGame.TeamColor.WHITE ? Participant.Role.WHITE
+                : color == ChessGame.TeamColor.BLACK ? Participant.Role.BLACK : Participant.Role.OBSERVER);
 
         return new JoinGameResult(authToken, gameID, playerColor);
     }
 
     public ChessGame getGameState(int gameId, String authToken) throws DataAccessException {
-        if (!isValidAuthToken(authToken)) {
-            throw new DataAccessException("No autorizado");
-        }
+        getUsernameFromAuth(authToken);
+        return activeGame(gameId, cachedGame(gameId).game());
+    }
+
+    /**
+     * WebSocket CONNECT: returns the game and records the user as a participant, as a
+     * player if they hold a seat and as an observer otherwise.
+     */
+    public GameUpdate connect(int gameId, String authToken) throws DataAccessException {
         String username = getUsernameFromAuth(authToken);
+        GameData gameData = cachedGame(gameId).game();
+        ChessGame chessGame = activeGame(gameId, gameData);
+
+        Participant.Role role = Objects.equals(gameData.whiteUsername(), username) ? Participant.Role.WHITE
+                : Objects.equals(gameData.blackUsername(), username) ? Participant.Role.BLACK
+                : Participant.Role.OBSERVER;
+        if (getRole(gameId, username) != role) {
+            setRole(gameId, username, role);
+        }
+        return new GameUpdate(username, chessGame);
+    }
 
-        GameData gameData = dataaccess.getGame(gameId);
-        if (gameData == null) {
-            throw new DataAccessException("ID de juego incorrecto: Juego inválido");
+    /**
+     * @return the user's role in the game, or null if they do not take part in it. Served
+     * from memory once the game's participants have been loaded.
+     */
+    public Participant.Role getRole(int gameId, String username) throws DataAccessException {
+        return participantsOf(gameId).get(username);
+    }
+
+    public boolean isObserver(int gameId, String username) throws DataAccessException {
+        return getRole(gameId, username) == Participant.Role.OBSERVER;
+    }
+
+    private Map<String, Participant.Role> participantsOf(int gameId) throws DataAccessException {
+        Map<String, Participant.Role> cached = participants.get(gameId);
+        if (cached != null) {
+            return cached;
         }
+        Map<String, Participant.Role> loaded = new ConcurrentHashMap<>();
+        for (Participant participant : dataaccess.getParticipants(gameId)) {
+            loaded.put(participant.username(), participant.role());
+        }
+        Map<String, Participant.Role> existing = participants.putIfAbsent(gameId, loaded);
+        return existing != null ? existing : loaded;
+    }
 
+    private void setRole(int gameId, String username, Participant.Role role) throws DataAccessException {
+        dataaccess.addParticipant(gameId, username, role);
+        participantsOf(gameId).put(username, role);
+    }
 
-        ChessGame chessGame = activeGames.computeIfAbsent(gameId, id -> {
+    /**
+     * Plays a move without reading the game: the players come from the versioned cache and
+     * the position from {@code activeGames}. Both can be stale when the game changed on
+     * another server, so a move rejected because the user is not seated or it is not their
+     * turn is checked once more against a fresh copy before the rejection stands. If
+     * another server already logged this ply, or ended the game, the append fails with
+     * "Move conflict"; the game is then reloaded and the move validated again.
+     */
+    public void makeMove(int gameId, String authToken, ChessMove move) throws DataAccessException, InvalidMoveException {
+        String username = getUsernameFromAuth(authToken);
+
+        boolean reloaded = false;
+        for (int attempt = 1; ; attempt++) {
+            GameData gameData = cachedGame(gameId).game();
+            ChessGame chessGame = activeGame(gameId, gameData);
             try {
-                return dataaccess.getGame(id).game();
+                playMove(gameId, gameData, chessGame, username, move);
+                return;
             } catch (DataAccessException e) {
-                System.err.println("Error al recuperar el estado del juego para el juego " + id + ": " + e.getMessage());
-                return new ChessGame();
+                boolean stale = NOT_A_PLAYER.equals(e.getMessage()) && !reloaded;
+                if (!stale && (!"Move conflict".equals(e.getMessage()) || attempt == MAX_UPDATE_ATTEMPTS)) {
+                    throw e;
+                }
+                reloaded |= stale;
+            } catch (InvalidMoveException e) {
+                if (!NOT_YOUR_TURN.equals(e.getMessage()) || reloaded || !behindStore(gameId, chessGame)) {
+                    throw e;
+                }
+                reloaded = true;
+            }
+            // La posición en memoria también puede ir por detrás de la de otro servidor
+            activeGames.remove(gameId, chessGame);
+            reloadGame(gameId);
+        }
+    }
+
+    /**
+     * Whether the stored game has moves the in-memory position has not seen, as when another
+     * server played them. Reloading otherwise could replace the position with one read before
+     * a move still being written here.
+     */
+    private boolean behindStore(int gameId, ChessGame chessGame) throws DataAccessException {
+        GameData stored = reloadGame(gameId).game();
+        synchronized (chessGame) {
+            return stored.game() != null && stored.game().getPly() > chessGame.getPly();
+        }
+    }
+
+    private void playMove(int gameId, GameData gameData, ChessGame chessGame, String username, ChessMove move)
+            throws DataAccessException, InvalidMoveException {
+        // Validar, mover y registrar es una sola operación por partida
+        synchronized (chessGame) {
+            if (chessGame.isGameOver()) {
+                throw new InvalidMoveException("Solicitud incorrecta: No se puede hacer el movimiento: El juego ya ha terminado.");
+            }
+
+            ChessGame.TeamColor playerColor = null;
+            if (Objects.equals(gameData.whiteUsername(), username)) {
+                playerColor = ChessGame.TeamColor.WHITE;
+            } else if (Objects.equals(gameData.blackUsername(), username)) {
+                playerColor = ChessGame.TeamColor.BLACK;
+            } else {
+                throw new DataAccessException(NOT_A_PLAYER);
             }
-        });
 
-        boolean isPlayer = Objects.equals(gameData.whiteUsername(), username) || Objects.equals(gameData.blackUsername(), username);
-        if (!isPlayer && !dataaccess.isObserver(gameId, username)) {
+            if (chessGame.getTeamTurn() != playerColor) {
+                throw new InvalidMoveException(NOT_YOUR_TURN);
+            }
+
+            Collection<ChessMove> possibleMoves = chessGame.validMoves(move.getStartPosition());
+            boolean isLegalMove = false;
+            // validMoves devuelve null si la casilla de origen está vacía
+            for (ChessMove validMove : possibleMoves != null ? possibleMoves : List.<ChessMove>of()) {
+                if (validMove.equals(move)) {
+                    isLegalMove = true;
+                    break;
+                }
+            }
+
+            if (!isLegalMove) {
+                throw new InvalidMoveException("Movimiento inválido: No es un movimiento legal para esta pieza o deja al rey en jaque.");
+            }
 
+            chessGame.makeMove(move);
+            // El jaque mate o el ahogado terminan la partida con este mismo movimiento
+            ChessGame.TeamColor next = chessGame.getTeamTurn();
+            if (chessGame.isInCheckmate(next) || chessGame.isInStalemate(next)) {
+                chessGame.setGameOver(true);
+            }
+
+            // Solo se añade el movimiento al registro; el estado completo no se reescribe
+            try {
+                dataaccess.appendMove(gameId, chessGame.getPly(), move, chessGame);
+            } catch (DataAccessException e) {
+                // El juego en memoria ya avanzó con un movimiento que no se guardó: se descarta
+                // de las dos cachés para que la siguiente llamada lo recargue desde la base de datos
+                activeGames.remove(gameId, chessGame);
+                gameCache.remove(gameId);
+                throw e;
+            }
+            if (chessGame.getPly() % DataAccess.SNAPSHOT_INTERVAL == 0) {
+                checkpoints.put(gameId, chessGame.getPly(), GameStateCodec.encode(chessGame));
+            }
         }
+    }
 
-        return chessGame;
+    /**
+     * Read-through lookup in the versioned game cache. Entries are only ever replaced by
+     * the same or a newer version, so a slow reload cannot undo a newer update.
+     */
+    private VersionedGame cachedGame(int gameId) throws DataAccessException {
+        VersionedGame cached = gameCache.get(gameId);
+        return cached != null ? cached : reloadGame(gameId);
     }
 
-    public void makeMove(int gameId, String authToken, ChessMove move) throws DataAccessException, InvalidMoveException {
-        if (!isValidAuthToken(authToken)) {
-            throw new DataAccessException("No autorizado");
+    private VersionedGame reloadGame(int gameId) throws DataAccessException {
+        VersionedGame fresh = dataaccess.getVersionedGame(gameId);
+        if (fresh == null) {
+            gameCache.remove(gameId);
+            activeGames.remove(gameId);
+            throw new DataAccessException("ID de juego incorrecto: Juego inválido");
         }
-        String username = getUsernameFromAuth(authToken);
+        return remember(gameId, fresh);
+    }
 
-        GameData gameData = dataaccess.getGame(gameId);
-        if (gameData == null) {
-            throw new DataAccessException("ID de juego incorrecto: Juego inválido");
+    private VersionedGame remember(int gameId, VersionedGame game) {
+        return gameCache.merge(gameId, game, (cached, update) -> update.version() >= cached.version() ? update : cached);
+    }
+
+    /**
+     * Writes the game row with compare-and-set, reloading and calling {@code change} again
+     * whenever another writer got there first.
+     */
+    private void updateWithRetry(int gameId, GameChange change) throws DataAccessException {
+        for (int attempt = 1; ; attempt++) {
+            VersionedGame current = cachedGame(gameId);
+            ChessGame chessGame = activeGame(gameId, current.game());
+            synchronized (chessGame) {
+                GameData updated = change.apply(current.game(), chessGame);
+                if (updated == null) {
+                    return;
+                }
+                if (dataaccess.updateGameIfVersion(gameId, current.version(), updated)) {
+                    if (updated.game() != null && updated.game().isGameOver()) {
+                        chessGame.setGameOver(true);
+                    }
+                    remember(gameId, new VersionedGame(new GameData(gameId, updated.whiteUsername(),
+                            updated.blackUsername(), updated.gameName(), copyOf(chessGame)), current.version() + 1));
+                    return;
+                }
+            }
+            if (attempt == MAX_UPDATE_ATTEMPTS) {
+                throw new DataAccessException("Conflicto: la partida cambió mientras se actualizaba, inténtalo de nuevo.");
+            }
+            // Otro servidor cambió la fila; su posición puede ir por delante de la de memoria
+            activeGames.remove(gameId, chessGame);
+            reloadGame(gameId);
         }
+    }
+
+    /**
+     * One attempt at a compare-and-set update, run while holding the game's lock.
+     */
+    private interface GameChange {
+        /**
+         * @return the row to write, or null if nothing needs to change
+         */
+        GameData apply(GameData current, ChessGame chessGame) throws DataAccessException;
+    }
 
+    /**
+     * Returns the shared in-memory game, loading a copy of {@code gameData}'s position if no
+     * other thread has done so yet. The versioned cache keeps its own copy, so moves played
+     * here never show up there before they are stored.
+     */
+    private ChessGame activeGame(int gameId, GameData gameData) throws DataAccessException {
         ChessGame chessGame = activeGames.get(gameId);
         if (chessGame == null) {
-            chessGame = gameData.game();
-            if (chessGame == null) {
+            if (gameData.game() == null) {
                 throw new DataAccessException("El estado del juego está corrupto.");
             }
-            activeGames.put(gameId, chessGame);
-        }
-
-        if (chessGame.isGameOver()) {
-            throw new InvalidMoveException("Solicitud incorrecta: No se puede hacer el movimiento: El juego ya ha terminado.");
+            ChessGame loaded = copyOf(gameData.game());
+            ChessGame existing = activeGames.putIfAbsent(gameId, loaded);
+            chessGame = existing != null ? existing : loaded;
         }
+        return chessGame;
+    }
 
-        ChessGame.TeamColor playerColor = null;
-        if (Objects.equals(gameData.whiteUsername(), username)) {
-            playerColor = ChessGame.TeamColor.WHITE;
-        } else if (Objects.equals(gameData.blackUsername(), username)) {
-            playerColor = ChessGame.TeamColor.BLACK;
-        } else {
-            throw new DataAccessException("No autorizado: Solo los jugadores pueden hacer movimientos.");
+    private static ChessGame copyOf(ChessGame game) throws DataAccessException {
+        synchronized (game) {
+            return GameStateCodec.decode(GameStateCodec.encode(game));
         }
+    }
 
-        if (chessGame.getTeamTurn() != playerColor) {
-            throw new InvalidMoveException("Solicitud incorrecta: ¡No es tu turno!");
+    /**
+     * Rebuilds the position after {@code ply} half-moves by replaying, at most,
+     * {@link DataAccess#SNAPSHOT_INTERVAL} moves from the nearest checkpoint.
+     *
+     * @param ply the half-move to show, or null for the current position
+     */
+    public ChessGame getPosition(String authToken, int gameId, Integer ply) throws DataAccessException {
+        if (!isValidAuthToken(authToken)) {
+            throw new DataAccessException("No autorizado");
         }
 
-        Collection<ChessMove> possibleMoves = chessGame.validMoves(move.getStartPosition());
-        boolean isLegalMove = false;
-        for (ChessMove validMove : possibleMoves) {
-            if (validMove.equals(move)) {
-                isLegalMove = true;
-                break;
+        ChessGame current = activeGames.get(gameId);
+        if (current == null) {
+            GameData gameData = dataaccess.getGame(gameId);
+            if (gameData == null || gameData.game() == null) {
+                throw new DataAccessException("ID de juego incorrecto: Juego inválido");
             }
+            current = gameData.game();
         }
 
-        if (!isLegalMove) {
-            throw new InvalidMoveException("Movimiento inválido: No es un movimiento legal para esta pieza o deja al rey en jaque.");
+        // Copia consistente aunque otro hilo esté moviendo en esta partida
+        ChessGame latest = copyOf(current);
+        int currentPly = latest.getPly();
+        int target = ply == null ? currentPly : ply;
+        if (target < 0 || target > currentPly) {
+            throw new DataAccessException("Solicitud incorrecta: ply fuera de rango");
+        }
+        if (target == currentPly) {
+            return latest;
         }
 
-        chessGame.makeMove(move);
-
-        GameData updatedGameData = new GameData(
-                gameId,
-                gameData.whiteUsername(),
-                gameData.blackUsername(),
-                gameData.gameName(),
-                chessGame
-        );
-        dataaccess.updateGame(gameId, updatedGameData);
+        ChessGame position = loadCheckpoint(gameId, target - target % DataAccess.SNAPSHOT_INTERVAL);
+        try {
+            for (ChessMove move : dataaccess.getMoves(gameId, position.getPly(), target)) {
+                position.makeMove(move);
+            }
+        } catch (InvalidMoveException e) {
+            throw new DataAccessException("El historial del juego está corrupto: " + e.getMessage());
+        }
+        return position;
     }
 
-    public void resign(int gameId, String authToken) throws DataAccessException {
-        if (!isValidAuthToken(authToken)) {
-            throw new DataAccessException("No autorizado");
+    private ChessGame loadCheckpoint(int gameId, int checkpointPly) throws DataAccessException {
+        if (checkpointPly == 0) {
+            return new ChessGame();
         }
-        String username = getUsernameFromAuth(authToken);
-
-        GameData gameData = dataaccess.getGame(gameId);
-        if (gameData == null) {
-            throw new DataAccessException("ID de juego incorrecto: Juego inválido");
+        byte[] cached = checkpoints.get(gameId, checkpointPly);
+        if (cached != null) {
+            return GameStateCodec.decode(cached);
         }
-
-        ChessGame chessGame = activeGames.get(gameId);
-        if (chessGame == null) {
-            chessGame = gameData.game();
-            if (chessGame == null) {
-                throw new DataAccessException("El estado del juego está corrupto.");
-            }
-            activeGames.put(gameId, chessGame);
+        ChessGame snapshot = dataaccess.getSnapshot(gameId, checkpointPly);
+        if (snapshot == null) {
+            return new ChessGame();
         }
+        checkpoints.put(gameId, snapshot.getPly(), GameStateCodec.encode(snapshot));
+        return snapshot;
+    }
 
-        boolean isPlayer = Objects.equals(gameData.whiteUsername(), username) || Objects.equals(gameData.blackUsername(), username);
-        if (!isPlayer) {
-            throw new DataAccessException("Prohibido: Solo los jugadores pueden renunciar a un juego.");
-        }
+    public void resign(int gameId, String authToken) throws DataAccessException {
+        String username = getUsernameFromAuth(authToken);
 
-        if (chessGame.isGameOver()) {
-            throw new DataAccessException("Solicitud incorrecta: No se puede renunciar: El juego ya ha terminado.");
-        }
+        updateWithRetry(gameId, (gameData, chessGame) -> {
+            boolean isPlayer = Objects.equals(gameData.whiteUsername(), username) || Objects.equals(gameData.blackUsername(), username);
+            if (!isPlayer) {
+                throw new DataAccessException("Prohibido: Solo los jugadores pueden renunciar a un juego.");
+            }
 
-        chessGame.setGameOver(true);
+            if (chessGame.isGameOver()) {
+                throw new DataAccessException("Solicitud incorrecta: No se puede renunciar: El juego ya ha terminado.");
+            }
 
-        GameData updatedGameData = new GameData(
-                gameId,
-                gameData.whiteUsername(),
-                gameData.blackUsername(),
-                gameData.gameName(),
-                chessGame
-        );
-        dataaccess.updateGame(gameId, updatedGameData);
+            // Se escribe una copia: la partida compartida solo cambia si la escritura gana
+            ChessGame resigned = copyOf(chessGame);
+            resigned.setGameOver(true);
+            return new GameData(gameId, gameData.whiteUsername(), gameData.blackUsername(), gameData.gameName(), resigned);
+        });
     }
 
     public void leaveGame(int gameId, String authToken) throws DataAccessException {
-        if (!isValidAuthToken(authToken)) {
-            throw new DataAccessException("No autorizado");
-        }
         String username = getUsernameFromAuth(authToken);
 
-        GameData gameData = dataaccess.getGame(gameId);
-        if (gameData == null) {
-            throw new DataAccessException("ID de juego incorrecto: Juego inválido");
-        }
+        updateWithRetry(gameId, (gameData, chessGame) -> {
+            String whiteUsername = gameData.whiteUsername();
+            String blackUsername = gameData.blackUsername();
+            boolean removedFromPlayerRole = false;
 
-        ChessGame chessGame = activeGames.get(gameId);
-        if (chessGame == null) {
-            chessGame = gameData.game();
-            if (chessGame == null) {
-                throw new DataAccessException("El estado del juego está corrupto.");
+            if (Objects.equals(whiteUsername, username)) {
+                whiteUsername = null;
+                removedFromPlayerRole = true;
+            }
+            if (Objects.equals(blackUsername, username)) {
+                blackUsername = null;
+                removedFromPlayerRole = true;
             }
-            activeGames.put(gameId, chessGame);
-        }
 
-        String whiteUsername = gameData.whiteUsername();
-        String blackUsername = gameData.blackUsername();
-        boolean removedFromPlayerRole = false;
+            // Un observador que se va no cambia la partida
+            return removedFromPlayerRole
+                    ? new GameData(gameId, whiteUsername, blackUsername, gameData.gameName(), chessGame)
+                    : null;
+        });
+        dataaccess.removeParticipant(gameId, username);
+        participantsOf(gameId).remove(username);
+    }
 
-        if (Objects.equals(whiteUsername, username)) {
-            whiteUsername = null;
-            removedFromPlayerRole = true;
-        }
-        if (Objects.equals(blackUsername, username)) {
-            blackUsername = null;
-            removedFromPlayerRole = true;
-        }
 
+    /*
+     * Variantes no bloqueantes para el WebSocket: cada una corre en un hilo virtual, así
+     * una base de datos lenta no retiene los hilos de Jetty.
+     */
 
-        if (removedFromPlayerRole) {
-            GameData updatedGameData = new GameData(
-                    gameId,
-                    whiteUsername,
-                    blackUsername,
-                    gameData.gameName(),
-                    chessGame
-            );
-            dataaccess.updateGame(gameId, updatedGameData);
-        } else {
+    public CompletableFuture<String> getUsernameFromAuthAsync(String authToken) {
+        return async.run(() -> getUsernameFromAuth(authToken));
+    }
 
-        }
+    public CompletableFuture<GameUpdate> getGameStateAsync(int gameId, String authToken) {
+        return async.run(() -> new GameUpdate(getUsernameFromAuth(authToken), getGameState(gameId, authToken)));
+    }
+
+    public CompletableFuture<GameUpdate> connectAsync(int gameId, String authToken) {
+        return async.run(() -> connect(gameId, authToken));
     }
 
+    public CompletableFuture<GameUpdate> makeMoveAsync(int gameId, String authToken, ChessMove move) {
+        return async.run(() -> {
+            makeMove(gameId, authToken, move);
+            return new GameUpdate(getUsernameFromAuth(authToken), getGameState(gameId, authToken));
+        });
+    }
+
+    public CompletableFuture<GameUpdate> resignAsync(int gameId, String authToken) {
+        return async.run(() -> {
+            resign(gameId, authToken);
+            return new GameUpdate(getUsernameFromAuth(authToken), getGameState(gameId, authToken));
+        });
+    }
+
+    public CompletableFuture<GameUpdate> leaveGameAsync(int gameId, String authToken) {
+        return async.run(() -> {
+            String username = getUsernameFromAuth(authToken);
+            leaveGame(gameId, authToken);
+            return new GameUpdate(username, null);
+        });
+    }
+
+    /**
+     * Loads up to {@code limit} unfinished games and their participants into memory, in
+     * parallel on the async executor, so the first command on each game skips the database.
+     * A game that fails to load is skipped and loads on first use instead.
+     *
+     * @return how many games were loaded
+     */
+    public int warmUp(int limit) throws DataAccessException {
+        List<CompletableFuture<Boolean>> loads = new ArrayList<>();
+        for (int gameId : dataaccess.listUnfinishedGameIDs(limit)) {
+            loads.add(async.run(() -> {
+                activeGame(gameId, reloadGame(gameId).game());
+                participantsOf(gameId);
+                return true;
+            }).exceptionally(error -> false));
+        }
+        int loaded = 0;
+        for (CompletableFuture<Boolean> load : loads) {
+            if (load.join()) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
 
     public void clear() throws DataAccessException {
         dataaccess.clear();
         activeGames.clear();
+        gameCache.clear();
+        participants.clear();
+        checkpoints.clear();
     }
 }
\ No newline at end of file
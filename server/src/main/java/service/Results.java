@@ -1,16 +1,21 @@
 package service;
 
-import model.GameData;
+import chess.ChessGame;
+import model.GameSummary;
 
 public class Results {
 
     public record RegisterResult(String username, String authToken) {}
 
-    public record GameListResult(GameData[] games) {}
+    public record GameListResult(GameSummary[] games) {}
+
+    public record GamePageResult(GameSummary[] games, Integer nextCursor) {}
 
     public record CreateGameResult(int gameID) {}
 
     public record Result(String message) {}
 
     public record JoinGameResult(String authToken, int gameID, String playerColor) {}
+
+    public record GameUpdate(String username, ChessGame game) {}
 }
@@ -15,18 +15,14 @@ public class UserService {
     }
 
     public RegisterResult register(String username, String password, String email) throws DataAccessException {
-        if (dataaccess.getUser(username) != null) {
-            throw new DataAccessException("Username already exists");
-        }
-        UserData user = new UserData(username, password, email);
-        dataaccess.createUser(user);
+        // Usuario y token en una sola transacción; la clave primaria detecta los duplicados
         String authToken = UUID.randomUUID().toString();
-
-        dataaccess.createAuth(new AuthData(username, authToken));
+        dataaccess.registerWithToken(new UserData(username, password, email), new AuthData(username, authToken));
         return new RegisterResult(username, authToken);
     }
 
     public RegisterResult login(String username, String password) throws DataAccessException{
+        // Sin filtro previo: otro nodo o la propia base de datos pueden haber creado el usuario
         UserData user = dataaccess.getUser(username);
         if (user == null || !BCrypt.checkpw(password, user.password())) {
             throw new DataAccessException("Invalid Credentials");
@@ -2,7 +2,7 @@ package websocket;
 
 import chess.ChessGame;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import json.JsonCodecs;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketError;
@@ -28,7 +28,7 @@ import java.util.concurrent.TimeoutException;
 public class WebSocketClientManager {
     private Session session;
     private ClientMessageObserver observer;
-    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private final Gson gson = JsonCodecs.gson();
 
     public interface ClientMessageObserver {
         void onGameLoad(LoadGameMessage message);
@@ -82,15 +82,15 @@ public class WebSocketClientManager {
             if (observer != null) {
                 switch (baseMessage.getServerMessageType()) {
                     case LOAD_GAME:
-                        LoadGameMessage loadMessage = gson.fromJson(message, LoadGameMessage.class);
+                        LoadGameMessage loadMessage = (LoadGameMessage) baseMessage;
                         observer.onGameLoad(loadMessage);
                         break;
                     case NOTIFICATION:
-                        ServerMessageNotification notificationMessage = gson.fromJson(message, ServerMessageNotification.class);
+                        ServerMessageNotification notificationMessage = (ServerMessageNotification) baseMessage;
                         observer.onNotification(notificationMessage);
                         break;
                     case ERROR:
-                        ServerMessageError errorMessage = gson.fromJson(message, ServerMessageError.class);
+                        ServerMessageError errorMessage = (ServerMessageError) baseMessage;
                         observer.onError(errorMessage);
                         break;
                     default:
@@ -4,7 +4,7 @@ import chess.ChessGame;
 import chess.ChessMove;
 import chess.InvalidMoveException;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import json.JsonCodecs;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.*;
 
@@ -35,9 +35,7 @@ public class WebSocketHandler {
     private final Map<String, Integer> authTokenGameIds = new ConcurrentHashMap<>();
 
 
-    private final Gson gson = new GsonBuilder()
-            .enableComplexMapKeySerialization()
-            .create();
+    private final Gson gson = JsonCodecs.gson();
 
     public WebSocketHandler(GameService gameService) {
         this.gameService = gameService;
@@ -66,7 +64,7 @@ public class WebSocketHandler {
 
             switch (baseCommand.getCommandType()) {
                 case CONNECT:
-                    ConnectCommand connectCommand = gson.fromJson(message, ConnectCommand.class);
+                    ConnectCommand connectCommand = (ConnectCommand) baseCommand;
                     gameID = connectCommand.getGameID();
 
                     if (gameID == null) {
@@ -94,7 +92,7 @@ public class WebSocketHandler {
                     break;
 
                 case MAKE_MOVE:
-                    MakeMoveCommand makeMoveCommand = gson.fromJson(message, MakeMoveCommand.class);
+                    MakeMoveCommand makeMoveCommand = (MakeMoveCommand) baseCommand;
                     gameID = makeMoveCommand.getGameID();
                     ChessMove move = makeMoveCommand.getMove();
 
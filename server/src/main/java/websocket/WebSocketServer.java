@@ -4,7 +4,7 @@ import chess.ChessGame;
 import chess.ChessMove;
 import chess.InvalidMoveException;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import json.JsonCodecs;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketConnect;
@@ -25,7 +25,10 @@ import dataaccess.DataAccessException;
 import java.io.IOException;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 @WebSocket
 public class WebSocketServer {
@@ -34,8 +37,9 @@ public class WebSocketServer {
     private final Map<Integer, Map<String, Session>> gameSessions = new ConcurrentHashMap<>();
     private final Map<Session, String> sessionAuthTokens = new ConcurrentHashMap<>();
     private final Map<String, Integer> authTokenGameIds = new ConcurrentHashMap<>();
+    private final Map<Integer, CompletableFuture<Void>> gameQueues = new ConcurrentHashMap<>();
 
-    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private final Gson gson = JsonCodecs.gson();
 
     public WebSocketServer(GameService gameService) {
         this.gameService = gameService;
@@ -65,143 +69,186 @@ public class WebSocketServer {
             }
             sessions.remove(authToken);
 
-            try {
-                String leavingUsername = gameService.getUsernameFromAuth(authToken);
-                if (gameID != null) {
-                    broadcastNotification(gameID, leavingUsername + " se ha desconectado.", null);
-                }
-            } catch (DataAccessException e) {
-                System.err.println("Error al obtener el nombre de usuario para el token desconectado: " + e.getMessage());
+            if (gameID != null) {
+                enqueue(gameID, () -> gameService.getUsernameFromAuthAsync(authToken)
+                        .thenAccept(leavingUsername -> broadcastNotification(gameID, leavingUsername + " se ha desconectado.", null))
+                        .exceptionally(error -> {
+                            System.err.println("Error al obtener el nombre de usuario para el token desconectado: " + cause(error).getMessage());
+                            return null;
+                        }));
             }
         }
     }
 
+    /**
+     * Solo analiza el comando en el hilo de Jetty; el trabajo con datos va a la cola de
+     * su partida, de modo que una partida lenta no detiene a las demás.
+     */
     @OnWebSocketMessage
     public void onMessage(Session session, String message) throws IOException {
+        UserGameCommand baseCommand;
         try {
-            UserGameCommand baseCommand = gson.fromJson(message, UserGameCommand.class);
-
-            String authToken = baseCommand.getAuthString();
-            Integer gameID = baseCommand.getGameID();
-
-            if (authToken == null) {
-                sendError(session, "Error: AuthToken faltante en el comando.");
-                session.close(4000, "AuthToken faltante.");
-                return;
-            }
+            baseCommand = gson.fromJson(message, UserGameCommand.class);
+        } catch (RuntimeException e) {
+            sendError(session, "Error interno del servidor inesperado: " + e.getMessage());
+            return;
+        }
 
-            sessions.put(authToken, session);
-            sessionAuthTokens.put(session, authToken);
+        String authToken = baseCommand.getAuthString();
+        Integer gameID = baseCommand.getGameID();
 
-            switch (baseCommand.getCommandType()) {
-                case CONNECT:
-                    ConnectCommand connectCommand = gson.fromJson(message, ConnectCommand.class);
-                    gameID = connectCommand.getGameID();
-                    ChessGame.TeamColor playerColor = connectCommand.getPlayerColor();
+        if (authToken == null) {
+            sendError(session, "Error: AuthToken faltante en el comando.");
+            session.close(4000, "AuthToken faltante.");
+            return;
+        }
+        if (gameID == null) {
+            sendError(session, "Error: GameID faltante en el comando " + baseCommand.getCommandType() + ".");
+            session.close(4000, "GameID faltante.");
+            return;
+        }
 
-                    if (gameID == null) {
-                        sendError(session, "Error: GameID faltante en el comando CONNECT.");
-                        session.close(4000, "GameID faltante.");
-                        return;
-                    }
+        sessions.put(authToken, session);
+        sessionAuthTokens.put(session, authToken);
 
-                    authTokenGameIds.put(authToken, gameID);
+        enqueue(gameID, () -> {
+            try {
+                return handleCommand(session, baseCommand, authToken, gameID);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }).exceptionally(error -> {
+            sendError(session, "Error interno del servidor inesperado: " + cause(error).getMessage());
+            return null;
+        });
+    }
 
-                    gameSessions.computeIfAbsent(gameID, k -> new ConcurrentHashMap<>()).put(authToken, session);
+    private CompletableFuture<Void> handleCommand(Session session, UserGameCommand baseCommand, String authToken,
+                                                  int gameID) {
+        switch (baseCommand.getCommandType()) {
+            case CONNECT: {
+                ConnectCommand connectCommand = (ConnectCommand) baseCommand;
+                ChessGame.TeamColor playerColor = connectCommand.getPlayerColor();
 
-                    ChessGame gameStateOnConnect = gameService.getGameState(gameID, authToken);
-                    sendMessage(session, new LoadGameMessage(gameStateOnConnect));
+                authTokenGameIds.put(authToken, gameID);
+                gameSessions.computeIfAbsent(gameID, k -> new ConcurrentHashMap<>()).put(authToken, session);
 
+                return gameService.connectAsync(gameID, authToken).thenAccept(update -> {
+                    sendMessage(session, new LoadGameMessage(update.game()));
                     String playerType = (playerColor != null) ? playerColor.toString().toLowerCase() : "observador";
-                    broadcastNotification(gameID, gameService.getUsernameFromAuth(authToken) + " se unió al juego " + gameID + " como " + playerType + ".", session);
-                    System.out.println(gameService.getUsernameFromAuth(authToken) + " conectado al juego " + gameID + " como " + playerType + ".");
-                    break;
-
-                case MAKE_MOVE:
-                    MakeMoveCommand makeMoveCommand = gson.fromJson(message, MakeMoveCommand.class);
+                    broadcastNotification(gameID, update.username() + " se unió al juego " + gameID + " como " + playerType + ".", session);
+                    System.out.println(update.username() + " conectado al juego " + gameID + " como " + playerType + ".");
+                }).exceptionally(error -> {
+                    sendError(session, "Error de autenticación o datos: " + cause(error).getMessage());
+                    return null;
+                });
+            }
 
-                    if (!Objects.equals(authTokenGameIds.get(authToken), gameID)) {
-                        sendError(session, "Error: GameID del comando no coincide con la sesión actual.");
-                        return;
-                    }
+            case MAKE_MOVE: {
+                MakeMoveCommand makeMoveCommand = (MakeMoveCommand) baseCommand;
 
-                    String movingUsername = gameService.getUsernameFromAuth(authToken);
-                    ChessMove move = makeMoveCommand.getMove();
+                if (!Objects.equals(authTokenGameIds.get(authToken), gameID)) {
+                    sendError(session, "Error: GameID del comando no coincide con la sesión actual.");
+                    return CompletableFuture.completedFuture(null);
+                }
 
-                    try {
-                        gameService.makeMove(gameID, authToken, move);
-                        broadcastLoadGame(gameID, authToken);
-                        broadcastNotification(gameID, movingUsername + " hizo un movimiento: " + formatMove(move) + ".", null);
-
-                        ChessGame updatedGame = gameService.getGameState(gameID, authToken);
-                        if (updatedGame.isInCheckmate(updatedGame.getTeamTurn())) {
-                            broadcastNotification(gameID, updatedGame.getTeamTurn() + " está en jaque mate. ¡La partida ha terminado!", null);
-                        } else if (updatedGame.isInStalemate(updatedGame.getTeamTurn())) {
-                            broadcastNotification(gameID, updatedGame.getTeamTurn() + " está en tablas por ahogado. ¡La partida ha terminado!", null);
-                        } else if (updatedGame.isInCheck(updatedGame.getTeamTurn())) {
-                            broadcastNotification(gameID, updatedGame.getTeamTurn() + " está en jaque.", null);
-                        }
-                    } catch (InvalidMoveException e) {
-                        sendError(session, "Movimiento inválido: " + e.getMessage());
-                    } catch (DataAccessException e) {
-                        sendError(session, "Error al procesar el movimiento (datos): " + e.getMessage());
+                ChessMove move = makeMoveCommand.getMove();
+                return gameService.makeMoveAsync(gameID, authToken, move).thenAccept(update -> {
+                    ChessGame updatedGame = update.game();
+                    broadcastLoadGame(gameID, updatedGame);
+                    broadcastNotification(gameID, update.username() + " hizo un movimiento: " + formatMove(move) + ".", null);
+
+                    if (updatedGame.isInCheckmate(updatedGame.getTeamTurn())) {
+                        broadcastNotification(gameID, updatedGame.getTeamTurn() + " está en jaque mate. ¡La partida ha terminado!", null);
+                    } else if (updatedGame.isInStalemate(updatedGame.getTeamTurn())) {
+                        broadcastNotification(gameID, updatedGame.getTeamTurn() + " está en tablas por ahogado. ¡La partida ha terminado!", null);
+                    } else if (updatedGame.isInCheck(updatedGame.getTeamTurn())) {
+                        broadcastNotification(gameID, updatedGame.getTeamTurn() + " está en jaque.", null);
                     }
-                    break;
-
-                case RESIGN:
-                    if (!Objects.equals(authTokenGameIds.get(authToken), gameID)) {
-                        sendError(session, "Error: GameID del comando no coincide con la sesión actual.");
-                        return;
+                }).exceptionally(error -> {
+                    Throwable cause = cause(error);
+                    if (cause instanceof InvalidMoveException) {
+                        sendError(session, "Movimiento inválido: " + cause.getMessage());
+                    } else if (cause instanceof DataAccessException) {
+                        sendError(session, "Error al procesar el movimiento (datos): " + cause.getMessage());
+                    } else {
+                        sendError(session, "Error interno del servidor inesperado: " + cause.getMessage());
                     }
+                    return null;
+                });
+            }
 
-                    String resigningUsername = gameService.getUsernameFromAuth(authToken);
-                    try {
-                        gameService.resign(gameID, authToken);
-                        broadcastNotification(gameID, resigningUsername + " ha renunciado al juego " + gameID + ". ¡La partida ha terminado!", null);
-                        broadcastLoadGame(gameID, authToken);
-                    } catch (DataAccessException e) {
-                        sendError(session, "La renuncia falló: " + e.getMessage());
-                    }
-                    break;
+            case RESIGN: {
+                if (!Objects.equals(authTokenGameIds.get(authToken), gameID)) {
+                    sendError(session, "Error: GameID del comando no coincide con la sesión actual.");
+                    return CompletableFuture.completedFuture(null);
+                }
 
-                case LEAVE:
-                    if (!Objects.equals(authTokenGameIds.get(authToken), gameID)) {
-                        sendError(session, "Error: GameID del comando no coincide con la sesión actual.");
-                        return;
-                    }
+                return gameService.resignAsync(gameID, authToken).thenAccept(update -> {
+                    broadcastNotification(gameID, update.username() + " ha renunciado al juego " + gameID + ". ¡La partida ha terminado!", null);
+                    broadcastLoadGame(gameID, update.game());
+                }).exceptionally(error -> {
+                    sendError(session, "La renuncia falló: " + cause(error).getMessage());
+                    return null;
+                });
+            }
 
-                    String leavingUsername = gameService.getUsernameFromAuth(authToken);
-                    try {
-                        gameService.leaveGame(gameID, authToken);
-
-                        Map<String, Session> gameSessionMap = gameSessions.get(gameID);
-                        if (gameSessionMap != null) {
-                            gameSessionMap.remove(authToken);
-                            if (gameSessionMap.isEmpty()) {
-                                gameSessions.remove(gameID);
-                            }
-                        }
-                        sessionAuthTokens.remove(session);
-                        authTokenGameIds.remove(authToken);
-                        sessions.remove(authToken);
+            case LEAVE: {
+                if (!Objects.equals(authTokenGameIds.get(authToken), gameID)) {
+                    sendError(session, "Error: GameID del comando no coincide con la sesión actual.");
+                    return CompletableFuture.completedFuture(null);
+                }
 
-                        broadcastNotification(gameID, leavingUsername + " abandonó el juego " + gameID + ".", session);
-                    } catch (DataAccessException e) {
-                        sendError(session, "El abandono falló: " + e.getMessage());
+                return gameService.leaveGameAsync(gameID, authToken).thenAccept(update -> {
+                    Map<String, Session> gameSessionMap = gameSessions.get(gameID);
+                    if (gameSessionMap != null) {
+                        gameSessionMap.remove(authToken);
+                        if (gameSessionMap.isEmpty()) {
+                            gameSessions.remove(gameID);
+                        }
                     }
-                    break;
-
-                default:
-                    sendError(session, "Error: Tipo de comando desconocido: " + baseCommand.getCommandType());
-                    break;
+                    sessionAuthTokens.remove(session);
+                    authTokenGameIds.remove(authToken);
+                    sessions.remove(authToken);
+
+                    broadcastNotification(gameID, update.username() + " abandonó el juego " + gameID + ".", session);
+                }).exceptionally(error -> {
+                    sendError(session, "El abandono falló: " + cause(error).getMessage());
+                    return null;
+                });
             }
-        } catch (DataAccessException e) {
-            sendError(session, "Error de autenticación o datos: " + e.getMessage());
-        } catch (Exception e) {
-            sendError(session, "Error interno del servidor inesperado: " + e.getMessage());
+
+            default:
+                sendError(session, "Error: Tipo de comando desconocido: " + baseCommand.getCommandType());
+                return CompletableFuture.completedFuture(null);
         }
     }
 
+    /**
+     * Chains the command after the previous one for the same game, so commands for a game
+     * still run in arrival order while different games proceed independently.
+     */
+    private CompletableFuture<Void> enqueue(int gameID, Supplier<CompletableFuture<Void>> command) {
+        CompletableFuture<Void> next = new CompletableFuture<>();
+        CompletableFuture<Void> previous = gameQueues.put(gameID, next);
+        CompletableFuture<Void> start = previous != null ? previous : CompletableFuture.completedFuture(null);
+        start.handle((ignored, error) -> null)
+                .thenCompose(ignored -> command.get())
+                .whenComplete((ignored, error) -> {
+                    gameQueues.remove(gameID, next);
+                    if (error != null) {
+                        next.completeExceptionally(error);
+                    } else {
+                        next.complete(null);
+                    }
+                });
+        return next;
+    }
+
+    private static Throwable cause(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
     @OnWebSocketError
     public void onError(Session session, Throwable error) {
         System.err.println("WebSocket error for " + session.getRemoteAddress() + ": " + error.getMessage());
@@ -209,10 +256,14 @@ public class WebSocketServer {
         sendError(session, "Error: An unexpected server error occurred: " + error.getMessage());
     }
 
-    private void sendMessage(Session session, ServerMessage message) throws IOException {
+    private void sendMessage(Session session, ServerMessage message) {
         if (session != null && session.isOpen()) {
             String fullMessageJson = gson.toJson(message);
-            session.getRemote().sendString(fullMessageJson);
+            try {
+                session.getRemote().sendString(fullMessageJson);
+            } catch (IOException e) {
+                System.err.println("Error al enviar mensaje a " + session.getRemoteAddress() + ": " + e.getMessage());
+            }
         }
     }
 
@@ -234,10 +285,9 @@ public class WebSocketServer {
         }
     }
 
-    private void broadcastLoadGame(Integer gameID, String authTokenForServiceCall) throws DataAccessException {
+    private void broadcastLoadGame(Integer gameID, ChessGame gameState) {
         Map<String, Session> gameSessionMap = this.gameSessions.get(gameID);
         if (gameSessionMap != null) {
-            ChessGame gameState = gameService.getGameState(gameID, authTokenForServiceCall);
             LoadGameMessage loadGame = new LoadGameMessage(gameState);
             String loadGameJson = gson.toJson(loadGame);
 
@@ -281,6 +331,7 @@ public class WebSocketServer {
         gameSessions.clear();
         sessionAuthTokens.clear();
         authTokenGameIds.clear();
+        gameQueues.clear();
         System.out.println("Estado interno de WebSocketServer detenido.");
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package passoff.server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import dataaccess.DataAccessException;
+import dataaccess.GameArchiveCodec;
+import dataaccess.GameArchiver;
+import dataaccess.GameFilter;
+import dataaccess.MemoryDataAccess;
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+import model.UserData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.GameService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArchiveTests {
+
+    private static final List<ChessMove> OPENING = List.of(
+            new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null),
+            new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null),
+            new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+
+    @Test
+    @DisplayName("Archive Encoding Round Trips")
+    void testCodecRoundTrip() throws Exception {
+        ChessGame game = new ChessGame();
+        for (ChessMove move : OPENING) {
+            game.makeMove(move);
+        }
+        game.setGameOver(true);
+
+        GameArchiveCodec.Contents decoded = GameArchiveCodec.decode(GameArchiveCodec.encode(game, OPENING));
+        assertEquals(OPENING, decoded.moves(), "Moves should survive the round trip in order");
+        assertEquals(game.getBoard(), decoded.game().getBoard(), "Final position should survive the round trip");
+        assertTrue(decoded.game().isGameOver(), "Game over flag should be kept");
+        assertThrows(DataAccessException.class, () -> GameArchiveCodec.decode(new byte[]{1, 2, 3}),
+                "Corrupt archives should be rejected");
+    }
+
+    @Test
+    @DisplayName("Finished Games Move To The Archive After The Grace Period")
+    void testArchiveAfterGrace() throws Exception {
+        MemoryDataAccess dataAccess = new MemoryDataAccess();
+        int live = dataAccess.createGame(new GameData(0, "white", "black", "live", new ChessGame()));
+        int finished = dataAccess.createGame(new GameData(0, "white", "black", "finished", new ChessGame()));
+        ChessGame game = new ChessGame();
+        for (int ply = 1; ply <= OPENING.size(); ply++) {
+            game.makeMove(OPENING.get(ply - 1));
+            dataAccess.appendMove(finished, ply, OPENING.get(ply - 1), game);
+        }
+        game.setGameOver(true);
+        dataAccess.updateGame(finished, new GameData(finished, "white", "black", "finished", game));
+        long version = dataAccess.getVersionedGame(finished).version();
+
+        AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+        GameArchiver archiver = new GameArchiver(dataAccess, new GameArchiver.Config(TimeUnit.HOURS.toMillis(1),
+                TimeUnit.HOURS.toMillis(1), 10), clock::get);
+        try {
+            assertEquals(0, archiver.archive(), "Games within the grace period should stay live");
+            clock.addAndGet(TimeUnit.HOURS.toMillis(2));
+            assertEquals(1, archiver.archive(), "Only the finished game should be archived");
+            assertEquals(1, archiver.stats().archivedGames(), "Archived games should be counted");
+        } finally {
+            archiver.close();
+        }
+
+        assertEquals(1, dataAccess.getAllGames().length, "Full scans should only see live games");
+        assertEquals(live, dataAccess.getAllGames()[0].gameID(), "The live game should remain");
+        GameData archived = dataAccess.getGame(finished);
+        assertNotNull(archived, "Archived games should still be readable by ID");
+        assertTrue(archived.game().isGameOver(), "Archived state should be the final position");
+        assertEquals(version, dataAccess.getVersionedGame(finished).version(), "Version should be kept");
+        assertEquals(OPENING.subList(1, 3), dataAccess.getMoves(finished, 1, 3), "Archived moves should be readable");
+
+        GameSummary[] summaries = dataAccess.listGameSummaries(0, 10, GameFilter.NONE);
+        assertEquals(2, summaries.length, "Listings should include archived games");
+        assertEquals(finished, summaries[1].gameID(), "Listings should stay ordered by ID");
+        assertThrows(DataAccessException.class,
+                () -> dataAccess.updateGame(finished, archived), "Archived games should be read-only");
+    }
+
+    @Test
+    @DisplayName("Checkmated Games Are Archived")
+    void testArchiveCheckmate() throws Exception {
+        MemoryDataAccess dataAccess = new MemoryDataAccess();
+        dataAccess.createUser(new UserData("white", "pass", "w@mail"));
+        dataAccess.createUser(new UserData("black", "pass", "b@mail"));
+        dataAccess.createAuth(new AuthData("white", "whiteToken"));
+        dataAccess.createAuth(new AuthData("black", "blackToken"));
+        GameService gameService = new GameService(dataAccess);
+        int gameID = gameService.createGame("whiteToken", "fool's mate").gameID();
+        gameService.joinGame("whiteToken", gameID, "WHITE");
+        gameService.joinGame("blackToken", gameID, "BLACK");
+
+        List<ChessMove> foolsMate = List.of(
+                new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null),
+                new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null),
+                new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null),
+                new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+        for (int ply = 0; ply < foolsMate.size(); ply++) {
+            gameService.makeMove(gameID, ply % 2 == 0 ? "whiteToken" : "blackToken", foolsMate.get(ply));
+        }
+        assertTrue(dataAccess.getGame(gameID).game().isGameOver(), "Checkmate should finish the stored game");
+        assertEquals(0, dataAccess.countActiveGamesForUser("white"), "A checkmated game is no longer active");
+
+        AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+        GameArchiver archiver = new GameArchiver(dataAccess, new GameArchiver.Config(TimeUnit.HOURS.toMillis(1),
+                TimeUnit.HOURS.toMillis(1), 10), clock::get);
+        try {
+            clock.addAndGet(TimeUnit.HOURS.toMillis(2));
+            assertEquals(1, archiver.archive(), "The checkmated game should be archived");
+        } finally {
+            archiver.close();
+        }
+        assertEquals(0, dataAccess.getAllGames().length, "The game should have left the live table");
+        assertEquals(foolsMate, dataAccess.getMoves(gameID, 0, Integer.MAX_VALUE), "Archived moves should be readable");
+        assertTrue(dataAccess.getGame(gameID).game().isGameOver(), "The archived game should stay finished");
+    }
+}
@@ -0,0 +1,117 @@
+package passoff.server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import dataaccess.AsyncDataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryDataAccess;
+import model.AuthData;
+import model.UserData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.GameService;
+import service.Results.GameUpdate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncDataAccessTests {
+
+    private MemoryDataAccess dataAccess;
+    private AsyncDataAccess async;
+    private GameService gameService;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        dataAccess = new MemoryDataAccess();
+        async = new AsyncDataAccess(dataAccess, 4);
+        gameService = new GameService(dataAccess, async);
+        dataAccess.createUser(new UserData("white", "pass", "w@mail"));
+        dataAccess.createUser(new UserData("black", "pass", "b@mail"));
+        dataAccess.createAuth(new AuthData("white", "whiteToken"));
+        dataAccess.createAuth(new AuthData("black", "blackToken"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        async.close();
+    }
+
+    @Test
+    @DisplayName("Concurrency Is Capped At The Permit Count")
+    void testConcurrencyCap() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(async.run(() -> {
+                peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                release.await();
+                inFlight.decrementAndGet();
+                return 1;
+            }));
+        }
+
+        // Espera a que los permisos se agoten antes de liberar
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (async.stats().running() < 4 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(4, async.stats().running(), "All permits should be in use");
+        assertEquals(46, async.stats().waiting(), "The remaining calls should be queued");
+
+        release.countDown();
+        int total = 0;
+        for (CompletableFuture<Integer> future : futures) {
+            total += future.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(50, total, "Every queued call should eventually run");
+        assertEquals(4, peak.get(), "No more calls than permits should run at once");
+        assertEquals(50, async.stats().completed(), "Completed counter should include every call");
+    }
+
+    @Test
+    @DisplayName("Async Move Returns Updated Game")
+    void testMakeMoveAsync() throws Exception {
+        int gameID = gameService.createGame("whiteToken", "async").gameID();
+        gameService.joinGame("whiteToken", gameID, "WHITE");
+        gameService.joinGame("blackToken", gameID, "BLACK");
+
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        GameUpdate update = gameService.makeMoveAsync(gameID, "whiteToken", move).get(5, TimeUnit.SECONDS);
+
+        assertEquals("white", update.username(), "Update should name the mover");
+        assertEquals(ChessGame.TeamColor.BLACK, update.game().getTeamTurn(), "Turn should pass to black");
+        assertNotNull(update.game().getBoard().getPiece(new ChessPosition(4, 5)), "Pawn should be on e4");
+    }
+
+    @Test
+    @DisplayName("Async Failures Keep Their Cause")
+    void testAsyncFailure() throws Exception {
+        int gameID = gameService.createGame("whiteToken", "async").gameID();
+        gameService.joinGame("whiteToken", gameID, "WHITE");
+
+        ChessMove illegal = new ChessMove(new ChessPosition(2, 5), new ChessPosition(5, 5), null);
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> gameService.makeMoveAsync(gameID, "whiteToken", illegal).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(InvalidMoveException.class, error.getCause(), "Service exception should be the cause");
+
+        ExecutionException authError = assertThrows(ExecutionException.class,
+                () -> gameService.getGameStateAsync(gameID, "badToken").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DataAccessException.class, authError.getCause(), "Auth failure should surface as data access error");
+        assertEquals(2, async.stats().failed(), "Failed counter should count both calls");
+    }
+}
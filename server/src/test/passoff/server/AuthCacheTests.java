@@ -0,0 +1,79 @@
+package passoff.server;
+
+import dataaccess.CachingAuthDataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryDataAccess;
+import model.AuthData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthCacheTests {
+
+    private final AtomicInteger backendReads = new AtomicInteger();
+    private MemoryDataAccess backend;
+    private CachingAuthDataAccess cache;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        backend = new MemoryDataAccess() {
+            @Override
+            public AuthData getAuth(String authToken) throws DataAccessException {
+                backendReads.incrementAndGet();
+                return super.getAuth(authToken);
+            }
+        };
+        backend.createAuth(new AuthData("player", "token"));
+        cache = new CachingAuthDataAccess(backend, new CachingAuthDataAccess.Config(100, 60_000, 60_000));
+    }
+
+    @Test
+    @DisplayName("Repeated Lookups Hit Cache")
+    void testRepeatedLookupsHitCache() throws DataAccessException {
+        for (int i = 0; i < 10; i++) {
+            assertEquals("player", cache.getAuth("token").username(), "Cached token should resolve to its user");
+        }
+        assertEquals(1, backendReads.get(), "Only the first lookup should reach the backend");
+        assertEquals(0.9, cache.stats().hitRatio(), 1e-9, "Nine of ten lookups should be hits");
+    }
+
+    @Test
+    @DisplayName("Bad Tokens Cached Negatively")
+    void testBadTokensCachedNegatively() throws DataAccessException {
+        assertNull(cache.getAuth("bad"), "Unknown token should not resolve");
+        assertNull(cache.getAuth("bad"), "Unknown token should not resolve");
+        assertEquals(1, backendReads.get(), "The second bad lookup should be answered from the cache");
+        assertEquals(1, cache.stats().negativeHits(), "Negative hit should be counted");
+    }
+
+    @Test
+    @DisplayName("Logout Invalidates Immediately")
+    void testLogoutInvalidates() throws DataAccessException {
+        cache.getAuth("token");
+        cache.deleteAuth("token");
+        assertNull(cache.getAuth("token"), "Deleted token should not be served from the cache");
+    }
+
+    @Test
+    @DisplayName("Clear Invalidates Everything")
+    void testClearInvalidates() throws DataAccessException {
+        cache.getAuth("token");
+        cache.clear();
+        assertNull(cache.getAuth("token"), "Cleared tokens should not be served from the cache");
+    }
+
+    @Test
+    @DisplayName("Size Stays Bounded")
+    void testSizeStaysBounded() throws DataAccessException {
+        CachingAuthDataAccess small = new CachingAuthDataAccess(backend, new CachingAuthDataAccess.Config(5, 60_000, 60_000));
+        for (int i = 0; i < 50; i++) {
+            small.getAuth("missing-" + i);
+        }
+        assertTrue(small.stats().size() <= 5, "Cache should not grow past its bound");
+        assertEquals(45, small.stats().evictions(), "Overflowing entries should be evicted");
+    }
+}
@@ -0,0 +1,162 @@
+package passoff.server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryDataAccess;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import service.GameService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyStressTests {
+    private static final int THREADS = 16;
+
+    private MemoryDataAccess dataAccess;
+    private GameService gameService;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        dataAccess = new MemoryDataAccess();
+        gameService = new GameService(dataAccess);
+        for (int i = 0; i < THREADS; i++) {
+            dataAccess.createUser(new UserData("player" + i, "pass", i + "@mail"));
+            dataAccess.createAuth(new AuthData("player" + i, "token" + i));
+        }
+    }
+
+    @RepeatedTest(20)
+    @DisplayName("Exactly One Player Gets Each Seat")
+    void testOnePlayerPerSeat() throws Exception {
+        int gameID = gameService.createGame("token0", "race").gameID();
+        AtomicInteger whiteWins = new AtomicInteger();
+        AtomicInteger blackWins = new AtomicInteger();
+
+        runConcurrently(i -> {
+            String color = i % 2 == 0 ? "WHITE" : "BLACK";
+            try {
+                gameService.joinGame("token" + i, gameID, color);
+                (i % 2 == 0 ? whiteWins : blackWins).incrementAndGet();
+            } catch (DataAccessException e) {
+                assertEquals("Ya tomado", e.getMessage(), "Losers should see the seat as taken");
+            }
+            return null;
+        });
+
+        assertEquals(1, whiteWins.get(), "Exactly one player should get the white seat");
+        assertEquals(1, blackWins.get(), "Exactly one player should get the black seat");
+        GameData game = dataAccess.getGame(gameID);
+        assertNotNull(game.whiteUsername(), "White seat should be stored");
+        assertNotNull(game.blackUsername(), "Black seat should be stored");
+    }
+
+    @Test
+    @DisplayName("Concurrent Moves Are Linearizable")
+    void testConcurrentMoves() throws Exception {
+        int gameID = gameService.createGame("token0", "moves").gameID();
+        gameService.joinGame("token0", gameID, "WHITE");
+        gameService.joinGame("token1", gameID, "BLACK");
+
+        // Cada bando solo tiene dos jugadas posibles: sacar el caballo o devolverlo
+        ChessMove[][] options = {
+                {new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+                        new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null)},
+                {new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+                        new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null)},
+        };
+        int target = 400;
+        AtomicInteger accepted = new AtomicInteger();
+
+        runConcurrently(i -> {
+            int side = i % 2;
+            int attempt = 0;
+            while (accepted.get() < target) {
+                ChessMove move = options[side][attempt++ % 2];
+                try {
+                    gameService.makeMove(gameID, "token" + side, move);
+                    accepted.incrementAndGet();
+                } catch (InvalidMoveException e) {
+                    // turno equivocado o pieza en otra casilla
+                }
+            }
+            return null;
+        });
+
+        List<ChessMove> log = dataAccess.getMoves(gameID, 0, Integer.MAX_VALUE);
+        assertEquals(accepted.get(), log.size(), "Every accepted move should be logged exactly once");
+
+        ChessGame replay = new ChessGame();
+        for (ChessMove move : log) {
+            replay.makeMove(move);
+        }
+        ChessGame stored = dataAccess.getGame(gameID).game();
+        ChessGame served = gameService.getGameState(gameID, "token0");
+        assertNotSame(served, stored, "The store should keep its own copy of the position");
+        assertEquals(replay, stored, "Replaying the log should give the stored position");
+        assertEquals(served, stored, "The stored position should match the one being played");
+        assertEquals(log.size(), stored.getPly(), "Stored ply should match the log");
+    }
+
+    @Test
+    @DisplayName("Listing While Creating")
+    void testListingWhileCreating() throws Exception {
+        runConcurrently(i -> {
+            for (int n = 0; n < 100; n++) {
+                if (i % 2 == 0) {
+                    gameService.createGame("token" + i, "game" + n);
+                } else {
+                    GameData[] games = dataAccess.getAllGames();
+                    for (int g = 1; g < games.length; g++) {
+                        assertTrue(games[g - 1].gameID() < games[g].gameID(), "Games should iterate in ID order");
+                    }
+                }
+            }
+            return null;
+        });
+        assertEquals(THREADS / 2 * 100, dataAccess.getAllGames().length, "No created game should be lost");
+    }
+
+    private interface Task {
+        Void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(Task task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                Callable<Void> call = () -> {
+                    start.await();
+                    return task.run(thread);
+                };
+                results.add(pool.submit(call));
+            }
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
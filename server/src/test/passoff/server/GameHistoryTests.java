@@ -0,0 +1,106 @@
+package passoff.server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryDataAccess;
+import model.AuthData;
+import model.UserData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.GameService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameHistoryTests {
+    private static final int PLIES = DataAccess.SNAPSHOT_INTERVAL * 2 + 5;
+
+    private GameService gameService;
+    private int gameID;
+    private final List<ChessGame> expected = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws DataAccessException, InvalidMoveException {
+        MemoryDataAccess dataAccess = new MemoryDataAccess();
+        gameService = new GameService(dataAccess);
+        dataAccess.createUser(new UserData("white", "pass", "w@mail"));
+        dataAccess.createUser(new UserData("black", "pass", "b@mail"));
+        dataAccess.createAuth(new AuthData("white", "whiteToken"));
+        dataAccess.createAuth(new AuthData("black", "blackToken"));
+
+        gameID = gameService.createGame("whiteToken", "history").gameID();
+        gameService.joinGame("whiteToken", gameID, "WHITE");
+        gameService.joinGame("blackToken", gameID, "BLACK");
+
+        // Los caballos salen y vuelven, así la partida nunca termina
+        ChessMove[] cycle = {
+                new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+                new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+                new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null),
+                new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null),
+        };
+        ChessGame replay = new ChessGame();
+        expected.add(copyOf(replay));
+        for (int ply = 0; ply < PLIES; ply++) {
+            ChessMove move = cycle[ply % cycle.length];
+            gameService.makeMove(gameID, ply % 2 == 0 ? "whiteToken" : "blackToken", move);
+            replay.makeMove(move);
+            expected.add(copyOf(replay));
+        }
+    }
+
+    @Test
+    @DisplayName("Every Ply Matches Replay")
+    void testEveryPlyMatchesReplay() throws DataAccessException {
+        for (int ply = 0; ply <= PLIES; ply++) {
+            ChessGame position = gameService.getPosition("whiteToken", gameID, ply);
+            assertEquals(expected.get(ply), position, "Position at ply " + ply + " should match a full replay");
+            assertEquals(ply, position.getPly(), "Position should report its ply");
+        }
+    }
+
+    @Test
+    @DisplayName("Current Position By Default")
+    void testCurrentPositionByDefault() throws DataAccessException {
+        ChessGame position = gameService.getPosition("blackToken", gameID, null);
+        assertEquals(PLIES, position.getPly(), "Without a ply the current position should be returned");
+        assertEquals(expected.get(PLIES), position, "Current position should match");
+    }
+
+    @Test
+    @DisplayName("Ply Out Of Range")
+    void testPlyOutOfRange() {
+        assertThrows(DataAccessException.class, () -> gameService.getPosition("whiteToken", gameID, PLIES + 1),
+                "Future plies should be rejected");
+        assertThrows(DataAccessException.class, () -> gameService.getPosition("whiteToken", gameID, -1),
+                "Negative plies should be rejected");
+    }
+
+    @Test
+    @DisplayName("Position Unauthorized")
+    void testPositionUnauthorized() {
+        assertThrows(DataAccessException.class, () -> gameService.getPosition("badToken", gameID, 0),
+                "Invalid tokens should be rejected");
+    }
+
+    private static ChessGame copyOf(ChessGame game) {
+        ChessGame copy = new ChessGame();
+        copy.getBoard().resetBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                copy.getBoard().addPiece(position, game.getBoard().getPiece(position));
+            }
+        }
+        copy.setTeamTurn(game.getTeamTurn());
+        copy.setPly(game.getPly());
+        return copy;
+    }
+}
@@ -0,0 +1,164 @@
+package passoff.server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import dataaccess.DataAccessException;
+import dataaccess.ForwardingDataAccess;
+import dataaccess.GameFilter;
+import dataaccess.MemoryDataAccess;
+import dataaccess.VersionedGame;
+import json.JsonCodecs;
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.GameService;
+import service.Results.GameListResult;
+import service.Results.GamePageResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameListingTests {
+    private GameService gameService;
+    private MemoryDataAccess dataAccess;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        dataAccess = new MemoryDataAccess();
+        gameService = new GameService(dataAccess);
+        dataAccess.createAuth(new AuthData("user1", "token123"));
+        for (int i = 1; i <= 25; i++) {
+            String white = i % 5 == 0 ? "user1" : "other";
+            String black = i % 2 == 0 ? "other" : null;
+            dataAccess.createGame(new GameData(0, white, black, "game" + i, null));
+        }
+    }
+
+    @Test
+    @DisplayName("Listing Leaves Out Game State")
+    void testListingSkipsGameState() throws DataAccessException {
+        GameService listing = new GameService(new ForwardingDataAccess(dataAccess) {
+            @Override
+            public GameData getGame(int gameID) {
+                throw new AssertionError("Listing should not load game " + gameID);
+            }
+
+            @Override
+            public VersionedGame getVersionedGame(int gameID) {
+                throw new AssertionError("Listing should not load game " + gameID);
+            }
+
+            @Override
+            public GameData[] getAllGames() {
+                throw new AssertionError("Listing should not load every game's state");
+            }
+        });
+        assertEquals(25, listing.listGames("token123").games().length, "Every game should be listed");
+
+        Gson gson = JsonCodecs.gson();
+        JsonObject listed = gson.toJsonTree(listing.listGames("token123")).getAsJsonObject()
+                .getAsJsonArray("games").get(0).getAsJsonObject();
+        assertFalse(listed.has("game"), "Listed games should not carry a board");
+    }
+
+    @Test
+    @DisplayName("Listed Fields Match Game Data")
+    void testListedFieldsMatchGameData() throws Exception {
+        ChessGame started = new ChessGame();
+        started.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        dataAccess.createGame(new GameData(0, "user1", "other", "started", started));
+
+        Gson gson = JsonCodecs.gson();
+        GameListResult result = gameService.listGames("token123");
+        assertEquals(26, result.games().length, "Every game should be listed");
+        for (GameSummary summary : result.games()) {
+            GameData game = dataAccess.getGame(summary.gameID());
+            assertNotNull(game, "Listed IDs should find their game");
+            assertEquals(game.whiteUsername(), summary.whiteUsername(), "White player should match");
+            assertEquals(game.blackUsername(), summary.blackUsername(), "Black player should match");
+            assertEquals(game.gameName(), summary.gameName(), "Game name should match");
+
+            // Los clientes leían GameData: el JSON es el mismo salvo el tablero
+            JsonObject expected = gson.toJsonTree(game).getAsJsonObject();
+            expected.remove("game");
+            assertEquals(expected, gson.toJsonTree(summary), "Listed JSON should be GameData without the board");
+        }
+    }
+
+    @Test
+    @DisplayName("Page Through All Games")
+    void testPageThroughAllGames() throws DataAccessException {
+        List<Integer> seen = new ArrayList<>();
+        Integer cursor = null;
+        do {
+            GamePageResult page = gameService.listGamesPage("token123", cursor, 10, GameFilter.NONE);
+            assertTrue(page.games().length <= 10, "Page should not exceed the page size");
+            for (GameSummary game : page.games()) {
+                seen.add(game.gameID());
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(25, seen.size(), "Every game should be listed exactly once");
+        for (int i = 1; i < seen.size(); i++) {
+            assertTrue(seen.get(i - 1) < seen.get(i), "Games should be ordered by ID");
+        }
+    }
+
+    @Test
+    @DisplayName("Last Page Has No Cursor")
+    void testLastPageHasNoCursor() throws DataAccessException {
+        GamePageResult page = gameService.listGamesPage("token123", 20, 10, GameFilter.NONE);
+        assertEquals(5, page.games().length, "Only the remaining games should be returned");
+        assertNull(page.nextCursor(), "The last page should not have a next cursor");
+    }
+
+    @Test
+    @DisplayName("Filter Open Seats And Player")
+    void testFilters() throws DataAccessException {
+        GamePageResult open = gameService.listGamesPage("token123", null, 100, new GameFilter(true, null));
+        assertEquals(13, open.games().length, "Only games with a free seat should be returned");
+
+        GamePageResult mine = gameService.listGamesPage("token123", null, 100, new GameFilter(false, "user1"));
+        assertEquals(5, mine.games().length, "Only games the player is in should be returned");
+    }
+
+    @Test
+    @DisplayName("Paged Listing Unauthorized")
+    void testPagedListingUnauthorized() {
+        assertThrows(DataAccessException.class,
+                () -> gameService.listGamesPage("badToken", null, 10, GameFilter.NONE),
+                "Invalid tokens should be rejected");
+    }
+
+    @Test
+    @DisplayName("Games For User")
+    void testGamesForUser() throws DataAccessException {
+        GameSummary[] games = dataAccess.getGamesForUser("user1");
+        assertEquals(5, games.length, "Only the user's games should be returned");
+        for (GameSummary game : games) {
+            assertEquals("user1", game.whiteUsername(), "Every game should include the user");
+        }
+    }
+
+    @Test
+    @DisplayName("Count Active Games")
+    void testCountActiveGames() throws DataAccessException {
+        ChessGame finished = new ChessGame();
+        finished.setGameOver(true);
+        dataAccess.createGame(new GameData(0, "user1", "other", "finished", finished));
+        dataAccess.createGame(new GameData(0, "user1", "user1", "self", new ChessGame()));
+
+        assertEquals(6, gameService.countActiveGames("token123", "user1"), "Finished games should not count and self-play counts once");
+        assertThrows(DataAccessException.class, () -> gameService.countActiveGames("badToken", "user1"),
+                "Invalid tokens should be rejected");
+    }
+}
@@ -0,0 +1,83 @@
+package passoff.server;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import dataaccess.DataAccessException;
+import dataaccess.GameStateCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStateCodecTests {
+
+    @Test
+    @DisplayName("Round Trip Starting Board")
+    void testRoundTripStartingBoard() throws DataAccessException {
+        ChessGame game = new ChessGame();
+        ChessGame decoded = GameStateCodec.decode(GameStateCodec.encode(game));
+        assertEquals(game, decoded, "Decoded game should match the original");
+        assertFalse(decoded.isGameOver(), "Game over flag should be preserved");
+    }
+
+    @Test
+    @DisplayName("Round Trip After Moves")
+    void testRoundTripAfterMoves() throws DataAccessException, InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+        game.makeMove(new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 4), null));
+        game.setGameOver(true);
+
+        ChessGame decoded = GameStateCodec.decode(GameStateCodec.encode(game));
+        assertEquals(game, decoded, "Decoded game should match the original");
+        assertEquals(ChessGame.TeamColor.BLACK, decoded.getTeamTurn(), "Side to move should be preserved");
+        assertEquals(3, decoded.getPly(), "Ply should be preserved");
+        assertTrue(decoded.isGameOver(), "Game over flag should be preserved");
+    }
+
+    @Test
+    @DisplayName("Round Trip Promoted Pieces")
+    void testRoundTripPromotedPieces() throws DataAccessException {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        board.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        board.addPiece(new ChessPosition(5, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+
+        assertEquals(game, GameStateCodec.decode(GameStateCodec.encode(game)), "Sparse board should round trip");
+    }
+
+    @Test
+    @DisplayName("Round Trip Moves")
+    void testRoundTripMoves() throws DataAccessException {
+        ChessMove quiet = new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null);
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT);
+        assertEquals(quiet, GameStateCodec.decodeMove(GameStateCodec.encodeMove(quiet)), "Quiet move should round trip");
+        assertEquals(promotion, GameStateCodec.decodeMove(GameStateCodec.encodeMove(promotion)), "Promotion should round trip");
+        assertTrue(GameStateCodec.encodeMove(promotion) <= Short.MAX_VALUE, "Moves should fit in a SMALLINT");
+    }
+
+    @Test
+    @DisplayName("Encoding Smaller Than JSON")
+    void testEncodingSmallerThanJson() {
+        ChessGame game = new ChessGame();
+        int binarySize = GameStateCodec.encode(game).length;
+        int jsonSize = new Gson().toJson(game).length();
+        assertTrue(binarySize * 10 < jsonSize, "Binary state should be an order of magnitude smaller than JSON");
+    }
+
+    @Test
+    @DisplayName("Reject Unknown Version")
+    void testRejectUnknownVersion() {
+        byte[] data = GameStateCodec.encode(new ChessGame());
+        data[0] = 99;
+        assertThrows(DataAccessException.class, () -> GameStateCodec.decode(data), "Unknown versions should be rejected");
+    }
+}
@@ -0,0 +1,100 @@
+package passoff.server;
+
+import chess.ChessGame;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.ForwardingDataAccess;
+import dataaccess.GameFilter;
+import dataaccess.InstrumentedDataAccess;
+import dataaccess.InstrumentedDataAccess.MethodStats;
+import dataaccess.MemoryDataAccess;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstrumentedDataAccessTests {
+
+    @Test
+    @DisplayName("Calls, Rows And Errors Are Counted Per Method")
+    void testPerMethodCounts() throws DataAccessException {
+        InstrumentedDataAccess instrumented = new InstrumentedDataAccess(new MemoryDataAccess(),
+                InstrumentedDataAccess.Config.defaults());
+        DataAccess dataAccess = instrumented.dataAccess();
+
+        dataAccess.createUser(new UserData("user", "pass", "u@mail"));
+        dataAccess.createAuth(new AuthData("user", "token"));
+        for (int i = 0; i < 3; i++) {
+            dataAccess.createGame(new GameData(0, null, null, "game" + i, new ChessGame()));
+        }
+        dataAccess.getAuth("token");
+        dataAccess.getAuth("missing");
+        assertEquals(3, dataAccess.getAllGames().length, "Proxy should return the delegate's result");
+        assertThrows(DataAccessException.class, () -> dataAccess.createUser(new UserData("user", "pass", "u@mail")),
+                "Delegate exceptions should reach the caller unwrapped");
+
+        Map<String, MethodStats> stats = instrumented.stats();
+        assertEquals(2, stats.get("getAuth(String)").calls(), "Both token lookups should be counted");
+        assertEquals(1, stats.get("getAuth(String)").rows(), "Only the existing token returns a row");
+        assertEquals(3, stats.get("getAllGames()").rows(), "Collection results count their size");
+        assertEquals(3, stats.get("createGame(GameData)").calls(), "Each insert should be counted");
+        assertEquals(1, stats.get("createUser(UserData)").errors(), "Duplicate user should count as an error");
+        assertFalse(stats.containsKey("getGame(int)"), "Uncalled methods should not be reported");
+    }
+
+    @Test
+    @DisplayName("Overloads Are Recorded Separately")
+    void testOverloads() throws DataAccessException {
+        InstrumentedDataAccess instrumented = new InstrumentedDataAccess(new MemoryDataAccess(),
+                InstrumentedDataAccess.Config.defaults());
+        DataAccess dataAccess = instrumented.dataAccess();
+        for (int i = 0; i < 3; i++) {
+            dataAccess.createGame(new GameData(0, null, null, "game" + i, new ChessGame()));
+        }
+        dataAccess.listGameSummaries();
+        dataAccess.listGameSummaries(0, 2, new GameFilter(false, null));
+        dataAccess.listGameSummaries(2, 2, new GameFilter(false, null));
+
+        Map<String, MethodStats> stats = instrumented.stats();
+        MethodStats all = stats.get("listGameSummaries()");
+        MethodStats page = stats.get("listGameSummaries(int, int, GameFilter)");
+        assertNotNull(all, "The full listing should have its own entry");
+        assertNotNull(page, "The paged listing should have its own entry");
+        assertEquals(1, all.calls(), "Only one full listing was made");
+        assertEquals(3, all.rows(), "The full listing returns every game");
+        assertEquals(2, page.calls(), "Both pages should be counted together");
+        assertEquals(3, page.rows(), "Pages return two games and then one");
+    }
+
+    @Test
+    @DisplayName("Slow Calls Are Counted And Latency Is Bucketed")
+    void testSlowCalls() throws DataAccessException {
+        DataAccess slow = new ForwardingDataAccess(new MemoryDataAccess()) {
+            @Override
+            public GameData getGame(int gameID) throws DataAccessException {
+                try {
+                    Thread.sleep(30);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getGame(gameID);
+            }
+        };
+        InstrumentedDataAccess instrumented = new InstrumentedDataAccess(slow, new InstrumentedDataAccess.Config(20));
+        DataAccess dataAccess = instrumented.dataAccess();
+        int gameID = dataAccess.createGame(new GameData(0, null, null, "slow", new ChessGame()));
+        dataAccess.getGame(gameID);
+
+        MethodStats getGame = instrumented.stats().get("getGame(int)");
+        assertEquals(1, getGame.slowCalls(), "A call over the threshold should be counted as slow");
+        assertEquals(0, instrumented.stats().get("createGame(GameData)").slowCalls(), "Fast calls are not slow");
+        assertTrue(getGame.maxMicros() >= 30_000, "Max latency should include the sleep");
+        assertTrue(getGame.p99Micros() >= getGame.maxMicros(), "Bucket upper bound should cover the max");
+        assertEquals(0, getGame.averageAcquireMicros(), "Memory backend never waits for a connection");
+    }
+}
@@ -0,0 +1,64 @@
+package passoff.server;
+
+import com.google.gson.Gson;
+import json.JsonCodecs;
+import model.GameData;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.ServerMessage;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares the throughput and allocation of {@link JsonCodecs} with reflective Gson on a
+ * game and a load-game message. Timing and allocation counts vary with the JVM and the
+ * machine, so this only prints them; {@link JsonCodecTests} checks the codecs' output.
+ * <p>
+ * Run from the test classpath: {@code java -cp <test classpath> passoff.server.JsonCodecBenchmark [iterations]}.
+ */
+public class JsonCodecBenchmark {
+
+    private record Run(double perSecond, long bytesPerOp) {
+    }
+
+    private interface Op {
+        void run() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Gson reflective = new Gson();
+        Gson codecs = JsonCodecs.gson();
+        GameData game = new GameData(7, "white", "black", "game", JsonCodecTests.playedGame());
+        LoadGameMessage message = new LoadGameMessage(JsonCodecTests.playedGame());
+
+        Run reflectiveRun = measure(iterations, () -> {
+            reflective.fromJson(reflective.toJson(game), GameData.class);
+            reflective.fromJson(reflective.toJson(message), ServerMessage.class);
+        });
+        Run codecRun = measure(iterations, () -> {
+            codecs.fromJson(codecs.toJson(game), GameData.class);
+            codecs.fromJson(codecs.toJson(message), ServerMessage.class);
+        });
+
+        System.out.printf("JSON reflective: %,.0f round trips/s, %,d bytes/round trip%n",
+                reflectiveRun.perSecond(), reflectiveRun.bytesPerOp());
+        System.out.printf("JSON codecs:     %,.0f round trips/s, %,d bytes/round trip%n",
+                codecRun.perSecond(), codecRun.bytesPerOp());
+    }
+
+    private static Run measure(int iterations, Op op) throws Exception {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadID = Thread.currentThread().threadId();
+        for (int i = 0; i < iterations / 2; i++) {
+            op.run();
+        }
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadID);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            op.run();
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadID) - allocatedBefore;
+        return new Run(iterations * 1e9 / nanos, allocated / iterations);
+    }
+}
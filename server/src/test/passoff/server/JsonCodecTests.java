@@ -0,0 +1,86 @@
+package passoff.server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import json.JsonCodecs;
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+import model.UserData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import websocket.commands.ConnectCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.ServerMessage;
+import websocket.messages.ServerMessageError;
+import websocket.messages.ServerMessageNotification;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonCodecTests {
+
+    private static final ChessMove PROMOTION =
+            new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN);
+
+    private final Gson reflective = new Gson();
+    private final Gson codecs = JsonCodecs.gson();
+
+    static ChessGame playedGame() throws Exception {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+        game.makeMove(new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 4), null));
+        game.setGameOver(true);
+        return game;
+    }
+
+    @Test
+    @DisplayName("Codecs Match Reflective JSON")
+    void testWireCompatibility() throws Exception {
+        ChessGame game = playedGame();
+        List<Object> values = List.of(
+                game,
+                PROMOTION,
+                new GameData(7, "white", null, "game", game),
+                new GameSummary(7, null, "black", "game"),
+                new AuthData("user", "token"),
+                new UserData("user", "password", "user@mail.com"),
+                new ConnectCommand("token", 7, ChessGame.TeamColor.BLACK),
+                new MakeMoveCommand("token", 7, PROMOTION),
+                new UserGameCommand(UserGameCommand.CommandType.RESIGN, "token", 7),
+                new LoadGameMessage(game),
+                new ServerMessageError("Error: bad move"),
+                new ServerMessageNotification("white moved"));
+
+        for (Object value : values) {
+            String expected = reflective.toJson(value);
+            String actual = codecs.toJson(value);
+            assertEquals(JsonParser.parseString(expected), JsonParser.parseString(actual),
+                    "Codec JSON should match reflection for " + value.getClass().getSimpleName());
+            Object decoded = codecs.fromJson(expected, value.getClass());
+            assertEquals(JsonParser.parseString(expected), JsonParser.parseString(codecs.toJson(decoded)),
+                    "Reflective JSON should read back for " + value.getClass().getSimpleName());
+        }
+
+        ChessGame decoded = codecs.fromJson(reflective.toJson(game), ChessGame.class);
+        assertEquals(game, decoded, "Game should survive the round trip");
+        assertEquals(game.getPly(), decoded.getPly(), "Ply should survive the round trip");
+        assertTrue(decoded.isGameOver(), "Game over flag should survive the round trip");
+
+        UserGameCommand command = codecs.fromJson(codecs.toJson(new MakeMoveCommand("token", 7, PROMOTION)),
+                UserGameCommand.class);
+        assertInstanceOf(MakeMoveCommand.class, command, "Commands should read into their subclass");
+        assertEquals(PROMOTION, ((MakeMoveCommand) command).getMove(), "Move should survive the round trip");
+        assertInstanceOf(ServerMessageError.class,
+                codecs.fromJson(codecs.toJson(new ServerMessageError("x")), ServerMessage.class),
+                "Messages should read into their subclass");
+    }
+}
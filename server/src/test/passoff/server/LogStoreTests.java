@@ -0,0 +1,200 @@
+package passoff.server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import dataaccess.DataAccessException;
+import dataaccess.LogStructuredDataAccess;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogStoreTests {
+
+    @TempDir
+    Path directory;
+
+    private LogStructuredDataAccess store;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() throws DataAccessException {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Records Survive Restart")
+    void testRecordsSurviveRestart() throws DataAccessException, InvalidMoveException {
+        store.createUser(new UserData("player", "pass", "p@mail"));
+        store.createAuth(new AuthData("player", "token"));
+        store.createAuth(new AuthData("player", "gone"));
+        store.deleteAuth("gone");
+        int gameID = store.createGame(new GameData(0, null, null, "persisted", new ChessGame()));
+        assertTrue(store.claimSeat(gameID, ChessGame.TeamColor.WHITE, "player"), "Empty seat should be claimed");
+
+        ChessGame game = new ChessGame();
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        game.makeMove(move);
+        store.appendMove(gameID, 1, move, game);
+
+        store.close();
+        store = open();
+
+        assertNotNull(store.getUser("player"), "User should be recovered");
+        assertEquals("player", store.getAuth("token").username(), "Auth token should be recovered");
+        assertNull(store.getAuth("gone"), "Deleted token should stay deleted");
+        GameData stored = store.getGame(gameID);
+        assertEquals("player", stored.whiteUsername(), "Claimed seat should be recovered");
+        assertEquals(game, stored.game(), "Game state should be recovered");
+        assertEquals(List.of(move), store.getMoves(gameID, 0, 10), "Move log should be recovered");
+        assertEquals(gameID + 1, store.createGame(new GameData(0, null, null, "next", new ChessGame())),
+                "Game IDs should continue after recovery");
+    }
+
+    @Test
+    @DisplayName("Moves Append Without Rewriting The Game")
+    void testMovesRebuildFromLog() throws Exception {
+        int gameID = store.createGame(new GameData(0, "white", "black", "logged", new ChessGame()));
+        long before = store.stats().totalBytes();
+        store.updateGame(gameID, new GameData(gameID, "white", "black", "logged", new ChessGame()));
+        long gameRecord = store.stats().totalBytes() - before;
+
+        List<ChessMove> moves = MoveSequenceCodecTests.randomGame(7, 20);
+        ChessGame game = new ChessGame();
+        ChessGame halfway = null;
+        before = store.stats().totalBytes();
+        for (int ply = 1; ply <= moves.size(); ply++) {
+            game.makeMove(moves.get(ply - 1));
+            store.appendMove(gameID, ply, moves.get(ply - 1), game);
+            if (ply == 10) {
+                halfway = store.getGame(gameID).game();
+            }
+        }
+        assertTrue(store.stats().totalBytes() - before < moves.size() * gameRecord,
+                "Moves should not rewrite the game record");
+        assertEquals(game, store.getGame(gameID).game(), "The position should be rebuilt from the snapshot and moves");
+
+        // Un abandono escrito desde una copia atrasada no debe perder los movimientos posteriores
+        halfway.setGameOver(true);
+        store.updateGame(gameID, new GameData(gameID, "white", "black", "logged", halfway));
+        store.close();
+        store = open();
+        ChessGame stored = store.getGame(gameID).game();
+        assertEquals(game.getBoard(), stored.getBoard(), "Moves after the stored state should be replayed");
+        assertTrue(stored.isGameOver(), "The resignation should be kept");
+        assertEquals(0, store.listUnfinishedGameIDs(10).length, "The game should be listed as finished");
+    }
+
+    @Test
+    @DisplayName("Torn Tail Is Discarded")
+    void testTornTailDiscarded() throws DataAccessException, IOException {
+        store.createAuth(new AuthData("player", "kept"));
+        store.createAuth(new AuthData("player", "torn"));
+        store.close();
+
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(p -> p.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        store = open();
+        assertNotNull(store.getAuth("kept"), "Complete records should be recovered");
+        assertNull(store.getAuth("torn"), "A half-written record should be dropped");
+        store.createAuth(new AuthData("player", "after"));
+        assertNotNull(store.getAuth("after"), "Writes should continue after the cut");
+    }
+
+    @Test
+    @DisplayName("Compaction Keeps Live Records")
+    void testCompaction() throws DataAccessException {
+        int gameID = store.createGame(new GameData(0, null, null, "churn", new ChessGame()));
+        for (int i = 0; i < 2_000; i++) {
+            store.updateGame(gameID, new GameData(gameID, "white" + i, null, "churn", new ChessGame()));
+            store.createAuth(new AuthData("player", "token" + i));
+            if (i % 2 == 0) {
+                store.deleteAuth("token" + i);
+            }
+        }
+        long before = store.stats().totalBytes();
+        store.compact();
+
+        assertTrue(store.stats().totalBytes() < before / 2, "Compaction should reclaim overwritten records");
+        assertEquals("white1999", store.getGame(gameID).whiteUsername(), "Latest game record should survive");
+        assertNull(store.getAuth("token0"), "Deleted tokens should stay deleted");
+        assertNotNull(store.getAuth("token1"), "Live tokens should survive");
+
+        store.close();
+        store = open();
+        assertEquals("white1999", store.getGame(gameID).whiteUsername(), "Compacted store should recover");
+        assertNull(store.getAuth("token1998"), "Tombstones dropped by compaction should not resurrect tokens");
+        assertNotNull(store.getAuth("token1999"), "Live tokens should recover after compaction");
+    }
+
+    @Test
+    @DisplayName("Writes Are Synced Within The Sync Interval")
+    void testSyncInterval() throws Exception {
+        store.createGame(new GameData(0, null, null, "unsynced", new ChessGame()));
+        Thread.sleep(100);
+        assertEquals(0, store.stats().syncs(), "Without an interval writes wait for rollover or close");
+
+        store.close();
+        store = open(20);
+        assertEquals(0, store.stats().syncs(), "An idle store has nothing to sync");
+        for (int i = 0; i < 10; i++) {
+            store.createAuth(new AuthData("player", "token" + i));
+        }
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (store.stats().syncs() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        long synced = store.stats().syncs();
+        assertTrue(synced >= 1, "Acknowledged writes should be synced shortly after the interval");
+        assertTrue(synced < 10, "One sync should cover the writes made within an interval");
+        Thread.sleep(100);
+        assertEquals(synced, store.stats().syncs(), "Nothing written means nothing to sync");
+    }
+
+    @Test
+    @DisplayName("Clear Empties Store")
+    void testClear() throws DataAccessException {
+        store.createUser(new UserData("player", "pass", "p@mail"));
+        store.createGame(new GameData(0, null, null, "cleared", new ChessGame()));
+        store.clear();
+        assertNull(store.getUser("player"), "Users should be cleared");
+        assertEquals(0, store.getAllGames().length, "Games should be cleared");
+        assertEquals(1, store.createGame(new GameData(0, null, null, "first", new ChessGame())),
+                "Game IDs should restart");
+    }
+
+    private LogStructuredDataAccess open() throws DataAccessException {
+        return open(0);
+    }
+
+    private LogStructuredDataAccess open(long syncIntervalMillis) throws DataAccessException {
+        return new LogStructuredDataAccess(new LogStructuredDataAccess.Config(directory, 16 * 1024, 0.3, 60_000, false,
+                syncIntervalMillis));
+    }
+}
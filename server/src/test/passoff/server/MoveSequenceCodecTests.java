@@ -0,0 +1,166 @@
+package passoff.server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import dataaccess.DataAccessException;
+import dataaccess.GameArchiveCodec;
+import dataaccess.MoveSequenceCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveSequenceCodecTests {
+
+    /**
+     * Plays random legal moves from the starting position until the game ends or
+     * {@code plies} moves have been made.
+     */
+    static List<ChessMove> randomGame(long seed, int plies) throws Exception {
+        Random random = new Random(seed);
+        ChessGame game = new ChessGame();
+        List<ChessMove> moves = new ArrayList<>();
+        for (int ply = 0; ply < plies; ply++) {
+            List<ChessMove> legal = new ArrayList<>();
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    ChessPosition square = new ChessPosition(row, col);
+                    ChessPiece piece = game.getBoard().getPiece(square);
+                    if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                        legal.addAll(game.validMoves(square));
+                    }
+                }
+            }
+            if (legal.isEmpty()) {
+                break;
+            }
+            ChessMove move = legal.get(random.nextInt(legal.size()));
+            game.makeMove(move);
+            moves.add(move);
+        }
+        return moves;
+    }
+
+    @Test
+    @DisplayName("Move Sequences Round Trip In About A Byte Per Move")
+    void testRoundTrip() throws Exception {
+        long moveCount = 0;
+        long bytes = 0;
+        for (long seed = 1; seed <= 20; seed++) {
+            List<ChessMove> moves = randomGame(seed, 120);
+            ChessGame game = new ChessGame();
+            for (ChessMove move : moves) {
+                game.makeMove(move);
+            }
+
+            byte[] encoded = MoveSequenceCodec.encode(moves);
+            MoveSequenceCodec.Replay replay = MoveSequenceCodec.decode(encoded);
+            assertEquals(moves, replay.moves(), "Moves should survive the round trip in order");
+            assertEquals(game, replay.game(), "Replaying should reach the final position");
+            assertEquals(moves.size(), replay.game().getPly(), "Replaying should count the plies");
+            moveCount += moves.size();
+            bytes += encoded.length;
+        }
+        assertEquals(0, MoveSequenceCodec.decode(MoveSequenceCodec.encode(List.of())).moves().size(),
+                "An empty game should round trip");
+        assertTrue(bytes <= moveCount, "Expected at most a byte per move, got " + bytes + " bytes for "
+                + moveCount + " moves");
+
+        List<ChessMove> illegal = List.of(new ChessMove(new ChessPosition(2, 5), new ChessPosition(5, 5), null));
+        assertThrows(IllegalArgumentException.class, () -> MoveSequenceCodec.encode(illegal),
+                "Illegal moves cannot be encoded");
+        assertThrows(DataAccessException.class, () -> MoveSequenceCodec.decode(new byte[]{0}),
+                "Truncated sequences should be rejected");
+    }
+
+    @Test
+    @DisplayName("Codec Move Rules Match ChessGame")
+    void testLegalMovesMatchGame() throws Exception {
+        int positions = 0;
+        for (long seed = 1; seed <= 40; seed++) {
+            List<ChessMove> moves = randomGame(seed, 200);
+            ChessGame game = new ChessGame();
+            for (int ply = 0; ply <= moves.size(); ply++) {
+                Set<ChessMove> expected = new HashSet<>();
+                for (int row = 1; row <= 8; row++) {
+                    for (int col = 1; col <= 8; col++) {
+                        ChessPosition square = new ChessPosition(row, col);
+                        ChessPiece piece = game.getBoard().getPiece(square);
+                        if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                            expected.addAll(game.validMoves(square));
+                        }
+                    }
+                }
+                List<ChessMove> legal = MoveSequenceCodec.legalMoves(moves.subList(0, ply));
+                assertEquals(legal.size(), new HashSet<>(legal).size(),
+                        "Codec listed a move twice (game " + seed + ", ply " + ply + ")");
+                assertEquals(expected, new HashSet<>(legal),
+                        "Codec and ChessGame disagree on legal moves (game " + seed + ", ply " + ply + ")");
+                if (ply < moves.size()) {
+                    game.makeMove(moves.get(ply));
+                }
+                positions++;
+            }
+        }
+        assertTrue(positions > 4_000, "Expected many positions to be compared, got " + positions);
+    }
+
+    @Test
+    @DisplayName("Archives Store Replayable Games As Move Sequences")
+    void testArchiveUsesMoveSequence() throws Exception {
+        List<ChessMove> moves = randomGame(7, 60);
+        ChessGame game = new ChessGame();
+        for (ChessMove move : moves) {
+            game.makeMove(move);
+        }
+        game.setGameOver(true);
+
+        byte[] archived = GameArchiveCodec.encode(game, moves);
+        assertEquals(GameArchiveCodec.VERSION_2, archived[0], "Replayable games should use the move sequence");
+        GameArchiveCodec.Contents decoded = GameArchiveCodec.decode(archived);
+        assertEquals(moves, decoded.moves(), "Moves should survive the archive");
+        assertEquals(game, decoded.game(), "Final position should survive the archive");
+        assertTrue(decoded.game().isGameOver(), "Game over flag should be kept");
+
+        ChessGame edited = new ChessGame();
+        edited.setTeamTurn(ChessGame.TeamColor.BLACK);
+        GameArchiveCodec.Contents fallback = GameArchiveCodec.decode(GameArchiveCodec.encode(edited, List.of()));
+        assertEquals(edited, fallback.game(), "Positions the moves do not reach should still be archived");
+    }
+
+    @Test
+    @DisplayName("Move Sequences Decode Thousands Of Games Per Second")
+    void testDecodeThroughput() throws Exception {
+        List<byte[]> games = new ArrayList<>();
+        long moveCount = 0;
+        for (long seed = 1; seed <= 50; seed++) {
+            List<ChessMove> moves = randomGame(seed, 80);
+            moveCount += moves.size();
+            games.add(MoveSequenceCodec.encode(moves));
+        }
+        for (int i = 0; i < 5; i++) {
+            for (byte[] game : games) {
+                MoveSequenceCodec.decode(game);
+            }
+        }
+        int rounds = 10;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            for (byte[] game : games) {
+                MoveSequenceCodec.decode(game);
+            }
+        }
+        double perSecond = rounds * games.size() * 1e9 / (System.nanoTime() - start);
+        System.out.printf("Move sequences: %,.0f games/s decoded, %.1f moves per game%n",
+                perSecond, (double) moveCount / games.size());
+        assertTrue(perSecond >= 1_000, "Expected thousands of games per second, got " + perSecond);
+    }
+}
@@ -4,15 +4,28 @@ import chess.ChessBoard;
 import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPosition;
+import dataaccess.ConnectionPool;
+import dataaccess.DataAccess;
 import dataaccess.DataAccessException;
+import dataaccess.DatabaseManager;
+import dataaccess.GameFilter;
+import dataaccess.GameWrite;
 import dataaccess.MySQLDataAccess;
+import dataaccess.ShardedDataAccess;
 import model.AuthData;
 import model.GameData;
+import model.GameSummary;
 import model.UserData;
 import org.junit.jupiter.api.*;
 import org.mindrot.jbcrypt.BCrypt;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -281,11 +294,18 @@ public class MySQLDataAccessTests {
 
     @Test
     @Order(21)
-    @DisplayName("Generate Game ID Success")
-    public void generateGameIDSuccess() throws DataAccessException {
-        int gameID = dataAccess.generateGameID();
-        assertTrue(gameID != 0, "Generated gameID should be positive");
-        assertNull(dataAccess.getGame(gameID), "Generated ID should not create a game");
+    @DisplayName("Create Game Assigns Distinct IDs And Stores The State")
+    public void createGameAssignsIDs() throws Exception {
+        ChessGame started = new ChessGame();
+        started.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        int first = dataAccess.createGame(new GameData(0, null, null, TEST_GAME_NAME, new ChessGame()));
+        int second = dataAccess.createGame(new GameData(0, null, null, TEST_GAME_NAME + "2", started));
+        assertTrue(first > 0 && second > 0, "Generated gameIDs should be positive");
+        assertNotEquals(first, second, "Each game should get its own ID");
+        assertEquals(TEST_GAME_NAME + "2", dataAccess.getGame(second).gameName(), "IDs should find their game");
+        assertEquals(started, dataAccess.getGame(second).game(), "The binary state should read back as written");
+        assertEquals(ChessGame.TeamColor.BLACK, dataAccess.getGame(second).game().getTeamTurn(),
+                "The side to move should be stored");
     }
 
     @Test
@@ -316,4 +336,267 @@ public class MySQLDataAccessTests {
         assertEquals(0, dataAccess.getAllGames().length, "Games should be cleared");
     }
 
+    @Test
+    @Order(24)
+    @DisplayName("Claim Seat Bumps Version Only When Free")
+    public void claimSeat() throws DataAccessException {
+        dataAccess.createUser(new UserData(TEST_USERNAME, TEST_PASSWORD, TEST_EMAIL));
+        dataAccess.createUser(new UserData("otherUser", TEST_PASSWORD, "other@example.com"));
+        int gameID = dataAccess.createGame(new GameData(0, null, null, TEST_GAME_NAME, new ChessGame()));
+        long initial = dataAccess.getVersionedGame(gameID).version();
+
+        assertTrue(dataAccess.claimSeat(gameID, ChessGame.TeamColor.WHITE, TEST_USERNAME), "Free seat should be claimed");
+        assertEquals(initial + 1, dataAccess.getVersionedGame(gameID).version(),
+                "Claiming a free seat should bump the version");
+        assertTrue(dataAccess.claimSeat(gameID, ChessGame.TeamColor.WHITE, TEST_USERNAME),
+                "Reclaiming one's own seat should succeed");
+        assertFalse(dataAccess.claimSeat(gameID, ChessGame.TeamColor.WHITE, "otherUser"),
+                "A seat held by another player should not be taken");
+        assertEquals(initial + 1, dataAccess.getVersionedGame(gameID).version(),
+                "Claims that change nothing should keep the version");
+        assertEquals(TEST_USERNAME, dataAccess.getGame(gameID).whiteUsername(), "The first player should keep the seat");
+        assertThrows(DataAccessException.class,
+                () -> dataAccess.claimSeat(999, ChessGame.TeamColor.BLACK, TEST_USERNAME),
+                "Claiming a seat in a nonexistent game should throw");
+    }
+
+    @Test
+    @Order(25)
+    @DisplayName("Moves On Finished Games Are Refused")
+    public void finishedGameMoves() throws Exception {
+        dataAccess.createUser(new UserData(TEST_USERNAME, TEST_PASSWORD, TEST_EMAIL));
+        int gameID = dataAccess.createGame(new GameData(0, TEST_USERNAME, TEST_USERNAME, TEST_GAME_NAME, new ChessGame()));
+
+        ChessGame game = playFoolsMate(gameID);
+        GameData stored = dataAccess.getGame(gameID);
+        assertTrue(stored.game().isGameOver(), "Checkmate should finish the stored game");
+        assertEquals(game.getBoard(), stored.game().getBoard(), "The final position should be stored");
+
+        ChessMove late = new ChessMove(new ChessPosition(2, 1), new ChessPosition(3, 1), null);
+        DataAccessException conflict = assertThrows(DataAccessException.class,
+                () -> dataAccess.appendMove(gameID, 5, late, new ChessGame()),
+                "Moves on a finished game should be refused");
+        assertEquals("Move conflict", conflict.getMessage(), "The refusal should report a move conflict");
+        assertEquals(4, dataAccess.getMoves(gameID, 0, Integer.MAX_VALUE).size(), "The refused move should not be logged");
+    }
+
+    @Test
+    @Order(26)
+    @DisplayName("Finished Games Archive With Their Moves")
+    public void archiveFinishedGames() throws Exception {
+        dataAccess.createUser(new UserData(TEST_USERNAME, TEST_PASSWORD, TEST_EMAIL));
+        int finished = dataAccess.createGame(new GameData(0, TEST_USERNAME, null, TEST_GAME_NAME, new ChessGame()));
+        int live = dataAccess.createGame(new GameData(0, TEST_USERNAME, null, TEST_GAME_NAME + "2", new ChessGame()));
+        ChessGame game = playFoolsMate(finished);
+
+        assertEquals(1, dataAccess.archiveFinishedGames(Long.MAX_VALUE, 10), "Only the finished game should be archived");
+        assertEquals(0, dataAccess.archiveFinishedGames(Long.MAX_VALUE, 10), "Archived games should not be archived twice");
+
+        GameData[] liveGames = dataAccess.getAllGames();
+        assertEquals(1, liveGames.length, "The archived game should leave the live table");
+        assertEquals(live, liveGames[0].gameID(), "The unfinished game should stay live");
+
+        GameData archived = dataAccess.getGame(finished);
+        assertNotNull(archived, "Archived games should still be readable");
+        assertTrue(archived.game().isGameOver(), "Archived games should stay finished");
+        assertEquals(game.getBoard(), archived.game().getBoard(), "The final position should be archived");
+        assertEquals(4, dataAccess.getMoves(finished, 0, Integer.MAX_VALUE).size(), "Archived moves should be readable");
+        assertEquals(2, dataAccess.getMoves(finished, 1, 3).size(), "Archived moves should be readable by range");
+        assertTrue(Arrays.stream(dataAccess.listGameSummaries()).anyMatch(g -> g.gameID() == finished),
+                "Archived games should still be listed");
+    }
+
+    @Test
+    @Order(27)
+    @DisplayName("Keyset Listing Pages Live And Archived Games")
+    public void keysetListing() throws Exception {
+        dataAccess.createUser(new UserData(TEST_USERNAME, TEST_PASSWORD, TEST_EMAIL));
+        dataAccess.createUser(new UserData("otherUser", TEST_PASSWORD, "other@example.com"));
+        List<Integer> mine = new ArrayList<>();
+        mine.add(dataAccess.createGame(new GameData(0, TEST_USERNAME, null, "white", new ChessGame())));
+        dataAccess.createGame(new GameData(0, "otherUser", null, "other", new ChessGame()));
+        mine.add(dataAccess.createGame(new GameData(0, null, TEST_USERNAME, "black", new ChessGame())));
+        mine.add(dataAccess.createGame(new GameData(0, TEST_USERNAME, TEST_USERNAME, "both", new ChessGame())));
+        dataAccess.createGame(new GameData(0, "otherUser", "otherUser", "full", new ChessGame()));
+        int archived = dataAccess.createGame(new GameData(0, TEST_USERNAME, "otherUser", "archived", new ChessGame()));
+        mine.add(archived);
+        playFoolsMate(archived);
+        assertEquals(1, dataAccess.archiveFinishedGames(Long.MAX_VALUE, 10), "The finished game should be archived");
+
+        List<Integer> paged = new ArrayList<>();
+        int cursor = 0;
+        GameSummary[] page;
+        do {
+            page = dataAccess.listGameSummaries(cursor, 2, new GameFilter(false, TEST_USERNAME));
+            assertTrue(page.length <= 2, "Pages should respect the limit");
+            for (GameSummary summary : page) {
+                paged.add(summary.gameID());
+                cursor = summary.gameID();
+            }
+        } while (page.length == 2);
+        assertEquals(mine, paged, "Player listing should page through both seats and the archive once, in ID order");
+
+        List<String> open = new ArrayList<>();
+        for (GameSummary summary : dataAccess.listGameSummaries(0, 10, new GameFilter(true, null))) {
+            open.add(summary.gameName());
+        }
+        assertEquals(List.of("white", "other", "black"), open, "Only games with a free seat should be listed as open");
+        assertEquals(6, dataAccess.listGameSummaries(0, 10, GameFilter.NONE).length,
+                "The unfiltered listing should include archived games");
+        assertEquals(0, dataAccess.listGameSummaries(archived, 10, GameFilter.NONE).length,
+                "Nothing should come after the last game");
+        assertEquals(3, dataAccess.countActiveGamesForUser(TEST_USERNAME),
+                "Only the player's unfinished games should count as active");
+        assertEquals(0, dataAccess.countActiveGamesForUser("nobody"), "Players without games have none active");
+    }
+
+    @Test
+    @Order(28)
+    @DisplayName("Migrations Are Recorded And Run Once")
+    public void migrationsRunOnce() throws Exception {
+        String database = DatabaseManager.getProperty("db.name", "chess");
+        try (ConnectionPool pool = DatabaseManager.openPool(database)) {
+            int[] before = schemaVersions(pool);
+            assertTrue(before[1] > 0, "Migrations should be recorded");
+            assertEquals(before[1], before[0], "Every migration should be recorded once");
+
+            new MySQLDataAccess();
+            assertArrayEquals(before, schemaVersions(pool), "Starting again should not rerun migrations");
+        }
+    }
+
+    @Test
+    @Order(29)
+    @DisplayName("Shards Store Games For Users Of The Primary")
+    public void shardSchemas() throws Exception {
+        String database = DatabaseManager.getProperty("db.name", "chess");
+        List<DataAccess> shards = List.of(MySQLDataAccess.shard(database + "_shard_test0"),
+                MySQLDataAccess.shard(database + "_shard_test1"));
+        try (ShardedDataAccess sharded = new ShardedDataAccess(dataAccess, shards)) {
+            for (DataAccess shard : shards) {
+                shard.clear();
+            }
+            sharded.createUser(new UserData(TEST_USERNAME, TEST_PASSWORD, TEST_EMAIL));
+            assertNotNull(dataAccess.getUser(TEST_USERNAME), "Users should stay on the primary");
+
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                ids.add(sharded.createGame(new GameData(0, TEST_USERNAME, null, TEST_GAME_NAME + i, new ChessGame())));
+            }
+            for (DataAccess shard : shards) {
+                assertEquals(2, shard.getAllGames().length, "Games should be spread across the shards");
+            }
+            assertEquals(0, dataAccess.getAllGames().length, "Games should not be stored on the primary");
+
+            int gameID = ids.get(1);
+            assertTrue(sharded.claimSeat(gameID, ChessGame.TeamColor.BLACK, TEST_USERNAME),
+                    "Seats should be claimed on the owning shard without a local user row");
+            assertEquals(TEST_USERNAME, sharded.getGame(gameID).blackUsername(), "The claim should be stored");
+            assertEquals(4, sharded.listGameSummaries().length, "Listings should span the shards");
+            for (DataAccess shard : shards) {
+                shard.clear();
+            }
+        }
+    }
+
+    @Test
+    @Order(30)
+    @DisplayName("Move Log Accepts Only The Next Ply And Replays From Snapshots")
+    public void moveLogOrder() throws Exception {
+        int gameID = dataAccess.createGame(new GameData(0, null, null, TEST_GAME_NAME, new ChessGame()));
+        List<ChessMove> moves = MoveSequenceCodecTests.randomGame(3, DataAccess.SNAPSHOT_INTERVAL + 4);
+        assertEquals(DataAccess.SNAPSHOT_INTERVAL + 4, moves.size(), "The random game should not end early");
+
+        ChessGame game = new ChessGame();
+        for (int ply = 1; ply <= moves.size(); ply++) {
+            game.makeMove(moves.get(ply - 1));
+            dataAccess.appendMove(gameID, ply, moves.get(ply - 1), game);
+        }
+        int last = moves.size();
+        ChessMove any = moves.getFirst();
+
+        DataAccessException duplicate = assertThrows(DataAccessException.class,
+                () -> dataAccess.appendMove(gameID, last, any, game), "A ply already logged should be refused");
+        assertEquals("Move conflict", duplicate.getMessage(), "A duplicate ply should report a move conflict");
+        DataAccessException gap = assertThrows(DataAccessException.class,
+                () -> dataAccess.appendMove(gameID, last + 2, any, game), "A ply past the next one should be refused");
+        assertEquals("Move conflict", gap.getMessage(), "A gap should report a move conflict");
+        DataAccessException batchGap = assertThrows(DataAccessException.class,
+                () -> dataAccess.applyGameWrites(List.of(new GameWrite.MoveWrite(gameID, last + 2, any, game))),
+                "Batched writes should not leave a gap either");
+        assertEquals("Move conflict", batchGap.getMessage(), "A batched gap should report a move conflict");
+        assertEquals(last, dataAccess.getMoves(gameID, 0, Integer.MAX_VALUE).size(), "Refused moves should not be logged");
+
+        assertEquals(DataAccess.SNAPSHOT_INTERVAL, dataAccess.getSnapshot(gameID, last).getPly(),
+                "A snapshot should be taken at the interval");
+        assertEquals(game, dataAccess.getGame(gameID).game(),
+                "Loading should replay the moves after the snapshot onto it");
+    }
+
+    @Test
+    @Order(31)
+    @DisplayName("Games And Moves Are Created Together Or Not At All")
+    public void createGamesWithMoves() throws Exception {
+        ChessMove e4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        ChessGame after = new ChessGame();
+        after.makeMove(e4);
+        after.setGameOver(true);
+
+        int[] gameIDs = dataAccess.createGamesWithMoves(List.of(new GameData(0, null, null, "imported", after)),
+                List.of(List.of(new GameWrite.MoveWrite(0, 1, e4, after))));
+        assertEquals(List.of(e4), dataAccess.getMoves(gameIDs[0], 0, Integer.MAX_VALUE), "The moves should be stored");
+        assertTrue(dataAccess.getGame(gameIDs[0]).game().isGameOver(), "The last move should finish the game");
+
+        // La segunda partida deja un hueco en su registro: la transacción entera se deshace
+        assertThrows(DataAccessException.class, () -> dataAccess.createGamesWithMoves(
+                List.of(new GameData(0, null, null, "whole", after), new GameData(0, null, null, "broken", after)),
+                List.of(List.of(new GameWrite.MoveWrite(0, 1, e4, after)),
+                        List.of(new GameWrite.MoveWrite(0, 2, e4, after)))),
+                "A broken move log should fail the import");
+        assertEquals(1, dataAccess.getAllGames().length, "A failed import should not leave games behind");
+    }
+
+    @Test
+    @Order(32)
+    @DisplayName("Warm-Up Lists Unfinished Games Newest First")
+    public void unfinishedGames() throws Exception {
+        int older = dataAccess.createGame(new GameData(0, null, null, TEST_GAME_NAME, new ChessGame()));
+        int finished = dataAccess.createGame(new GameData(0, null, null, TEST_GAME_NAME + "2", new ChessGame()));
+        int newer = dataAccess.createGame(new GameData(0, null, null, TEST_GAME_NAME + "3", new ChessGame()));
+        playFoolsMate(finished);
+
+        assertArrayEquals(new int[]{newer, older}, dataAccess.listUnfinishedGameIDs(10),
+                "Only unfinished games should be warmed up, newest first");
+        assertArrayEquals(new int[]{newer}, dataAccess.listUnfinishedGameIDs(1), "The limit should be respected");
+    }
+
+    private static ChessGame playFoolsMate(int gameID) throws Exception {
+        List<ChessMove> moves = List.of(
+                new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null),
+                new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null),
+                new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null),
+                new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+        ChessGame game = new ChessGame();
+        for (int ply = 1; ply <= moves.size(); ply++) {
+            game.makeMove(moves.get(ply - 1));
+            if (ply == moves.size()) {
+                assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE), "Fool's mate should be checkmate");
+                game.setGameOver(true);
+            }
+            dataAccess.appendMove(gameID, ply, moves.get(ply - 1), game);
+        }
+        return game;
+    }
+
+    /**
+     * @return the number of recorded migrations and the highest version
+     */
+    private static int[] schemaVersions(ConnectionPool pool) throws DataAccessException, SQLException {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*), MAX(version) FROM schema_version")) {
+            assertTrue(rs.next(), "The version table should answer");
+            return new int[]{rs.getInt(1), rs.getInt(2)};
+        }
+    }
+
 }
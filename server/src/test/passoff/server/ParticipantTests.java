@@ -0,0 +1,116 @@
+package passoff.server;
+
+import chess.ChessGame;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.ForwardingDataAccess;
+import dataaccess.LogStructuredDataAccess;
+import dataaccess.MemoryDataAccess;
+import dataaccess.Participant;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.GameService;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParticipantTests {
+
+    @TempDir
+    Path directory;
+
+    private MemoryDataAccess dataAccess;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        dataAccess = new MemoryDataAccess();
+        for (String name : List.of("white", "black", "watcher")) {
+            dataAccess.createUser(new UserData(name, "pass", name + "@mail"));
+            dataAccess.createAuth(new AuthData(name, name + "Token"));
+        }
+    }
+
+    @Test
+    @DisplayName("Join, Connect And Leave Maintain Participants")
+    void testMembershipLifecycle() throws DataAccessException {
+        GameService gameService = new GameService(dataAccess);
+        int gameID = gameService.createGame("whiteToken", "members").gameID();
+
+        gameService.joinGame("whiteToken", gameID, "WHITE");
+        gameService.joinGame("blackToken", gameID, "BLACK");
+        gameService.connect(gameID, "watcherToken");
+
+        assertEquals(Participant.Role.WHITE, dataAccess.getParticipantRole(gameID, "white"), "White should be stored as a player");
+        assertEquals(Participant.Role.BLACK, dataAccess.getParticipantRole(gameID, "black"), "Black should be stored as a player");
+        assertTrue(dataAccess.isObserver(gameID, "watcher"), "Connecting without a seat should make an observer");
+        assertFalse(dataAccess.isObserver(gameID, "white"), "Players are not observers");
+        assertEquals(3, dataAccess.getParticipants(gameID).size(), "Three users take part");
+
+        gameService.leaveGame(gameID, "watcherToken");
+        gameService.leaveGame(gameID, "blackToken");
+        assertNull(dataAccess.getParticipantRole(gameID, "watcher"), "Observer should be removed on leave");
+        assertNull(dataAccess.getParticipantRole(gameID, "black"), "Player should be removed on leave");
+        assertNull(gameService.getRole(gameID, "black"), "Cached roles should follow leaves");
+    }
+
+    @Test
+    @DisplayName("Observer Check Never Loads The Board")
+    void testObserverCheckSkipsBoard() throws DataAccessException {
+        AtomicInteger gameReads = new AtomicInteger();
+        AtomicInteger participantReads = new AtomicInteger();
+        DataAccess counting = new ForwardingDataAccess(dataAccess) {
+            @Override
+            public GameData getGame(int gameID) throws DataAccessException {
+                gameReads.incrementAndGet();
+                return super.getGame(gameID);
+            }
+
+            @Override
+            public List<Participant> getParticipants(int gameID) throws DataAccessException {
+                participantReads.incrementAndGet();
+                return super.getParticipants(gameID);
+            }
+        };
+        int gameID = dataAccess.createGame(new GameData(0, null, null, "watched", new ChessGame()));
+        dataAccess.addParticipant(gameID, "watcher", Participant.Role.OBSERVER);
+        GameService gameService = new GameService(counting);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(gameService.isObserver(gameID, "watcher"), "Stored observer should be found");
+            assertFalse(gameService.isObserver(gameID, "white"), "Non-members are not observers");
+        }
+        assertEquals(0, gameReads.get(), "Membership checks should not load the game");
+        assertEquals(1, participantReads.get(), "Participants should be loaded once and then served from memory");
+    }
+
+    @Test
+    @DisplayName("Participants Survive Restart")
+    void testLogStoreParticipants() throws DataAccessException {
+        LogStructuredDataAccess store = new LogStructuredDataAccess(LogStructuredDataAccess.Config.defaults(directory));
+        int gameID = store.createGame(new GameData(0, null, null, "persisted", new ChessGame()));
+        store.addParticipant(gameID, "watcher", Participant.Role.OBSERVER);
+        long joinedAt = store.getParticipants(gameID).get(0).joinedAt();
+        store.addParticipant(gameID, "watcher", Participant.Role.WHITE);
+        store.addParticipant(gameID, "gone", Participant.Role.OBSERVER);
+        store.removeParticipant(gameID, "gone");
+        store.close();
+
+        try (LogStructuredDataAccess reopened = new LogStructuredDataAccess(LogStructuredDataAccess.Config.defaults(directory))) {
+            List<Participant> members = reopened.getParticipants(gameID);
+            assertEquals(1, members.size(), "Removed participants should stay removed");
+            assertEquals(Participant.Role.WHITE, members.get(0).role(), "Latest role should be kept");
+            assertEquals(joinedAt, members.get(0).joinedAt(), "A role change should keep the join time");
+
+            reopened.deleteAllGames();
+            assertTrue(reopened.getParticipants(gameID).isEmpty(), "Deleting games should drop their participants");
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package passoff.server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.ForwardingDataAccess;
+import dataaccess.GameWrite;
+import dataaccess.MemoryDataAccess;
+import model.GameData;
+import model.GameSummary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pgn.PgnExporter;
+import pgn.PgnGame;
+import pgn.PgnImporter;
+import pgn.PgnReader;
+import pgn.PgnWriter;
+import pgn.San;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgnTests {
+
+    private static final String TOURNAMENT = """
+            [Event "Club Open"]
+            [Site "?"]
+            [White "Ann"]
+            [Black "Bob"]
+            [Result "1-0"]
+
+            1. e4 {best by test} e5 2. Nf3 (2. f4 exf4) Nc6 3. Bc4 $1 Nf6?! 4. Ng5 d5
+            5. exd5 Nxd5 6. Nxf7 Kxf7 1-0
+
+            [Event "Club Open"]
+            [White "Cid"]
+            [Black "Dee"]
+            [Result "0-1"]
+
+            1. f3 e5 2. g4 Qh4# 0-1
+            [Event "Club Open"]
+            [White "Eve"]
+            [Black "Fay"]
+
+            1. e4 e5 2. Nf3 Nc6 3. Bc4 Bc5 4. O-O Nf6 *
+            """;
+
+    private static PgnImporter importer(MemoryDataAccess dataAccess) {
+        return new PgnImporter(dataAccess, new PgnImporter.Config(2, 2));
+    }
+
+    private static PgnImporter.Result importText(PgnImporter importer, String text) throws Exception {
+        return importer.importGames(Channels.newChannel(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    @DisplayName("SAN Round Trips Through The Game")
+    void testSanRoundTrip() throws Exception {
+        for (long seed = 1; seed <= 10; seed++) {
+            List<ChessMove> moves = MoveSequenceCodecTests.randomGame(seed, 150);
+            ChessGame writing = new ChessGame();
+            ChessGame reading = new ChessGame();
+            for (ChessMove move : moves) {
+                String san = San.write(writing, move);
+                assertEquals(move, San.read(reading, san), "SAN " + san + " should read back as the same move");
+            }
+            assertEquals(writing, reading, "Both games should reach the same position");
+        }
+
+        ChessGame game = new ChessGame();
+        assertEquals("e4", San.write(game, new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null)));
+        assertEquals(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null), San.read(game, "Nf6"),
+                "Piece moves should resolve to the only knight that can reach the square");
+        assertThrows(InvalidMoveException.class, () -> San.read(new ChessGame(), "Nd4"),
+                "Moves no piece can make should be rejected");
+        assertThrows(InvalidMoveException.class, () -> San.read(new ChessGame(), "O-O"),
+                "Castling is not part of the game");
+
+        ChessGame promotion = new ChessGame();
+        promotion.getBoard().addPiece(new ChessPosition(7, 1), new ChessPiece(ChessGame.TeamColor.WHITE,
+                ChessPiece.PieceType.PAWN));
+        promotion.getBoard().addPiece(new ChessPosition(8, 1), null);
+        promotion.getBoard().addPiece(new ChessPosition(8, 2), null);
+        assertEquals(new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.KNIGHT),
+                San.read(promotion, "a8=N"), "Promotions should keep the chosen piece");
+    }
+
+    @Test
+    @DisplayName("PGN Imports Through Batches And Exports Back")
+    void testImportExport() throws Exception {
+        MemoryDataAccess dataAccess = new MemoryDataAccess();
+        PgnImporter.Result imported = importText(importer(dataAccess), TOURNAMENT);
+        assertEquals(2, imported.games(), "Both replayable games should be imported");
+        assertEquals(1, imported.rejected(), "The castling game should be rejected");
+        assertEquals(16, imported.moves(), "Every move of the imported games should be logged");
+
+        GameSummary[] summaries = dataAccess.listGameSummaries();
+        assertEquals(2, summaries.length, "Imported games should be listed");
+        GameData first = dataAccess.getGame(summaries[0].gameID());
+        assertEquals("Ann - Bob, Club Open", first.gameName(), "Player names should go into the game name");
+        assertNull(first.whiteUsername(), "Imported players are not users");
+        assertTrue(first.game().isGameOver(), "Imported games should be finished");
+        assertEquals(12, dataAccess.getMoves(first.gameID(), 0, Integer.MAX_VALUE).size(),
+                "Variations and comments should not be imported");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PgnExporter.Result exported = new PgnExporter(dataAccess, 1).exportGames(Channels.newChannel(out));
+        assertEquals(2, exported.games(), "Every game should be exported");
+
+        PgnReader reader = new PgnReader(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+        PgnGame ann = PgnReader.parse(reader.nextGame());
+        PgnGame cid = PgnReader.parse(reader.nextGame());
+        assertNull(reader.nextGame(), "Only the exported games should be read back");
+        assertEquals(List.of("e4", "e5", "Nf3", "Nc6", "Bc4", "Nf6", "Ng5", "d5", "exd5", "Nxd5", "Nxf7", "Kxf7"),
+                ann.moves(), "Exported moves should be written in SAN");
+        assertEquals("Ann - Bob, Club Open", ann.tags().get("Event"), "The game name should be the event");
+        assertEquals(List.of("f3", "e5", "g4", "Qh4#"), cid.moves(), "Checkmate should be marked");
+        assertEquals("0-1", cid.result(), "Checkmate should decide the result");
+        assertEquals("0-1", cid.tags().get("Result"), "The result tag should match the movetext");
+    }
+
+    @Test
+    @DisplayName("PGN Import Stores Games With Their Moves In One Call")
+    void testImportKeepsFewStates() throws Exception {
+        MemoryDataAccess backend = new MemoryDataAccess();
+        List<List<GameWrite.MoveWrite>> received = new ArrayList<>();
+        DataAccess recording = new ForwardingDataAccess(backend) {
+            @Override
+            public int[] createGamesWithMoves(List<GameData> games, List<List<GameWrite.MoveWrite>> moves)
+                    throws DataAccessException {
+                received.addAll(moves);
+                return super.createGamesWithMoves(games, moves);
+            }
+
+            @Override
+            public void applyGameWrites(List<GameWrite> writes) {
+                fail("Moves should be stored together with their games");
+            }
+        };
+
+        ChessGame game = new ChessGame();
+        List<String> sans = new ArrayList<>();
+        for (ChessMove move : MoveSequenceCodecTests.randomGame(7, 40)) {
+            sans.add(San.write(game, move));
+        }
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", "Long");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PgnWriter writer = new PgnWriter(Channels.newChannel(out))) {
+            writer.write(new PgnGame(tags, sans, PgnGame.UNKNOWN_RESULT));
+        }
+        assertEquals(1, importText(importer(backend), out.toString(StandardCharsets.UTF_8)).games());
+        importText(new PgnImporter(recording, new PgnImporter.Config(1, 1)), out.toString(StandardCharsets.UTF_8));
+
+        List<GameWrite.MoveWrite> log = received.getFirst();
+        assertEquals(sans.size(), log.size(), "Every move should be stored");
+        for (GameWrite.MoveWrite move : log) {
+            boolean kept = move.ply() % DataAccess.SNAPSHOT_INTERVAL == 0 || move.ply() == log.size();
+            assertEquals(kept, move.stateAfter() != null,
+                    "Only snapshot plies and the last move should carry a position, ply " + move.ply());
+        }
+        assertTrue(log.getLast().stateAfter().isGameOver(), "The last move should finish the game");
+
+        int gameID = backend.listGameSummaries()[1].gameID();
+        GameData stored = backend.getGame(gameID);
+        assertTrue(stored.game().isGameOver(), "Imported games should be finished");
+        assertEquals(game.getBoard(), stored.game().getBoard(), "The final position should be stored");
+        assertEquals(DataAccess.SNAPSHOT_INTERVAL, backend.getSnapshot(gameID, DataAccess.SNAPSHOT_INTERVAL + 1).getPly(),
+                "Snapshots should be taken at the interval");
+    }
+
+    @Test
+    @DisplayName("PGN Writer Output Reads Back")
+    void testWriterReader() throws Exception {
+        List<PgnGame> games = new ArrayList<>();
+        for (long seed = 1; seed <= 20; seed++) {
+            ChessGame game = new ChessGame();
+            List<String> moves = new ArrayList<>();
+            for (ChessMove move : MoveSequenceCodecTests.randomGame(seed, 100)) {
+                moves.add(San.write(game, move));
+            }
+            Map<String, String> tags = new LinkedHashMap<>();
+            tags.put("Event", "Random \"" + seed + "\"");
+            tags.put("Result", PgnGame.UNKNOWN_RESULT);
+            games.add(new PgnGame(tags, moves, PgnGame.UNKNOWN_RESULT));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PgnWriter writer = new PgnWriter(Channels.newChannel(out))) {
+            for (PgnGame game : games) {
+                writer.write(game);
+            }
+        }
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            assertTrue(line.length() <= PgnWriter.LINE_LENGTH, "Lines should be wrapped: " + line);
+        }
+
+        try (PgnReader reader = new PgnReader(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())))) {
+            for (PgnGame expected : games) {
+                assertEquals(expected, PgnReader.parse(reader.nextGame()), "Games should read back as written");
+            }
+            assertNull(reader.nextGame(), "The input should end after the last game");
+        }
+
+        MemoryDataAccess dataAccess = new MemoryDataAccess();
+        StringBuilder many = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            many.append(out.toString(StandardCharsets.UTF_8));
+        }
+        PgnImporter.Result result = importText(new PgnImporter(dataAccess, new PgnImporter.Config(4, 16)),
+                many.toString());
+        System.out.printf("PGN import: %d games, %d moves in %d ms%n", result.games(), result.moves(), result.millis());
+        assertEquals(200, result.games(), "Every written game should import");
+        assertEquals(200, dataAccess.listGameSummaries().length, "Every batch should be stored");
+    }
+}
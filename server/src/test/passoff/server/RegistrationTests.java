@@ -0,0 +1,82 @@
+package passoff.server;
+
+import dataaccess.CachingAuthDataAccess;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.ForwardingDataAccess;
+import dataaccess.LogStructuredDataAccess;
+import dataaccess.MemoryDataAccess;
+import model.AuthData;
+import model.UserData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.Results.RegisterResult;
+import service.UserService;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegistrationTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Register Writes User And Token Together")
+    void testRegisterWithToken() throws DataAccessException {
+        try (LogStructuredDataAccess store = new LogStructuredDataAccess(LogStructuredDataAccess.Config.defaults(directory))) {
+            assertRegisterWithToken(store);
+        }
+        assertRegisterWithToken(new MemoryDataAccess());
+    }
+
+    @Test
+    @DisplayName("Register Makes One Call Without Reading The User")
+    void testRegisterSingleCall() throws DataAccessException {
+        AtomicInteger reads = new AtomicInteger();
+        AtomicInteger separateWrites = new AtomicInteger();
+        DataAccess counting = new ForwardingDataAccess(new MemoryDataAccess()) {
+            @Override
+            public UserData getUser(String username) throws DataAccessException {
+                reads.incrementAndGet();
+                return super.getUser(username);
+            }
+
+            @Override
+            public void createUser(UserData user) throws DataAccessException {
+                separateWrites.incrementAndGet();
+                super.createUser(user);
+            }
+
+            @Override
+            public void createAuth(AuthData auth) throws DataAccessException {
+                separateWrites.incrementAndGet();
+                super.createAuth(auth);
+            }
+        };
+        CachingAuthDataAccess dataAccess = new CachingAuthDataAccess(counting, CachingAuthDataAccess.Config.defaults());
+        UserService userService = new UserService(dataAccess);
+
+        RegisterResult result = userService.register("player", "pass", "p@mail");
+
+        assertEquals(0, reads.get(), "Register should not read the user first");
+        assertEquals(0, separateWrites.get(), "Register should go through registerWithToken");
+        assertEquals("player", dataAccess.getAuth(result.authToken()).username(), "New token should be usable");
+        assertEquals(1, dataAccess.stats().hits(), "New token should already be cached");
+    }
+
+    private static void assertRegisterWithToken(DataAccess dataAccess) throws DataAccessException {
+        dataAccess.registerWithToken(new UserData("player", "pass", "p@mail"), new AuthData("player", "first"));
+        assertNotNull(dataAccess.getUser("player"), "User should be stored");
+        assertEquals("player", dataAccess.getAuth("first").username(), "Token should be stored with the user");
+
+        DataAccessException e = assertThrows(DataAccessException.class,
+                () -> dataAccess.registerWithToken(new UserData("player", "other", "o@mail"), new AuthData("player", "second")),
+                "Taken usernames should be rejected");
+        assertEquals("Username already exists", e.getMessage(), "Duplicate should report the existing user");
+        assertNull(dataAccess.getAuth("second"), "A rejected registration should not leave a token behind");
+    }
+}
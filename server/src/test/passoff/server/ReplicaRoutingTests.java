@@ -0,0 +1,96 @@
+package passoff.server;
+
+import chess.ChessGame;
+import dataaccess.MemoryDataAccess;
+import dataaccess.ReplicaRoutingDataAccess;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplicaRoutingTests {
+
+    private static final ReplicaRoutingDataAccess.Config CONFIG =
+            new ReplicaRoutingDataAccess.Config(1_000, TimeUnit.HOURS.toMillis(1));
+
+    // El test hace de replicación: copia los datos a mano y luego adelanta el latido de la réplica
+    private final AtomicLong clock = new AtomicLong(10_000);
+    private final AtomicLong primaryBeat = new AtomicLong();
+    private final AtomicLong replicaBeat = new AtomicLong();
+
+    private ReplicaRoutingDataAccess router(MemoryDataAccess primary, MemoryDataAccess replica) {
+        return new ReplicaRoutingDataAccess(primary, primaryBeat::set,
+                List.of(new ReplicaRoutingDataAccess.Replica("replica", replica, replicaBeat::get)),
+                CONFIG, clock::get);
+    }
+
+    private void replicate(ReplicaRoutingDataAccess dataAccess) throws Exception {
+        replicaBeat.set(primaryBeat.get());
+        dataAccess.heartbeat();
+    }
+
+    @Test
+    @DisplayName("Reads Go To The Replica Except Right After A Write")
+    void testReadYourWrites() throws Exception {
+        MemoryDataAccess primary = new MemoryDataAccess();
+        MemoryDataAccess replica = new MemoryDataAccess();
+        try (ReplicaRoutingDataAccess dataAccess = router(primary, replica)) {
+            dataAccess.createUser(new UserData("alice", "password", "alice@mail.com"));
+            dataAccess.createAuth(new AuthData("alice", "token"));
+            int gameID = dataAccess.createGame(new GameData(0, "alice", null, "game", new ChessGame()));
+
+            clock.addAndGet(5);
+            dataAccess.heartbeat();
+            assertNotNull(dataAccess.getAuth("token"), "Unreplicated token should be read from the primary");
+            assertNotNull(dataAccess.getGame(gameID), "Unreplicated game should be read from the primary");
+            assertEquals(0, dataAccess.stats().replicaReads(), "Replica has not seen the writes yet");
+
+            replica.createUser(new UserData("alice", "password", "alice@mail.com"));
+            replica.createAuth(new AuthData("alice", "token"));
+            replica.createGame(new GameData(0, "alice", null, "game", new ChessGame()));
+            replicate(dataAccess);
+            assertNotNull(dataAccess.getAuth("token"), "Replicated token should be found on the replica");
+            assertEquals(1, dataAccess.getGamesForUser("alice").length, "Listing should be served by the replica");
+            assertEquals(2, dataAccess.stats().replicaReads(), "Caught up replica should serve reads");
+
+            clock.addAndGet(5);
+            dataAccess.claimSeat(gameID, ChessGame.TeamColor.BLACK, "bob");
+            assertEquals("bob", dataAccess.getGame(gameID).blackUsername(), "Writer should read its own write");
+            assertNotNull(dataAccess.getAuth("token"), "Other keys should still use the replica");
+            ReplicaRoutingDataAccess.Stats stats = dataAccess.stats();
+            assertEquals(3, stats.replicaReads(), "Only the untouched token should come from the replica");
+            assertEquals(1, stats.readYourWrites(), "Read of the fresh write should be counted");
+            assertEquals(2, stats.lagFallbacks(), "Reads before the replica caught up should be counted");
+        }
+    }
+
+    @Test
+    @DisplayName("Lagging Replicas Fall Back To The Primary")
+    void testLagFallback() throws Exception {
+        MemoryDataAccess primary = new MemoryDataAccess();
+        MemoryDataAccess replica = new MemoryDataAccess();
+        try (ReplicaRoutingDataAccess dataAccess = router(primary, replica)) {
+            primary.createUser(new UserData("alice", "password", "alice@mail.com"));
+            replica.createUser(new UserData("alice", "stale", "alice@mail.com"));
+            dataAccess.heartbeat();
+            clock.addAndGet(1);
+            replicate(dataAccess);
+            assertEquals("stale", dataAccess.getUser("alice").password(), "Fresh replica should serve the read");
+
+            clock.addAndGet(CONFIG.maxLagMillis() + 1);
+            dataAccess.heartbeat();
+            assertEquals("password", dataAccess.getUser("alice").password(),
+                    "Replica behind the lag limit should not be read");
+            ReplicaRoutingDataAccess.Stats stats = dataAccess.stats();
+            assertEquals(1, stats.lagFallbacks(), "Fallback should be counted");
+            assertTrue(stats.replicas().get(0).lagMillis() > CONFIG.maxLagMillis(), "Lag should be reported");
+        }
+    }
+}
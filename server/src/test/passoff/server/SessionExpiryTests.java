@@ -0,0 +1,111 @@
+package passoff.server;
+
+import dataaccess.DataAccessException;
+import dataaccess.LogStructuredDataAccess;
+import dataaccess.MemoryDataAccess;
+import dataaccess.SessionExpiryDataAccess;
+import model.AuthData;
+import model.UserData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionExpiryTests {
+
+    private static final long MINUTE = 60_000;
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+    private final SessionExpiryDataAccess.Config config =
+            new SessionExpiryDataAccess.Config(60 * MINUTE, 10 * MINUTE, MINUTE, 3_600_000, 3);
+
+    private MemoryDataAccess dataAccess;
+    private SessionExpiryDataAccess sessions;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        dataAccess = new MemoryDataAccess();
+        sessions = new SessionExpiryDataAccess(dataAccess, config, clock::get);
+        dataAccess.createUser(new UserData("user", "pass", "u@mail"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessions.close();
+    }
+
+    @Test
+    @DisplayName("Idle Tokens Expire And Used Tokens Slide")
+    void testIdleExpiryAndRenewal() throws DataAccessException {
+        sessions.createAuth(new AuthData("user", "busy"));
+        sessions.createAuth(new AuthData("user", "idle"));
+
+        // Usar el token cada 5 minutos lo mantiene vivo más allá del TTL de inactividad
+        for (int i = 0; i < 6; i++) {
+            clock.addAndGet(5 * MINUTE);
+            assertNotNull(sessions.getAuth("busy"), "A token used within the idle TTL should stay valid");
+        }
+        assertNull(sessions.getAuth("idle"), "A token unused for longer than the idle TTL should expire");
+        assertNull(dataAccess.getAuth("idle"), "Expired tokens should be deleted when read");
+        assertEquals(6, sessions.stats().renewals(), "Each use after the renewal threshold should renew once");
+
+        long lastUsed = dataAccess.getAuthSession("busy").lastUsedAt();
+        sessions.getAuth("busy");
+        assertEquals(lastUsed, dataAccess.getAuthSession("busy").lastUsedAt(),
+                "Reads within the renewal threshold should not write");
+    }
+
+    @Test
+    @DisplayName("Absolute TTL Ends Even Active Sessions")
+    void testAbsoluteExpiry() throws DataAccessException {
+        sessions.createAuth(new AuthData("user", "token"));
+        for (int i = 0; i < 12; i++) {
+            clock.addAndGet(5 * MINUTE);
+            assertNotNull(sessions.getAuth("token"), "Token should be valid within the absolute TTL");
+        }
+        clock.addAndGet(MINUTE);
+        assertNull(sessions.getAuth("token"), "Token should expire after the absolute TTL despite being used");
+        assertEquals(1, sessions.stats().expiredOnRead(), "Expiry on read should be counted");
+    }
+
+    @Test
+    @DisplayName("Sweeper Deletes Expired Tokens In Batches")
+    void testBatchedSweep() throws DataAccessException {
+        assertSweep(sessions, dataAccess);
+
+        try (LogStructuredDataAccess store = new LogStructuredDataAccess(LogStructuredDataAccess.Config.defaults(directory))) {
+            store.createUser(new UserData("user", "pass", "u@mail"));
+            SessionExpiryDataAccess logSessions = new SessionExpiryDataAccess(store, config, clock::get);
+            try {
+                assertSweep(logSessions, store);
+            } finally {
+                logSessions.close();
+            }
+        }
+    }
+
+    private void assertSweep(SessionExpiryDataAccess sessions, dataaccess.DataAccess store) throws DataAccessException {
+        for (int i = 0; i < 10; i++) {
+            sessions.createAuth(new AuthData("user", "old" + i + clock.get()));
+        }
+        clock.addAndGet(11 * MINUTE);
+        // Los backends usan la hora real al emitir; el reloj del test va adelantado
+        String fresh = "fresh" + clock.get();
+        sessions.createAuth(new AuthData("user", fresh));
+        store.touchAuth(fresh, clock.get());
+
+        assertEquals(10, sessions.sweep(), "Every expired token should be swept, across several batches");
+        assertEquals(1, store.countAuth(), "Only the fresh token should remain");
+        assertEquals(1, sessions.stats().tokens(), "Table size should be reported after the sweep");
+        assertEquals(0, sessions.sweep(), "A second sweep should find nothing");
+    }
+}
@@ -0,0 +1,118 @@
+package passoff.server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import dataaccess.DataAccess;
+import dataaccess.GameFilter;
+import dataaccess.MemoryDataAccess;
+import dataaccess.ShardMap;
+import dataaccess.ShardedDataAccess;
+import model.GameData;
+import model.GameSummary;
+import model.UserData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardingTests {
+
+    @Test
+    @DisplayName("Shard Map Round Trips Game IDs")
+    void testShardMap() {
+        ShardMap map = new ShardMap(3);
+        for (int shard = 0; shard < 3; shard++) {
+            for (int local = 1; local <= 5; local++) {
+                int global = map.toGlobal(shard, local);
+                assertEquals(shard, map.shardOf(global), "Global ID should map back to its shard");
+                assertEquals(local, map.toLocal(global), "Global ID should map back to its local ID");
+            }
+        }
+        assertEquals(1, map.localCursor(1, 5), "Shard 1 should page after local 1 (global 4)");
+        assertEquals(1, map.localCursor(2, 5), "Shard 2 should page after local 1 (global 5)");
+        assertEquals(2, new ShardMap(1).toGlobal(0, 2), "A single shard should keep local IDs");
+    }
+
+    @Test
+    @DisplayName("Games Spread Across Shards And Route Back")
+    void testRouting() throws Exception {
+        MemoryDataAccess primary = new MemoryDataAccess();
+        List<MemoryDataAccess> shards = List.of(new MemoryDataAccess(), new MemoryDataAccess(), new MemoryDataAccess());
+        try (ShardedDataAccess dataAccess = new ShardedDataAccess(primary, new ArrayList<>(shards))) {
+            dataAccess.createUser(new UserData("white", "password", "white@mail.com"));
+            assertNotNull(primary.getUser("white"), "Users should stay on the primary");
+
+            Set<Integer> ids = new HashSet<>();
+            for (int i = 0; i < 9; i++) {
+                ids.add(dataAccess.createGame(new GameData(0, "white", null, "game" + i, new ChessGame())));
+            }
+            assertEquals(9, ids.size(), "Game IDs should be unique across shards");
+            for (MemoryDataAccess shard : shards) {
+                assertEquals(3, shard.getAllGames().length, "Games should be spread evenly");
+            }
+
+            List<GameData> batch = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                batch.add(new GameData(0, null, null, "batch" + i, new ChessGame()));
+            }
+            int[] batchIDs = dataAccess.createGames(batch);
+            for (int i = 0; i < batchIDs.length; i++) {
+                assertTrue(ids.add(batchIDs[i]), "Batch IDs should not collide with earlier games");
+                assertEquals("batch" + i, dataAccess.getGame(batchIDs[i]).gameName(),
+                        "Batch IDs should come back in the order of the batch");
+            }
+
+            int gameID = ids.iterator().next();
+            ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+            ChessGame game = new ChessGame();
+            game.makeMove(move);
+            dataAccess.appendMove(gameID, 1, move, game);
+            assertTrue(dataAccess.claimSeat(gameID, ChessGame.TeamColor.BLACK, "black"), "Seat should be free");
+
+            GameData stored = dataAccess.getGame(gameID);
+            assertEquals(gameID, stored.gameID(), "Games should come back with their global ID");
+            assertEquals("black", stored.blackUsername(), "Seat claim should reach the owning shard");
+            assertEquals(List.of(move), dataAccess.getMoves(gameID, 0, Integer.MAX_VALUE),
+                    "Moves should be stored on the owning shard");
+            assertEquals(1, dataAccess.getGamesForUser("black").length, "Player listing should span shards");
+        }
+    }
+
+    @Test
+    @DisplayName("Paged Listing Merges Shards In Game ID Order")
+    void testPagedListing() throws Exception {
+        List<DataAccess> shards = List.of(new MemoryDataAccess(), new MemoryDataAccess());
+        try (ShardedDataAccess dataAccess = new ShardedDataAccess(new MemoryDataAccess(), shards)) {
+            for (int i = 0; i < 7; i++) {
+                dataAccess.createGame(new GameData(0, null, null, "game" + i, new ChessGame()));
+            }
+
+            List<Integer> paged = new ArrayList<>();
+            int cursor = 0;
+            GameSummary[] page;
+            do {
+                page = dataAccess.listGameSummaries(cursor, 3, GameFilter.NONE);
+                assertTrue(page.length <= 3, "Pages should respect the limit");
+                for (GameSummary summary : page) {
+                    paged.add(summary.gameID());
+                    cursor = summary.gameID();
+                }
+            } while (page.length == 3);
+
+            List<Integer> all = new ArrayList<>();
+            for (GameSummary summary : dataAccess.listGameSummaries()) {
+                all.add(summary.gameID());
+            }
+            assertEquals(7, all.size(), "Every game should be listed once");
+            assertEquals(all, paged, "Paging should visit every game once in ID order");
+            assertEquals(all.stream().sorted().toList(), all, "Listings should be sorted by global ID");
+            assertTrue(dataAccess.stats().fanOuts() > 0, "Listings should fan out to the shards");
+        }
+    }
+}
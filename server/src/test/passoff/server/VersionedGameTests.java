@@ -0,0 +1,214 @@
+package passoff.server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.ForwardingDataAccess;
+import dataaccess.LogStructuredDataAccess;
+import dataaccess.MemoryDataAccess;
+import dataaccess.VersionedGame;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.GameService;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VersionedGameTests {
+
+    @TempDir
+    Path directory;
+
+    private MemoryDataAccess dataAccess;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        dataAccess = new MemoryDataAccess();
+        dataAccess.createUser(new UserData("white", "pass", "w@mail"));
+        dataAccess.createUser(new UserData("black", "pass", "b@mail"));
+        dataAccess.createAuth(new AuthData("white", "whiteToken"));
+        dataAccess.createAuth(new AuthData("black", "blackToken"));
+    }
+
+    @Test
+    @DisplayName("Stale Version Is Rejected")
+    void testCompareAndSet() throws DataAccessException {
+        assertCompareAndSet(dataAccess);
+
+        LogStructuredDataAccess store = new LogStructuredDataAccess(LogStructuredDataAccess.Config.defaults(directory));
+        int gameID = assertCompareAndSet(store);
+        store.close();
+        try (LogStructuredDataAccess reopened = new LogStructuredDataAccess(LogStructuredDataAccess.Config.defaults(directory))) {
+            assertEquals(2, reopened.getVersionedGame(gameID).version(), "Version should survive a restart");
+        }
+    }
+
+    @Test
+    @DisplayName("Moves Do Not Read The Game")
+    void testMovesSkipGameReads() throws Exception {
+        AtomicInteger gameReads = new AtomicInteger();
+        DataAccess counting = new ForwardingDataAccess(dataAccess) {
+            @Override
+            public GameData getGame(int gameID) throws DataAccessException {
+                gameReads.incrementAndGet();
+                return super.getGame(gameID);
+            }
+
+            @Override
+            public VersionedGame getVersionedGame(int gameID) throws DataAccessException {
+                gameReads.incrementAndGet();
+                return super.getVersionedGame(gameID);
+            }
+        };
+        GameService gameService = new GameService(counting);
+        int gameID = gameService.createGame("whiteToken", "no reads").gameID();
+        gameService.joinGame("whiteToken", gameID, "WHITE");
+        gameService.joinGame("blackToken", gameID, "BLACK");
+
+        gameReads.set(0);
+        gameService.makeMove(gameID, "whiteToken", new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        gameService.makeMove(gameID, "blackToken", new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        gameService.getGameState(gameID, "whiteToken");
+
+        assertEquals(0, gameReads.get(), "Moves and state lookups should be served from the cache");
+        assertEquals(2, dataAccess.getMoves(gameID, 0, Integer.MAX_VALUE).size(), "Both moves should be logged");
+    }
+
+    @Test
+    @DisplayName("Failed Append Leaves No Move Behind")
+    void testFailedAppend() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean();
+        DataAccess flaky = new ForwardingDataAccess(dataAccess) {
+            @Override
+            public void appendMove(int gameID, int ply, ChessMove move, ChessGame stateAfter) throws DataAccessException {
+                if (failing.get()) {
+                    throw new DataAccessException("failed to append move: disk full");
+                }
+                super.appendMove(gameID, ply, move, stateAfter);
+            }
+        };
+        GameService setup = new GameService(dataAccess);
+        int gameID = setup.createGame("whiteToken", "flaky").gameID();
+        setup.joinGame("whiteToken", gameID, "WHITE");
+        setup.joinGame("blackToken", gameID, "BLACK");
+
+        // Un servidor recién arrancado carga la partida en sus dos cachés a la vez
+        GameService gameService = new GameService(flaky);
+        gameService.getGameState(gameID, "whiteToken");
+
+        ChessMove e4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        failing.set(true);
+        assertThrows(DataAccessException.class, () -> gameService.makeMove(gameID, "whiteToken", e4),
+                "The append failure should reach the caller");
+        failing.set(false);
+
+        ChessGame served = gameService.getGameState(gameID, "whiteToken");
+        assertEquals(0, served.getPly(), "The unsaved move should not be served");
+        assertEquals(ChessGame.TeamColor.WHITE, served.getTeamTurn(), "White should still be to move");
+        assertThrows(InvalidMoveException.class, () -> gameService.makeMove(gameID, "blackToken",
+                new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null)),
+                "Black should not move after a move that was never stored");
+
+        gameService.makeMove(gameID, "whiteToken", e4);
+        assertEquals(List.of(e4), dataAccess.getMoves(gameID, 0, Integer.MAX_VALUE),
+                "The retried move should be logged once");
+        assertEquals(dataAccess.getGame(gameID).game(), gameService.getGameState(gameID, "whiteToken"),
+                "The served position should match the stored one");
+    }
+
+    @Test
+    @DisplayName("Stale Node Retries Instead Of Losing Update")
+    void testNoLostUpdateAcrossNodes() throws Exception {
+        GameService nodeA = new GameService(dataAccess);
+        GameService nodeB = new GameService(dataAccess);
+        int gameID = nodeA.createGame("whiteToken", "two nodes").gameID();
+        nodeA.joinGame("whiteToken", gameID, "WHITE");
+        nodeA.joinGame("blackToken", gameID, "BLACK");
+
+        // El nodo B cambia la partida sin que el A se entere
+        nodeB.leaveGame(gameID, "blackToken");
+
+        // El A, con la caché atrasada, no debe devolver a black al asiento
+        nodeA.leaveGame(gameID, "whiteToken");
+
+        GameData stored = dataAccess.getGame(gameID);
+        assertNull(stored.whiteUsername(), "White should have left");
+        assertNull(stored.blackUsername(), "Black's leave must not be overwritten by a stale copy");
+        assertEquals(2 + 2, dataAccess.getVersionedGame(gameID).version(), "Two joins and two leaves should be four versions");
+
+        DataAccessException error = assertThrows(DataAccessException.class,
+                () -> nodeA.resign(gameID, "whiteToken"), "A player who left should not resign");
+        assertTrue(error.getMessage().startsWith("Prohibido"), "Stale node should see the new seats");
+    }
+
+    @Test
+    @DisplayName("Stale Node Rechecks Seats, Turn And Game Over")
+    void testMovesAcrossNodes() throws Exception {
+        try (LogStructuredDataAccess store = new LogStructuredDataAccess(LogStructuredDataAccess.Config.defaults(directory))) {
+            store.createUser(new UserData("white", "pass", "w@mail"));
+            store.createUser(new UserData("black", "pass", "b@mail"));
+            store.createAuth(new AuthData("white", "whiteToken"));
+            store.createAuth(new AuthData("black", "blackToken"));
+            GameService nodeA = new GameService(store);
+            GameService nodeB = new GameService(store);
+            int gameID = nodeA.createGame("whiteToken", "two nodes").gameID();
+            nodeA.joinGame("whiteToken", gameID, "WHITE");
+            nodeB.joinGame("blackToken", gameID, "BLACK");
+
+            // El nodo A no sabe que black se sentó en el B
+            nodeA.makeMove(gameID, "whiteToken", new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+            nodeA.makeMove(gameID, "blackToken", new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+
+            // El nodo B sigue con la posición inicial: para él todavía mueve white
+            nodeB.makeMove(gameID, "whiteToken", new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+            nodeB.makeMove(gameID, "blackToken", new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null));
+            nodeA.makeMove(gameID, "whiteToken", new ChessMove(new ChessPosition(1, 6), new ChessPosition(4, 3), null));
+            assertEquals(5, store.getMoves(gameID, 0, Integer.MAX_VALUE).size(), "Every move should be logged once");
+
+            InvalidMoveException turn = assertThrows(InvalidMoveException.class, () -> nodeA.makeMove(gameID, "whiteToken",
+                    new ChessMove(new ChessPosition(2, 4), new ChessPosition(3, 4), null)), "Fresh state should still apply");
+            assertTrue(turn.getMessage().contains("turno"), "A real out-of-turn move should still be rejected");
+
+            // B termina la partida; A, con su copia en curso, no debe poder seguir jugando
+            nodeB.resign(gameID, "blackToken");
+            InvalidMoveException over = assertThrows(InvalidMoveException.class, () -> nodeA.makeMove(gameID, "blackToken",
+                    new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null)),
+                    "A stale node should not add moves to a finished game");
+            assertTrue(over.getMessage().contains("terminado"), "The move should be rejected as the game is over");
+            assertEquals(5, store.getMoves(gameID, 0, Integer.MAX_VALUE).size(), "No move should follow the resignation");
+        }
+    }
+
+    private static int assertCompareAndSet(DataAccess store) throws DataAccessException {
+        int gameID = store.createGame(new GameData(0, null, null, "cas", new ChessGame()));
+        VersionedGame initial = store.getVersionedGame(gameID);
+        assertEquals(0, initial.version(), "New games should start at version 0");
+
+        assertTrue(store.claimSeat(gameID, ChessGame.TeamColor.WHITE, "white"), "Empty seat should be claimed");
+        assertEquals(1, store.getVersionedGame(gameID).version(), "Claiming a seat should bump the version");
+        assertTrue(store.claimSeat(gameID, ChessGame.TeamColor.WHITE, "white"), "Seat is already held by the same player");
+        assertEquals(1, store.getVersionedGame(gameID).version(), "Re-claiming an owned seat should not bump the version");
+
+        GameData renamed = new GameData(gameID, null, null, "renamed", new ChessGame());
+        assertFalse(store.updateGameIfVersion(gameID, initial.version(), renamed), "Stale version should be rejected");
+        assertEquals("white", store.getGame(gameID).whiteUsername(), "Rejected update should not be written");
+
+        assertTrue(store.updateGameIfVersion(gameID, 1, renamed), "Current version should be accepted");
+        VersionedGame updated = store.getVersionedGame(gameID);
+        assertEquals(2, updated.version(), "Successful update should bump the version");
+        assertEquals("renamed", updated.game().gameName(), "Update should be written");
+        return gameID;
+    }
+}
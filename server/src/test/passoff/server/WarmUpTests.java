@@ -0,0 +1,72 @@
+package passoff.server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.ForwardingDataAccess;
+import dataaccess.MemoryDataAccess;
+import dataaccess.VersionedGame;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.GameService;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WarmUpTests {
+
+    private MemoryDataAccess dataAccess;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        dataAccess = new MemoryDataAccess();
+        dataAccess.createUser(new UserData("white", "pass", "w@mail"));
+        dataAccess.createUser(new UserData("black", "pass", "b@mail"));
+        dataAccess.createAuth(new AuthData("white", "whiteToken"));
+        dataAccess.createAuth(new AuthData("black", "blackToken"));
+    }
+
+    @Test
+    @DisplayName("Unfinished Games Are Listed Newest First")
+    void testListUnfinished() throws DataAccessException {
+        for (int i = 0; i < 4; i++) {
+            dataAccess.createGame(new GameData(0, "white", "black", "game" + i, new ChessGame()));
+        }
+        ChessGame finished = new ChessGame();
+        finished.setGameOver(true);
+        dataAccess.updateGame(2, new GameData(2, "white", "black", "game1", finished));
+
+        assertArrayEquals(new int[]{4, 3, 1}, dataAccess.listUnfinishedGameIDs(10), "Finished games should be skipped");
+        assertArrayEquals(new int[]{4, 3}, dataAccess.listUnfinishedGameIDs(2), "Limit should keep the newest games");
+    }
+
+    @Test
+    @DisplayName("Warm-Up Spares The First Move A Database Load")
+    void testWarmUp() throws Exception {
+        AtomicInteger gameReads = new AtomicInteger();
+        DataAccess counting = new ForwardingDataAccess(dataAccess) {
+            @Override
+            public VersionedGame getVersionedGame(int gameID) throws DataAccessException {
+                gameReads.incrementAndGet();
+                return super.getVersionedGame(gameID);
+            }
+        };
+        for (int i = 0; i < 20; i++) {
+            dataAccess.createGame(new GameData(0, "white", "black", "game" + i, new ChessGame()));
+        }
+        GameService gameService = new GameService(counting);
+
+        assertEquals(20, gameService.warmUp(100), "Every unfinished game should be loaded");
+        assertEquals(20, gameReads.get(), "Each game should be read once during warm-up");
+
+        gameService.makeMove(7, "whiteToken", new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertEquals(20, gameReads.get(), "The first move after warm-up should not read the game");
+    }
+}
@@ -0,0 +1,155 @@
+package passoff.server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import dataaccess.DataAccessException;
+import dataaccess.GameWrite;
+import dataaccess.MemoryDataAccess;
+import dataaccess.WriteBehindDataAccess;
+import model.GameData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindTests {
+
+    private final AtomicInteger batches = new AtomicInteger();
+    private final AtomicBoolean broken = new AtomicBoolean();
+    private MemoryDataAccess backend;
+    private WriteBehindDataAccess writeBehind;
+    private int gameID;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        backend = new MemoryDataAccess() {
+            @Override
+            public void applyGameWrites(List<GameWrite> writes) throws DataAccessException {
+                batches.incrementAndGet();
+                if (broken.get()) {
+                    throw new IllegalStateException("backend bug");
+                }
+                super.applyGameWrites(writes);
+            }
+        };
+        gameID = backend.createGame(new GameData(0, null, null, "queued", new ChessGame()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.close();
+    }
+
+    @Test
+    @DisplayName("Reads See Queued Moves")
+    void testReadsSeeQueuedMoves() throws DataAccessException, InvalidMoveException {
+        writeBehind = new WriteBehindDataAccess(backend,
+                new WriteBehindDataAccess.Config(WriteBehindDataAccess.Durability.ASYNC, 60_000, 1_000, 1_000));
+        ChessGame game = new ChessGame();
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        game.makeMove(move);
+        writeBehind.appendMove(gameID, 1, move, game);
+
+        assertEquals(List.of(move), writeBehind.getMoves(gameID, 0, 1), "Queued moves should be visible to readers");
+        assertEquals(game, writeBehind.getGame(gameID).game(), "Queued state should be visible to readers");
+    }
+
+    @Test
+    @DisplayName("Updates Coalesce Into One Batch")
+    void testUpdatesCoalesce() throws DataAccessException {
+        writeBehind = new WriteBehindDataAccess(backend,
+                new WriteBehindDataAccess.Config(WriteBehindDataAccess.Durability.ASYNC, 60_000, 1_000, 1_000));
+        writeBehind.updateGame(gameID, new GameData(gameID, "white", null, "queued", new ChessGame()));
+        writeBehind.updateGame(gameID, new GameData(gameID, "white", "black", "queued", new ChessGame()));
+        writeBehind.flush();
+
+        assertEquals("black", backend.getGame(gameID).blackUsername(), "The latest update should win");
+        assertEquals(1, batches.get(), "Both updates should be written in one batch");
+        assertEquals(1, writeBehind.stats().coalesced(), "The superseded update should be counted");
+    }
+
+    @Test
+    @DisplayName("Group Commit Reports Failures")
+    void testGroupCommitReportsFailures() throws DataAccessException {
+        writeBehind = new WriteBehindDataAccess(backend,
+                new WriteBehindDataAccess.Config(WriteBehindDataAccess.Durability.GROUP_COMMIT, 1, 100, 1_000));
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        assertThrows(DataAccessException.class, () -> writeBehind.appendMove(gameID, 2, move, new ChessGame()),
+                "A rejected write should fail the caller in group commit mode");
+        assertEquals(1, writeBehind.stats().failedWrites(), "The failed write should be counted");
+        assertEquals(0, writeBehind.stats().droppedWrites(), "The caller was told, so nothing was dropped");
+    }
+
+    @Test
+    @DisplayName("Unexpected Backend Errors Keep The Writer Alive")
+    void testWriterSurvivesRuntimeErrors() throws DataAccessException, InvalidMoveException {
+        writeBehind = new WriteBehindDataAccess(backend,
+                new WriteBehindDataAccess.Config(WriteBehindDataAccess.Durability.GROUP_COMMIT, 1, 100, 1_000));
+        ChessGame game = new ChessGame();
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        game.makeMove(move);
+
+        broken.set(true);
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(DataAccessException.class,
+                () -> writeBehind.appendMove(gameID, 1, move, game), "A backend bug should fail the caller"),
+                "A backend bug should not leave the caller waiting");
+
+        broken.set(false);
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> writeBehind.appendMove(gameID, 1, move, game),
+                "The writer should still be running after the failure");
+        assertEquals(List.of(move), backend.getMoves(gameID, 0, 1), "The retried move should be stored");
+    }
+
+    @Test
+    @DisplayName("Async Failures Force A Reload")
+    void testAsyncFailureForcesReload() throws DataAccessException, InvalidMoveException {
+        writeBehind = new WriteBehindDataAccess(backend,
+                new WriteBehindDataAccess.Config(WriteBehindDataAccess.Durability.ASYNC, 60_000, 1_000, 1_000));
+        ChessGame game = new ChessGame();
+        ChessMove first = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        game.makeMove(first);
+
+        broken.set(true);
+        writeBehind.appendMove(gameID, 1, first, game);
+        writeBehind.flush();
+        broken.set(false);
+        assertTrue(writeBehind.getMoves(gameID, 0, Integer.MAX_VALUE).isEmpty(), "The failed move was not stored");
+        assertEquals(1, writeBehind.stats().droppedWrites(), "The acknowledged move should be counted as dropped");
+        assertEquals(1, writeBehind.stats().lostGames(), "The game should wait for a reload");
+
+        ChessMove second = new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null);
+        game.makeMove(second);
+        DataAccessException e = assertThrows(DataAccessException.class,
+                () -> writeBehind.appendMove(gameID, 2, second, game),
+                "The next move should not be queued on top of the lost one");
+        assertEquals("Move conflict", e.getMessage(), "The caller should be told to reload the game");
+        assertEquals(1, writeBehind.stats().failedWrites(), "The lost write should be counted");
+        assertEquals(0, writeBehind.stats().lostGames(), "The conflict hands the reload to the caller");
+
+        ChessGame reloaded = new ChessGame();
+        reloaded.makeMove(first);
+        writeBehind.appendMove(gameID, 1, first, reloaded);
+        writeBehind.flush();
+        assertEquals(List.of(first), backend.getMoves(gameID, 0, Integer.MAX_VALUE),
+                "After a reload the game should be written again");
+    }
+
+    @Test
+    @DisplayName("Close Flushes Queue")
+    void testCloseFlushesQueue() throws DataAccessException {
+        writeBehind = new WriteBehindDataAccess(backend,
+                new WriteBehindDataAccess.Config(WriteBehindDataAccess.Durability.ASYNC, 60_000, 1_000, 1_000));
+        writeBehind.updateGame(gameID, new GameData(gameID, "white", null, "queued", new ChessGame()));
+        writeBehind.close();
+        assertEquals("white", backend.getGame(gameID).whiteUsername(), "Closing should write the pending update");
+    }
+}
@@ -14,6 +14,7 @@ public class ChessGame {
     private ChessBoard board;
     private TeamColor teamTurn;
     private boolean isGameOver;
+    private int ply;
 
     public ChessGame() {
         board = new ChessBoard();
@@ -100,6 +101,22 @@ public class ChessGame {
         isGameOver = gameOver;
     }
 
+    /**
+     * @return the number of half-moves played so far in this game
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Sets the half-move counter, used when a game is rebuilt from storage
+     *
+     * @param ply the number of half-moves already played
+     */
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+
     /**
      * Makes a move in a chess game
      *
@@ -163,6 +180,7 @@ public class ChessGame {
         }
 
         teamTurn = (teamTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        ply++;
     }
 
     /**
@@ -0,0 +1,268 @@
+package json;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Streaming adapters for the chess types. They write the same JSON that Gson's reflective
+ * adapters wrote from the private fields, so stored games and clients keep working.
+ */
+final class ChessAdapters {
+
+    private static final ChessGame.TeamColor[] COLORS = ChessGame.TeamColor.values();
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    // Casillas [fila - 1][columna - 1], para no crear 64 posiciones por tablero
+    private static final ChessPosition[][] SQUARES = new ChessPosition[8][8];
+
+    static {
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                SQUARES[row][col] = new ChessPosition(row + 1, col + 1);
+            }
+        }
+    }
+
+    // Después de las tablas: PieceAdapter las usa al construirse
+    static final PositionAdapter POSITION = new PositionAdapter();
+    static final PieceAdapter PIECE = new PieceAdapter();
+    static final MoveAdapter MOVE = new MoveAdapter();
+    static final BoardAdapter BOARD = new BoardAdapter();
+    static final GameAdapter GAME = new GameAdapter();
+
+    private ChessAdapters() {
+    }
+
+    static final class PositionAdapter extends TypeAdapter<ChessPosition> {
+
+        @Override
+        public void write(JsonWriter out, ChessPosition position) throws IOException {
+            if (position == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("row").value(position.getRow());
+            out.name("col").value(position.getColumn());
+            out.endObject();
+        }
+
+        @Override
+        public ChessPosition read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            int row = 0;
+            int col = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "row" -> row = in.nextInt();
+                    case "col" -> col = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ChessPosition(row, col);
+        }
+    }
+
+    /**
+     * Pieces are immutable, so reading hands out one shared instance per color and type.
+     */
+    static final class PieceAdapter extends TypeAdapter<ChessPiece> {
+
+        private final ChessPiece[] pieces = new ChessPiece[COLORS.length * TYPES.length];
+
+        private PieceAdapter() {
+            for (ChessGame.TeamColor color : COLORS) {
+                for (ChessPiece.PieceType type : TYPES) {
+                    pieces[color.ordinal() * TYPES.length + type.ordinal()] = new ChessPiece(color, type);
+                }
+            }
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessPiece piece) throws IOException {
+            if (piece == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("pieceColor").value(JsonCodecs.name(piece.getTeamColor()));
+            out.name("type").value(JsonCodecs.name(piece.getPieceType()));
+            out.endObject();
+        }
+
+        @Override
+        public ChessPiece read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ChessGame.TeamColor color = null;
+            ChessPiece.PieceType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "pieceColor" -> color = JsonCodecs.readEnum(in, ChessGame.TeamColor.class);
+                    case "type" -> type = JsonCodecs.readEnum(in, ChessPiece.PieceType.class);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return color != null && type != null
+                    ? pieces[color.ordinal() * TYPES.length + type.ordinal()]
+                    : new ChessPiece(color, type);
+        }
+    }
+
+    static final class MoveAdapter extends TypeAdapter<ChessMove> {
+
+        @Override
+        public void write(JsonWriter out, ChessMove move) throws IOException {
+            if (move == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("startPosition");
+            POSITION.write(out, move.getStartPosition());
+            out.name("endPosition");
+            POSITION.write(out, move.getEndPosition());
+            out.name("promotionPiece").value(JsonCodecs.name(move.getPromotionPiece()));
+            out.endObject();
+        }
+
+        @Override
+        public ChessMove read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ChessPosition start = null;
+            ChessPosition end = null;
+            ChessPiece.PieceType promotion = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "startPosition" -> start = POSITION.read(in);
+                    case "endPosition" -> end = POSITION.read(in);
+                    case "promotionPiece" -> promotion = JsonCodecs.readEnum(in, ChessPiece.PieceType.class);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ChessMove(start, end, promotion);
+        }
+    }
+
+    /**
+     * The board is an 8x8 array of pieces indexed [row - 1][column - 1], with null for
+     * empty squares.
+     */
+    static final class BoardAdapter extends TypeAdapter<ChessBoard> {
+
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            if (board == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("board");
+            out.beginArray();
+            for (ChessPosition[] row : SQUARES) {
+                out.beginArray();
+                for (ChessPosition square : row) {
+                    PIECE.write(out, board.getPiece(square));
+                }
+                out.endArray();
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ChessBoard board = new ChessBoard();
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!in.nextName().equals("board") || in.peek() == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
+                }
+                in.beginArray();
+                for (int row = 0; in.hasNext(); row++) {
+                    in.beginArray();
+                    for (int col = 0; in.hasNext(); col++) {
+                        ChessPiece piece = PIECE.read(in);
+                        if (piece != null) {
+                            if (row >= 8 || col >= 8) {
+                                throw new JsonParseException("piece outside the board at " + in.getPath());
+                            }
+                            board.addPiece(SQUARES[row][col], piece);
+                        }
+                    }
+                    in.endArray();
+                }
+                in.endArray();
+            }
+            in.endObject();
+            return board;
+        }
+    }
+
+    static final class GameAdapter extends TypeAdapter<ChessGame> {
+
+        @Override
+        public void write(JsonWriter out, ChessGame game) throws IOException {
+            if (game == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("board");
+            BOARD.write(out, game.getBoard());
+            out.name("teamTurn").value(JsonCodecs.name(game.getTeamTurn()));
+            out.name("isGameOver").value(game.isGameOver());
+            out.name("ply").value(game.getPly());
+            out.endObject();
+        }
+
+        @Override
+        public ChessGame read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ChessGame game = new ChessGame();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "board" -> game.setBoard(BOARD.read(in));
+                    case "teamTurn" -> game.setTeamTurn(JsonCodecs.readEnum(in, ChessGame.TeamColor.class));
+                    case "isGameOver" -> game.setGameOver(in.nextBoolean());
+                    case "ply" -> game.setPly(in.nextInt());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return game;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package json;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+import model.UserData;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ServerMessage;
+
+import java.io.IOException;
+
+/**
+ * The one {@link Gson} used by server and client. Chess, model and WebSocket types are
+ * written and read by hand-written streaming adapters instead of reflection, producing the
+ * same JSON; anything else, such as request and response records, still goes through
+ * Gson's reflective adapters, which reuse these for nested games and summaries.
+ * <p>
+ * Gson instances are thread-safe and cache the adapters they build, so callers should share
+ * this one rather than create their own.
+ */
+public final class JsonCodecs {
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(ChessPosition.class, ChessAdapters.POSITION)
+            .registerTypeAdapter(ChessPiece.class, ChessAdapters.PIECE)
+            .registerTypeAdapter(ChessMove.class, ChessAdapters.MOVE)
+            .registerTypeAdapter(ChessBoard.class, ChessAdapters.BOARD)
+            .registerTypeAdapter(ChessGame.class, ChessAdapters.GAME)
+            .registerTypeAdapter(GameData.class, ModelAdapters.GAME_DATA)
+            .registerTypeAdapter(GameSummary.class, ModelAdapters.GAME_SUMMARY)
+            .registerTypeAdapter(AuthData.class, ModelAdapters.AUTH_DATA)
+            .registerTypeAdapter(UserData.class, ModelAdapters.USER_DATA)
+            .registerTypeHierarchyAdapter(UserGameCommand.class, WebSocketAdapters.COMMAND)
+            .registerTypeHierarchyAdapter(ServerMessage.class, WebSocketAdapters.MESSAGE)
+            .enableComplexMapKeySerialization()
+            .create();
+
+    private JsonCodecs() {
+    }
+
+    public static Gson gson() {
+        return GSON;
+    }
+
+    static String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+
+    /**
+     * Reads an enum constant by name. Unknown names read as null, as with Gson's own enum
+     * adapter.
+     */
+    static <E extends Enum<E>> E readEnum(JsonReader in, Class<E> type) throws IOException {
+        String name = readString(in);
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static Integer readInteger(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    static String readString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+}
@@ -0,0 +1,186 @@
+package json;
+
+import chess.ChessGame;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+import model.UserData;
+
+import java.io.IOException;
+
+/**
+ * Streaming adapters for the records in {@code model}, named after their components.
+ */
+final class ModelAdapters {
+
+    static final GameDataAdapter GAME_DATA = new GameDataAdapter();
+    static final GameSummaryAdapter GAME_SUMMARY = new GameSummaryAdapter();
+    static final AuthDataAdapter AUTH_DATA = new AuthDataAdapter();
+    static final UserDataAdapter USER_DATA = new UserDataAdapter();
+
+    private ModelAdapters() {
+    }
+
+    static final class GameDataAdapter extends TypeAdapter<GameData> {
+
+        @Override
+        public void write(JsonWriter out, GameData game) throws IOException {
+            if (game == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("gameID").value(game.gameID());
+            out.name("whiteUsername").value(game.whiteUsername());
+            out.name("blackUsername").value(game.blackUsername());
+            out.name("gameName").value(game.gameName());
+            out.name("game");
+            ChessAdapters.GAME.write(out, game.game());
+            out.endObject();
+        }
+
+        @Override
+        public GameData read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Integer gameID = null;
+            String white = null;
+            String black = null;
+            String name = null;
+            ChessGame game = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "gameID" -> gameID = JsonCodecs.readInteger(in);
+                    case "whiteUsername" -> white = JsonCodecs.readString(in);
+                    case "blackUsername" -> black = JsonCodecs.readString(in);
+                    case "gameName" -> name = JsonCodecs.readString(in);
+                    case "game" -> game = ChessAdapters.GAME.read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new GameData(gameID, white, black, name, game);
+        }
+    }
+
+    static final class GameSummaryAdapter extends TypeAdapter<GameSummary> {
+
+        @Override
+        public void write(JsonWriter out, GameSummary game) throws IOException {
+            if (game == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("gameID").value(game.gameID());
+            out.name("whiteUsername").value(game.whiteUsername());
+            out.name("blackUsername").value(game.blackUsername());
+            out.name("gameName").value(game.gameName());
+            out.endObject();
+        }
+
+        @Override
+        public GameSummary read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Integer gameID = null;
+            String white = null;
+            String black = null;
+            String name = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "gameID" -> gameID = JsonCodecs.readInteger(in);
+                    case "whiteUsername" -> white = JsonCodecs.readString(in);
+                    case "blackUsername" -> black = JsonCodecs.readString(in);
+                    case "gameName" -> name = JsonCodecs.readString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new GameSummary(gameID, white, black, name);
+        }
+    }
+
+    static final class AuthDataAdapter extends TypeAdapter<AuthData> {
+
+        @Override
+        public void write(JsonWriter out, AuthData auth) throws IOException {
+            if (auth == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("username").value(auth.username());
+            out.name("authToken").value(auth.authToken());
+            out.endObject();
+        }
+
+        @Override
+        public AuthData read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String username = null;
+            String authToken = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "username" -> username = JsonCodecs.readString(in);
+                    case "authToken" -> authToken = JsonCodecs.readString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new AuthData(username, authToken);
+        }
+    }
+
+    static final class UserDataAdapter extends TypeAdapter<UserData> {
+
+        @Override
+        public void write(JsonWriter out, UserData user) throws IOException {
+            if (user == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("username").value(user.username());
+            out.name("password").value(user.password());
+            out.name("email").value(user.email());
+            out.endObject();
+        }
+
+        @Override
+        public UserData read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String username = null;
+            String password = null;
+            String email = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "username" -> username = JsonCodecs.readString(in);
+                    case "password" -> password = JsonCodecs.readString(in);
+                    case "email" -> email = JsonCodecs.readString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new UserData(username, password, email);
+        }
+    }
+}
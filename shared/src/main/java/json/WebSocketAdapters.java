@@ -0,0 +1,135 @@
+package json;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import websocket.commands.ConnectCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.ServerMessage;
+import websocket.messages.ServerMessageError;
+import websocket.messages.ServerMessageNotification;
+
+import java.io.IOException;
+
+/**
+ * Streaming adapters for the WebSocket commands and messages. Each covers its whole class
+ * hierarchy: a message is read once into the subclass its type names, so handlers no
+ * longer parse the same text twice to get at subclass fields.
+ */
+final class WebSocketAdapters {
+
+    static final CommandAdapter COMMAND = new CommandAdapter();
+    static final MessageAdapter MESSAGE = new MessageAdapter();
+
+    private WebSocketAdapters() {
+    }
+
+    static final class CommandAdapter extends TypeAdapter<UserGameCommand> {
+
+        @Override
+        public void write(JsonWriter out, UserGameCommand command) throws IOException {
+            if (command == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (command instanceof ConnectCommand connect) {
+                out.name("playerColor").value(JsonCodecs.name(connect.getPlayerColor()));
+            }
+            if (command instanceof MakeMoveCommand makeMove) {
+                out.name("move");
+                ChessAdapters.MOVE.write(out, makeMove.getMove());
+            }
+            out.name("authToken").value(command.getAuthString());
+            out.name("commandType").value(JsonCodecs.name(command.getCommandType()));
+            out.name("gameID").value(command.getGameID());
+            out.endObject();
+        }
+
+        @Override
+        public UserGameCommand read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String authToken = null;
+            UserGameCommand.CommandType type = null;
+            Integer gameID = null;
+            ChessGame.TeamColor playerColor = null;
+            ChessMove move = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "authToken" -> authToken = JsonCodecs.readString(in);
+                    case "commandType" -> type = JsonCodecs.readEnum(in, UserGameCommand.CommandType.class);
+                    case "gameID" -> gameID = JsonCodecs.readInteger(in);
+                    case "playerColor" -> playerColor = JsonCodecs.readEnum(in, ChessGame.TeamColor.class);
+                    case "move" -> move = ChessAdapters.MOVE.read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (type == UserGameCommand.CommandType.CONNECT) {
+                return new ConnectCommand(authToken, gameID, playerColor);
+            }
+            if (type == UserGameCommand.CommandType.MAKE_MOVE) {
+                return new MakeMoveCommand(authToken, gameID, move);
+            }
+            return new UserGameCommand(type, authToken, gameID);
+        }
+    }
+
+    static final class MessageAdapter extends TypeAdapter<ServerMessage> {
+
+        @Override
+        public void write(JsonWriter out, ServerMessage message) throws IOException {
+            if (message == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("serverMessageType").value(JsonCodecs.name(message.getServerMessageType()));
+            out.name("errorMessage").value(message.getErrorMessage());
+            out.name("message").value(message.getMessage());
+            out.name("game");
+            ChessAdapters.GAME.write(out, message.getGame());
+            out.endObject();
+        }
+
+        @Override
+        public ServerMessage read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ServerMessage.ServerMessageType type = null;
+            String errorMessage = null;
+            String message = null;
+            ChessGame game = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "serverMessageType" -> type = JsonCodecs.readEnum(in, ServerMessage.ServerMessageType.class);
+                    case "errorMessage" -> errorMessage = JsonCodecs.readString(in);
+                    case "message" -> message = JsonCodecs.readString(in);
+                    case "game" -> game = ChessAdapters.GAME.read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (type == null) {
+                return new ServerMessage((ServerMessage.ServerMessageType) null);
+            }
+            return switch (type) {
+                case LOAD_GAME -> new LoadGameMessage(game);
+                case ERROR -> new ServerMessageError(errorMessage);
+                case NOTIFICATION -> new ServerMessageNotification(message);
+            };
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package model;
+
+/**
+ * Game metadata without the board, used wherever games are listed.
+ */
+public record GameSummary(Integer gameID, String whiteUsername, String blackUsername, String gameName) {
+
+}